@@ -40,6 +40,11 @@ class ExecuteTest extends GroovyTestCase {
 	private static final String MULTI_TYPE_PROJECT = "projects/multitype/project.halex"
 	private static final String MULTI_TYPE_DATA = "projects/multitype/multi-type-source.xml"
 
+	private static final String MERGE_PROJECT = "projects/merge/project.halex"
+	private static final String MERGE_DATA_A = "projects/merge/rivers-a.xml"
+	private static final String MERGE_DATA_B = "projects/merge/rivers-b.xml"
+	private static final String MERGE_DATA_SINGLE = "projects/merge/rivers-single.xml"
+
 
 	// XXX Doesn't work -> private static final String METADATA_PATH = "platform:/plugin/$PLUGIN_NAME/projects/gmdMD_Metadata.xml"
 	// works, same as absolute path does
@@ -790,6 +795,116 @@ class ExecuteTest extends GroovyTestCase {
 		validateHydro(targetFile, '1234')
 	}
 
+	/**
+	 * Test merging instances from two XML sources with the same instance IDs
+	 * (the index in the stream), with replaying the sources enabled.
+	 */
+	void testMergeMultipleSourcesReplay() {
+		File targetFile =  File.createTempFile('transform-merge', '.xml')
+		targetFile.deleteOnExit()
+		println ">> Transformed data will be written to ${targetFile}..."
+
+		transform([
+			//
+			'-project',
+			getProjectURI(MERGE_PROJECT).toString(),
+			//
+			'-source',
+			getProjectURI(MERGE_DATA_A).toString(),
+			//
+			'-source',
+			getProjectURI(MERGE_DATA_B).toString(),
+			//
+			'-replaySources',
+			//
+			'-target',
+			targetFile.absolutePath,
+			//
+			'-providerId',
+			'eu.esdihumboldt.hale.io.xml.writer',
+			//
+			'-Sxml.rootElement.name',
+			'collection' //
+		]) { //
+			File output, int code ->
+			// check exit code
+			assert code == 0
+		}
+
+		validateMerge(targetFile)
+	}
+
+	/**
+	 * Test merging instances from a single XML source with replaying the
+	 * source enabled, compared to using the temporary database.
+	 */
+	void testMergeSingleSourceReplay() {
+		File dbTargetFile = transformMergeSingle(false)
+		File replayTargetFile = transformMergeSingle(true)
+
+		validateMerge(dbTargetFile)
+		validateMerge(replayTargetFile)
+		assert readMerged(replayTargetFile) == readMerged(dbTargetFile)
+	}
+
+	private File transformMergeSingle(boolean replaySources) {
+		File targetFile =  File.createTempFile('transform-merge', '.xml')
+		targetFile.deleteOnExit()
+		println ">> Transformed data will be written to ${targetFile}..."
+
+		List<String> args = [
+			//
+			'-project',
+			getProjectURI(MERGE_PROJECT).toString(),
+			//
+			'-source',
+			getProjectURI(MERGE_DATA_SINGLE).toString(),
+			//
+			'-target',
+			targetFile.absolutePath,
+			//
+			'-providerId',
+			'eu.esdihumboldt.hale.io.xml.writer',
+			//
+			'-Sxml.rootElement.name',
+			'collection' //
+		]
+		if (replaySources) {
+			args << '-replaySources'
+		}
+
+		transform(args) { //
+			File output, int code ->
+			// check exit code
+			assert code == 0
+		}
+
+		targetFile
+	}
+
+	@CompileStatic(TypeCheckingMode.SKIP)
+	private void validateMerge(File targetFile) {
+		// check written file
+		def root = new XmlSlurper().parse(targetFile)
+		// check container
+		assert root.name() == 'collection'
+		// check merged instances
+		assert root.watercourse.size() == 3
+		assert readMerged(targetFile) == [
+			river1: ['river1name1'] as Set,
+			river2: ['river2name1', 'river2name2'] as Set,
+			river3: ['river3name1'] as Set
+		]
+	}
+
+	@CompileStatic(TypeCheckingMode.SKIP)
+	private Map<String, Set<String>> readMerged(File targetFile) {
+		def root = new XmlSlurper().parse(targetFile)
+		root.watercourse.collectEntries { wc ->
+			[(wc.id.text()): wc.name*.text().toSet()]
+		}
+	}
+
 	/**
 	 * Test transformation with a project from haleconnect.com.
 	 *
@@ -24,6 +24,7 @@ import org.w3c.dom.Document
 import org.w3c.dom.Element
 import org.xml.sax.SAXException
 
+import eu.esdihumboldt.hale.common.align.transformation.service.TransformationOptions
 import eu.esdihumboldt.hale.common.app.AbstractApplication
 import eu.esdihumboldt.hale.common.core.io.Value
 import eu.esdihumboldt.hale.common.core.io.impl.ElementValue
@@ -153,6 +154,10 @@ $baseCommand
      -overallFilterContext
      -statisticsOut <statistics-file>
      -successEvaluation <file-or-URI-to-script>
+     -transformationThreads <number-of-threads|max>
+     -preserveOrder
+     -replaySources
+     -singlePassScan
 
   Sources
     You can provide multiple sources for the transformation. If the source is a
@@ -181,6 +186,26 @@ $baseCommand
     filters is shared for all sources. The filter context can for instance be
     used in groovy: filters.
 
+  Parallel transformation
+    The option -transformationThreads sets the number of threads used to
+    execute property transformations, "max" uses all available processors.
+    By default property transformations are executed on a single thread.
+    When using multiple threads, the order of the transformed instances may
+    differ between runs, unless -preserveOrder is specified.
+
+  Reading sources
+    If the alignment requires indexes of the source data (e.g. for Join or
+    Merge), the source data is by default loaded into a temporary database.
+    With -replaySources the source data is instead read again as needed and
+    only the indexes are built in advance. This is recommended for large
+    XML/GML sources. It is ignored if multiple sources are provided, as
+    instance IDs are only unique per source.
+    With -singlePassScan the source data is read only once for all type
+    relations that handle each source instance individually (e.g. Retype),
+    instead of once per type relation. Relations like Join or Merge are still
+    executed separately, in that case type relation priorities only apply to
+    them.
+
   Providing arguments as file
     You can also specify the arguments in a file using the -argsFile
     parameter. Each line in the file is interpreted as a separate argument.
@@ -341,6 +366,19 @@ $baseCommand
 				executionContext.successEvaluationScript = fileOrUri(value)
 				break
 
+			case '-transformationThreads':
+			// number of property transformation threads
+				if (value == 'max') {
+					executionContext.transformationThreads = TransformationOptions.getMaxThreads()
+				}
+				else if (value.isInteger() && value.toInteger() > 0) {
+					executionContext.transformationThreads = value.toInteger()
+				}
+				else {
+					warn("Illegal value for -transformationThreads: $value")
+				}
+				break
+
 			case '-preset':
 			// the target preset
 				executionContext.preset = value
@@ -512,6 +550,15 @@ $baseCommand
 			case '-overallFilterContext':
 				executionContext.filters.globalContext = true
 				break
+			case '-preserveOrder':
+				executionContext.preserveOrder = true
+				break
+			case '-replaySources':
+				executionContext.replaySources = true
+				break
+			case '-singlePassScan':
+				executionContext.singlePassScan = true
+				break
 		}
 	}
 
@@ -112,6 +112,30 @@ class ExecContext {
 	 */
 	URI successEvaluationScript
 
+	/**
+	 * Number of threads to use for property transformations, <code>null</code>
+	 * for the default.
+	 */
+	Integer transformationThreads
+
+	/**
+	 * If the order of transformed instances should be preserved when using
+	 * multiple transformation threads.
+	 */
+	boolean preserveOrder = false
+
+	/**
+	 * If the source should be read again instead of loading it into a
+	 * temporary database.
+	 */
+	boolean replaySources = false
+
+	/**
+	 * If the source should be read only once for all type cells that don't
+	 * partition the source instances.
+	 */
+	boolean singlePassScan = false
+
 	/**
 	 * Filters apply on all sources commonly
 	 */
@@ -44,6 +44,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 
@@ -437,8 +438,9 @@ public class ExecTransformation implements ConsoleConstants {
 	private int transform() throws InterruptedException, ExecutionException {
 		status("Running hale transformation...");
 
-		TransformationSettings settings = new DefaultTransformationSettings();
-		// TODO make settings configurable?
+		TransformationSettings settings = new DefaultTransformationSettings(Optional.empty(),
+				Optional.ofNullable(context.getTransformationThreads()),
+				context.isPreserveOrder(), context.isReplaySources(), context.isSinglePassScan());
 
 		// run transformation
 		ListenableFuture<Boolean> res = Transformation.transform(sources, target, env,
@@ -152,7 +152,8 @@ public class DefaultTransformationReporter extends AbstractReporter<Transformati
 	}
 
 	/**
-	 * Organizes transformation messages.
+	 * Organizes transformation messages. Access is synchronized, as messages
+	 * may be reported from multiple transformation threads.
 	 */
 	public class TMessages {
 
@@ -168,7 +169,7 @@ public class DefaultTransformationReporter extends AbstractReporter<Transformati
 		 * 
 		 * @param message the message to add
 		 */
-		public void add(TransformationMessage message) {
+		public synchronized void add(TransformationMessage message) {
 			String cell = message.getCellId();
 			Multiset<TMessageKey> msgs = messages.get(cell);
 
@@ -192,7 +193,7 @@ public class DefaultTransformationReporter extends AbstractReporter<Transformati
 		 * 
 		 * @return the messages
 		 */
-		public Collection<TransformationMessage> getMessages() {
+		public synchronized Collection<TransformationMessage> getMessages() {
 			Collection<TransformationMessage> result = new ArrayList<TransformationMessage>();
 
 			for (Multiset<TMessageKey> msgs : messages.values()) {
@@ -222,14 +223,14 @@ public class DefaultTransformationReporter extends AbstractReporter<Transformati
 		 * 
 		 * @param more the number of messages to add
 		 */
-		public void addMore(int more) {
+		public synchronized void addMore(int more) {
 			more += more;
 		}
 
 		/**
 		 * @return the count of messages represented
 		 */
-		public int getMessageCount() {
+		public synchronized int getMessageCount() {
 			int count = more;
 
 			for (Multiset<TMessageKey> msgs : messages.values()) {
@@ -245,7 +246,7 @@ public class DefaultTransformationReporter extends AbstractReporter<Transformati
 		 * 
 		 * @return if there are any messages present
 		 */
-		public boolean hasMessages() {
+		public synchronized boolean hasMessages() {
 			return !messages.isEmpty() || more > 0;
 		}
 	}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.align.transformation.service;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * Options controlling how a {@link TransformationService} executes a
+ * transformation.
+ * 
+ * @since 5.1
+ */
+@Immutable
+public class TransformationOptions {
+
+	/**
+	 * The default options, executing property transformations sequentially on
+	 * the calling thread.
+	 */
+	public static final TransformationOptions DEFAULT = new TransformationOptions(1, false);
+
+	private final int propertyTransformationThreads;
+
+	private final boolean preserveOrder;
+
+	private final boolean singlePassScan;
+
+	/**
+	 * Create transformation options.
+	 * 
+	 * @param propertyTransformationThreads the number of worker threads to use
+	 *            for property transformations, <code>1</code> or less means
+	 *            property transformations are executed on the calling thread,
+	 *            values higher than {@link #getMaxThreads()} are capped
+	 * @param preserveOrder if target instances should be handed to the
+	 *            instance sink in the order they were published, even if
+	 *            property transformations are executed in parallel
+	 * @param singlePassScan if the source instances should be read only once
+	 *            for all type cells that don't need to partition the source
+	 *            instances
+	 */
+	public TransformationOptions(int propertyTransformationThreads, boolean preserveOrder,
+			boolean singlePassScan) {
+		super();
+		this.propertyTransformationThreads = Math.max(1,
+				Math.min(propertyTransformationThreads, getMaxThreads()));
+		this.preserveOrder = preserveOrder;
+		this.singlePassScan = singlePassScan;
+	}
+
+	/**
+	 * Create transformation options.
+	 * 
+	 * @param propertyTransformationThreads the number of worker threads to use
+	 *            for property transformations, <code>1</code> or less means
+	 *            property transformations are executed on the calling thread,
+	 *            values higher than {@link #getMaxThreads()} are capped
+	 * @param preserveOrder if target instances should be handed to the
+	 *            instance sink in the order they were published, even if
+	 *            property transformations are executed in parallel
+	 */
+	public TransformationOptions(int propertyTransformationThreads, boolean preserveOrder) {
+		this(propertyTransformationThreads, preserveOrder, false);
+	}
+
+	/**
+	 * @return the number of worker threads to use for property
+	 *         transformations, <code>1</code> means property transformations
+	 *         are executed on the calling thread
+	 */
+	public int getPropertyTransformationThreads() {
+		return propertyTransformationThreads;
+	}
+
+	/**
+	 * @return if property transformations are executed in worker threads
+	 */
+	public boolean isParallel() {
+		return propertyTransformationThreads > 1;
+	}
+
+	/**
+	 * @return if target instances should be handed to the instance sink in the
+	 *         order they were published
+	 */
+	public boolean isPreserveOrder() {
+		return preserveOrder;
+	}
+
+	/**
+	 * States if the source instances should be read only once for all type
+	 * cells that handle each source instance on its own (e.g. Retype), instead
+	 * of once per type cell. Type cells that partition the source instances
+	 * (e.g. Merge or Join) are still executed separately. In this mode type
+	 * cell priorities only define the order among the separately executed
+	 * cells.
+	 * 
+	 * @return if the source instances should be read in a single pass
+	 */
+	public boolean isSinglePassScan() {
+		return singlePassScan;
+	}
+
+	/**
+	 * @return the maximum number of worker threads, which is the number of
+	 *         available processors
+	 */
+	public static int getMaxThreads() {
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+}
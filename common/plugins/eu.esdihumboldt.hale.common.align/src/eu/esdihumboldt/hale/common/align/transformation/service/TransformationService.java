@@ -45,6 +45,26 @@ public interface TransformationService {
 			InstanceSink target, ServiceProvider serviceProvider,
 			ProgressIndicator progressIndicator);
 
+	/**
+	 * Transform a set of source instances according to the given alignment,
+	 * using the given transformation options. The default implementation
+	 * ignores the options.
+	 * 
+	 * @param alignment the alignment
+	 * @param source the source instances
+	 * @param target the transformed instance sink, must be thread safe
+	 * @param serviceProvider provider for services that can be accessed by
+	 *            transformation functions in context of the transformation
+	 * @param progressIndicator the progress indicator
+	 * @param options the transformation options
+	 * @return the transformation report
+	 */
+	default TransformationReport transform(Alignment alignment, InstanceCollection source,
+			InstanceSink target, ServiceProvider serviceProvider,
+			ProgressIndicator progressIndicator, TransformationOptions options) {
+		return transform(alignment, source, target, serviceProvider, progressIndicator);
+	}
+
 	/**
 	 * States if the execution of the transformation is cancelable.
 	 * 
@@ -36,6 +36,7 @@ import eu.esdihumboldt.hale.common.core.io.Value;
 import eu.esdihumboldt.hale.common.core.io.report.IOReport;
 import eu.esdihumboldt.hale.common.core.io.report.IOReporter;
 import eu.esdihumboldt.hale.common.core.service.ServiceProvider;
+import io.prometheus.client.Histogram;
 
 /**
  * Abstract base class for implementing {@link IOProvider}s
@@ -104,8 +105,16 @@ public abstract class AbstractIOProvider implements IOProvider {
 	@Override
 	public IOReport execute(ProgressIndicator progress)
 			throws IOProviderConfigurationException, IOException {
-		return execute((progress == null) ? (new LogProgressIndicator()) : (progress),
-				createReporter());
+		IOProviderMetrics metrics = IOProviderMetrics.get();
+		Histogram.Timer timer = (metrics != null) ? (metrics.startExecution(this)) : (null);
+		try {
+			return execute((progress == null) ? (new LogProgressIndicator()) : (progress),
+					createReporter());
+		} finally {
+			if (timer != null) {
+				metrics.endExecution(this, timer);
+			}
+		}
 	}
 
 	/**
@@ -59,6 +59,13 @@ public abstract class GZipEnabledExport extends AbstractExportProvider {
 			return target.getLocation();
 		}
 
+		/**
+		 * @return the wrapped LocatableOutputSupplier
+		 */
+		public LocatableOutputSupplier<? extends OutputStream> getTarget() {
+			return target;
+		}
+
 	}
 
 	/**
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.core.io.impl;
+
+import eu.esdihumboldt.hale.common.core.io.IOProvider;
+import eu.esdihumboldt.util.metrics.CollectorRegistryService;
+import eu.esdihumboldt.util.metrics.MetricsProvider;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
+
+/**
+ * Prometheus metrics of I/O provider executions, labeled with the provider
+ * class and the action. Metrics are only collected if metric collection is
+ * enabled, see {@link CollectorRegistryService}.
+ */
+class IOProviderMetrics implements MetricsProvider {
+
+	private static final String LABEL_PROVIDER = "provider";
+	private static final String LABEL_ACTION = "action";
+
+	private static final IOProviderMetrics INSTANCE = CollectorRegistryService.DEFAULT
+			.registerIfEnabled(IOProviderMetrics::new);
+
+	/**
+	 * Get the I/O provider metrics.
+	 * 
+	 * @return the I/O provider metrics or <code>null</code> if metric
+	 *         collection is disabled
+	 */
+	public static IOProviderMetrics get() {
+		return INSTANCE;
+	}
+
+	private final Histogram executionSeconds = Histogram.build()
+			.name("hale_io_provider_execution_seconds")
+			.help("Execution time of I/O providers, e.g. for reading or writing instances.")
+			.labelNames(LABEL_PROVIDER, LABEL_ACTION)
+			.buckets(0.01, 0.1, 0.5, 1, 5, 10, 30, 60, 300, 600, 1800, 3600).create();
+
+	private final Gauge activeExecutions = Gauge.build().name("hale_io_provider_active")
+			.help("The number of I/O providers currently being executed.")
+			.labelNames(LABEL_PROVIDER, LABEL_ACTION).create();
+
+	/**
+	 * Start measuring the execution of an I/O provider.
+	 * 
+	 * @param provider the I/O provider
+	 * @return the timer to stop when the execution is complete
+	 */
+	public Histogram.Timer startExecution(IOProvider provider) {
+		String[] labels = labels(provider);
+		activeExecutions.labels(labels).inc();
+		return executionSeconds.labels(labels).startTimer();
+	}
+
+	/**
+	 * Stop measuring the execution of an I/O provider.
+	 * 
+	 * @param provider the I/O provider
+	 * @param timer the timer returned by {@link #startExecution(IOProvider)}
+	 */
+	public void endExecution(IOProvider provider, Histogram.Timer timer) {
+		timer.observeDuration();
+		activeExecutions.labels(labels(provider)).dec();
+	}
+
+	private static String[] labels(IOProvider provider) {
+		String action = provider.getActionId();
+		return new String[] { provider.getClass().getName(), (action != null) ? (action) : ("") };
+	}
+
+	@Override
+	public void bindTo(CollectorRegistry registry) {
+		executionSeconds.register(registry);
+		activeExecutions.register(registry);
+	}
+
+}
@@ -21,6 +21,11 @@ import org.junit.Ignore
 import org.junit.Test
 
 import eu.esdihumboldt.hale.common.align.model.impl.TypeEntityDefinition
+import eu.esdihumboldt.hale.common.instance.groovy.InstanceBuilder
+import eu.esdihumboldt.hale.common.instance.model.Instance
+import eu.esdihumboldt.hale.common.schema.groovy.SchemaBuilder
+import eu.esdihumboldt.hale.common.schema.model.Schema
+import groovy.transform.CompileDynamic
 import groovy.transform.CompileStatic
 
 /**
@@ -254,6 +259,31 @@ class CQLFilterTest extends AbstractFilterTest {
 		assertTrue(filter("age = '31'").match(max))
 	}
 
+	@CompileDynamic
+	@Test
+	void testNumberStringTypes() {
+		// same filter evaluated on types with a different binding
+		Schema textSchema = new SchemaBuilder().schema('http://www.my.namespace') {
+			Person {
+				name()
+				age()
+			}
+		}
+		Instance textMax = new InstanceBuilder(types: textSchema).Person {
+			name 'Max Mustermann'
+			age '31'
+		}
+
+		def numberFilter = filter("age = 31")
+		def stringFilter = filter("age = '31'")
+		for (Instance instance : [max, textMax, maxNoSchema]) {
+			assertTrue(numberFilter.match(instance))
+			assertTrue(stringFilter.match(instance))
+			assertTrue(filter("age >= '31'").match(instance))
+			assertFalse(filter("age > '31'").match(instance))
+		}
+	}
+
 	@Test
 	void testNumberList() {
 		// Behavior: only one occurrence in the list of values needs to match
@@ -18,6 +18,7 @@ package eu.esdihumboldt.hale.common.filter;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 import javax.xml.namespace.QName;
@@ -27,6 +28,9 @@ import org.geotools.filter.text.cql2.CQLException;
 import org.opengis.filter.Filter;
 import org.opengis.filter.expression.PropertyName;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import de.fhg.igd.slf4jplus.ALogger;
 import de.fhg.igd.slf4jplus.ALoggerFactory;
 import eu.esdihumboldt.hale.common.align.groovy.accessor.EntityAccessor;
@@ -36,9 +40,11 @@ import eu.esdihumboldt.hale.common.align.instance.EntityAwareFilter;
 import eu.esdihumboldt.hale.common.align.migrate.AlignmentMigration;
 import eu.esdihumboldt.hale.common.align.model.EntityDefinition;
 import eu.esdihumboldt.hale.common.core.report.SimpleLog;
+import eu.esdihumboldt.hale.common.filter.internal.CompilingFilterVisitor;
 import eu.esdihumboldt.hale.common.filter.internal.EntityReplacementVisitor;
 import eu.esdihumboldt.hale.common.instance.helper.PropertyResolver;
 import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
 import eu.esdihumboldt.util.groovy.paths.Path;
 
 /**
@@ -57,6 +63,13 @@ public abstract class AbstractGeotoolsFilter
 	private final String filterTerm;
 	private final Filter internFilter;
 
+	/**
+	 * Filters compiled per instance type. Types are compared by identity and
+	 * only weakly referenced.
+	 */
+	private final Cache<TypeDefinition, Filter> compiledFilters = CacheBuilder.newBuilder()
+			.weakKeys().build();
+
 	/**
 	 * Create a Geotools based filter.
 	 * 
@@ -101,6 +114,15 @@ public abstract class AbstractGeotoolsFilter
 
 	@Override
 	public boolean match(Instance instance) {
+		TypeDefinition type = instance.getDefinition();
+		if (type != null) {
+			try {
+				return compiledFilters.get(type, () -> compileFilter(type)).evaluate(instance);
+			} catch (ExecutionException e) {
+				log.error("Compiling filter for type " + type.getName() + " failed", e);
+			}
+		}
+
 		PropertyResolver.isLastQueryPathUnique(); // reset the information on
 													// the last query
 		try {
@@ -112,6 +134,30 @@ public abstract class AbstractGeotoolsFilter
 		}
 	}
 
+	/**
+	 * Compile the filter for evaluation on instances of the given type.
+	 * Property names are resolved once against the type and evaluated
+	 * directly on the instance properties (see {@link CompilingFilterVisitor}).
+	 * 
+	 * @param type the instance type
+	 * @return the compiled filter, the internal filter if compiling it fails
+	 */
+	private Filter compileFilter(TypeDefinition type) {
+		try {
+			CompilingFilterVisitor visitor = new CompilingFilterVisitor(type);
+			Filter compiled = (Filter) internFilter.accept(visitor, null);
+			if (!visitor.isUnique()) {
+				log.warn("Filter with non-unique definition path for type " + type.getName()
+						+ ": " + filterTerm);
+			}
+			return compiled;
+		} catch (Exception e) {
+			log.warn("Filter could not be compiled for type " + type.getName() + ": "
+					+ filterTerm, e);
+			return internFilter;
+		}
+	}
+
 	/**
 	 * Get the ECQL expression the filter is based on.
 	 * 
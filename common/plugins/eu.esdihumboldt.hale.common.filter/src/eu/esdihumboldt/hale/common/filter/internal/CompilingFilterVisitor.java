@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.filter.internal;
+
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.geotools.filter.visitor.DuplicatingFilterVisitor;
+import org.geotools.util.Converters;
+import org.opengis.filter.BinaryComparisonOperator;
+import org.opengis.filter.PropertyIsBetween;
+import org.opengis.filter.PropertyIsEqualTo;
+import org.opengis.filter.PropertyIsGreaterThan;
+import org.opengis.filter.PropertyIsGreaterThanOrEqualTo;
+import org.opengis.filter.PropertyIsLessThan;
+import org.opengis.filter.PropertyIsLessThanOrEqualTo;
+import org.opengis.filter.PropertyIsNotEqualTo;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.PropertyName;
+
+import eu.esdihumboldt.hale.common.instance.helper.PropertyResolver;
+import eu.esdihumboldt.hale.common.schema.model.ChildDefinition;
+import eu.esdihumboldt.hale.common.schema.model.DefinitionUtil;
+import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.Binding;
+
+/**
+ * Filter visitor that compiles a filter for evaluation on instances of a
+ * specific type. Property names are replaced by {@link ResolvedPropertyName}s
+ * and string literals compared to numeric or boolean properties are converted
+ * to the property binding once, if the conversion is lossless.
+ */
+public class CompilingFilterVisitor extends DuplicatingFilterVisitor {
+
+	private final TypeDefinition type;
+
+	private boolean unique = true;
+
+	/**
+	 * Create a visitor compiling a filter for the given type.
+	 * 
+	 * @param type the type of the instances the filter will be evaluated on
+	 */
+	public CompilingFilterVisitor(TypeDefinition type) {
+		this.type = type;
+	}
+
+	/**
+	 * @return if all property names of the visited filter could be resolved
+	 *         to a unique property path
+	 */
+	public boolean isUnique() {
+		return unique;
+	}
+
+	@Override
+	public Object visit(PropertyName expression, Object extraData) {
+		String name = expression.getPropertyName();
+		if (name == null || name.isEmpty()) {
+			return super.visit(expression, extraData);
+		}
+
+		List<List<QName>> paths = PropertyResolver.getQueryPaths(type, null, name);
+		if (paths.size() > 1) {
+			unique = false;
+		}
+
+		return new ResolvedPropertyName(name, paths, getBinding(paths));
+	}
+
+	@Override
+	public Object visit(PropertyIsEqualTo filter, Object extraData) {
+		Expression[] operands = visitOperands(filter, extraData);
+		return getFactory(extraData).equal(operands[0], operands[1], filter.isMatchingCase(),
+				filter.getMatchAction());
+	}
+
+	@Override
+	public Object visit(PropertyIsNotEqualTo filter, Object extraData) {
+		Expression[] operands = visitOperands(filter, extraData);
+		return getFactory(extraData).notEqual(operands[0], operands[1], filter.isMatchingCase(),
+				filter.getMatchAction());
+	}
+
+	@Override
+	public Object visit(PropertyIsGreaterThan filter, Object extraData) {
+		Expression[] operands = visitOperands(filter, extraData);
+		return getFactory(extraData).greater(operands[0], operands[1], filter.isMatchingCase(),
+				filter.getMatchAction());
+	}
+
+	@Override
+	public Object visit(PropertyIsGreaterThanOrEqualTo filter, Object extraData) {
+		Expression[] operands = visitOperands(filter, extraData);
+		return getFactory(extraData).greaterOrEqual(operands[0], operands[1],
+				filter.isMatchingCase(), filter.getMatchAction());
+	}
+
+	@Override
+	public Object visit(PropertyIsLessThan filter, Object extraData) {
+		Expression[] operands = visitOperands(filter, extraData);
+		return getFactory(extraData).less(operands[0], operands[1], filter.isMatchingCase(),
+				filter.getMatchAction());
+	}
+
+	@Override
+	public Object visit(PropertyIsLessThanOrEqualTo filter, Object extraData) {
+		Expression[] operands = visitOperands(filter, extraData);
+		return getFactory(extraData).lessOrEqual(operands[0], operands[1],
+				filter.isMatchingCase(), filter.getMatchAction());
+	}
+
+	@Override
+	public Object visit(PropertyIsBetween filter, Object extraData) {
+		Expression expr = visit(filter.getExpression(), extraData);
+		Expression lower = convertLiteral(visit(filter.getLowerBoundary(), extraData), expr,
+				extraData);
+		Expression upper = convertLiteral(visit(filter.getUpperBoundary(), extraData), expr,
+				extraData);
+		return getFactory(extraData).between(expr, lower, upper, filter.getMatchAction());
+	}
+
+	private Expression[] visitOperands(BinaryComparisonOperator filter, Object extraData) {
+		Expression expr1 = visit(filter.getExpression1(), extraData);
+		Expression expr2 = visit(filter.getExpression2(), extraData);
+		return new Expression[] { convertLiteral(expr1, expr2, extraData),
+				convertLiteral(expr2, expr1, extraData) };
+	}
+
+	/**
+	 * Convert a string literal compared to a numeric or boolean property to
+	 * the property binding. The literal is only converted if converting the
+	 * result back to a string yields the original string, so the comparison
+	 * result does not change.
+	 * 
+	 * @param expr the expression to convert
+	 * @param other the expression it is compared to
+	 * @param extraData the visitor extra data
+	 * @return the converted literal or the original expression
+	 */
+	private Expression convertLiteral(Expression expr, Expression other, Object extraData) {
+		if (!(expr instanceof Literal) || !(other instanceof ResolvedPropertyName)) {
+			return expr;
+		}
+
+		Object value = ((Literal) expr).getValue();
+		Class<?> binding = ((ResolvedPropertyName) other).getBinding();
+		if (!(value instanceof String) || binding == null
+				|| !(Number.class.isAssignableFrom(binding) || Boolean.class.equals(binding))) {
+			return expr;
+		}
+
+		Object converted = Converters.convert(value, binding);
+		if (converted != null && value.equals(Converters.convert(converted, String.class))) {
+			return getFactory(extraData).literal(converted);
+		}
+		return expr;
+	}
+
+	/**
+	 * Determine the common binding of the properties the given paths point to.
+	 * 
+	 * @param paths the property paths
+	 * @return the binding or <code>null</code> if there is no common binding
+	 */
+	private Class<?> getBinding(List<List<QName>> paths) {
+		Class<?> result = null;
+		for (List<QName> path : paths) {
+			ChildDefinition<?> child = null;
+			for (QName name : path) {
+				child = (child == null) ? (DefinitionUtil.getChild(type, name))
+						: (DefinitionUtil.getChild(child, name));
+				if (child == null) {
+					return null;
+				}
+			}
+
+			if (child == null || child.asProperty() == null) {
+				return null;
+			}
+			Class<?> binding = child.asProperty().getPropertyType().getConstraint(Binding.class)
+					.getBinding();
+			if (result != null && !result.equals(binding)) {
+				return null;
+			}
+			result = binding;
+		}
+		return result;
+	}
+
+}
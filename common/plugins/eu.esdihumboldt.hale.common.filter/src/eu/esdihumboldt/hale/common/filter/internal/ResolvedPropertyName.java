@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.filter.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.geotools.filter.AttributeExpressionImpl;
+import org.geotools.util.Converters;
+
+import eu.esdihumboldt.hale.common.instance.helper.PropertyResolver;
+import eu.esdihumboldt.hale.common.instance.model.Group;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.schema.geometry.GeometryProperty;
+
+/**
+ * Property name with the property paths already resolved for a specific
+ * type. Values are retrieved by following the resolved paths directly instead
+ * of resolving the property name with the {@link PropertyResolver} for each
+ * evaluation. The values yielded are the same as those of the instance
+ * property accessor.
+ */
+public class ResolvedPropertyName extends AttributeExpressionImpl {
+
+	private final List<List<QName>> paths;
+
+	private final Class<?> binding;
+
+	/**
+	 * Create a resolved property name.
+	 * 
+	 * @param propertyName the property name
+	 * @param paths the fully qualified property paths the name was resolved to
+	 * @param binding the common binding of the properties the paths point to,
+	 *            <code>null</code> if unknown
+	 */
+	public ResolvedPropertyName(String propertyName, List<List<QName>> paths, Class<?> binding) {
+		super(propertyName);
+		this.paths = paths;
+		this.binding = binding;
+	}
+
+	/**
+	 * @return the common binding of the properties the paths point to,
+	 *         <code>null</code> if unknown
+	 */
+	public Class<?> getBinding() {
+		return binding;
+	}
+
+	@Override
+	public Object evaluate(Object obj) {
+		return evaluate(obj, null);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T evaluate(Object obj, Class<T> target) {
+		if (!(obj instanceof Instance)) {
+			return super.evaluate(obj, target);
+		}
+
+		Object value = getValue((Instance) obj);
+		if (target == null) {
+			return (T) value;
+		}
+		return Converters.convert(value, target);
+	}
+
+	private Object getValue(Instance instance) {
+		List<Object> values = new ArrayList<>();
+		for (List<QName> path : paths) {
+			collectValues(instance, path, 0, values);
+		}
+
+		if (values.isEmpty()) {
+			/*
+			 * No values -> return null. This is required for instance for the
+			 * IS NULL filter. It treats a list always as not null.
+			 */
+			return null;
+		}
+		else if (values.size() == 1) {
+			/*
+			 * Always yield single value if there is only a single value. This
+			 * is required for instance for the IS NULL filter. It does not
+			 * work on lists.
+			 */
+			return unwrap(values.get(0));
+		}
+
+		for (int i = 0; i < values.size(); i++) {
+			values.set(i, unwrap(values.get(i)));
+		}
+		return values;
+	}
+
+	private static void collectValues(Group parent, List<QName> path, int index,
+			List<Object> values) {
+		Object[] props = parent.getProperty(path.get(index));
+		if (props == null) {
+			return;
+		}
+
+		boolean last = index == path.size() - 1;
+		for (Object prop : props) {
+			if (!last) {
+				if (prop instanceof Group) {
+					collectValues((Group) prop, path, index + 1, values);
+				}
+			}
+			else if (prop instanceof Instance) {
+				values.add(((Instance) prop).getValue());
+			}
+			else if (!(prop instanceof Group)) {
+				values.add(prop);
+			}
+		}
+	}
+
+	private static Object unwrap(Object value) {
+		if (value instanceof GeometryProperty) {
+			// a Geometry is usually expected in Geotools filters
+			return ((GeometryProperty<?>) value).getGeometry();
+		}
+		return value;
+	}
+
+}
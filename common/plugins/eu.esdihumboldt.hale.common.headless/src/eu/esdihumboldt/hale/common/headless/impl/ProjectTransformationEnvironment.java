@@ -28,6 +28,7 @@ import com.google.common.base.Strings;
 
 import de.fhg.igd.slf4jplus.ALogger;
 import de.fhg.igd.slf4jplus.ALoggerFactory;
+import de.fhg.igd.slf4jplus.ATransaction;
 import eu.esdihumboldt.hale.common.align.model.Alignment;
 import eu.esdihumboldt.hale.common.align.service.FunctionService;
 import eu.esdihumboldt.hale.common.align.service.TransformationFunctionService;
@@ -198,8 +199,14 @@ public class ProjectTransformationEnvironment implements TransformationEnvironme
 
 			HeadlessProjectAdvisor advisor = new HeadlessProjectAdvisor(reportHandler,
 					serviceProvider, additionalAdvisors);
-			HeadlessIO.executeProvider(reader, advisor, null, reportHandler);
-			// XXX progress???!!
+			// log the time needed to load the project including its resources
+			ATransaction trans = log.begin("Load project");
+			try {
+				HeadlessIO.executeProvider(reader, advisor, null, reportHandler);
+				// XXX progress???!!
+			} finally {
+				trans.end();
+			}
 
 			project = advisor.getProject();
 			sourceSchema = advisor.getSourceSchema();
@@ -26,14 +26,77 @@ public class DefaultTransformationSettings implements TransformationSettings {
 
 	private final Optional<Boolean> useTemporaryDatabase;
 
+	private final Optional<Integer> propertyTransformationThreads;
+
+	private final boolean preserveOrder;
+
+	private final boolean replaySources;
+
+	private final boolean singlePassScan;
+
 	/**
 	 * Create with custom settings.
 	 * 
 	 * @param useTemporaryDatabase if the temporary database should be used
+	 * @param propertyTransformationThreads the number of threads to use for
+	 *            property transformations
+	 * @param preserveOrder if the order of transformed instances should be
+	 *            preserved
+	 * @param replaySources if the source should be read again instead of using
+	 *            a temporary database
+	 * @param singlePassScan if the source should be read in a single pass for
+	 *            all type cells that don't partition the source instances
 	 */
-	public DefaultTransformationSettings(Optional<Boolean> useTemporaryDatabase) {
+	public DefaultTransformationSettings(Optional<Boolean> useTemporaryDatabase,
+			Optional<Integer> propertyTransformationThreads, boolean preserveOrder,
+			boolean replaySources, boolean singlePassScan) {
 		super();
 		this.useTemporaryDatabase = useTemporaryDatabase;
+		this.propertyTransformationThreads = propertyTransformationThreads;
+		this.preserveOrder = preserveOrder;
+		this.replaySources = replaySources;
+		this.singlePassScan = singlePassScan;
+	}
+
+	/**
+	 * Create with custom settings.
+	 * 
+	 * @param useTemporaryDatabase if the temporary database should be used
+	 * @param propertyTransformationThreads the number of threads to use for
+	 *            property transformations
+	 * @param preserveOrder if the order of transformed instances should be
+	 *            preserved
+	 * @param replaySources if the source should be read again instead of using
+	 *            a temporary database
+	 */
+	public DefaultTransformationSettings(Optional<Boolean> useTemporaryDatabase,
+			Optional<Integer> propertyTransformationThreads, boolean preserveOrder,
+			boolean replaySources) {
+		this(useTemporaryDatabase, propertyTransformationThreads, preserveOrder, replaySources,
+				false);
+	}
+
+	/**
+	 * Create with custom settings.
+	 * 
+	 * @param useTemporaryDatabase if the temporary database should be used
+	 * @param propertyTransformationThreads the number of threads to use for
+	 *            property transformations
+	 * @param preserveOrder if the order of transformed instances should be
+	 *            preserved
+	 */
+	public DefaultTransformationSettings(Optional<Boolean> useTemporaryDatabase,
+			Optional<Integer> propertyTransformationThreads, boolean preserveOrder) {
+		this(useTemporaryDatabase, propertyTransformationThreads, preserveOrder, false);
+	}
+
+	/**
+	 * Create with custom settings.
+	 * 
+	 * @param useTemporaryDatabase if the temporary database should be used
+	 */
+	public DefaultTransformationSettings(Optional<Boolean> useTemporaryDatabase) {
+		this(useTemporaryDatabase, Optional.empty(), false);
 	}
 
 	/**
@@ -48,4 +111,24 @@ public class DefaultTransformationSettings implements TransformationSettings {
 		return useTemporaryDatabase;
 	}
 
+	@Override
+	public Optional<Integer> propertyTransformationThreads() {
+		return propertyTransformationThreads;
+	}
+
+	@Override
+	public boolean preserveOrder() {
+		return preserveOrder;
+	}
+
+	@Override
+	public boolean replaySources() {
+		return replaySources;
+	}
+
+	@Override
+	public boolean singlePassScan() {
+		return singlePassScan;
+	}
+
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.headless.transform;
+
+import java.text.MessageFormat;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+import de.fhg.igd.slf4jplus.ALogger;
+import de.fhg.igd.slf4jplus.ALoggerFactory;
+import eu.esdihumboldt.hale.common.core.report.Message;
+import eu.esdihumboldt.hale.common.core.report.ReportHandler;
+import eu.esdihumboldt.hale.common.core.report.impl.DefaultReporter;
+import eu.esdihumboldt.hale.common.core.report.impl.MessageImpl;
+import eu.esdihumboldt.hale.common.core.service.ServiceProvider;
+import eu.esdihumboldt.hale.common.instance.index.InstanceIndexService;
+import eu.esdihumboldt.hale.common.instance.model.Identifiable;
+import eu.esdihumboldt.hale.common.instance.model.IdentifiableInstanceReference;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.model.InstanceCollection;
+import eu.esdihumboldt.hale.common.instance.model.InstanceReference;
+import eu.esdihumboldt.hale.common.instance.model.ResolvableInstanceReference;
+import eu.esdihumboldt.hale.common.instance.model.ResourceIterator;
+import eu.esdihumboldt.hale.common.instance.model.impl.InstanceDecorator;
+import eu.esdihumboldt.hale.common.instance.model.impl.InstanceReferenceDecorator;
+import eu.esdihumboldt.hale.common.instance.model.impl.PseudoInstanceReference;
+import eu.esdihumboldt.hale.common.instance.processing.InstanceProcessingExtension;
+import eu.esdihumboldt.hale.common.instance.processing.InstanceProcessor;
+
+/**
+ * Job that reads the source instances once to populate the instance index and
+ * the instance processors (e.g. the spatial index), as an alternative to
+ * loading the source instances into a temporary database.<br>
+ * <br>
+ * Only the index information and references to the instances are retained,
+ * the instances themselves are read again from the source when they are
+ * transformed or resolved. This requires that the source collection provides
+ * references that do not hold the instance (which is the case for instances
+ * read from XML/GML) and that instance IDs are unique across the whole source,
+ * which is not the case if the source is combined from multiple XML/GML
+ * sources.
+ */
+public class SourceIndexJob extends AbstractTransformationJob {
+
+	private static final ALogger log = ALoggerFactory.getLogger(SourceIndexJob.class);
+
+	/**
+	 * Task type identifier.
+	 */
+	public static final String TASK_TYPE = "eu.esdihumboldt.hale.transform.index";
+
+	private final InstanceCollection sources;
+
+	private final ServiceProvider serviceProvider;
+
+	private final ReportHandler reportHandler;
+
+	/**
+	 * Create a job that indexes the source instances.
+	 * 
+	 * @param sources the source instances, references to instances are created
+	 *            and resolved using this collection
+	 * @param serviceProvider the service provider in the transformation context
+	 * @param reportHandler the report handler
+	 */
+	public SourceIndexJob(InstanceCollection sources, ServiceProvider serviceProvider,
+			ReportHandler reportHandler) {
+		super("Index source instances");
+
+		this.sources = sources;
+		this.serviceProvider = serviceProvider;
+		this.reportHandler = reportHandler;
+
+		setUser(true);
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		boolean exactProgress = sources.hasSize();
+		monitor.beginTask("Index source instances",
+				(exactProgress) ? (sources.size()) : (IProgressMonitor.UNKNOWN));
+
+		DefaultReporter<Message> report = new DefaultReporter<>("Index source instances",
+				TASK_TYPE, Message.class, false);
+
+		InstanceIndexService indexService = serviceProvider
+				.getService(InstanceIndexService.class);
+		List<InstanceProcessor> processors = new InstanceProcessingExtension(serviceProvider)
+				.getInstanceProcessors();
+
+		long count = 0;
+		boolean warnedPseudoReference = false;
+		try (ResourceIterator<Instance> it = sources.iterator()) {
+			while (it.hasNext() && !monitor.isCanceled()) {
+				Instance instance = it.next();
+
+				InstanceReference ref = sources.getReference(instance);
+				if (!warnedPseudoReference && InstanceReferenceDecorator
+						.getRootReference(ref) instanceof PseudoInstanceReference) {
+					// references holding the instance -> all instances are
+					// kept in memory
+					log.warn(
+							"Source instances are referenced in memory, consider using the temporary database instead");
+					warnedPseudoReference = true;
+				}
+
+				// use the same ID index based functions use to identify the
+				// instances they process
+				Instance root = InstanceDecorator.getRoot(instance);
+				if (Identifiable.is(root)) {
+					ref = new IdentifiableInstanceReference(ref, Identifiable.getId(root));
+				}
+				ResolvableInstanceReference resolvableRef = new ResolvableInstanceReference(ref,
+						sources);
+
+				processors.forEach(p -> p.process(instance, resolvableRef));
+				if (indexService != null) {
+					indexService.add(instance, resolvableRef);
+				}
+
+				count++;
+				if (exactProgress) {
+					monitor.worked(1);
+				}
+			}
+		} catch (RuntimeException e) {
+			report.error(new MessageImpl("Error indexing source instances", e));
+			report.setSuccess(false);
+			reportHandler.publishReport(report);
+			throw e;
+		}
+
+		String message = MessageFormat.format("Indexed {0} source instances.", count);
+		report.setSuccess(!monitor.isCanceled());
+		report.setSummary(message);
+		reportHandler.publishReport(report);
+
+		monitor.done();
+
+		return new Status((monitor.isCanceled()) ? (IStatus.CANCEL) : (IStatus.OK),
+				"eu.esdihumboldt.hale.common.headless", message);
+	}
+
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.headless.transform;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.fhg.igd.slf4jplus.ALogger;
+import de.fhg.igd.slf4jplus.ALoggerFactory;
+import eu.esdihumboldt.hale.common.core.io.impl.GZipEnabledExport.GZipOutputSupplier;
+import eu.esdihumboldt.hale.common.core.io.impl.GZipEnabledImport.GZipInputSupplier;
+import eu.esdihumboldt.hale.common.core.io.impl.LogProgressIndicator;
+import eu.esdihumboldt.hale.common.core.io.report.IOReport;
+import eu.esdihumboldt.hale.common.core.io.supplier.Locatable;
+import eu.esdihumboldt.hale.common.core.io.supplier.LocatableInputSupplier;
+import eu.esdihumboldt.hale.common.core.io.supplier.LocatableOutputSupplier;
+import eu.esdihumboldt.hale.common.core.service.ServiceProvider;
+import eu.esdihumboldt.hale.common.instance.io.InstanceValidator;
+import eu.esdihumboldt.hale.common.instance.io.InstanceWriter;
+
+/**
+ * Validation of the data written by an instance writer while it is being
+ * written. The data written to the writer target is copied to a pipe that is
+ * read by the validator on a separate thread.
+ * 
+ * @see InstanceValidator#isStreamingSupported()
+ */
+class StreamingValidation {
+
+	private static final ALogger log = ALoggerFactory.getLogger(StreamingValidation.class);
+
+	/**
+	 * Size of the pipe buffer. The writer is blocked if the validator falls
+	 * behind by more than this.
+	 */
+	private static final int PIPE_SIZE = 1024 * 1024;
+
+	/**
+	 * Output supplier copying the data written to the first output stream it
+	 * provides to the pipes of the given streaming validations.
+	 */
+	private static class TeeOutputSupplier implements LocatableOutputSupplier<OutputStream> {
+
+		private final LocatableOutputSupplier<? extends OutputStream> target;
+
+		private final Collection<StreamingValidation> validations;
+
+		private final AtomicBoolean connected = new AtomicBoolean();
+
+		public TeeOutputSupplier(LocatableOutputSupplier<? extends OutputStream> target,
+				Collection<StreamingValidation> validations) {
+			this.target = target;
+			this.validations = validations;
+		}
+
+		@Override
+		public OutputStream getOutput() throws IOException {
+			OutputStream out = target.getOutput();
+			if (connected.compareAndSet(false, true)) {
+				return new TeeOutputStream(out, validations);
+			}
+			return out;
+		}
+
+		@Override
+		public URI getLocation() {
+			return target.getLocation();
+		}
+
+	}
+
+	/**
+	 * Output stream writing to the target stream and the pipes of streaming
+	 * validations. Failing to write to a pipe, e.g. because the validator
+	 * stopped reading, does not affect writing to the target stream. Before
+	 * the first data is passed on to the validators, the validation schemas
+	 * are retrieved from the writer on the writing thread.
+	 */
+	private static class TeeOutputStream extends OutputStream {
+
+		private final OutputStream out;
+
+		private final List<StreamingValidation> validations;
+
+		private boolean schemasCaptured = false;
+
+		public TeeOutputStream(OutputStream out, Collection<StreamingValidation> validations) {
+			this.out = out;
+			this.validations = new ArrayList<>(validations);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			captureSchemas();
+			for (int i = validations.size() - 1; i >= 0; i--) {
+				try {
+					validations.get(i).output.write(b);
+				} catch (IOException e) {
+					validations.remove(i).close();
+				}
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			captureSchemas();
+			for (int i = validations.size() - 1; i >= 0; i--) {
+				try {
+					validations.get(i).output.write(b, off, len);
+				} catch (IOException e) {
+					validations.remove(i).close();
+				}
+			}
+		}
+
+		private void captureSchemas() {
+			if (!schemasCaptured) {
+				schemasCaptured = true;
+				for (StreamingValidation validation : validations) {
+					validation.captureSchemas();
+				}
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				out.close();
+			} finally {
+				for (StreamingValidation validation : validations) {
+					validation.close();
+				}
+				validations.clear();
+			}
+		}
+
+	}
+
+	/**
+	 * Set up validating the data written by the given writer while it is
+	 * written, for the validators that support it. Must be called before the
+	 * writer is executed.
+	 * 
+	 * @param writer the instance writer
+	 * @param validators the validators to set up streaming validation for,
+	 *            validators that do not support streaming are ignored
+	 * @param serviceProvider the service provider
+	 * @return the streaming validations
+	 */
+	public static List<StreamingValidation> connect(InstanceWriter writer,
+			Collection<InstanceValidator> validators, ServiceProvider serviceProvider) {
+		List<StreamingValidation> validations = new ArrayList<>();
+		for (InstanceValidator validator : validators) {
+			if (validator.isStreamingSupported()) {
+				try {
+					validations.add(new StreamingValidation(validator, writer, serviceProvider));
+				} catch (IOException e) {
+					log.error("Could not set up validation while writing", e);
+				}
+			}
+		}
+
+		if (!validations.isEmpty()) {
+			// compression is applied by the writer based on the content type,
+			// the validator decompresses the data accordingly
+			LocatableOutputSupplier<? extends OutputStream> target = writer.getTarget();
+			if (target instanceof GZipOutputSupplier) {
+				target = ((GZipOutputSupplier) target).getTarget();
+			}
+			writer.setTarget(new TeeOutputSupplier(target, validations));
+
+			for (StreamingValidation validation : validations) {
+				validation.thread.start();
+			}
+		}
+
+		return validations;
+	}
+
+	private final InstanceValidator validator;
+
+	private final InstanceWriter writer;
+
+	private final ServiceProvider serviceProvider;
+
+	private final PipedInputStream input;
+
+	private final PipedOutputStream output;
+
+	private final Thread thread;
+
+	/**
+	 * The validation schemas, captured from the writer when it starts writing
+	 * data
+	 */
+	private volatile List<Locatable> schemas;
+
+	private volatile IOReport report;
+
+	private StreamingValidation(InstanceValidator validator, InstanceWriter writer,
+			ServiceProvider serviceProvider) throws IOException {
+		this.validator = validator;
+		this.writer = writer;
+		this.serviceProvider = serviceProvider;
+
+		input = new PipedInputStream(PIPE_SIZE);
+		output = new PipedOutputStream(input);
+
+		thread = new Thread(this::validate, "streaming-validation");
+		thread.setDaemon(true);
+	}
+
+	/**
+	 * @return the validator
+	 */
+	public InstanceValidator getValidator() {
+		return validator;
+	}
+
+	/**
+	 * Wait for the validation to complete. Should only be called after the
+	 * writer has completed.
+	 * 
+	 * @return the validation report or <code>null</code> if the data could not
+	 *         be validated while it was written, e.g. because the writer did
+	 *         not write to its target or the validation failed with an
+	 *         exception
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	public IOReport getReport() throws InterruptedException {
+		// make sure the validator does not wait for more data
+		close();
+		thread.join();
+		return report;
+	}
+
+	/**
+	 * Retrieve the validation schemas from the writer. Called on the thread
+	 * the writer writes on before the first data is passed on to the
+	 * validator, as the writer may only determine the schemas while writing.
+	 */
+	private void captureSchemas() {
+		schemas = new ArrayList<>(writer.getValidationSchemas());
+	}
+
+	/**
+	 * Close the pipe, signaling the end of the data to the validator.
+	 */
+	public void close() {
+		try {
+			output.close();
+		} catch (IOException e) {
+			// ignore
+		}
+	}
+
+	private void validate() {
+		LocatableInputSupplier<? extends InputStream> source = validator.getSource();
+		if (source instanceof GZipInputSupplier) {
+			// the source is wrapped again based on the content type
+			source = ((GZipInputSupplier) source).getSource();
+		}
+		final URI location = (source != null) ? (source.getLocation())
+				: (writer.getTarget().getLocation());
+
+		try (InputStream in = new BufferedInputStream(input)) {
+			// wait for data to be written, the validation schemas are captured
+			// before the data is passed on
+			in.mark(1);
+			if (in.read() < 0) {
+				// nothing written to the target
+				return;
+			}
+			in.reset();
+
+			List<Locatable> schemas = this.schemas;
+			validator.setSchemas(schemas.toArray(new Locatable[schemas.size()]));
+			validator.setServiceProvider(serviceProvider);
+			validator.setSource(new LocatableInputSupplier<InputStream>() {
+
+				@Override
+				public InputStream getInput() throws IOException {
+					return in;
+				}
+
+				@Override
+				public URI getLocation() {
+					return location;
+				}
+
+				@Override
+				public URI getUsedLocation() {
+					return location;
+				}
+			});
+
+			report = validator.execute(new LogProgressIndicator());
+		} catch (Throwable e) {
+			log.warn("Validating data while it was written failed", e);
+			report = null;
+		} finally {
+			validator.setSource(source);
+		}
+	}
+
+}
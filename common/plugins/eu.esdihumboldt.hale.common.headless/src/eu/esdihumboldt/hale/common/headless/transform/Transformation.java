@@ -43,6 +43,7 @@ import eu.esdihumboldt.hale.common.align.model.Cell;
 import eu.esdihumboldt.hale.common.align.model.functions.CreateFunction;
 import eu.esdihumboldt.hale.common.align.model.functions.RetypeFunction;
 import eu.esdihumboldt.hale.common.align.transformation.report.TransformationReport;
+import eu.esdihumboldt.hale.common.align.transformation.service.TransformationOptions;
 import eu.esdihumboldt.hale.common.align.transformation.service.TransformationService;
 import eu.esdihumboldt.hale.common.core.HalePlatform;
 import eu.esdihumboldt.hale.common.core.io.IOAdvisor;
@@ -160,6 +161,23 @@ public class Transformation {
 			final ReportHandler reportHandler, Object processId,
 			Collection<InstanceValidator> validators, InstanceFilterDefinition filterDefinition,
 			TransformationSettings settings) {
+		if (sources.size() > 1 && settings.replaySources()) {
+			/*
+			 * Instance IDs (e.g. the index in a XML/GML stream) are only unique
+			 * per source, index based functions would confuse instances of
+			 * different sources.
+			 */
+			log.warn(
+					"Replaying the source is not supported for multiple sources, using the temporary database instead");
+			settings = new TransformationSettingsDecorator(settings) {
+
+				@Override
+				public boolean replaySources() {
+					return false;
+				}
+			};
+		}
+
 		InstanceCollection sourceCollection = loadSources(sources, environment, reportHandler,
 				filterDefinition);
 
@@ -234,6 +252,13 @@ public class Transformation {
 		ValidationJob validationJob = null; // no validation
 		if (validators != null && !validators.isEmpty()) {
 			validationJob = new ValidationJob(validators, reportHandler, target, environment);
+
+			// validate while writing, instead of reading the written data again
+			// XXX for now only if env variable is set
+			String streamEnv = System.getenv("HALE_TRANSFORMATION_STREAM_VALIDATION");
+			if (streamEnv != null && streamEnv.equalsIgnoreCase("true")) {
+				validationJob.enableStreamingValidation();
+			}
 		}
 		return transform(sources, targetSink, exportJob, validationJob, environment.getAlignment(),
 				environment.getSourceSchema(), reportHandler, environment, processId, settings);
@@ -329,24 +354,26 @@ public class Transformation {
 		// Currently do not create a temporary DB is there are Retypes/Creates
 		// only.
 		final LocalOrientDB db;
-		boolean useTempDatabase = settings.useTemporaryDatabase().orElseGet(() -> {
-			boolean useDb = false;
-
-			for (Cell cell : alignment.getActiveTypeCells()) {
-				/*
-				 * XXX right now the source is read for each type transformation
-				 * - does it makes sense to use the DB if there is a certain
-				 * number of type transformations?
-				 */
-
-				if (!isStreamingTypeTransformation(cell.getTransformationIdentifier())) {
-					useDb = true;
-					break;
-				}
+		boolean requiresIndex = false;
+		for (Cell cell : alignment.getActiveTypeCells()) {
+			/*
+			 * XXX right now the source is read for each type transformation -
+			 * does it makes sense to use the DB if there is a certain number of
+			 * type transformations?
+			 */
+
+			if (!isStreamingTypeTransformation(cell.getTransformationIdentifier())) {
+				requiresIndex = true;
+				break;
 			}
+		}
+		final boolean useIndex = requiresIndex;
+		boolean useTempDatabase = settings.useTemporaryDatabase()
+				.orElseGet(() -> useIndex && !settings.replaySources());
 
-			return useDb;
-		});
+		// If no temporary database is used, but an index is required, replay
+		// the source instead, only building the indexes in advance
+		boolean replaySources = !useTempDatabase && useIndex && settings.replaySources();
 
 		// Create temporary database if necessary.
 		if (useTempDatabase) {
@@ -383,6 +410,10 @@ public class Transformation {
 			db = null;
 		}
 
+		final TransformationOptions options = new TransformationOptions(
+				settings.propertyTransformationThreads().orElse(1), settings.preserveOrder(),
+				settings.singlePassScan());
+
 		// create transformation job
 		final AbstractTransformationJob transformJob = new AbstractTransformationJob(
 				"Transformation") {
@@ -397,7 +428,7 @@ public class Transformation {
 
 				TransformationReport report = transformationService.transform(alignment,
 						sourceToUse, targetSink, serviceProvider,
-						new ProgressMonitorIndicator(monitor));
+						new ProgressMonitorIndicator(monitor), options);
 
 				try {
 					// publish report
@@ -468,6 +499,9 @@ public class Transformation {
 			public void done(IJobChangeEvent event) {
 				if (!event.getResult().isOK()) {
 					transformJob.cancel();
+					if (validationJob != null) {
+						validationJob.abortStreamingValidation();
+					}
 
 					// failure
 					failure(result, event);
@@ -546,6 +580,35 @@ public class Transformation {
 
 			storeJob.schedule();
 		}
+		else if (replaySources) {
+			// Initialize instance index with alignment
+			InstanceIndexService indexService = serviceProvider
+					.getService(InstanceIndexService.class);
+
+			indexService.addPropertyMappings(alignment.getActiveTypeCells(), serviceProvider);
+
+			// index the source instances first...
+			SourceIndexJob indexJob = new SourceIndexJob(sources, serviceProvider, reportHandler);
+			if (processId != null) {
+				indexJob.setProcessId(processId);
+			}
+			// ...and schedule jobs on successful completion
+			indexJob.addJobChangeListener(new JobChangeAdapter() {
+
+				@Override
+				public void done(IJobChangeEvent event) {
+					if (event.getResult().isOK()) {
+						exportJob.schedule();
+						transformJob.schedule();
+					}
+					else {
+						failure(result, event);
+					}
+				}
+			});
+
+			indexJob.schedule();
+		}
 		else {
 			// otherwise feed InstanceProcessors directly from the
 			// InstanceCollection...
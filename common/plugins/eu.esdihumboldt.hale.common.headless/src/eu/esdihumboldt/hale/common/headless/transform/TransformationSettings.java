@@ -32,4 +32,56 @@ public interface TransformationSettings {
 	 */
 	Optional<Boolean> useTemporaryDatabase();
 
+	/**
+	 * If present, states the number of threads to use for property
+	 * transformations. If not present, property transformations are executed
+	 * on the transformation thread.
+	 * 
+	 * @return the number of property transformation threads
+	 */
+	default Optional<Integer> propertyTransformationThreads() {
+		return Optional.empty();
+	}
+
+	/**
+	 * States if the order of transformed instances should be deterministic
+	 * when property transformations are executed in multiple threads.
+	 * 
+	 * @return if the order of transformed instances should be preserved
+	 */
+	default boolean preserveOrder() {
+		return false;
+	}
+
+	/**
+	 * States if, instead of loading the source instances into a temporary
+	 * database, the source should be read again for each pass of the
+	 * transformation. In that case only the information needed for index
+	 * based functions (indexed values and instance references) is collected
+	 * in advance. Only applies if the use of the temporary database is not
+	 * enforced via {@link #useTemporaryDatabase()}.<br>
+	 * <br>
+	 * This is only recommended for sources that are able to efficiently
+	 * resolve instance references, e.g. XML/GML files. As the instance IDs
+	 * must be unique across the whole source, the setting is ignored if the
+	 * source consists of multiple instance readers.
+	 * 
+	 * @return if the source should be read again instead of using a temporary
+	 *         database
+	 */
+	default boolean replaySources() {
+		return false;
+	}
+
+	/**
+	 * States if the source should be read only once for all type cells that
+	 * don't need to partition the source instances, instead of once per type
+	 * cell.
+	 * 
+	 * @return if the source should be read in a single pass
+	 */
+	default boolean singlePassScan() {
+		return false;
+	}
+
 }
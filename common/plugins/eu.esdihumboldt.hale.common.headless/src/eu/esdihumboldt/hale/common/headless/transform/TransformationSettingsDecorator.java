@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.headless.transform;
+
+import java.util.Optional;
+
+/**
+ * Decorator for transformation settings.
+ */
+public abstract class TransformationSettingsDecorator implements TransformationSettings {
+
+	/**
+	 * The decorated transformation settings.
+	 */
+	protected final TransformationSettings decoratee;
+
+	/**
+	 * Create a transformation settings decorator.
+	 * 
+	 * @param decoratee the transformation settings to decorate
+	 */
+	public TransformationSettingsDecorator(TransformationSettings decoratee) {
+		super();
+		this.decoratee = decoratee;
+	}
+
+	@Override
+	public Optional<Boolean> useTemporaryDatabase() {
+		return decoratee.useTemporaryDatabase();
+	}
+
+	@Override
+	public Optional<Integer> propertyTransformationThreads() {
+		return decoratee.propertyTransformationThreads();
+	}
+
+	@Override
+	public boolean preserveOrder() {
+		return decoratee.preserveOrder();
+	}
+
+	@Override
+	public boolean replaySources() {
+		return decoratee.replaySources();
+	}
+
+	@Override
+	public boolean singlePassScan() {
+		return decoratee.singlePassScan();
+	}
+
+}
@@ -17,7 +17,9 @@ package eu.esdihumboldt.hale.common.headless.transform;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nullable;
 
@@ -54,6 +56,11 @@ public class ValidationJob extends AbstractTransformationJob {
 	private final InstanceWriter writer;
 	private final ServiceProvider serviceProvider;
 
+	/**
+	 * Validations performed while the data is written, per validator
+	 */
+	private final Map<InstanceValidator, StreamingValidation> streaming = new IdentityHashMap<>();
+
 	/**
 	 * Create a job for validating transformed instances.
 	 * 
@@ -72,6 +79,38 @@ public class ValidationJob extends AbstractTransformationJob {
 		this.serviceProvider = serviceProvider;
 	}
 
+	/**
+	 * Validate the data while it is written by the writer, for the validators
+	 * that support it (see {@link InstanceValidator#isStreamingSupported()}).
+	 * Must be called before the writer is executed. The validation results
+	 * are published when the job is run, validators that could not validate
+	 * the data while it was written are executed then as usual.
+	 * 
+	 * @return if validation while writing was set up for any validator
+	 */
+	public boolean enableStreamingValidation() {
+		if (writer == null) {
+			return false;
+		}
+
+		for (StreamingValidation validation : StreamingValidation.connect(writer, validators,
+				serviceProvider)) {
+			streaming.put(validation.getValidator(), validation);
+		}
+		return !streaming.isEmpty();
+	}
+
+	/**
+	 * Stop validating data while it is written, e.g. because the writer
+	 * failed.
+	 */
+	public void abortStreamingValidation() {
+		for (StreamingValidation validation : streaming.values()) {
+			validation.close();
+		}
+		streaming.clear();
+	}
+
 	/**
 	 * @see org.eclipse.core.runtime.jobs.Job#run(org.eclipse.core.runtime.IProgressMonitor)
 	 */
@@ -86,16 +125,25 @@ public class ValidationJob extends AbstractTransformationJob {
 			try {
 				ATransaction trans = log.begin(defaultReporter.getTaskName());
 				try {
-					if (writer != null) {
-						// set validation schemas (may have been determined only
-						// during writer execution)
-						// set schemas
-						List<? extends Locatable> schemas = writer.getValidationSchemas();
-						validator.setSchemas(schemas.toArray(new Locatable[schemas.size()]));
+					IOReport result = null;
+					StreamingValidation validation = streaming.remove(validator);
+					if (validation != null) {
+						// data validated while it was written
+						result = validation.getReport();
 					}
-					validator.setServiceProvider(serviceProvider);
 
-					IOReport result = validator.execute(new ProgressMonitorIndicator(monitor));
+					if (result == null) {
+						if (writer != null) {
+							// set validation schemas (may have been determined
+							// only during writer execution)
+							// set schemas
+							List<? extends Locatable> schemas = writer.getValidationSchemas();
+							validator.setSchemas(schemas.toArray(new Locatable[schemas.size()]));
+						}
+						validator.setServiceProvider(serviceProvider);
+
+						result = validator.execute(new ProgressMonitorIndicator(monitor));
+					}
 					if (result != null) {
 						report = result;
 					}
@@ -148,6 +196,7 @@ public class ValidationJob extends AbstractTransformationJob {
 	 * Necessary as jobs are referenced by the job manager even after execution.
 	 */
 	private void reset() {
+		abortStreamingValidation();
 		validators.clear();
 		reportHandler = null;
 	}
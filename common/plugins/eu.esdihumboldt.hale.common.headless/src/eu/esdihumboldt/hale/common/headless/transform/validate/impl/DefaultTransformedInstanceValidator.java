@@ -26,6 +26,7 @@ import eu.esdihumboldt.hale.common.instance.extension.validation.InstanceValidat
 import eu.esdihumboldt.hale.common.instance.extension.validation.report.InstanceValidationReporter;
 import eu.esdihumboldt.hale.common.instance.model.Instance;
 import eu.esdihumboldt.hale.common.instancevalidator.InstanceValidator;
+import eu.esdihumboldt.hale.common.instancevalidator.ParallelInstanceValidation;
 
 /**
  * Validator for transformed instances based on {@link InstanceValidator}.
@@ -41,6 +42,12 @@ public class DefaultTransformedInstanceValidator extends AbstractTransformedInst
 
 	private final InstanceValidator validator;
 
+	/**
+	 * Parallel validation of the instances, <code>null</code> if instances are
+	 * validated on the thread adding them.
+	 */
+	private final ParallelInstanceValidation parallel;
+
 	/**
 	 * Constructor.
 	 * 
@@ -54,16 +61,28 @@ public class DefaultTransformedInstanceValidator extends AbstractTransformedInst
 
 		this.context = new InstanceValidationContext();
 		this.validator = InstanceValidator.createDefaultValidator(services);
+
+		int threads = InstanceValidator.getValidationThreads();
+		this.parallel = (threads > 1) ? (new ParallelInstanceValidation(validator, context,
+				threads, ParallelInstanceValidation.DEFAULT_CHUNK_SIZE)) : (null);
 	}
 
 	@Override
 	protected void validateInstance(Instance instance, InstanceValidationReporter reporter) {
+		if (parallel != null) {
+			parallel.validateInstance(instance, null, reporter);
+			return;
+		}
+
 		validator.validateInstance(instance, reporter, instance.getDefinition().getName(),
 				new ArrayList<QName>(), false, null, context, null, null);
 	}
 
 	@Override
 	protected void validateCompleted(InstanceValidationReporter reporter) {
+		if (parallel != null) {
+			parallel.complete(reporter);
+		}
 		validator.validateContext(context, reporter);
 	}
 
@@ -16,6 +16,7 @@
 package eu.esdihumboldt.hale.common.instance.index;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 
 import javax.xml.namespace.QName;
@@ -39,4 +40,16 @@ public interface HaleInstanceIndex extends
 	 * @return Grouped instance references
 	 */
 	Collection<Collection<ResolvableInstanceReference>> groupBy(List<List<QName>> keyProperties);
+
+	/**
+	 * Iterate over the instance references from the index grouped by the
+	 * given properties. Groups may be determined lazily while iterating.
+	 * 
+	 * @param keyProperties Properties to group by
+	 * @return Iterator over the grouped instance references
+	 */
+	default Iterator<Collection<ResolvableInstanceReference>> iterateGroups(
+			List<List<QName>> keyProperties) {
+		return groupBy(keyProperties).iterator();
+	}
 }
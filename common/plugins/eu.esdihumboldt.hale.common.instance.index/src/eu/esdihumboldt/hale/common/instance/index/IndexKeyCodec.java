@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instance.index;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+
+/**
+ * Encodes the indexed values of an instance to a compact binary
+ * representation. Strings, booleans and numbers are encoded directly,
+ * property paths and other values are replaced by identifiers referring to a
+ * dictionary kept on the heap. Two value lists are encoded to the same bytes
+ * if they are equal according to {@link IndexedPropertyValue#equals(Object)}
+ * (for the value types produced by {@link PropertyEntityDefinitionMapping}).
+ */
+class IndexKeyCodec {
+
+	private static final byte NULL = 0;
+	private static final byte STRING = 1;
+	private static final byte BOOLEAN = 2;
+	private static final byte INTEGER = 3;
+	private static final byte LONG = 4;
+	private static final byte DOUBLE = 5;
+	private static final byte FLOAT = 6;
+	private static final byte BIG_INTEGER = 7;
+	private static final byte BIG_DECIMAL = 8;
+	private static final byte OBJECT = 9;
+
+	private final List<List<QName>> paths = new ArrayList<>();
+	private final Map<List<QName>, Integer> pathIds = new HashMap<>();
+
+	private final List<Object> objects = new ArrayList<>();
+	private final Map<DeepIterableKey, Integer> objectIds = new HashMap<>();
+
+	/**
+	 * Encode indexed values.
+	 * 
+	 * @param key the indexed values
+	 * @param register if property paths and values that are not yet known
+	 *            should be added to the dictionary
+	 * @return the encoded values or <code>null</code> if <code>register</code>
+	 *         is <code>false</code> and an unknown property path or value was
+	 *         encountered, i.e. the values cannot be in the index
+	 */
+	public byte[] encode(List<IndexedPropertyValue> key, boolean register) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(key.size());
+			for (IndexedPropertyValue ipv : key) {
+				Integer pathId = pathIds.get(ipv.getPropertyPath());
+				if (pathId == null) {
+					if (!register) {
+						return null;
+					}
+					pathId = paths.size();
+					paths.add(ipv.getPropertyPath());
+					pathIds.put(ipv.getPropertyPath(), pathId);
+				}
+				out.writeInt(pathId);
+
+				List<?> values = ipv.getValues();
+				out.writeInt(values.size());
+				for (Object value : values) {
+					if (!writeValue(out, value, register)) {
+						return null;
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Decode indexed values.
+	 * 
+	 * @param key the encoded values
+	 * @return the indexed values
+	 */
+	public List<IndexedPropertyValue> decode(byte[] key) {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(key))) {
+			int count = in.readInt();
+			List<IndexedPropertyValue> result = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				List<QName> path = paths.get(in.readInt());
+				int valueCount = in.readInt();
+				List<Object> values = new ArrayList<>(valueCount);
+				for (int j = 0; j < valueCount; j++) {
+					values.add(readValue(in));
+				}
+				result.add(new IndexedPropertyValue(path, values));
+			}
+			return result;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Decode only the property paths of indexed values.
+	 * 
+	 * @param key the encoded values
+	 * @return the property paths
+	 */
+	public List<List<QName>> decodePaths(byte[] key) {
+		ByteBuffer in = ByteBuffer.wrap(key);
+		int count = in.getInt();
+		List<List<QName>> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			result.add(paths.get(in.getInt()));
+			int valueCount = in.getInt();
+			for (int j = 0; j < valueCount; j++) {
+				skipValue(in);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Create a query for encoded indexed values that have any of the given
+	 * values for a property path.
+	 * 
+	 * @param propertyPath the property path
+	 * @param values the values to match
+	 * @return the query or <code>null</code> if the property path is unknown,
+	 *         i.e. no encoded values can match
+	 */
+	public ValueQuery createValueQuery(List<QName> propertyPath, List<?> values) {
+		Integer pathId = pathIds.get(propertyPath);
+		if (pathId == null) {
+			return null;
+		}
+
+		Set<ByteBuffer> encodedValues = new HashSet<>();
+		for (Object value : values) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+			try (DataOutputStream out = new DataOutputStream(bytes)) {
+				if (!writeValue(out, value, false)) {
+					// unknown value, cannot be part of any key
+					continue;
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			encodedValues.add(ByteBuffer.wrap(bytes.toByteArray()));
+		}
+		return new ValueQuery(pathId, encodedValues);
+	}
+
+	/**
+	 * Query matching the values of a property path on encoded indexed values,
+	 * without decoding them.
+	 */
+	public static class ValueQuery {
+
+		private final int pathId;
+
+		private final Set<ByteBuffer> values;
+
+		private ValueQuery(int pathId, Set<ByteBuffer> values) {
+			this.pathId = pathId;
+			this.values = values;
+		}
+
+		/**
+		 * Determine if any indexed value for the property path has any of the
+		 * query values.
+		 * 
+		 * @param key the encoded indexed values
+		 * @return if the encoded values match the query
+		 */
+		public boolean matches(byte[] key) {
+			return test(key, true);
+		}
+
+		/**
+		 * Determine if any indexed value for the property path has none of
+		 * the query values.
+		 * 
+		 * @param key the encoded indexed values
+		 * @return if the encoded values contradict the query
+		 */
+		public boolean contradicts(byte[] key) {
+			return test(key, false);
+		}
+
+		private boolean test(byte[] key, boolean match) {
+			ByteBuffer in = ByteBuffer.wrap(key);
+			int count = in.getInt();
+			for (int i = 0; i < count; i++) {
+				boolean path = in.getInt() == pathId;
+				boolean found = false;
+				int valueCount = in.getInt();
+				for (int j = 0; j < valueCount; j++) {
+					int start = in.position();
+					skipValue(in);
+					if (path && !found) {
+						found = values.contains(ByteBuffer.wrap(key, start, in.position() - start));
+					}
+				}
+				if (path && found == match) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Clear the dictionaries.
+	 */
+	public void clear() {
+		paths.clear();
+		pathIds.clear();
+		objects.clear();
+		objectIds.clear();
+	}
+
+	private boolean writeValue(DataOutputStream out, Object value, boolean register)
+			throws IOException {
+		if (value == null) {
+			out.writeByte(NULL);
+		}
+		else if (value instanceof String) {
+			out.writeByte(STRING);
+			writeString(out, (String) value);
+		}
+		else if (value instanceof Boolean) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		}
+		else if (value instanceof Integer) {
+			out.writeByte(INTEGER);
+			out.writeInt((Integer) value);
+		}
+		else if (value instanceof Long) {
+			out.writeByte(LONG);
+			out.writeLong((Long) value);
+		}
+		else if (value instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double) value);
+		}
+		else if (value instanceof Float) {
+			out.writeByte(FLOAT);
+			out.writeFloat((Float) value);
+		}
+		else if (value instanceof BigInteger) {
+			out.writeByte(BIG_INTEGER);
+			writeString(out, value.toString());
+		}
+		else if (value instanceof BigDecimal) {
+			out.writeByte(BIG_DECIMAL);
+			writeString(out, value.toString());
+		}
+		else {
+			DeepIterableKey objectKey = new DeepIterableKey(value);
+			Integer objectId = objectIds.get(objectKey);
+			if (objectId == null) {
+				if (!register) {
+					return false;
+				}
+				objectId = objects.size();
+				objects.add(value);
+				objectIds.put(objectKey, objectId);
+			}
+			out.writeByte(OBJECT);
+			out.writeInt(objectId);
+		}
+		return true;
+	}
+
+	private Object readValue(DataInputStream in) throws IOException {
+		byte type = in.readByte();
+		switch (type) {
+		case NULL:
+			return null;
+		case STRING:
+			return readString(in);
+		case BOOLEAN:
+			return in.readBoolean();
+		case INTEGER:
+			return in.readInt();
+		case LONG:
+			return in.readLong();
+		case DOUBLE:
+			return in.readDouble();
+		case FLOAT:
+			return in.readFloat();
+		case BIG_INTEGER:
+			return new BigInteger(readString(in));
+		case BIG_DECIMAL:
+			return new BigDecimal(readString(in));
+		case OBJECT:
+			return objects.get(in.readInt());
+		default:
+			throw new IllegalStateException("Unknown value type " + type);
+		}
+	}
+
+	private static void skipValue(ByteBuffer in) {
+		byte type = in.get();
+		switch (type) {
+		case NULL:
+			break;
+		case BOOLEAN:
+			skip(in, 1);
+			break;
+		case INTEGER:
+		case FLOAT:
+		case OBJECT:
+			skip(in, 4);
+			break;
+		case LONG:
+		case DOUBLE:
+			skip(in, 8);
+			break;
+		case STRING:
+		case BIG_INTEGER:
+		case BIG_DECIMAL:
+			skip(in, in.getInt());
+			break;
+		default:
+			throw new IllegalStateException("Unknown value type " + type);
+		}
+	}
+
+	private static void skip(ByteBuffer in, int length) {
+		in.position(in.position() + length);
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
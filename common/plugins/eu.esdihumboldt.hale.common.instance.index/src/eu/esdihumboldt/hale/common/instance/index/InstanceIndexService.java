@@ -16,6 +16,7 @@
 package eu.esdihumboldt.hale.common.instance.index;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 
 import javax.xml.namespace.QName;
@@ -94,6 +95,22 @@ public interface InstanceIndexService {
 	Collection<Collection<ResolvableInstanceReference>> groupBy(QName typeName,
 			List<List<QName>> properties);
 
+	/**
+	 * Iterate over the instance references from the index grouped by the
+	 * given properties. In contrast to {@link #groupBy(QName, List)},
+	 * implementations may determine the groups lazily while iterating, so that
+	 * not all groups have to be held in memory at the same time. The index
+	 * must not be modified while iterating.
+	 * 
+	 * @param typeName Type that contains the properties
+	 * @param properties Properties to group by
+	 * @return Iterator over the grouped instance references
+	 */
+	default Iterator<Collection<ResolvableInstanceReference>> iterateGroups(QName typeName,
+			List<List<QName>> properties) {
+		return groupBy(typeName, properties).iterator();
+	}
+
 	/**
 	 * Retrieves instances with the given property values
 	 * 
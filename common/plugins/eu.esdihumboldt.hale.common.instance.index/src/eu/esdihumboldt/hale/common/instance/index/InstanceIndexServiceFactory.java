@@ -15,16 +15,44 @@
 
 package eu.esdihumboldt.hale.common.instance.index;
 
+import java.io.File;
+
+import de.fhg.igd.slf4jplus.ALogger;
+import de.fhg.igd.slf4jplus.ALoggerFactory;
 import eu.esdihumboldt.hale.common.core.service.ServiceFactory;
 import eu.esdihumboldt.hale.common.core.service.ServiceProvider;
+import eu.esdihumboldt.hale.common.instance.index.storage.HeapBudget;
 
 /**
- * Factory for the {@link InstanceIndexService}
+ * Factory for the {@link InstanceIndexService}.<br>
+ * <br>
+ * By default the indexes are held on the heap using
+ * {@link MultimapInstanceIndex}. Setting the system property
+ * <code>hale.instance_index.storage</code> or the environment variable
+ * <code>HALE_INSTANCE_INDEX_STORAGE</code> to <code>spill</code> selects
+ * {@link SpillingInstanceIndex} instead. The heap budget in MB for its data
+ * (shared by all indexes of a service) and the directory for spilled data can
+ * be configured via <code>hale.instance_index.heap_budget</code> /
+ * <code>HALE_INSTANCE_INDEX_HEAP_BUDGET</code> and
+ * <code>hale.instance_index.spill_dir</code> /
+ * <code>HALE_INSTANCE_INDEX_SPILL_DIR</code>.
  * 
  * @author Florian Esser
  */
 public class InstanceIndexServiceFactory implements ServiceFactory {
 
+	private static final ALogger log = ALoggerFactory.getLogger(InstanceIndexServiceFactory.class);
+
+	/**
+	 * Storage setting value selecting {@link SpillingInstanceIndex}
+	 */
+	public static final String STORAGE_SPILL = "spill";
+
+	/**
+	 * Default heap budget in MB for {@link SpillingInstanceIndex}
+	 */
+	public static final int DEFAULT_HEAP_BUDGET_MB = 256;
+
 	/**
 	 * @see eu.esdihumboldt.hale.common.core.service.ServiceFactory#createService(java.lang.Class,
 	 *      eu.esdihumboldt.hale.common.core.service.ServiceProvider)
@@ -33,10 +61,47 @@ public class InstanceIndexServiceFactory implements ServiceFactory {
 	@Override
 	public <T> T createService(Class<T> serviceInterface, ServiceProvider serviceLocator) {
 		if (serviceInterface.equals(InstanceIndexService.class)) {
+			if (STORAGE_SPILL.equalsIgnoreCase(getSetting("hale.instance_index.storage",
+					"HALE_INSTANCE_INDEX_STORAGE"))) {
+				HeapBudget budget = new HeapBudget(getHeapBudget() * 1024L * 1024L);
+				String spillDir = getSetting("hale.instance_index.spill_dir",
+						"HALE_INSTANCE_INDEX_SPILL_DIR");
+				File spillDirectory = (spillDir != null) ? new File(spillDir) : null;
+
+				return (T) new InstanceIndexServiceImpl(
+						() -> new SpillingInstanceIndex(budget, spillDirectory));
+			}
+
 			return (T) new InstanceIndexServiceImpl();
 		}
 
 		return null;
 	}
 
+	private static int getHeapBudget() {
+		String setting = getSetting("hale.instance_index.heap_budget",
+				"HALE_INSTANCE_INDEX_HEAP_BUDGET");
+
+		if (setting != null) {
+			try {
+				return Integer.valueOf(setting);
+			} catch (Throwable e) {
+				log.error("Error applying custom instance index heap budget setting: " + setting,
+						e);
+			}
+		}
+
+		return DEFAULT_HEAP_BUDGET_MB;
+	}
+
+	private static String getSetting(String systemProperty, String envVariable) {
+		String setting = System.getProperty(systemProperty);
+
+		if (setting == null) {
+			setting = System.getenv(envVariable);
+		}
+
+		return setting;
+	}
+
 }
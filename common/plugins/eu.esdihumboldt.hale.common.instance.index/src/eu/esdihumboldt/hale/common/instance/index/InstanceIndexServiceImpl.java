@@ -20,9 +20,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import javax.xml.namespace.QName;
@@ -51,10 +53,22 @@ public class InstanceIndexServiceImpl implements InstanceIndexService {
 
 	private final Map<QName, HaleInstanceIndex> indexes = new HashMap<>();
 
+	private final Supplier<HaleInstanceIndex> indexFactory;
+
 	/**
 	 * Create the index
 	 */
 	public InstanceIndexServiceImpl() {
+		this(MultimapInstanceIndex::new);
+	}
+
+	/**
+	 * Create the index
+	 * 
+	 * @param indexFactory factory for the indexes created per type
+	 */
+	public InstanceIndexServiceImpl(Supplier<HaleInstanceIndex> indexFactory) {
+		this.indexFactory = indexFactory;
 	}
 
 	@Override
@@ -215,9 +229,20 @@ public class InstanceIndexServiceImpl implements InstanceIndexService {
 		return index.groupBy(properties);
 	}
 
+	@Override
+	public Iterator<Collection<ResolvableInstanceReference>> iterateGroups(QName typeName,
+			List<List<QName>> properties) {
+		HaleInstanceIndex index = indexes.get(typeName);
+		if (index == null) {
+			return Collections.emptyIterator();
+		}
+
+		return index.iterateGroups(properties);
+	}
+
 	private HaleInstanceIndex getIndex(QName typeName) {
 		if (!indexes.containsKey(typeName)) {
-			indexes.put(typeName, new MultimapInstanceIndex());
+			indexes.put(typeName, indexFactory.get());
 		}
 
 		return indexes.get(typeName);
@@ -20,15 +20,17 @@ import static eu.esdihumboldt.hale.common.instance.index.InstanceIndexUtil.colle
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import javax.xml.namespace.QName;
 
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Multimap;
 
 import eu.esdihumboldt.hale.common.instance.model.Instance;
@@ -46,6 +48,11 @@ public class MultimapInstanceIndex implements HaleInstanceIndex {
 	private final Multimap<ResolvableInstanceReference, List<IndexedPropertyValue>> instanceIndex = HashMultimap
 			.create();
 
+	/**
+	 * Instance references by instance ID, for instances that have an ID
+	 */
+	private final Map<Object, ResolvableInstanceReference> idIndex = new HashMap<>();
+
 	private final List<PropertyEntityDefinitionMapping> mappings = new ArrayList<>();
 
 	/**
@@ -61,6 +68,7 @@ public class MultimapInstanceIndex implements HaleInstanceIndex {
 	public void clearIndexes() {
 		valueIndex.clear();
 		instanceIndex.clear();
+		idIndex.clear();
 	}
 
 	/**
@@ -87,15 +95,14 @@ public class MultimapInstanceIndex implements HaleInstanceIndex {
 	 */
 	@Override
 	public void removeMapping(PropertyEntityDefinitionMapping mapping) {
-		// extract property names from mapping
-		List<QName> propertyNames = mapping.getDefinitions().stream()
-				.map(m -> m.getDefinition().getName()).collect(Collectors.toList());
+		// extract property paths from mapping
+		List<List<QName>> propertyPaths = getPropertyPaths(mapping);
 
 		// Remove from properties index if key properties are equal to
 		// properties in mapping
 		valueIndex.asMap().entrySet().removeIf(e -> collectionEquals(
 				e.getKey().stream().map(ipv -> ipv.getPropertyPath()).collect(Collectors.toList()),
-				propertyNames));
+				propertyPaths));
 
 		// Remove mapped instance values
 		instanceIndex.asMap().values()
@@ -105,9 +112,10 @@ public class MultimapInstanceIndex implements HaleInstanceIndex {
 										instValue -> collectionEquals(
 												instValue.stream().map(iv -> iv.getPropertyPath())
 														.collect(Collectors.toList()),
-												propertyNames)));
+												propertyPaths)));
 
 		instanceIndex.asMap().entrySet().removeIf(e -> e.getValue().isEmpty());
+		idIndex.values().removeIf(ref -> !instanceIndex.containsKey(ref));
 
 		mappings.removeIf(m -> collectionEquals(m.getDefinitions(), mapping.getDefinitions()));
 	}
@@ -124,6 +132,13 @@ public class MultimapInstanceIndex implements HaleInstanceIndex {
 			valueIndex.put(propValues, reference);
 			instanceIndex.put(reference, propValues);
 		});
+
+		if (!mappings.isEmpty()) {
+			Object id = reference.getId();
+			if (id != null) {
+				idIndex.put(id, reference);
+			}
+		}
 	}
 
 	/**
@@ -150,11 +165,10 @@ public class MultimapInstanceIndex implements HaleInstanceIndex {
 
 	@Override
 	public Collection<List<IndexedPropertyValue>> getInstancePropertyValuesById(Object instanceId) {
-		Optional<ResolvableInstanceReference> optionalRef = instanceIndex.keySet().stream()
-				.filter(ref -> ref.getId().equals(instanceId)).findFirst();
+		ResolvableInstanceReference ref = idIndex.get(instanceId);
 
-		if (optionalRef.isPresent()) {
-			return instanceIndex.get(optionalRef.get());
+		if (ref != null) {
+			return instanceIndex.get(ref);
 		}
 		else {
 			return Collections.emptyList();
@@ -220,23 +234,52 @@ public class MultimapInstanceIndex implements HaleInstanceIndex {
 			List<List<QName>> keyProperties) {
 
 		List<Collection<ResolvableInstanceReference>> result = new ArrayList<>();
-		for (List<IndexedPropertyValue> keyValues : valueIndex.keySet()) {
-			List<List<QName>> kvProperties = keyValues.stream().map(ipv -> ipv.getPropertyPath())
-					.collect(Collectors.toList());
-			List<String> flatKvProperties = kvProperties.stream().map(
-					e -> e.stream().map(qn -> qn.getLocalPart()).collect(Collectors.joining(".")))
-					.collect(Collectors.toList());
-			List<String> flatKeyProperties = keyProperties.stream().map(
-					e -> e.stream().map(qn -> qn.getLocalPart()).collect(Collectors.joining(".")))
-					.collect(Collectors.toList());
-			if (collectionEquals(flatKvProperties, flatKeyProperties)) {
-				result.add(valueIndex.get(keyValues));
-			}
-		}
+		iterateGroups(keyProperties).forEachRemaining(result::add);
 
 		return result;
 	}
 
+	/**
+	 * Groups are determined while iterating over the value index, thus only
+	 * the group that was last returned is referenced by the iterator.
+	 * 
+	 * @see HaleInstanceIndex#iterateGroups(List)
+	 */
+	@Override
+	public Iterator<Collection<ResolvableInstanceReference>> iterateGroups(
+			List<List<QName>> keyProperties) {
+		List<String> flatKeyProperties = flattenPropertyPaths(keyProperties);
+
+		Iterator<List<IndexedPropertyValue>> matchingKeys = Iterators.filter(
+				valueIndex.keySet().iterator(),
+				keyValues -> collectionEquals(
+						flattenPropertyPaths(keyValues.stream().map(ipv -> ipv.getPropertyPath())
+								.collect(Collectors.toList())),
+						flatKeyProperties));
+
+		return Iterators.transform(matchingKeys, keyValues -> valueIndex.get(keyValues));
+	}
+
+	/**
+	 * Get the property paths of the properties of a mapping, as they are used
+	 * in the {@link IndexedPropertyValue}s created by the mapping.
+	 * 
+	 * @param mapping the mapping
+	 * @return the property paths
+	 */
+	static List<List<QName>> getPropertyPaths(PropertyEntityDefinitionMapping mapping) {
+		return mapping.getDefinitions().stream()
+				.map(d -> d.getPropertyPath().stream().map(c -> c.getChild().getName())
+						.collect(Collectors.toList()))
+				.collect(Collectors.toList());
+	}
+
+	private static List<String> flattenPropertyPaths(List<List<QName>> propertyPaths) {
+		return propertyPaths.stream().map(
+				e -> e.stream().map(qn -> qn.getLocalPart()).collect(Collectors.joining(".")))
+				.collect(Collectors.toList());
+	}
+
 	/**
 	 * @see eu.esdihumboldt.hale.common.instance.index.InstanceIndex#find(java.lang.Object)
 	 */
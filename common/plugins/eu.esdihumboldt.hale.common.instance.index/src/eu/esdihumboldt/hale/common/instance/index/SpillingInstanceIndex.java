@@ -0,0 +1,457 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instance.index;
+
+import static eu.esdihumboldt.hale.common.instance.index.InstanceIndexUtil.collectionEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+import javax.xml.namespace.QName;
+
+import eu.esdihumboldt.hale.common.instance.index.storage.HeapBudget;
+import eu.esdihumboldt.hale.common.instance.index.storage.IntHashTable;
+import eu.esdihumboldt.hale.common.instance.index.storage.PagedBuffer;
+import eu.esdihumboldt.hale.common.instance.index.storage.PagedStorage;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.model.ResolvableInstanceReference;
+
+/**
+ * Instance index that stores the indexed values in a compact binary form in
+ * pages that are allocated on the heap as long as a {@link HeapBudget} allows
+ * it and otherwise in a memory mapped temporary file.<br>
+ * <br>
+ * Per indexed instance the index holds the instance reference and up to about
+ * 40 bytes in hash tables and lists on the heap. In addition it stores 20
+ * bytes per indexed value combination and the encoded values in the pages
+ * (which may be spilled to disk). Values that are not strings, booleans or
+ * numbers are kept in a dictionary on the heap (see {@link IndexKeyCodec}).<br>
+ * <br>
+ * Like {@link MultimapInstanceIndex} this class is not thread safe.
+ */
+public class SpillingInstanceIndex implements HaleInstanceIndex {
+
+	/**
+	 * Size of an entry associating a reference and indexed values, consisting
+	 * of the key identifier, the reference identifier and the next entries for
+	 * the same key and reference.
+	 */
+	private static final int ENTRY_SIZE = 4 * Integer.BYTES;
+
+	private static final int ENTRY_KEY = 0;
+	private static final int ENTRY_REF = Integer.BYTES;
+	private static final int ENTRY_NEXT_OF_KEY = 2 * Integer.BYTES;
+	private static final int ENTRY_NEXT_OF_REF = 3 * Integer.BYTES;
+
+	private static final int NONE = -1;
+
+	/**
+	 * Index data stored in paged buffers.
+	 */
+	private static class Store {
+
+		private final List<ResolvableInstanceReference> references = new ArrayList<>();
+		private final IntHashTable referenceTable = new IntHashTable();
+		private final IntHashTable idTable = new IntHashTable();
+
+		/**
+		 * First entry per reference
+		 */
+		private final PagedBuffer referenceHeads;
+
+		/**
+		 * Encoded keys, each prefixed with its length
+		 */
+		private final PagedBuffer keyData;
+
+		/**
+		 * Position in {@link #keyData} per key
+		 */
+		private final PagedBuffer keyOffsets;
+
+		/**
+		 * First entry per key
+		 */
+		private final PagedBuffer keyHeads;
+		private final IntHashTable keyTable = new IntHashTable();
+		private int keyCount;
+
+		private final PagedBuffer entries;
+
+		public Store(PagedStorage storage) {
+			referenceHeads = new PagedBuffer(storage);
+			keyData = new PagedBuffer(storage);
+			keyOffsets = new PagedBuffer(storage);
+			keyHeads = new PagedBuffer(storage);
+			entries = new PagedBuffer(storage);
+		}
+
+		public int getReferenceId(ResolvableInstanceReference reference, boolean create) {
+			int hash = reference.hashCode();
+			int refId = referenceTable.find(hash, id -> reference.equals(references.get(id)));
+			if (refId < 0 && create) {
+				refId = references.size();
+				references.add(reference);
+				referenceHeads.appendInt(NONE);
+				referenceTable.add(hash, refId);
+
+				Object instanceId = reference.getId();
+				if (instanceId != null && getReferenceIdByInstanceId(instanceId) < 0) {
+					idTable.add(instanceId.hashCode(), refId);
+				}
+			}
+			return refId;
+		}
+
+		public int getReferenceIdByInstanceId(Object instanceId) {
+			return idTable.find(instanceId.hashCode(),
+					id -> instanceId.equals(references.get(id).getId()));
+		}
+
+		public int getKeyId(byte[] key, boolean create) {
+			int hash = Arrays.hashCode(key);
+			int keyId = keyTable.find(hash, id -> {
+				long pos = keyOffsets.getLong((long) id * Long.BYTES);
+				return keyData.getInt(pos) == key.length
+						&& keyData.contentEquals(pos + Integer.BYTES, key);
+			});
+			if (keyId < 0 && create) {
+				keyId = keyCount++;
+				long pos = keyData.appendInt(key.length);
+				keyData.append(key);
+				keyOffsets.appendLong(pos);
+				keyHeads.appendInt(NONE);
+				keyTable.add(hash, keyId);
+			}
+			return keyId;
+		}
+
+		public byte[] getKey(int keyId) {
+			long pos = keyOffsets.getLong((long) keyId * Long.BYTES);
+			byte[] key = new byte[keyData.getInt(pos)];
+			keyData.get(pos + Integer.BYTES, key);
+			return key;
+		}
+
+		public void addEntry(int refId, int keyId) {
+			long refHeadPos = (long) refId * Integer.BYTES;
+			int refHead = referenceHeads.getInt(refHeadPos);
+			for (int e = refHead; e != NONE; e = entryValue(e, ENTRY_NEXT_OF_REF)) {
+				if (entryValue(e, ENTRY_KEY) == keyId) {
+					// already present
+					return;
+				}
+			}
+
+			long keyHeadPos = (long) keyId * Integer.BYTES;
+			int entry = (int) (entries.size() / ENTRY_SIZE);
+			entries.appendInt(keyId);
+			entries.appendInt(refId);
+			entries.appendInt(keyHeads.getInt(keyHeadPos));
+			entries.appendInt(refHead);
+			keyHeads.putInt(keyHeadPos, entry);
+			referenceHeads.putInt(refHeadPos, entry);
+		}
+
+		public List<Integer> getKeyIds(int refId) {
+			List<Integer> result = new ArrayList<>();
+			for (int e = referenceHeads.getInt((long) refId * Integer.BYTES); e != NONE; e = entryValue(
+					e, ENTRY_NEXT_OF_REF)) {
+				result.add(entryValue(e, ENTRY_KEY));
+			}
+			return result;
+		}
+
+		public List<ResolvableInstanceReference> getReferences(int keyId) {
+			List<ResolvableInstanceReference> result = new ArrayList<>();
+			for (int e = keyHeads.getInt((long) keyId * Integer.BYTES); e != NONE; e = entryValue(e,
+					ENTRY_NEXT_OF_KEY)) {
+				result.add(references.get(entryValue(e, ENTRY_REF)));
+			}
+			return result;
+		}
+
+		private int entryValue(int entry, int field) {
+			return entries.getInt((long) entry * ENTRY_SIZE + field);
+		}
+
+		public void clear() {
+			references.clear();
+			referenceTable.clear();
+			idTable.clear();
+			referenceHeads.clear();
+			keyData.clear();
+			keyOffsets.clear();
+			keyHeads.clear();
+			keyTable.clear();
+			keyCount = 0;
+			entries.clear();
+		}
+	}
+
+	private final PagedStorage storage;
+
+	private final IndexKeyCodec codec = new IndexKeyCodec();
+
+	private Store store;
+
+	private final List<PropertyEntityDefinitionMapping> mappings = new ArrayList<>();
+
+	/**
+	 * Create an instance index.
+	 * 
+	 * @param budget the heap budget for storing the index data, may be shared
+	 *            between multiple indexes
+	 * @param spillDirectory the directory to create the temporary file in when
+	 *            the heap budget is exceeded, <code>null</code> for the default
+	 *            temporary directory
+	 */
+	public SpillingInstanceIndex(HeapBudget budget, File spillDirectory) {
+		this.storage = new PagedStorage(budget, spillDirectory);
+		this.store = new Store(storage);
+	}
+
+	/**
+	 * @return if index data has been written to a temporary file because the
+	 *         heap budget was exceeded
+	 */
+	public boolean isSpilled() {
+		return storage.isSpilled();
+	}
+
+	@Override
+	public void clearAll() {
+		clearIndexes();
+		mappings.clear();
+	}
+
+	@Override
+	public void clearIndexes() {
+		store.clear();
+		codec.clear();
+		storage.close();
+	}
+
+	@Override
+	public void addMapping(PropertyEntityDefinitionMapping mapping) {
+		if (!mappings.stream()
+				.anyMatch(m -> collectionEquals(m.getDefinitions(), mapping.getDefinitions()))) {
+			mappings.add(mapping);
+		}
+	}
+
+	/**
+	 * @return an unmodifiable list of mappings
+	 */
+	@Override
+	public Collection<PropertyEntityDefinitionMapping> getMappings() {
+		return Collections.unmodifiableList(mappings);
+	}
+
+	@Override
+	public void removeMapping(PropertyEntityDefinitionMapping mapping) {
+		// extract property paths from mapping
+		List<List<QName>> propertyPaths = MultimapInstanceIndex.getPropertyPaths(mapping);
+
+		// copy all entries that are not associated to the mapping to a new
+		// store (same criteria as in MultimapInstanceIndex)
+		Store oldStore = store;
+		Store newStore = new Store(storage);
+		for (int refId = 0; refId < oldStore.references.size(); refId++) {
+			int newRefId = NONE;
+			for (int keyId : oldStore.getKeyIds(refId)) {
+				byte[] key = oldStore.getKey(keyId);
+				if (!collectionEquals(codec.decodePaths(key), propertyPaths)) {
+					if (newRefId == NONE) {
+						newRefId = newStore.getReferenceId(oldStore.references.get(refId), true);
+					}
+					newStore.addEntry(newRefId, newStore.getKeyId(key, true));
+				}
+			}
+		}
+		oldStore.clear();
+		store = newStore;
+
+		mappings.removeIf(m -> collectionEquals(m.getDefinitions(), mapping.getDefinitions()));
+	}
+
+	@Override
+	public void add(ResolvableInstanceReference reference, Instance instance) {
+		if (mappings.isEmpty()) {
+			return;
+		}
+
+		int refId = store.getReferenceId(reference, true);
+		for (PropertyEntityDefinitionMapping m : mappings) {
+			byte[] key = codec.encode(m.map(instance), true);
+			store.addEntry(refId, store.getKeyId(key, true));
+		}
+	}
+
+	@Override
+	public Instance get(ResolvableInstanceReference ref) {
+		return ResolvableInstanceReference.tryResolve(ref);
+	}
+
+	@Override
+	public Collection<ResolvableInstanceReference> search(InstanceIndexQuery query) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Collection<List<IndexedPropertyValue>> getInstancePropertyValues(
+			ResolvableInstanceReference reference) {
+		return getValues(store.getReferenceId(reference, false));
+	}
+
+	@Override
+	public Collection<List<IndexedPropertyValue>> getInstancePropertyValuesById(Object instanceId) {
+		if (instanceId == null) {
+			return Collections.emptyList();
+		}
+		return getValues(store.getReferenceIdByInstanceId(instanceId));
+	}
+
+	private Collection<List<IndexedPropertyValue>> getValues(int refId) {
+		if (refId < 0) {
+			return Collections.emptyList();
+		}
+
+		return store.getKeyIds(refId).stream().map(keyId -> codec.decode(store.getKey(keyId)))
+				.collect(Collectors.toList());
+	}
+
+	@Override
+	public Collection<ResolvableInstanceReference> getInstancesByValue(
+			List<IndexedPropertyValue> values) {
+		byte[] key = codec.encode(values, false);
+		if (key == null) {
+			return Collections.emptyList();
+		}
+
+		int keyId = store.getKeyId(key, false);
+		if (keyId < 0) {
+			return Collections.emptyList();
+		}
+
+		return Collections.unmodifiableList(store.getReferences(keyId));
+	}
+
+	@Override
+	public Collection<ResolvableInstanceReference> getInstancesByValue(List<QName> propertyPath,
+			List<?> values) {
+		IndexKeyCodec.ValueQuery query = codec.createValueQuery(propertyPath, values);
+		if (query == null) {
+			// property path not indexed
+			return Collections.emptyList();
+		}
+
+		// Find all indexed values where any of the indexed value matches any
+		// of the provided values in the given property, comparing the values
+		// in encoded form
+		Set<ResolvableInstanceReference> result = new LinkedHashSet<>();
+		for (int keyId = 0; keyId < store.keyCount; keyId++) {
+			if (query.matches(store.getKey(keyId))) {
+				result.addAll(store.getReferences(keyId));
+			}
+		}
+
+		// Allow targets with any of the property values
+		result.removeIf(ref -> store.getKeyIds(store.getReferenceId(ref, false)).stream()
+				.anyMatch(keyId -> query.contradicts(store.getKey(keyId))));
+
+		return result;
+	}
+
+	@Override
+	public Collection<ResolvableInstanceReference> getReferences() {
+		return Collections.unmodifiableList(store.references);
+	}
+
+	@Override
+	public Collection<Collection<ResolvableInstanceReference>> groupBy(
+			List<List<QName>> keyProperties) {
+		List<Collection<ResolvableInstanceReference>> result = new ArrayList<>();
+		iterateGroups(keyProperties).forEachRemaining(result::add);
+		return result;
+	}
+
+	/**
+	 * Groups are determined while iterating over the indexed values, only the
+	 * references of the group that was last returned are held on the heap.
+	 * 
+	 * @see HaleInstanceIndex#iterateGroups(List)
+	 */
+	@Override
+	public Iterator<Collection<ResolvableInstanceReference>> iterateGroups(
+			List<List<QName>> keyProperties) {
+		List<String> flatKeyProperties = flattenPropertyPaths(keyProperties);
+		Store groupStore = store;
+		IntPredicate matches = keyId -> collectionEquals(
+				flattenPropertyPaths(codec.decodePaths(groupStore.getKey(keyId))),
+				flatKeyProperties);
+
+		return new Iterator<Collection<ResolvableInstanceReference>>() {
+
+			private int nextKey = findNext(0);
+
+			private int findNext(int start) {
+				int keyId = start;
+				while (keyId < groupStore.keyCount && !matches.test(keyId)) {
+					keyId++;
+				}
+				return keyId;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return nextKey < groupStore.keyCount;
+			}
+
+			@Override
+			public Collection<ResolvableInstanceReference> next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				Collection<ResolvableInstanceReference> group = groupStore.getReferences(nextKey);
+				nextKey = findNext(nextKey + 1);
+				return group;
+			}
+		};
+	}
+
+	private static List<String> flattenPropertyPaths(List<List<QName>> propertyPaths) {
+		return propertyPaths.stream().map(
+				e -> e.stream().map(qn -> qn.getLocalPart()).collect(Collectors.joining(".")))
+				.collect(Collectors.toList());
+	}
+
+	@Override
+	public Collection<ResolvableInstanceReference> find(List<IndexedPropertyValue> value) {
+		return getInstancesByValue(value);
+	}
+
+}
@@ -22,18 +22,22 @@ import de.fhg.igd.geom.BoundingBox;
 import de.fhg.igd.geom.Localizable;
 import de.fhg.igd.geom.Verifier;
 import de.fhg.igd.geom.indices.RTree;
+import de.fhg.igd.geom.indices.SynchronizedRTree;
 import eu.esdihumboldt.hale.common.instance.index.Typed;
 import eu.esdihumboldt.hale.common.instance.model.impl.InstanceReferenceDecorator;
 import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
 
 /**
- * Spatial index service using an {@link RTree} to maintain the index.
+ * Spatial index service using an {@link RTree} to maintain the index. The
+ * index is a {@link SynchronizedRTree}, so once the index is no longer
+ * changed, queries are answered from a packed read only copy without
+ * locking.
  * 
  * @author Florian Esser
  */
 public class RTreeSpatialIndexService implements SpatialIndexService<Localizable, BoundingBox> {
 
-	private final RTree<Localizable> index;
+	private final SynchronizedRTree<Localizable> index;
 
 	/**
 	 * Verifier to determine whether the bounding box of a given
@@ -55,7 +59,7 @@ public class RTreeSpatialIndexService implements SpatialIndexService<Localizable
 	 * @see de.fhg.igd.geom.indices.RTree
 	 */
 	public RTreeSpatialIndexService(int pageSize) {
-		this.index = new RTree<>(pageSize);
+		this.index = new SynchronizedRTree<>(pageSize);
 	}
 
 	/**
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instance.index.storage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget of heap memory that may be shared between multiple
+ * {@link PagedStorage}s.
+ */
+public class HeapBudget {
+
+	private final long limit;
+
+	private final AtomicLong used = new AtomicLong();
+
+	/**
+	 * Create a heap budget.
+	 * 
+	 * @param limit the maximum number of bytes that may be reserved
+	 */
+	public HeapBudget(long limit) {
+		super();
+		this.limit = limit;
+	}
+
+	/**
+	 * Try to reserve the given number of bytes.
+	 * 
+	 * @param bytes the number of bytes
+	 * @return <code>true</code> if the bytes were reserved,
+	 *         <code>false</code> if the budget would be exceeded
+	 */
+	public boolean tryReserve(long bytes) {
+		while (true) {
+			long current = used.get();
+			if (current + bytes > limit) {
+				return false;
+			}
+			if (used.compareAndSet(current, current + bytes)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Release bytes previously reserved with {@link #tryReserve(long)}.
+	 * 
+	 * @param bytes the number of bytes
+	 */
+	public void release(long bytes) {
+		used.addAndGet(-bytes);
+	}
+
+	/**
+	 * @return the number of bytes currently reserved
+	 */
+	public long getUsed() {
+		return used.get();
+	}
+
+	/**
+	 * @return the maximum number of bytes that may be reserved
+	 */
+	public long getLimit() {
+		return limit;
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instance.index.storage;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Open addressing hash table of integer identifiers. The objects the
+ * identifiers stand for are not stored in the table, instead a predicate is
+ * used on lookup to test if the object associated to an identifier matches.
+ * Uses two integers per slot.<br>
+ * <br>
+ * This class is not thread safe.
+ */
+public class IntHashTable {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Identifiers incremented by one, <code>0</code> marks an empty slot
+	 */
+	private int[] slots = new int[INITIAL_CAPACITY];
+
+	private int[] hashes = new int[INITIAL_CAPACITY];
+
+	private int size;
+
+	/**
+	 * Find the identifier of an object.
+	 * 
+	 * @param hash the object hash
+	 * @param matches tests if the object associated to an identifier matches
+	 * @return the identifier or <code>-1</code> if there is no match
+	 */
+	public int find(int hash, IntPredicate matches) {
+		int mask = slots.length - 1;
+		for (int i = spread(hash) & mask;; i = (i + 1) & mask) {
+			int slot = slots[i];
+			if (slot == 0) {
+				return -1;
+			}
+			if (hashes[i] == hash && matches.test(slot - 1)) {
+				return slot - 1;
+			}
+		}
+	}
+
+	/**
+	 * Add an identifier. There is no check if the object is already contained.
+	 * 
+	 * @param hash the object hash
+	 * @param id the identifier, must not be negative
+	 */
+	public void add(int hash, int id) {
+		if ((size + 1) * 4L > slots.length * 3L) {
+			resize(slots.length * 2);
+		}
+		insert(slots, hashes, hash, id + 1);
+		size++;
+	}
+
+	/**
+	 * @return the number of identifiers in the table
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Remove all identifiers.
+	 */
+	public void clear() {
+		slots = new int[INITIAL_CAPACITY];
+		hashes = new int[INITIAL_CAPACITY];
+		size = 0;
+	}
+
+	private void resize(int capacity) {
+		int[] newSlots = new int[capacity];
+		int[] newHashes = new int[capacity];
+		for (int i = 0; i < slots.length; i++) {
+			if (slots[i] != 0) {
+				insert(newSlots, newHashes, hashes[i], slots[i]);
+			}
+		}
+		slots = newSlots;
+		hashes = newHashes;
+	}
+
+	private static void insert(int[] slots, int[] hashes, int hash, int slot) {
+		int mask = slots.length - 1;
+		int i = spread(hash) & mask;
+		while (slots[i] != 0) {
+			i = (i + 1) & mask;
+		}
+		slots[i] = slot;
+		hashes[i] = hash;
+	}
+
+	private static int spread(int hash) {
+		int h = hash * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+}
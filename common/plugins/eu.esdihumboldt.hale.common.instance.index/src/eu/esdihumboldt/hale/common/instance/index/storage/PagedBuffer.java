@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instance.index.storage;
+
+import static eu.esdihumboldt.hale.common.instance.index.storage.PagedStorage.PAGE_SHIFT;
+import static eu.esdihumboldt.hale.common.instance.index.storage.PagedStorage.PAGE_SIZE;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Growable sequence of bytes stored in pages of a {@link PagedStorage}. Data
+ * is appended at the end and may be overwritten or read at any position
+ * before the end.<br>
+ * <br>
+ * This class is not thread safe.
+ */
+public class PagedBuffer {
+
+	private static final int OFFSET_MASK = PAGE_SIZE - 1;
+
+	private final PagedStorage storage;
+
+	private final List<ByteBuffer> pages = new ArrayList<>();
+
+	private long size;
+
+	/**
+	 * Create an empty buffer.
+	 * 
+	 * @param storage the storage to allocate pages from
+	 */
+	public PagedBuffer(PagedStorage storage) {
+		super();
+		this.storage = storage;
+	}
+
+	/**
+	 * @return the number of bytes in the buffer
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Append bytes to the buffer.
+	 * 
+	 * @param bytes the bytes to append
+	 * @return the position the bytes were written to
+	 */
+	public long append(byte[] bytes) {
+		long pos = grow(bytes.length);
+		put(pos, bytes);
+		return pos;
+	}
+
+	/**
+	 * Append an integer to the buffer.
+	 * 
+	 * @param value the value to append
+	 * @return the position the value was written to
+	 */
+	public long appendInt(int value) {
+		long pos = grow(Integer.BYTES);
+		putInt(pos, value);
+		return pos;
+	}
+
+	/**
+	 * Append a long to the buffer.
+	 * 
+	 * @param value the value to append
+	 * @return the position the value was written to
+	 */
+	public long appendLong(long value) {
+		long pos = grow(Long.BYTES);
+		putLong(pos, value);
+		return pos;
+	}
+
+	/**
+	 * Write an integer.
+	 * 
+	 * @param pos the position to write to
+	 * @param value the value
+	 */
+	public void putInt(long pos, int value) {
+		int offset = offset(pos);
+		if (offset + Integer.BYTES <= PAGE_SIZE) {
+			page(pos).putInt(offset, value);
+		}
+		else {
+			for (int i = 0; i < Integer.BYTES; i++) {
+				putByte(pos + i, (byte) (value >>> (8 * (Integer.BYTES - 1 - i))));
+			}
+		}
+	}
+
+	/**
+	 * Read an integer.
+	 * 
+	 * @param pos the position to read from
+	 * @return the value
+	 */
+	public int getInt(long pos) {
+		int offset = offset(pos);
+		if (offset + Integer.BYTES <= PAGE_SIZE) {
+			return page(pos).getInt(offset);
+		}
+
+		int value = 0;
+		for (int i = 0; i < Integer.BYTES; i++) {
+			value = (value << 8) | (getByte(pos + i) & 0xff);
+		}
+		return value;
+	}
+
+	/**
+	 * Write a long.
+	 * 
+	 * @param pos the position to write to
+	 * @param value the value
+	 */
+	public void putLong(long pos, long value) {
+		putInt(pos, (int) (value >>> 32));
+		putInt(pos + Integer.BYTES, (int) value);
+	}
+
+	/**
+	 * Read a long.
+	 * 
+	 * @param pos the position to read from
+	 * @return the value
+	 */
+	public long getLong(long pos) {
+		return ((long) getInt(pos) << 32) | (getInt(pos + Integer.BYTES) & 0xffffffffL);
+	}
+
+	/**
+	 * Write bytes.
+	 * 
+	 * @param pos the position to write to
+	 * @param bytes the bytes to write
+	 */
+	public void put(long pos, byte[] bytes) {
+		int done = 0;
+		while (done < bytes.length) {
+			ByteBuffer page = page(pos + done).duplicate();
+			int offset = offset(pos + done);
+			int length = Math.min(bytes.length - done, PAGE_SIZE - offset);
+			page.position(offset);
+			page.put(bytes, done, length);
+			done += length;
+		}
+	}
+
+	/**
+	 * Read bytes.
+	 * 
+	 * @param pos the position to read from
+	 * @param bytes the array to read the bytes into, it is filled completely
+	 */
+	public void get(long pos, byte[] bytes) {
+		int done = 0;
+		while (done < bytes.length) {
+			ByteBuffer page = page(pos + done).duplicate();
+			int offset = offset(pos + done);
+			int length = Math.min(bytes.length - done, PAGE_SIZE - offset);
+			page.position(offset);
+			page.get(bytes, done, length);
+			done += length;
+		}
+	}
+
+	/**
+	 * Determine if the buffer holds the given bytes at the given position.
+	 * 
+	 * @param pos the position
+	 * @param bytes the bytes to compare
+	 * @return if the bytes are equal
+	 */
+	public boolean contentEquals(long pos, byte[] bytes) {
+		if (pos + bytes.length > size) {
+			return false;
+		}
+		for (int i = 0; i < bytes.length; i++) {
+			if (getByte(pos + i) != bytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Remove all data and release the pages.
+	 */
+	public void clear() {
+		pages.forEach(storage::releasePage);
+		pages.clear();
+		size = 0;
+	}
+
+	private long grow(int bytes) {
+		long pos = size;
+		size += bytes;
+		while ((long) pages.size() << PAGE_SHIFT < size) {
+			pages.add(storage.allocatePage());
+		}
+		return pos;
+	}
+
+	private void putByte(long pos, byte value) {
+		page(pos).put(offset(pos), value);
+	}
+
+	private byte getByte(long pos) {
+		return page(pos).get(offset(pos));
+	}
+
+	private ByteBuffer page(long pos) {
+		return pages.get((int) (pos >>> PAGE_SHIFT));
+	}
+
+	private static int offset(long pos) {
+		return (int) (pos & OFFSET_MASK);
+	}
+
+}
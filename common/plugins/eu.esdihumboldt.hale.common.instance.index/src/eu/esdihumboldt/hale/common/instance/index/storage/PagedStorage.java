@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instance.index.storage;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Pool of fixed size memory pages. Pages are allocated on the heap as long as
+ * the associated {@link HeapBudget} allows it, after that pages are allocated
+ * in a memory mapped temporary file.<br>
+ * <br>
+ * This class is not thread safe.
+ */
+public class PagedStorage implements Closeable {
+
+	/**
+	 * Number of bits of a position addressing the offset within a page.
+	 */
+	public static final int PAGE_SHIFT = 16;
+
+	/**
+	 * The size of a page in bytes.
+	 */
+	public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+	/**
+	 * Number of pages mapped at once from the temporary file (64 MiB).
+	 */
+	private static final int PAGES_PER_SEGMENT = 1024;
+
+	private final HeapBudget budget;
+
+	private final File directory;
+
+	private final Deque<ByteBuffer> freeMappedPages = new ArrayDeque<>();
+
+	private File file;
+
+	private RandomAccessFile raf;
+
+	private MappedByteBuffer segment;
+
+	private int segmentCount;
+
+	private int nextPageInSegment;
+
+	private long heapPages;
+
+	/**
+	 * Create a paged storage.
+	 * 
+	 * @param budget the heap budget to respect when allocating pages on the
+	 *            heap
+	 * @param directory the directory to create the temporary file in,
+	 *            <code>null</code> for the default temporary directory
+	 */
+	public PagedStorage(HeapBudget budget, File directory) {
+		super();
+		this.budget = budget;
+		this.directory = directory;
+	}
+
+	/**
+	 * Allocate a page.
+	 * 
+	 * @return the page with a capacity of {@link #PAGE_SIZE}
+	 */
+	public ByteBuffer allocatePage() {
+		if (budget.tryReserve(PAGE_SIZE)) {
+			heapPages++;
+			return ByteBuffer.allocate(PAGE_SIZE);
+		}
+
+		ByteBuffer page = freeMappedPages.poll();
+		if (page != null) {
+			return page;
+		}
+
+		if (segment == null || nextPageInSegment >= PAGES_PER_SEGMENT) {
+			mapSegment();
+		}
+
+		segment.limit((nextPageInSegment + 1) * PAGE_SIZE);
+		segment.position(nextPageInSegment * PAGE_SIZE);
+		nextPageInSegment++;
+		return segment.slice();
+	}
+
+	/**
+	 * Release a page that was allocated with {@link #allocatePage()}. The page
+	 * must not be used afterwards.
+	 * 
+	 * @param page the page to release
+	 */
+	public void releasePage(ByteBuffer page) {
+		if (page.isDirect()) {
+			freeMappedPages.push(page);
+		}
+		else {
+			heapPages--;
+			budget.release(PAGE_SIZE);
+		}
+	}
+
+	/**
+	 * @return if pages have been allocated in the temporary file
+	 */
+	public boolean isSpilled() {
+		return segment != null;
+	}
+
+	private void mapSegment() {
+		try {
+			if (raf == null) {
+				file = File.createTempFile("hale-index", ".bin", directory);
+				file.deleteOnExit();
+				raf = new RandomAccessFile(file, "rw");
+			}
+
+			long segmentSize = (long) PAGES_PER_SEGMENT * PAGE_SIZE;
+			segment = raf.getChannel().map(MapMode.READ_WRITE, segmentCount * segmentSize,
+					segmentSize);
+			segmentCount++;
+			nextPageInSegment = 0;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to extend index storage in temporary file", e);
+		}
+	}
+
+	/**
+	 * Release all pages and delete the temporary file. Pages allocated before
+	 * must no longer be used, but the storage may be used to allocate new
+	 * pages.
+	 */
+	@Override
+	public void close() {
+		budget.release(heapPages * PAGE_SIZE);
+		heapPages = 0;
+
+		freeMappedPages.clear();
+		segment = null;
+		segmentCount = 0;
+		nextPageInSegment = 0;
+		if (raf != null) {
+			try {
+				raf.close();
+			} catch (IOException e) {
+				// ignore
+			}
+			raf = null;
+		}
+		if (file != null) {
+			// may fail on some platforms while the file is still mapped, in
+			// that case it is deleted on exit
+			file.delete();
+			file = null;
+		}
+	}
+
+}
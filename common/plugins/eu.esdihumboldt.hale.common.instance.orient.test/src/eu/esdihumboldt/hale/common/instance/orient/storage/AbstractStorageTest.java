@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instance.orient.storage;
+
+import static org.junit.Assert.assertNotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
+
+import eu.esdihumboldt.hale.common.instance.model.DataSet;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.model.InstanceCollection;
+import eu.esdihumboldt.hale.common.instance.model.ResourceIterator;
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstance;
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstanceCollection;
+import eu.esdihumboldt.hale.common.schema.model.constraint.property.Cardinality;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.Binding;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.HasValueFlag;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.MappingRelevantFlag;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultPropertyDefinition;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultTypeDefinition;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultTypeIndex;
+
+/**
+ * Base class for tests storing instances in a {@link LocalOrientDB} located in
+ * a temporary folder.
+ */
+public abstract class AbstractStorageTest {
+
+	private static final String NS = "http://www.esdi-humboldt.eu/hale/test/orient";
+
+	/**
+	 * Name of the identifier property of the test type.
+	 */
+	protected static final QName ID = new QName(NS, "id");
+
+	/**
+	 * Temporary folder for the database.
+	 */
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	/**
+	 * The test database.
+	 */
+	protected LocalOrientDB database;
+
+	/**
+	 * The test type, with a single string identifier property.
+	 */
+	protected DefaultTypeDefinition type;
+
+	/**
+	 * Type index containing the test type.
+	 */
+	protected DefaultTypeIndex types;
+
+	/**
+	 * Create the database and the test type.
+	 * 
+	 * @throws IOException if creating the database folder fails
+	 */
+	@Before
+	public void setUpDatabase() throws IOException {
+		database = new LocalOrientDB(tmp.newFolder("db"));
+
+		DefaultTypeDefinition stringType = new DefaultTypeDefinition(new QName(NS, "string"));
+		stringType.setConstraint(HasValueFlag.ENABLED);
+		stringType.setConstraint(Binding.get(String.class));
+
+		type = new DefaultTypeDefinition(new QName(NS, "Item"));
+		type.setConstraint(MappingRelevantFlag.ENABLED);
+		DefaultPropertyDefinition id = new DefaultPropertyDefinition(ID, type, stringType);
+		id.setConstraint(Cardinality.CC_EXACTLY_ONCE);
+
+		types = new DefaultTypeIndex();
+		types.addType(type);
+	}
+
+	/**
+	 * Delete the database.
+	 */
+	@After
+	public void tearDownDatabase() {
+		database.delete();
+	}
+
+	/**
+	 * Create an instance of the test type.
+	 * 
+	 * @param id the identifier of the instance
+	 * @return the instance
+	 */
+	protected DefaultInstance createInstance(String id) {
+		DefaultInstance instance = new DefaultInstance(type, DataSet.SOURCE);
+		instance.addProperty(ID, id);
+		return instance;
+	}
+
+	/**
+	 * Create a collection of instances of the test type.
+	 * 
+	 * @param prefix the prefix of the instance identifiers
+	 * @param count the number of instances
+	 * @return the instance collection
+	 */
+	protected InstanceCollection createInstances(String prefix, int count) {
+		List<Instance> instances = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			instances.add(createInstance(prefix + i));
+		}
+		return new DefaultInstanceCollection(instances);
+	}
+
+	/**
+	 * Get the identifier of an instance of the test type.
+	 * 
+	 * @param instance the instance
+	 * @return the identifier
+	 */
+	protected static String getId(Instance instance) {
+		Object[] values = instance.getProperty(ID);
+		assertNotNull(values);
+		return (String) values[0];
+	}
+
+	/**
+	 * Read the identifiers of all instances stored in the database.
+	 * 
+	 * @return the identifiers of the stored instances
+	 */
+	protected List<String> readStoredIds() {
+		List<String> ids = new ArrayList<>();
+		InstanceCollection stored = new BrowseOrientInstanceCollection(database, types,
+				DataSet.SOURCE);
+		try (ResourceIterator<Instance> it = stored.iterator()) {
+			while (it.hasNext()) {
+				ids.add(getId(it.next()));
+			}
+		}
+		return ids;
+	}
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instance.orient.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.orientechnologies.orient.core.id.ORID;
+
+import eu.esdihumboldt.hale.common.instance.model.DataSet;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.orient.OInstance;
+
+/**
+ * Tests for {@link BatchedInstanceWriter}.
+ */
+public class BatchedInstanceWriterTest extends AbstractStorageTest {
+
+	/**
+	 * Test that all instances are saved, including an incomplete last batch,
+	 * and that the handler is notified with references to the saved
+	 * documents.
+	 */
+	@Test
+	public void testStore() {
+		List<Instance> notified = Collections.synchronizedList(new ArrayList<>());
+		List<ORID> ids = Collections.synchronizedList(new ArrayList<>());
+		List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+
+		List<Instance> instances = new ArrayList<>();
+		BatchedInstanceWriter writer = new BatchedInstanceWriter(database, 3, 2,
+				(instance, conv, doc) -> {
+					notified.add(instance);
+					ids.add(doc.getIdentity());
+					threads.add(Thread.currentThread());
+				});
+		try {
+			for (int i = 0; i < 10; i++) {
+				Instance instance = createInstance("id" + i);
+				instances.add(instance);
+				writer.add(instance, new OInstance(instance));
+			}
+		} finally {
+			writer.close();
+		}
+
+		assertEquals(10, writer.getStoredCount());
+
+		// handler is notified on the writer thread, in the order of adding
+		assertEquals(instances, notified);
+		assertFalse(threads.contains(Thread.currentThread()));
+		assertEquals(1, threads.stream().distinct().count());
+
+		// references resolve to the saved instances
+		for (int i = 0; i < ids.size(); i++) {
+			ORID id = ids.get(i);
+			assertTrue(id.isPersistent());
+			Instance loaded = new OrientInstanceReference(id, DataSet.SOURCE, type)
+					.load(database, this);
+			assertNotNull(loaded);
+			assertEquals("id" + i, getId(loaded));
+		}
+
+		List<String> stored = readStoredIds();
+		assertEquals(10, stored.size());
+		for (int i = 0; i < 10; i++) {
+			assertTrue(stored.contains("id" + i));
+		}
+	}
+
+	/**
+	 * Test that an incomplete batch is only saved when the writer is closed
+	 * and that closing the writer more than once is possible, while adding
+	 * instances to a closed writer fails.
+	 */
+	@Test
+	public void testClose() {
+		BatchedInstanceWriter writer = new BatchedInstanceWriter(database, 100, 2, null);
+		try {
+			for (int i = 0; i < 5; i++) {
+				Instance instance = createInstance("id" + i);
+				writer.add(instance, new OInstance(instance));
+			}
+
+			// batch was not handed over yet
+			assertEquals(0, writer.getStoredCount());
+		} finally {
+			writer.close();
+		}
+
+		assertEquals(5, writer.getStoredCount());
+		assertEquals(5, readStoredIds().size());
+
+		writer.close();
+
+		Instance instance = createInstance("late");
+		try {
+			writer.add(instance, new OInstance(instance));
+			fail("Adding instances to a closed writer should fail");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Test that the writer can be closed without any instances added, i.e.
+	 * that the writer thread ends on the end marker alone.
+	 */
+	@Test
+	public void testCloseEmpty() {
+		BatchedInstanceWriter writer = new BatchedInstanceWriter(database, 10, 1, null);
+		writer.close();
+
+		assertEquals(0, writer.getStoredCount());
+		assertEquals(0, writer.getInstancesPerSecond(), 0);
+		assertTrue(readStoredIds().isEmpty());
+	}
+
+	/**
+	 * Test that an error on the writer thread is propagated to the threads
+	 * adding instances and to {@link BatchedInstanceWriter#close()}, and that
+	 * adding instances does not block after the error.
+	 */
+	@Test(timeout = 30000)
+	public void testErrorPropagation() {
+		RuntimeException error = new IllegalArgumentException("Test failure");
+		BatchedInstanceWriter writer = new BatchedInstanceWriter(database, 1, 1,
+				(instance, conv, doc) -> {
+					throw error;
+				});
+
+		// keep adding until the failure is reported
+		RuntimeException reported = null;
+		for (int i = 0; i < 100000 && reported == null; i++) {
+			Instance instance = createInstance("id" + i);
+			try {
+				writer.add(instance, new OInstance(instance));
+			} catch (RuntimeException e) {
+				reported = e;
+			}
+		}
+		assertSame(error, reported);
+
+		try {
+			writer.close();
+			fail("Closing the writer should report the error");
+		} catch (RuntimeException e) {
+			assertSame(error, e);
+		}
+
+		// only the first instance was saved before the handler failed
+		assertEquals(1, writer.getStoredCount());
+	}
+
+	/**
+	 * Test that adding instances blocks while the maximum number of batches is
+	 * waiting to be saved and continues once the writer thread catches up.
+	 * 
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	@Test(timeout = 30000)
+	public void testBlockOnFullQueue() throws InterruptedException {
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		BatchedInstanceWriter writer = new BatchedInstanceWriter(database, 1, 1,
+				(instance, conv, doc) -> {
+					writing.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+		try {
+			// first batch is taken by the writer thread, which then blocks
+			Instance first = createInstance("id0");
+			writer.add(first, new OInstance(first));
+			assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+			// second batch fills the queue
+			Instance second = createInstance("id1");
+			writer.add(second, new OInstance(second));
+
+			// third batch has to wait
+			CountDownLatch added = new CountDownLatch(1);
+			Thread producer = new Thread(() -> {
+				Instance third = createInstance("id2");
+				writer.add(third, new OInstance(third));
+				added.countDown();
+			});
+			producer.start();
+
+			assertFalse("Adding an instance should block while the queue is full",
+					added.await(500, TimeUnit.MILLISECONDS));
+
+			release.countDown();
+			assertTrue(added.await(10, TimeUnit.SECONDS));
+			producer.join();
+		} finally {
+			release.countDown();
+			writer.close();
+		}
+
+		assertEquals(3, writer.getStoredCount());
+		assertEquals(3, readStoredIds().size());
+	}
+
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instance.orient.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.esdihumboldt.hale.common.core.report.Report;
+import eu.esdihumboldt.hale.common.instance.model.DataSet;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.model.InstanceCollection;
+import eu.esdihumboldt.hale.common.instance.model.MutableInstance;
+import eu.esdihumboldt.hale.common.instance.model.ResourceIterator;
+import eu.esdihumboldt.hale.common.instance.model.impl.MultiInstanceCollection;
+
+/**
+ * Tests for {@link StoreInstancesJob} reading instances from multiple instance
+ * collections in parallel.
+ */
+public class ParallelStoreInstancesJobTest extends AbstractStorageTest {
+
+	private static final String SEQUENCE = "sequence";
+
+	/**
+	 * Job storing instances with synchronized callbacks that update state that
+	 * is not thread safe, like the job used in the UI.
+	 */
+	private static class SynchronizedStoreInstancesJob extends StoreInstancesJob {
+
+		private final String failOn;
+
+		private final Map<String, Integer> processed = new HashMap<>();
+
+		private final Set<String> threads = new HashSet<>();
+
+		private int sequence;
+
+		public SynchronizedStoreInstancesJob(LocalOrientDB database,
+				InstanceCollection instances, List<Report<?>> reports, String failOn) {
+			super("Store instances", database, instances, reports::add);
+			this.failOn = failOn;
+		}
+
+		@Override
+		protected synchronized void processInstance(Instance instance) {
+			super.processInstance(instance);
+
+			String id = getId(instance);
+			processed.merge(id, 1, Integer::sum);
+			threads.add(Thread.currentThread().getName());
+
+			if (id.equals(failOn)) {
+				throw new IllegalStateException("Test failure");
+			}
+		}
+
+		@Override
+		protected synchronized void updateInstance(MutableInstance instance) {
+			super.updateInstance(instance);
+
+			instance.putMetaData(SEQUENCE, sequence++);
+		}
+
+	}
+
+	private final List<Report<?>> reports = new ArrayList<>();
+
+	/**
+	 * Configure saving on the writer thread and reading with multiple threads.
+	 */
+	@Before
+	public void configureParallelLoad() {
+		System.setProperty("hale.orient.insert_batch_size", "3");
+		System.setProperty("hale.orient.load_threads", "3");
+	}
+
+	/**
+	 * Reset the settings.
+	 */
+	@After
+	public void resetSettings() {
+		System.clearProperty("hale.orient.insert_batch_size");
+		System.clearProperty("hale.orient.load_threads");
+	}
+
+	/**
+	 * Test that every instance of the leaves of nested multi instance
+	 * collections is processed and stored exactly once if the collections are
+	 * read in parallel.
+	 */
+	@Test(timeout = 60000)
+	public void testStoreParallel() {
+		InstanceCollection instances = createCollections();
+		int count = instances.size();
+
+		SynchronizedStoreInstancesJob job = new SynchronizedStoreInstancesJob(database,
+				instances, reports, null);
+		IStatus status = job.run(new NullProgressMonitor());
+
+		assertTrue(status.isOK());
+		assertEquals("Stored " + count + " instances in the database.", status.getMessage());
+		assertEquals(1, reports.size());
+		assertTrue(reports.get(0).isSuccess());
+
+		// every instance was processed exactly once
+		assertEquals(count, job.processed.size());
+		for (Map.Entry<String, Integer> entry : job.processed.entrySet()) {
+			assertEquals("Instance " + entry.getKey() + " processed more than once",
+					Integer.valueOf(1), entry.getValue());
+		}
+
+		// instances were read on the reader threads
+		assertFalse(job.threads.isEmpty());
+		for (String thread : job.threads) {
+			assertTrue(thread.startsWith("instance-reader-"));
+		}
+
+		// every instance was stored exactly once with a unique sequence number
+		Set<String> ids = new HashSet<>();
+		Set<Object> sequences = new HashSet<>();
+		InstanceCollection stored = new BrowseOrientInstanceCollection(database, types,
+				DataSet.SOURCE);
+		try (ResourceIterator<Instance> it = stored.iterator()) {
+			while (it.hasNext()) {
+				Instance instance = it.next();
+				assertTrue("Instance stored more than once", ids.add(getId(instance)));
+
+				List<Object> sequence = instance.getMetaData(SEQUENCE);
+				assertNotNull(sequence);
+				assertEquals(1, sequence.size());
+				assertTrue(sequences.add(sequence.get(0)));
+			}
+		}
+		assertEquals(job.processed.keySet(), ids);
+		assertEquals(count, sequences.size());
+	}
+
+	/**
+	 * Test that an error on one of the reader threads is reported and
+	 * propagated to the job.
+	 */
+	@Test(timeout = 60000)
+	public void testErrorParallel() {
+		SynchronizedStoreInstancesJob job = new SynchronizedStoreInstancesJob(database,
+				createCollections(), reports, "c10");
+		try {
+			job.run(new NullProgressMonitor());
+			fail("Storing instances should fail");
+		} catch (IllegalStateException e) {
+			assertEquals("Test failure", e.getMessage());
+		}
+
+		assertEquals(1, reports.size());
+		Report<?> report = reports.get(0);
+		assertFalse(report.isSuccess());
+		assertEquals(1, report.getErrors().size());
+	}
+
+	/**
+	 * @return instances provided by four collections, two of them in a nested
+	 *         multi instance collection
+	 */
+	private InstanceCollection createCollections() {
+		InstanceCollection nested = new MultiInstanceCollection(
+				Arrays.asList(createInstances("b", 15), createInstances("c", 25)));
+		return new MultiInstanceCollection(
+				Arrays.asList(createInstances("a", 20), nested, createInstances("d", 1)));
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instance.orient.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Test;
+
+import eu.esdihumboldt.hale.common.core.report.Report;
+import eu.esdihumboldt.hale.common.core.report.ReportHandler;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.model.InstanceCollection;
+
+/**
+ * Tests for {@link StoreInstancesJob}.
+ */
+public class StoreInstancesJobTest extends AbstractStorageTest {
+
+	/**
+	 * Job storing instances that records the reports and can be configured to
+	 * fail on a specific instance.
+	 */
+	private static class TestStoreInstancesJob extends StoreInstancesJob {
+
+		private final String failOn;
+
+		private boolean completed;
+
+		public TestStoreInstancesJob(LocalOrientDB database, InstanceCollection instances,
+				ReportHandler reportHandler, String failOn) {
+			super("Store instances", database, instances, reportHandler);
+			this.failOn = failOn;
+		}
+
+		@Override
+		protected void processInstance(Instance instance) {
+			super.processInstance(instance);
+
+			if (failOn != null && failOn.equals(getId(instance))) {
+				throw new IllegalStateException("Test failure");
+			}
+		}
+
+		@Override
+		protected void onComplete() {
+			completed = true;
+		}
+
+	}
+
+	private final List<Report<?>> reports = new ArrayList<>();
+
+	/**
+	 * Reset the batch size setting.
+	 */
+	@After
+	public void resetBatchSize() {
+		System.clearProperty("hale.orient.insert_batch_size");
+	}
+
+	/**
+	 * Test storing instances on the writer thread.
+	 */
+	@Test
+	public void testStoreBatched() {
+		System.setProperty("hale.orient.insert_batch_size", "3");
+
+		testStore(10);
+	}
+
+	/**
+	 * Test storing instances on the job thread.
+	 */
+	@Test
+	public void testStoreDirect() {
+		System.setProperty("hale.orient.insert_batch_size", "0");
+
+		testStore(10);
+	}
+
+	/**
+	 * Test that an error reading the instances is reported and propagated if
+	 * instances are stored on the writer thread.
+	 */
+	@Test(timeout = 30000)
+	public void testErrorBatched() {
+		System.setProperty("hale.orient.insert_batch_size", "3");
+
+		TestStoreInstancesJob job = new TestStoreInstancesJob(database,
+				createInstances("id", 10), reports::add, "id5");
+		try {
+			job.run(new NullProgressMonitor());
+			fail("Storing instances should fail");
+		} catch (IllegalStateException e) {
+			assertEquals("Test failure", e.getMessage());
+		}
+
+		assertFalse(job.completed);
+		assertEquals(1, reports.size());
+		Report<?> report = reports.get(0);
+		assertFalse(report.isSuccess());
+		assertEquals(1, report.getErrors().size());
+
+		// instances read before the failure were saved when closing the
+		// writer
+		assertEquals(5, readStoredIds().size());
+	}
+
+	private void testStore(int count) {
+		TestStoreInstancesJob job = new TestStoreInstancesJob(database,
+				createInstances("id", count), reports::add, null);
+		IStatus status = job.run(new NullProgressMonitor());
+
+		assertTrue(status.isOK());
+		// count of instances passed to the stored handler
+		assertEquals("Stored " + count + " instances in the database.", status.getMessage());
+		assertTrue(job.completed);
+
+		assertEquals(1, reports.size());
+		Report<?> report = reports.get(0);
+		assertTrue(report.isSuccess());
+		assertEquals(status.getMessage(), report.getSummary());
+
+		List<String> stored = readStoredIds();
+		assertEquals(count, stored.size());
+		Set<String> expected = new TreeSet<>();
+		for (int i = 0; i < count; i++) {
+			expected.add("id" + i);
+		}
+		assertEquals(expected, new TreeSet<>(stored));
+		assertNotNull(report.getStartTime());
+	}
+
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instance.orient.storage;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.intent.OIntentMassiveInsert;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.orient.OInstance;
+
+/**
+ * Writes instances to a {@link LocalOrientDB} on a dedicated writer thread.
+ * Instances are converted to {@link OInstance}s by the threads adding them
+ * and are handed over to the writer thread in batches, which configures and
+ * saves the corresponding documents. Saving the documents is not done in
+ * database transactions, as the record IDs of saved documents must be final
+ * when the handler is notified.<br>
+ * <br>
+ * The writer thread holds the write lock on the database until the writer is
+ * closed, so the database must not be locked for writing by the threads
+ * adding instances. {@link #close()} must always be called, also if adding
+ * an instance fails.
+ */
+public class BatchedInstanceWriter implements Closeable {
+
+	/**
+	 * Handler notified on the writer thread about saved instances.
+	 */
+	public interface StoredInstanceHandler {
+
+		/**
+		 * Called after an instance was saved to the database.
+		 * 
+		 * @param instance the original instance
+		 * @param conv the converted instance
+		 * @param doc the saved document
+		 */
+		public void stored(Instance instance, OInstance conv, ODocument doc);
+
+	}
+
+	private static class Entry {
+
+		private final Instance instance;
+
+		private final OInstance conv;
+
+		private Entry(Instance instance, OInstance conv) {
+			this.instance = instance;
+			this.conv = conv;
+		}
+
+	}
+
+	/**
+	 * Marks the end of the batches.
+	 */
+	private static final List<Entry> END = Collections.emptyList();
+
+	private final LocalOrientDB database;
+
+	private final int batchSize;
+
+	private final StoredInstanceHandler handler;
+
+	private final BlockingQueue<List<Entry>> batches;
+
+	private final Thread writerThread;
+
+	private final AtomicLong storedCount = new AtomicLong();
+
+	private final StorageMetrics metrics = StorageMetrics.get();
+
+	private volatile long writeNanos;
+
+	private volatile Throwable failure;
+
+	private List<Entry> batch;
+
+	private boolean closed;
+
+	/**
+	 * Create a writer and start the writer thread.
+	 * 
+	 * @param database the database to write to
+	 * @param batchSize the number of instances to hand over to the writer
+	 *            thread at once
+	 * @param maxPendingBatches the maximum number of batches waiting to be
+	 *            written, adding instances blocks if this number is reached
+	 * @param handler the handler to notify about saved instances, may be
+	 *            <code>null</code>
+	 */
+	public BatchedInstanceWriter(LocalOrientDB database, int batchSize, int maxPendingBatches,
+			StoredInstanceHandler handler) {
+		super();
+		this.database = database;
+		this.batchSize = Math.max(1, batchSize);
+		this.handler = handler;
+
+		batches = new ArrayBlockingQueue<>(Math.max(1, maxPendingBatches));
+		batch = new ArrayList<>(this.batchSize);
+
+		writerThread = new Thread(this::write, "orient-writer");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	/**
+	 * Add an instance to be written to the database.
+	 * 
+	 * @param instance the original instance
+	 * @param conv the converted instance to save
+	 * @throws IllegalStateException if writing to the database failed or the
+	 *             writer was already closed
+	 */
+	public synchronized void add(Instance instance, OInstance conv) {
+		checkFailure();
+		if (closed) {
+			throw new IllegalStateException("Writer was already closed");
+		}
+
+		batch.add(new Entry(instance, conv));
+		if (batch.size() >= batchSize) {
+			handOver();
+		}
+	}
+
+	/**
+	 * @return the number of instances saved so far
+	 */
+	public long getStoredCount() {
+		return storedCount.get();
+	}
+
+	/**
+	 * @return the number of instances saved per second, based on the time the
+	 *         writer thread spent saving instances
+	 */
+	public double getInstancesPerSecond() {
+		long nanos = writeNanos;
+		if (nanos <= 0) {
+			return 0;
+		}
+		return storedCount.get() / (nanos / 1e9);
+	}
+
+	/**
+	 * Write the remaining instances and wait for the writer thread to
+	 * complete.
+	 * 
+	 * @throws IllegalStateException if writing to the database failed
+	 */
+	@Override
+	public synchronized void close() {
+		if (!closed) {
+			closed = true;
+
+			if (failure == null && !batch.isEmpty()) {
+				handOver();
+			}
+			put(END);
+
+			try {
+				writerThread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for database writer",
+						e);
+			}
+		}
+
+		checkFailure();
+	}
+
+	private void handOver() {
+		if (metrics != null) {
+			// count before the writer thread can take the batch
+			metrics.pendingBatches.inc();
+		}
+		put(batch);
+		batch = new ArrayList<>(batchSize);
+	}
+
+	private void put(List<Entry> entries) {
+		try {
+			batches.put(entries);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while handing over instances to writer",
+					e);
+		}
+	}
+
+	private void checkFailure() {
+		Throwable e = failure;
+		if (e instanceof RuntimeException) {
+			throw (RuntimeException) e;
+		}
+		if (e instanceof Error) {
+			throw (Error) e;
+		}
+		if (e != null) {
+			throw new IllegalStateException("Error writing instances to database", e);
+		}
+	}
+
+	private void write() {
+		DatabaseReference<ODatabaseDocumentTx> ref = database.openWrite();
+		try {
+			ODatabaseDocumentTx db = ref.getDatabase();
+
+			// use intent
+			db.declareIntent(new OIntentMassiveInsert());
+
+			List<Entry> entries;
+			while ((entries = batches.take()) != END) {
+				if (metrics != null) {
+					metrics.pendingBatches.dec();
+				}
+				long start = System.nanoTime();
+				for (Entry entry : entries) {
+					ODatabaseRecordThreadLocal.INSTANCE.set(db);
+					// configure the document
+					ODocument doc = entry.conv.configureDocument(db);
+					// and save it
+					doc.save();
+
+					storedCount.incrementAndGet();
+
+					if (handler != null) {
+						handler.stored(entry.instance, entry.conv, doc);
+					}
+				}
+				long batchNanos = System.nanoTime() - start;
+				writeNanos += batchNanos;
+				if (metrics != null) {
+					metrics.batchSeconds.observe(batchNanos / 1e9);
+				}
+			}
+
+			db.declareIntent(null);
+		} catch (Throwable e) {
+			failure = e;
+
+			// discard remaining batches so producers are not blocked
+			try {
+				while (batches.take() != END) {
+					// discard
+					if (metrics != null) {
+						metrics.pendingBatches.dec();
+					}
+				}
+			} catch (InterruptedException e1) {
+				// stop waiting
+			}
+		} finally {
+			ref.dispose();
+		}
+	}
+
+}
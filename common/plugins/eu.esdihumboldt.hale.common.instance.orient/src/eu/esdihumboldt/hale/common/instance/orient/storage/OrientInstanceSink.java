@@ -58,7 +58,7 @@ public class OrientInstanceSink implements InstanceSink, Closeable {
 	 * @see InstanceSink#addInstance(Instance)
 	 */
 	@Override
-	public synchronized void addInstance(Instance instance) {
+	public void addInstance(Instance instance) {
 		putInstance(instance);
 	}
 
@@ -68,27 +68,33 @@ public class OrientInstanceSink implements InstanceSink, Closeable {
 	 * @param instance the instance to add
 	 * @return the instance reference
 	 */
-	public synchronized InstanceReference putInstance(Instance instance) {
-		if (ref == null) {
-			ref = database.openWrite();
+	public InstanceReference putInstance(Instance instance) {
+		synchronized (this) {
+			// further processing before saving
+			processInstance(instance);
 		}
 
-		ODatabaseDocumentTx db = ref.getDatabase();
-
-		// further processing before saving
-		processInstance(instance);
-
-		// get/create OInstance
+		// get/create OInstance (outside of the lock, so instances added from
+		// multiple threads can be converted concurrently)
 		OInstance conv = ((instance instanceof OInstance) ? ((OInstance) instance)
 				: (new OInstance(instance)));
 
 		conv.setInserted(true);
 
-		ODatabaseRecordThreadLocal.INSTANCE.set(db);
-		// configure the document
-		ODocument doc = conv.configureDocument(db);
-		// and save it
-		doc.save();
+		ODocument doc;
+		synchronized (this) {
+			if (ref == null) {
+				ref = database.openWrite();
+			}
+
+			ODatabaseDocumentTx db = ref.getDatabase();
+
+			ODatabaseRecordThreadLocal.INSTANCE.set(db);
+			// configure the document
+			doc = conv.configureDocument(db);
+			// and save it
+			doc.save();
+		}
 
 		return new OrientInstanceReference(doc.getIdentity(), instance.getDataSet(),
 				instance.getDefinition());
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instance.orient.storage;
+
+import eu.esdihumboldt.util.metrics.CollectorRegistryService;
+import eu.esdihumboldt.util.metrics.MetricsProvider;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
+
+/**
+ * Prometheus metrics of loading instances into a database. Metrics are only
+ * collected if metric collection is enabled, see
+ * {@link CollectorRegistryService}.
+ */
+class StorageMetrics implements MetricsProvider {
+
+	private static final StorageMetrics INSTANCE = CollectorRegistryService.DEFAULT
+			.registerIfEnabled(StorageMetrics::new);
+
+	/**
+	 * Get the storage metrics.
+	 * 
+	 * @return the storage metrics or <code>null</code> if metric collection is
+	 *         disabled
+	 */
+	public static StorageMetrics get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * The number of instances read from the source to be stored.
+	 */
+	final Counter readInstances = Counter.build().name("hale_orient_read_instances_total")
+			.help("The number of instances read to be stored in a database.").create();
+
+	/**
+	 * The number of instances saved in the database.
+	 */
+	final Counter storedInstances = Counter.build().name("hale_orient_stored_instances_total")
+			.help("The number of instances saved in a database.").create();
+
+	/**
+	 * The number of batches waiting to be saved by a writer thread.
+	 */
+	final Gauge pendingBatches = Gauge.build().name("hale_orient_pending_batches")
+			.help("The number of instance batches waiting to be saved by a writer thread.")
+			.create();
+
+	/**
+	 * The time spent saving a batch of instances.
+	 */
+	final Histogram batchSeconds = Histogram.build().name("hale_orient_batch_write_seconds")
+			.help("Time spent saving a batch of instances, including instance processing "
+					+ "and indexing.")
+			.create();
+
+	@Override
+	public void bindTo(CollectorRegistry registry) {
+		readInstances.register(registry);
+		storedInstances.register(registry);
+		pendingBatches.register(registry);
+		batchSeconds.register(registry);
+	}
+
+}
@@ -17,10 +17,16 @@
 package eu.esdihumboldt.hale.common.instance.orient.storage;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 import javax.xml.namespace.QName;
 
@@ -54,7 +60,9 @@ import eu.esdihumboldt.hale.common.instance.model.InstanceCollection;
 import eu.esdihumboldt.hale.common.instance.model.MutableInstance;
 import eu.esdihumboldt.hale.common.instance.model.ResolvableInstanceReference;
 import eu.esdihumboldt.hale.common.instance.model.ResourceIterator;
+import eu.esdihumboldt.hale.common.instance.model.impl.MultiInstanceCollection;
 import eu.esdihumboldt.hale.common.instance.orient.OInstance;
+import eu.esdihumboldt.hale.common.instance.orient.storage.BatchedInstanceWriter.StoredInstanceHandler;
 import eu.esdihumboldt.hale.common.instance.processing.InstanceProcessingExtension;
 import eu.esdihumboldt.hale.common.instance.processing.InstanceProcessor;
 import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
@@ -89,6 +97,17 @@ public abstract class StoreInstancesJob extends Job {
 
 	private static final ALogger log = ALoggerFactory.getLogger(StoreInstancesJob.class);
 
+	/**
+	 * Default number of instances handed over to the writer thread at once,
+	 * saving instances on a separate writer thread is disabled by default.
+	 */
+	private static final int DEFAULT_BATCH_SIZE = 0;
+
+	/**
+	 * Maximum number of batches waiting to be saved.
+	 */
+	private static final int MAX_PENDING_BATCHES = 4;
+
 	private InstanceCollection instances;
 	private final LocalOrientDB database;
 
@@ -168,15 +187,18 @@ public abstract class StoreInstancesJob extends Job {
 			report.setStartTime(new Date());
 		}
 
-		// get database connection
-		DatabaseReference<ODatabaseDocumentTx> ref = database.openWrite();
-		ODatabaseDocumentTx db = ref.getDatabase();
+		int batchSize = getBatchSize();
+
+		StorageMetrics metrics = StorageMetrics.get();
+
+		// get database connection (if not writing in batches)
+		DatabaseReference<ODatabaseDocumentTx> ref = (batchSize > 0) ? (null)
+				: (database.openWrite());
+		ODatabaseDocumentTx db = (ref != null) ? (ref.getDatabase()) : (null);
+		BatchedInstanceWriter writer = null;
 
 		ATransaction trans = log.begin("Store instances in database");
 		try {
-			// use intent
-			db.declareIntent(new OIntentMassiveInsert());
-
 			// Find all the InstanceProcessors to feed them the stored Instances
 			final List<InstanceProcessor> processors;
 			if (doProcessing) {
@@ -199,95 +221,108 @@ public abstract class StoreInstancesJob extends Job {
 				indexService = null;
 			}
 
-			// TODO decouple next() and save()?
+			StoredInstanceHandler storedHandler = (instance, conv, doc) -> {
+				// Create an InstanceReference for the saved instance and feed
+				// it to all known InstanceProcessors. The decoration with
+				// ResolvableInstanceReference allows the InstanceProcessors to
+				// resolve the instances if required.
+				OrientInstanceReference oRef = new OrientInstanceReference(doc.getIdentity(),
+						conv.getDataSet(), conv.getDefinition());
+				IdentifiableInstanceReference idRef = new IdentifiableInstanceReference(oRef,
+						doc.getIdentity());
+				ResolvableInstanceReference resolvableRef = new ResolvableInstanceReference(idRef,
+						browser);
+
+				processors.forEach(p -> p.process(instance, resolvableRef));
+
+				if (indexService != null) {
+					indexService.add(instance, resolvableRef);
+				}
 
-			SimpleLogContext.withLog(report, () -> {
-				if (report != null && instances instanceof LogAware) {
-					((LogAware) instances).setLog(report);
+				count.incrementAndGet();
+				if (metrics != null) {
+					metrics.storedInstances.inc();
 				}
 
-				ResourceIterator<Instance> it = instances.iterator();
-				int size = instances.size();
-				try {
-					while (it.hasNext() && !monitor.isCanceled()) {
-						long lastUpdate = 0; // last count update
-
-						if (report != null && instances instanceof LogAware) {
-							((LogAware) instances).setLog(report);
-						}
-
-						Instance instance = it.next();
-
-						// further processing before storing
-						processInstance(instance);
-
-						// get/create OInstance
-						OInstance conv = ((instance instanceof OInstance) ? ((OInstance) instance)
-								: (new OInstance(instance)));
-
-						conv.setInserted(true);
-
-						// update the instance to store, e.g. generating
-						// metadata
-						updateInstance(conv);
-
-						ODatabaseRecordThreadLocal.INSTANCE.set(db);
-						// configure the document
-						ODocument doc = conv.configureDocument(db);
-						// and save it
-						doc.save();
-
-						// Create an InstanceReference for the saved instance
-						// and
-						// feed it to all known InstanceProcessors. The
-						// decoration
-						// with ResolvableInstanceReference allows the
-						// InstanceProcessors to resolve the instances if
-						// required.
-						OrientInstanceReference oRef = new OrientInstanceReference(
-								doc.getIdentity(), conv.getDataSet(), conv.getDefinition());
-						IdentifiableInstanceReference idRef = new IdentifiableInstanceReference(
-								oRef, doc.getIdentity());
-						ResolvableInstanceReference resolvableRef = new ResolvableInstanceReference(
-								idRef, browser);
-
-						processors.forEach(p -> p.process(instance, resolvableRef));
-
-						if (indexService != null) {
-							indexService.add(instance, resolvableRef);
-						}
-
-						count.incrementAndGet();
-
-						TypeDefinition type = instance.getDefinition();
-						if (type != null) {
-							typeCount.adjustOrPutValue(type.getName(), 1, 1);
-						}
-
-						if (exactProgress) {
-							monitor.worked(1);
-						}
-
-						long now = System.currentTimeMillis();
-						if (now - lastUpdate > 100) { // only update every 100
-														// milliseconds
-							monitor.subTask(MessageFormat.format("{0}{1} instances processed",
-									String.valueOf(count.get()),
-									size != InstanceCollection.UNKNOWN_SIZE
-											? "/" + String.valueOf(size) : ""));
-							lastUpdate = now;
-						}
-					}
-				} finally {
-					it.close();
-					if (report != null && instances instanceof LogAware) {
-						((LogAware) instances).setLog(null);
-					}
+				TypeDefinition type = instance.getDefinition();
+				if (type != null) {
+					typeCount.adjustOrPutValue(type.getName(), 1, 1);
 				}
-			});
+			};
 
-			db.declareIntent(null);
+			if (db != null) {
+				// use intent
+				db.declareIntent(new OIntentMassiveInsert());
+			}
+			else {
+				/*
+				 * Decouple reading and converting the instances from saving
+				 * them, which is done on the writer thread. Instance
+				 * processors and the index service are also called on the
+				 * writer thread.
+				 */
+				writer = new BatchedInstanceWriter(database, batchSize, MAX_PENDING_BATCHES,
+						storedHandler);
+			}
+
+			// store instances either directly or using the writer thread
+			final BiConsumer<Instance, OInstance> store;
+			if (writer != null) {
+				store = writer::add;
+			}
+			else {
+				store = (instance, conv) -> {
+					ODatabaseRecordThreadLocal.INSTANCE.set(db);
+					// configure the document
+					ODocument doc = conv.configureDocument(db);
+					// and save it
+					doc.save();
+
+					storedHandler.stored(instance, conv, doc);
+				};
+			}
+
+			AtomicInteger added = new AtomicInteger();
+			int size = instances.size();
+			int threads = (writer != null) ? (getLoadThreads()) : (1);
+			List<InstanceCollection> parts = new ArrayList<>();
+			if (threads > 1) {
+				collectParts(instances, parts);
+			}
+			if (parts.size() > 1) {
+				readInstancesInParallel(parts, threads, store, monitor, added, size,
+						exactProgress);
+			}
+			else {
+				SimpleLogContext.withLog(report, () -> readInstances(instances, store, monitor,
+						added, size, exactProgress));
+			}
+
+			if (writer != null) {
+				// wait for the remaining instances to be saved
+				monitor.subTask("Waiting for instances to be saved");
+				writer.close();
+
+				String throughput = MessageFormat.format(
+						"Saved instances at a rate of {0,number,#} instances per second",
+						writer.getInstancesPerSecond());
+				log.info(throughput);
+				if (report != null) {
+					report.stats().at("insertsPerSecond")
+							.set(Math.round(writer.getInstancesPerSecond()));
+				}
+			}
+			else {
+				db.declareIntent(null);
+			}
 		} catch (RuntimeException e) {
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (RuntimeException e1) {
+					// report the original error
+				}
+			}
 			if (report != null) {
 				reportTypeCount(report, typeCount);
 				report.error(new MessageImpl("Error storing instances in database", e));
@@ -296,7 +331,9 @@ public abstract class StoreInstancesJob extends Job {
 			}
 			throw e;
 		} finally {
-			ref.dispose();
+			if (ref != null) {
+				ref.dispose();
+			}
 			trans.end();
 
 			/*
@@ -349,6 +386,204 @@ public abstract class StoreInstancesJob extends Job {
 				"eu.esdihumboldt.hale.common.instance.orient", message);
 	}
 
+	/**
+	 * Read the instances from an instance collection and store them.
+	 * 
+	 * @param collection the instance collection
+	 * @param store the function storing a converted instance
+	 * @param monitor the progress monitor
+	 * @param added the counter of instances read overall
+	 * @param size the overall number of instances or
+	 *            {@link InstanceCollection#UNKNOWN_SIZE}
+	 * @param exactProgress if progress is reported per instance
+	 */
+	private void readInstances(InstanceCollection collection,
+			BiConsumer<Instance, OInstance> store, IProgressMonitor monitor, AtomicInteger added,
+			int size, boolean exactProgress) {
+		if (report != null && collection instanceof LogAware) {
+			((LogAware) collection).setLog(report);
+		}
+
+		StorageMetrics metrics = StorageMetrics.get();
+
+		ResourceIterator<Instance> it = collection.iterator();
+		long lastUpdate = 0; // last count update
+		try {
+			while (it.hasNext() && !monitor.isCanceled()) {
+				if (report != null && collection instanceof LogAware) {
+					((LogAware) collection).setLog(report);
+				}
+
+				Instance instance = it.next();
+
+				// further processing before storing
+				processInstance(instance);
+
+				// get/create OInstance
+				OInstance conv = ((instance instanceof OInstance) ? ((OInstance) instance)
+						: (new OInstance(instance)));
+
+				conv.setInserted(true);
+
+				// update the instance to store, e.g. generating metadata
+				updateInstance(conv);
+
+				store.accept(instance, conv);
+				int current = added.incrementAndGet();
+				if (metrics != null) {
+					metrics.readInstances.inc();
+				}
+
+				synchronized (monitor) {
+					if (exactProgress) {
+						monitor.worked(1);
+					}
+
+					long now = System.currentTimeMillis();
+					if (now - lastUpdate > 100) { // only update every 100
+													// milliseconds
+						monitor.subTask(MessageFormat.format("{0}{1} instances processed",
+								String.valueOf(current), size != InstanceCollection.UNKNOWN_SIZE
+										? "/" + String.valueOf(size) : ""));
+						lastUpdate = now;
+					}
+				}
+			}
+		} finally {
+			it.close();
+			if (report != null && collection instanceof LogAware) {
+				((LogAware) collection).setLog(null);
+			}
+		}
+	}
+
+	/**
+	 * Read the instances from multiple instance collections concurrently and
+	 * store them. The back-pressure of the store function limits how far
+	 * reading can get ahead of storing.
+	 * 
+	 * @param collections the instance collections
+	 * @param threads the maximum number of reader threads
+	 * @param store the thread safe function storing a converted instance
+	 * @param monitor the progress monitor
+	 * @param added the counter of instances read overall
+	 * @param size the overall number of instances or
+	 *            {@link InstanceCollection#UNKNOWN_SIZE}
+	 * @param exactProgress if progress is reported per instance
+	 */
+	private void readInstancesInParallel(List<InstanceCollection> collections, int threads,
+			BiConsumer<Instance, OInstance> store, IProgressMonitor monitor, AtomicInteger added,
+			int size, boolean exactProgress) {
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService readers = Executors.newFixedThreadPool(
+				Math.min(threads, collections.size()), r -> {
+					Thread thread = new Thread(r,
+							"instance-reader-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (InstanceCollection collection : collections) {
+				futures.add(readers.submit(() -> {
+					SimpleLogContext.withLog(report, () -> readInstances(collection, store,
+							monitor, added, size, exactProgress));
+				}));
+			}
+
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					}
+					if (cause instanceof Error) {
+						throw (Error) cause;
+					}
+					throw new IllegalStateException("Error reading instances", cause);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while reading instances", e);
+				}
+			}
+		} finally {
+			// stops remaining readers in case of an error
+			readers.shutdownNow();
+		}
+	}
+
+	/**
+	 * Collect the instance collections that can be read independently of each
+	 * other, i.e. the leaves of nested {@link MultiInstanceCollection}s, for
+	 * example the partitions of a database table.
+	 * 
+	 * @param instances the instance collection
+	 * @param parts the list to add the collections to
+	 */
+	private static void collectParts(InstanceCollection instances,
+			List<InstanceCollection> parts) {
+		if (instances instanceof MultiInstanceCollection) {
+			for (InstanceCollection collection : ((MultiInstanceCollection) instances)
+					.getCollections()) {
+				collectParts(collection, parts);
+			}
+		}
+		else {
+			parts.add(instances);
+		}
+	}
+
+	/**
+	 * @return the number of threads to use for reading instances if the
+	 *         instances are provided by multiple instance collections, only
+	 *         applies if instances are saved on the writer thread
+	 */
+	private static int getLoadThreads() {
+		String setting = System.getProperty("hale.orient.load_threads");
+
+		if (setting == null) {
+			setting = System.getenv("HALE_ORIENT_LOAD_THREADS");
+		}
+
+		if (setting != null) {
+			try {
+				if ("max".equals(setting)) {
+					return Runtime.getRuntime().availableProcessors();
+				}
+				return Integer.valueOf(setting);
+			} catch (Throwable e) {
+				log.error("Error applying custom load threads setting: " + setting, e);
+			}
+		}
+
+		return 1;
+	}
+
+	/**
+	 * @return the number of instances to hand over to the writer thread at
+	 *         once, zero or less if instances should be saved on the job
+	 *         thread
+	 */
+	private static int getBatchSize() {
+		String setting = System.getProperty("hale.orient.insert_batch_size");
+
+		if (setting == null) {
+			setting = System.getenv("HALE_ORIENT_INSERT_BATCH_SIZE");
+		}
+
+		if (setting != null) {
+			try {
+				return Integer.valueOf(setting);
+			} catch (Throwable e) {
+				log.error("Error applying custom insert batch size setting: " + setting, e);
+			}
+		}
+
+		return DEFAULT_BATCH_SIZE;
+	}
+
 	private void reportTypeCount(Reporter<Message> report, TObjectIntHashMap<QName> typeCount) {
 		typeCount.forEachEntry(new TObjectIntProcedure<QName>() {
 
@@ -378,6 +613,8 @@ public abstract class StoreInstancesJob extends Job {
 	/**
 	 * Update an instance before it is converted and saved, e.g. adding
 	 * metadata. The default implementation does nothing and may be overridden.
+	 * If instances are read in parallel (see <code>HALE_ORIENT_LOAD_THREADS</code>)
+	 * this method may be called concurrently.
 	 * 
 	 * @param instance the instance
 	 */
@@ -387,7 +624,9 @@ public abstract class StoreInstancesJob extends Job {
 
 	/**
 	 * Process an instance before it is saved. The default implementation does
-	 * nothing and may be overridden.
+	 * nothing and may be overridden. If instances are read in parallel (see
+	 * <code>HALE_ORIENT_LOAD_THREADS</code>) this method may be called
+	 * concurrently.
 	 * 
 	 * @param instance the instance, may not be changed in any way
 	 */
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instance.index.spatial;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import de.fhg.igd.geom.BoundingBox;
+import de.fhg.igd.geom.Localizable;
+import de.fhg.igd.geom.Verifier;
+import de.fhg.igd.geom.indices.PackedRTree;
+import de.fhg.igd.geom.indices.RTree;
+import de.fhg.igd.geom.indices.SortTileRecursive;
+import de.fhg.igd.geom.indices.SynchronizedRTree;
+
+/**
+ * Tests for bulk loading and packing R-Trees. Query results of bulk loaded
+ * and packed trees are compared to those of a tree built by inserting the
+ * objects one by one.
+ */
+public class RTreePackingTest {
+
+	private static final int PAGE_SIZE = 8;
+
+	private static final Verifier<Localizable, BoundingBox> ANY = RTreeSpatialIndexService.ANY_RELATION_VERIFIER;
+
+	/**
+	 * Bounding box covering all created items.
+	 */
+	private static final BoundingBox ALL = new BoundingBox(-1, -1, -1, 2000, 2000, 20);
+
+	/**
+	 * Indexed object, compared by identity.
+	 */
+	private static class Item implements Localizable {
+
+		private final BoundingBox box;
+
+		public Item(BoundingBox box) {
+			this.box = box;
+		}
+
+		@Override
+		public BoundingBox getBoundingBox() {
+			return box;
+		}
+
+	}
+
+	/**
+	 * Test grouping objects with the Sort-Tile-Recursive algorithm.
+	 */
+	@Test
+	public void testSortTileRecursive() {
+		List<Item> items = createItems(new Random(1), 1000);
+
+		List<List<Item>> groups = SortTileRecursive.pack(items, PAGE_SIZE);
+		assertEquals(125, groups.size());
+
+		Set<Item> grouped = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (List<Item> group : groups) {
+			assertFalse(group.isEmpty());
+			assertTrue(group.size() <= PAGE_SIZE);
+			grouped.addAll(group);
+		}
+		assertEquals(items.size(), grouped.size());
+	}
+
+	/**
+	 * Test that bulk loaded and packed trees yield the same query results as a
+	 * tree built by inserting the objects one by one.
+	 */
+	@Test
+	public void testEquivalence() {
+		Random random = new Random(2);
+		List<Item> items = createItems(random, 5000);
+
+		RTree<Item> dynamic = new RTree<>(PAGE_SIZE);
+		for (Item item : items) {
+			dynamic.insert(item);
+		}
+		RTree<Item> bulk = new RTree<>(PAGE_SIZE, items);
+		PackedRTree<Item> packed = dynamic.pack();
+		PackedRTree<Item> packedBulk = new PackedRTree<>(items, PAGE_SIZE);
+
+		assertEquals(items.size(), bulk.size());
+		assertEquals(items.size(), packed.size());
+		assertEquals(items.size(), packedBulk.size());
+
+		int matches = 0;
+		for (int i = 0; i < 1000; i++) {
+			BoundingBox box = createBox(random, 100);
+
+			Set<Item> expected = dynamic.query(box, ANY);
+			assertEquals(expected, bulk.query(box, ANY));
+			assertEquals(expected, packed.query(box, ANY));
+			assertEquals(expected, packedBulk.query(box, ANY));
+			if (!expected.isEmpty()) {
+				matches++;
+			}
+		}
+		assertTrue(matches > 0);
+
+		assertEquals(items.size(), dynamic.query(ALL, ANY).size());
+		assertEquals(items.size(), bulk.query(ALL, ANY).size());
+		assertEquals(items.size(), packed.query(ALL, ANY).size());
+		assertEquals(items.size(), packedBulk.query(ALL, ANY).size());
+	}
+
+	/**
+	 * Test inserting objects into a tree that is not empty, which inserts them
+	 * one by one, and changing a bulk loaded tree.
+	 */
+	@Test
+	public void testInsertAll() {
+		Random random = new Random(3);
+		List<Item> items = createItems(random, 2000);
+
+		RTree<Item> dynamic = new RTree<>(PAGE_SIZE);
+		for (Item item : items) {
+			dynamic.insert(item);
+		}
+
+		RTree<Item> tree = new RTree<>(PAGE_SIZE);
+		tree.insertAll(items.subList(0, 1000));
+		tree.insertAll(items.subList(1000, items.size()));
+		assertEquals(items.size(), tree.size());
+
+		for (int i = 0; i < 500; i++) {
+			BoundingBox box = createBox(random, 100);
+			assertEquals(dynamic.query(box, ANY), tree.query(box, ANY));
+		}
+
+		// delete from the bulk loaded tree
+		for (Item item : items.subList(0, 500)) {
+			assertTrue(tree.delete(item));
+			assertTrue(dynamic.delete(item));
+		}
+		assertEquals(dynamic.size(), tree.size());
+		assertEquals(dynamic.query(ALL, ANY), tree.query(ALL, ANY));
+	}
+
+	/**
+	 * Test an empty packed tree.
+	 */
+	@Test
+	public void testPackedEmpty() {
+		PackedRTree<Item> packed = new PackedRTree<>(Collections.<Item> emptyList(), PAGE_SIZE);
+		assertEquals(0, packed.size());
+		assertTrue(packed.query(ALL, ANY).isEmpty());
+		assertTrue(new RTree<Item>(PAGE_SIZE).pack().query(ALL, ANY).isEmpty());
+	}
+
+	/**
+	 * Test that a synchronized tree is only packed after it was queried
+	 * without changes in between, and that changes are reflected in queries.
+	 */
+	@Test
+	public void testSynchronizedPacking() {
+		Random random = new Random(4);
+		List<Item> items = createItems(random, 100);
+
+		SynchronizedRTree<Item> tree = new SynchronizedRTree<>(PAGE_SIZE, 2);
+		tree.insertAll(items);
+
+		assertEquals(items.size(), tree.query(ALL, ANY).size());
+		assertFalse(tree.isPacked());
+		assertEquals(items.size(), tree.query(ALL, ANY).size());
+		assertFalse(tree.isPacked());
+		assertEquals(items.size(), tree.query(ALL, ANY).size());
+		assertTrue(tree.isPacked());
+
+		Item extra = new Item(createBox(random, 10));
+		tree.insert(extra);
+		assertFalse(tree.isPacked());
+		assertTrue(tree.query(ALL, ANY).contains(extra));
+
+		assertTrue(tree.delete(extra));
+		assertFalse(tree.query(ALL, ANY).contains(extra));
+		assertEquals(items.size(), tree.size());
+	}
+
+	/**
+	 * Test that queries of the spatial index service reflect the changes to
+	 * the index while it is built.
+	 */
+	@Test
+	public void testServiceQueriesWhileChanging() {
+		Random random = new Random(5);
+		List<Item> items = createItems(random, 500);
+
+		RTreeSpatialIndexService service = new RTreeSpatialIndexService(PAGE_SIZE);
+		List<Localizable> inserted = new ArrayList<>();
+		for (Item item : items) {
+			service.insert(item);
+			inserted.add(item);
+
+			assertEquals(inserted.size(), service.retrieve(ALL).size());
+			assertTrue(service.retrieve(item.getBoundingBox()).contains(item));
+		}
+
+		service.flush();
+		assertEquals(0, service.size());
+		assertTrue(service.retrieve(ALL).isEmpty());
+	}
+
+	private static List<Item> createItems(Random random, int count) {
+		List<Item> items = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			items.add(new Item(createBox(random, 10)));
+		}
+		return items;
+	}
+
+	private static BoundingBox createBox(Random random, double maxSize) {
+		double x = random.nextDouble() * 1000;
+		double y = random.nextDouble() * 1000;
+		double z = random.nextDouble() * 10;
+		return new BoundingBox(x, y, z, x + random.nextDouble() * maxSize,
+				y + random.nextDouble() * maxSize, z + 1);
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instance.model.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.junit.Test;
+
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.model.MutableInstance;
+
+/**
+ * Tests for {@link DefaultGroup} and {@link DefaultInstance}.
+ */
+@SuppressWarnings("javadoc")
+public class DefaultGroupTest {
+
+	private static final QName A = new QName("http://www.example.com", "a");
+
+	private static final QName B = new QName("b");
+
+	private static final QName C = new QName("http://www.example.com", "c");
+
+	@Test
+	public void testAddProperty() {
+		MutableInstance instance = new DefaultInstance(null, null);
+		assertEquals(0, instance.getProperty(A).length);
+
+		instance.addProperty(A, "a1");
+		instance.addProperty(B, null);
+		assertArrayEquals(new Object[] { "a1" }, instance.getProperty(A));
+		assertArrayEquals(new Object[] { null }, instance.getProperty(B));
+
+		instance.addProperty(A, "a2");
+		instance.addProperty(A, "a3");
+		instance.addProperty(A, "a4");
+		instance.addProperty(A, "a5");
+		assertArrayEquals(new Object[] { "a1", "a2", "a3", "a4", "a5" },
+				instance.getProperty(A));
+
+		assertEquals(names(A, B), names(instance.getPropertyNames()));
+	}
+
+	@Test
+	public void testSetProperty() {
+		MutableInstance instance = new DefaultInstance(null, null);
+		instance.setProperty(A, "a1", "a2");
+		instance.setProperty(B, "b");
+		instance.setProperty(C, 1, 2, 3);
+		assertArrayEquals(new Object[] { "a1", "a2" }, instance.getProperty(A));
+
+		// replace values
+		instance.setProperty(A, "a");
+		assertArrayEquals(new Object[] { "a" }, instance.getProperty(A));
+		instance.addProperty(A, "b");
+		assertArrayEquals(new Object[] { "a", "b" }, instance.getProperty(A));
+
+		// remove property
+		instance.setProperty(B);
+		assertEquals(0, instance.getProperty(B).length);
+		assertEquals(names(A, C), names(instance.getPropertyNames()));
+		assertArrayEquals(new Object[] { 1, 2, 3 }, instance.getProperty(C));
+	}
+
+	@Test
+	public void testModifyWhileIterating() {
+		MutableInstance instance = new DefaultInstance(null, null);
+		instance.addProperty(A, "a");
+		instance.addProperty(B, "b");
+
+		for (QName name : instance.getPropertyNames()) {
+			instance.setProperty(name);
+		}
+		assertTrue(names(instance.getPropertyNames()).isEmpty());
+	}
+
+	@Test
+	public void testReturnedArrayIsCopy() {
+		MutableInstance instance = new DefaultInstance(null, null);
+		instance.setProperty(A, "a1", "a2");
+
+		Object[] values = instance.getProperty(A);
+		values[0] = "changed";
+		assertArrayEquals(new Object[] { "a1", "a2" }, instance.getProperty(A));
+	}
+
+	@Test
+	public void testCopy() {
+		MutableInstance child = new DefaultInstance(null, null);
+		child.addProperty(B, "b");
+		MutableInstance instance = new DefaultInstance(null, null);
+		instance.addProperty(A, child);
+		instance.addProperty(A, "x");
+
+		Object[] values = new DefaultInstance(instance).getProperty(A);
+		assertEquals(2, values.length);
+		assertNotSame(child, values[0]);
+		assertArrayEquals(new Object[] { "b" }, ((Instance) values[0]).getProperty(B));
+		assertEquals("x", values[1]);
+	}
+
+	private static List<QName> names(QName... names) {
+		List<QName> result = new ArrayList<>();
+		for (QName name : names) {
+			result.add(name);
+		}
+		return result;
+	}
+
+	private static List<QName> names(Iterable<QName> names) {
+		List<QName> result = new ArrayList<>();
+		for (QName name : names) {
+			result.add(name);
+		}
+		return result;
+	}
+
+}
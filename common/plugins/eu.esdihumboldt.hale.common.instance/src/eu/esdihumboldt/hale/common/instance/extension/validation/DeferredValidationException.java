@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instance.extension.validation;
+
+import java.util.function.Supplier;
+
+/**
+ * Signals that a check depending on the order in which the instances are
+ * validated was deferred, as the instances are validated in parallel. The
+ * check has to be performed in the order of the instances when the validation
+ * results are merged.
+ * 
+ * @see InstanceValidationContext#checkInOrder(Supplier)
+ */
+public class DeferredValidationException extends ValidationException {
+
+	private static final long serialVersionUID = -3283580923434566287L;
+
+	private final Supplier<String> check;
+
+	/**
+	 * Create an exception for a deferred check.
+	 * 
+	 * @param check the deferred check, returns the validation message if the
+	 *            check fails, <code>null</code> otherwise
+	 */
+	public DeferredValidationException(Supplier<String> check) {
+		super("Validation check was deferred");
+		this.check = check;
+	}
+
+	/**
+	 * @return the deferred check, returns the validation message if the check
+	 *         fails, <code>null</code> otherwise
+	 */
+	public Supplier<String> getCheck() {
+		return check;
+	}
+
+}
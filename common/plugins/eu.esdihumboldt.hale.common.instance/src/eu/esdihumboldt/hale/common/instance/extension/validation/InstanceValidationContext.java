@@ -16,11 +16,19 @@
 
 package eu.esdihumboldt.hale.common.instance.extension.validation;
 
-import java.util.Hashtable;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
- * Context for instance validation.
+ * Context for instance validation.<br>
+ * <br>
+ * The context may be shared by multiple threads validating instances in
+ * parallel. Validators should use
+ * {@link #getOrCreateContext(Class, Supplier)} to retrieve their context
+ * object and the context objects must support concurrent access. Checks whose
+ * result depends on the order the instances are validated in should be
+ * performed with {@link #checkInOrder(Supplier)}.
  * 
  * @author Kai Schwierczek
  */
@@ -32,11 +40,13 @@ public class InstanceValidationContext {
 
 	private final Map<Class<? extends ConstraintValidator>, Object> contextMap;
 
+	private volatile boolean deferOrderedChecks = false;
+
 	/**
 	 * Constructs a new context object.
 	 */
 	public InstanceValidationContext() {
-		contextMap = new Hashtable<Class<? extends ConstraintValidator>, Object>();
+		contextMap = new ConcurrentHashMap<Class<? extends ConstraintValidator>, Object>();
 	}
 
 	/**
@@ -73,4 +83,56 @@ public class InstanceValidationContext {
 	public void putContext(Class<? extends ConstraintValidator> validatorClass, Object contextObject) {
 		contextMap.put(validatorClass, contextObject);
 	}
+
+	/**
+	 * Returns the object associated with the given validator class. If there
+	 * is none yet, a new context object is created with the given factory and
+	 * associated with the validator class. If multiple threads request the
+	 * context at the same time, all of them retrieve the same object.
+	 * 
+	 * @param <T> the type of the context object
+	 * @param validatorClass the validator class
+	 * @param factory the factory creating a new context object, may not
+	 *            return <code>null</code>
+	 * @return the associated object
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getOrCreateContext(Class<? extends ConstraintValidator> validatorClass,
+			Supplier<T> factory) {
+		return (T) contextMap.computeIfAbsent(validatorClass, key -> factory.get());
+	}
+
+	/**
+	 * Set if checks passed to {@link #checkInOrder(Supplier)} are deferred,
+	 * which is needed if instances are validated in parallel.
+	 * 
+	 * @param deferOrderedChecks if checks depending on the order of the
+	 *            instances should be deferred
+	 */
+	public void setDeferOrderedChecks(boolean deferOrderedChecks) {
+		this.deferOrderedChecks = deferOrderedChecks;
+	}
+
+	/**
+	 * Perform a check whose result depends on the order in which the
+	 * instances are validated, e.g. a check if a value already occurred. If
+	 * instances are validated in parallel, the check is deferred and
+	 * performed in the order of the instances after they were validated.
+	 * 
+	 * @param check the check, returns the validation message if the check
+	 *            fails, <code>null</code> otherwise
+	 * @throws ValidationException if the check fails or a
+	 *             {@link DeferredValidationException} if the check was
+	 *             deferred
+	 */
+	public void checkInOrder(Supplier<String> check) throws ValidationException {
+		if (deferOrderedChecks) {
+			throw new DeferredValidationException(check);
+		}
+
+		String message = check.get();
+		if (message != null) {
+			throw new ValidationException(message);
+		}
+	}
 }
@@ -35,4 +35,15 @@ public interface InstanceValidator extends ImportProvider {
 	 */
 	public void setSchemas(Locatable... schemas);
 
+	/**
+	 * States if the validator reads its source only once from the beginning
+	 * to the end. Such a validator may validate the data while it is being
+	 * written.
+	 * 
+	 * @return if the validator supports validating a stream of data
+	 */
+	default boolean isStreamingSupported() {
+		return false;
+	}
+
 }
@@ -18,10 +18,8 @@ package eu.esdihumboldt.hale.common.instance.io.impl;
 
 import java.util.Collection;
 
-import org.geotools.geometry.jts.JTS;
 import org.geotools.referencing.CRS;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
-import org.opengis.referencing.operation.MathTransform;
 
 import org.locationtech.jts.geom.Geometry;
 
@@ -33,6 +31,7 @@ import eu.esdihumboldt.hale.common.instance.geometry.CRSDefinitionUtil;
 import eu.esdihumboldt.hale.common.instance.geometry.impl.CodeDefinition;
 import eu.esdihumboldt.hale.common.instance.io.GeoInstanceWriter;
 import eu.esdihumboldt.hale.common.instance.io.util.EnumWindingOrderTypes;
+import eu.esdihumboldt.hale.common.referencing.transform.ReprojectionService;
 import eu.esdihumboldt.hale.common.schema.geometry.CRSDefinition;
 import eu.esdihumboldt.hale.common.schema.geometry.GeometryProperty;
 import eu.esdihumboldt.util.Pair;
@@ -109,10 +108,8 @@ public abstract class AbstractGeoInstanceWriter extends AbstractInstanceWriter
 		if (getTargetCRS() != null && getTargetCRS().getCRS() != null) {
 			if (sourceCrs != null && sourceCrs.getCRS() != null) {
 				try {
-					// TODO cache mathtransforms?
-					MathTransform transform = CRS.findMathTransform(sourceCrs.getCRS(),
-							getTargetCRS().getCRS());
-					Geometry targetGeometry = JTS.transform(geom, transform);
+					Geometry targetGeometry = ReprojectionService.getInstance().transform(geom,
+							sourceCrs.getCRS(), getTargetCRS().getCRS());
 					return new Pair<>(targetGeometry, getTargetCRS());
 				} catch (Exception e) {
 					if (report != null) {
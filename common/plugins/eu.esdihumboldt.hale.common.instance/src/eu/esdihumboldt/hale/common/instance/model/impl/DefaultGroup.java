@@ -17,27 +17,80 @@
 package eu.esdihumboldt.hale.common.instance.model.impl;
 
 import java.util.Arrays;
+import java.util.Collections;
 
 import javax.xml.namespace.QName;
 
-import com.google.common.base.Function;
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Collections2;
-import com.google.common.collect.ListMultimap;
-
 import eu.esdihumboldt.hale.common.instance.model.Group;
 import eu.esdihumboldt.hale.common.instance.model.Instance;
 import eu.esdihumboldt.hale.common.instance.model.MutableGroup;
 import eu.esdihumboldt.hale.common.schema.model.DefinitionGroup;
 
 /**
- * Group implementation backed by a {@link ListMultimap}.
+ * Group implementation storing the property names and values in arrays, in
+ * the order the properties were added. Properties with a single value (the
+ * usual case) store the value directly, without a collection wrapping it.
  * 
  * @author Simon Templer
  */
 public class DefaultGroup implements MutableGroup {
 
-	private final ListMultimap<QName, Object> properties = ArrayListMultimap.create();
+	private static final QName[] NO_NAMES = new QName[0];
+
+	private static final int[] NO_HASHES = new int[0];
+
+	private static final Object[] NO_VALUES = new Object[0];
+
+	/**
+	 * Holds the values of a property with multiple values.
+	 */
+	private static final class MultiValue {
+
+		private Object[] values;
+
+		private int size;
+
+		private MultiValue(Object first, Object second) {
+			values = new Object[] { first, second, null, null };
+			size = 2;
+		}
+
+		private MultiValue(Object[] values) {
+			this.values = values;
+			this.size = values.length;
+		}
+
+		private void add(Object value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		private Object[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+
+	}
+
+	/**
+	 * The property names, only the first {@link #size} entries are used.
+	 */
+	private QName[] names = NO_NAMES;
+
+	/**
+	 * The hash codes of the property names, compared before the names
+	 * themselves.
+	 */
+	private int[] hashes = NO_HASHES;
+
+	/**
+	 * The property values, either a single value or a {@link MultiValue}.
+	 * Associated to the name with the same index.
+	 */
+	private Object[] values = NO_VALUES;
+
+	private int size;
 
 	private final DefinitionGroup definition;
 
@@ -70,7 +123,16 @@ public class DefaultGroup implements MutableGroup {
 	 */
 	@Override
 	public Object[] getProperty(QName propertyName) {
-		return properties.get(propertyName).toArray();
+		int index = indexOf(propertyName);
+		if (index < 0) {
+			return NO_VALUES;
+		}
+
+		Object value = values[index];
+		if (value instanceof MultiValue) {
+			return ((MultiValue) value).toArray();
+		}
+		return new Object[] { value };
 	}
 
 	/**
@@ -78,7 +140,11 @@ public class DefaultGroup implements MutableGroup {
 	 */
 	@Override
 	public Iterable<QName> getPropertyNames() {
-		return properties.keySet();
+		if (size == 0) {
+			return Collections.emptyList();
+		}
+		// snapshot, so properties may be changed while iterating
+		return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(names, size)));
 	}
 
 	/**
@@ -94,7 +160,19 @@ public class DefaultGroup implements MutableGroup {
 	 */
 	@Override
 	public void addProperty(QName propertyName, Object value) {
-		properties.put(propertyName, value);
+		int index = indexOf(propertyName);
+		if (index < 0) {
+			append(propertyName, value);
+		}
+		else {
+			Object current = values[index];
+			if (current instanceof MultiValue) {
+				((MultiValue) current).add(value);
+			}
+			else {
+				values[index] = new MultiValue(current, value);
+			}
+		}
 	}
 
 	/**
@@ -102,29 +180,76 @@ public class DefaultGroup implements MutableGroup {
 	 */
 	@Override
 	public void setProperty(QName propertyName, Object... values) {
-		properties.replaceValues(propertyName, Arrays.asList(values));
+		int index = indexOf(propertyName);
+		if (values == null || values.length == 0) {
+			if (index >= 0) {
+				remove(index);
+			}
+			return;
+		}
+
+		Object value = (values.length == 1) ? (values[0])
+				: (new MultiValue(Arrays.copyOf(values, values.length)));
+		if (index < 0) {
+			append(propertyName, value);
+		}
+		else {
+			this.values[index] = value;
+		}
 	}
 
 	private void setPropertyCopy(QName propertyName, Object... values) {
-		properties.replaceValues(propertyName,
-				Collections2.transform(Arrays.asList(values), new Function<Object, Object>() {
-
-					@Override
-					public Object apply(Object input) {
-						/*
-						 * If the input is a Group/Instance. This is to prevent
-						 * OInstances/OGroups to live on in a copy.
-						 */
-						if (input instanceof Instance) {
-							return new DefaultInstance((Instance) input);
-						}
-						if (input instanceof Group) {
-							return new DefaultGroup((Group) input);
-						}
-
-						return input;
-					}
-				}));
+		Object[] copy = new Object[values.length];
+		for (int i = 0; i < values.length; i++) {
+			Object input = values[i];
+			/*
+			 * If the input is a Group/Instance. This is to prevent
+			 * OInstances/OGroups to live on in a copy.
+			 */
+			if (input instanceof Instance) {
+				input = new DefaultInstance((Instance) input);
+			}
+			else if (input instanceof Group) {
+				input = new DefaultGroup((Group) input);
+			}
+			copy[i] = input;
+		}
+		setProperty(propertyName, copy);
+	}
+
+	private int indexOf(QName propertyName) {
+		int hash = propertyName.hashCode();
+		for (int i = 0; i < size; i++) {
+			if (hashes[i] == hash && names[i].equals(propertyName)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void append(QName propertyName, Object value) {
+		if (size == names.length) {
+			int capacity = (size == 0) ? (4) : (size + (size >> 1) + 1);
+			names = Arrays.copyOf(names, capacity);
+			hashes = Arrays.copyOf(hashes, capacity);
+			values = Arrays.copyOf(values, capacity);
+		}
+		names[size] = propertyName;
+		hashes[size] = propertyName.hashCode();
+		values[size] = value;
+		size++;
+	}
+
+	private void remove(int index) {
+		int moved = size - index - 1;
+		if (moved > 0) {
+			System.arraycopy(names, index + 1, names, index, moved);
+			System.arraycopy(hashes, index + 1, hashes, index, moved);
+			System.arraycopy(values, index + 1, values, index, moved);
+		}
+		size--;
+		names[size] = null;
+		values[size] = null;
 	}
 
 }
@@ -30,7 +30,8 @@ import eu.esdihumboldt.hale.common.instance.model.MutableInstance;
 import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
 
 /**
- * Default instance implementation backed by a {@link ListMultimap}.
+ * Default instance implementation. Properties are stored as described in
+ * {@link DefaultGroup}, meta data in a {@link ListMultimap}.
  * 
  * @author Simon Templer
  */
@@ -54,6 +54,13 @@ public class MultiInstanceCollection implements InstanceCollection, LogAware {
 				.unmodifiableList(new ArrayList<InstanceCollection>(collections));
 	}
 
+	/**
+	 * @return the instance collections combined in this collection
+	 */
+	public List<InstanceCollection> getCollections() {
+		return collections;
+	}
+
 	@Override
 	public InstanceReference getReference(Instance instance) {
 		MultiInstanceCollectionInstance inst = (MultiInstanceCollectionInstance) instance;
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instancevalidator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.namespace.QName;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Test;
+
+import eu.esdihumboldt.hale.common.align.model.EntityDefinition;
+import eu.esdihumboldt.hale.common.core.service.ServiceProvider;
+import eu.esdihumboldt.hale.common.instance.extension.validation.InstanceValidationContext;
+import eu.esdihumboldt.hale.common.instance.extension.validation.ValidationException;
+import eu.esdihumboldt.hale.common.instance.extension.validation.report.InstanceValidationMessage;
+import eu.esdihumboldt.hale.common.instance.extension.validation.report.InstanceValidationReport;
+import eu.esdihumboldt.hale.common.instance.model.Group;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.model.InstanceCollection;
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstance;
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstanceCollection;
+import eu.esdihumboldt.hale.common.schema.model.GroupPropertyDefinition;
+import eu.esdihumboldt.hale.common.schema.model.PropertyDefinition;
+import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
+import eu.esdihumboldt.hale.common.schema.model.constraint.property.Cardinality;
+import eu.esdihumboldt.hale.common.schema.model.constraint.property.Unique;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.Binding;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.HasValueFlag;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultPropertyDefinition;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultTypeDefinition;
+
+/**
+ * Tests for validating instances in parallel. The results are compared to
+ * those of validating the instances on a single thread.
+ */
+public class ParallelInstanceValidationTest {
+
+	private static final String NS = "http://www.example.com/validation";
+
+	private static final QName ID = new QName(NS, "id");
+
+	private static final QName NAME = new QName(NS, "name");
+
+	private static final int INSTANCES = 1000;
+
+	/**
+	 * Validator failing for the instance with a specific identifier.
+	 */
+	private static class FailingValidator implements InstanceModelValidator {
+
+		private final String failId;
+
+		public FailingValidator(String failId) {
+			this.failId = failId;
+		}
+
+		@Override
+		public void setServiceProvider(ServiceProvider services) {
+			// not needed
+		}
+
+		@Override
+		public void validateProperty(Object value, PropertyDefinition property,
+				EntityDefinition entity, InstanceValidationContext context)
+				throws ValidationException {
+			// nothing to validate
+		}
+
+		@Override
+		public void validateInstance(Instance instance, EntityDefinition entity,
+				InstanceValidationContext context) throws ValidationException {
+			Object[] ids = instance.getProperty(ID);
+			if (ids != null && Arrays.asList(ids).contains(failId)) {
+				throw new IllegalStateException("Failed validating " + failId);
+			}
+		}
+
+		@Override
+		public void validateGroup(Group group, GroupPropertyDefinition property,
+				EntityDefinition entity, InstanceValidationContext context)
+				throws ValidationException {
+			// nothing to validate
+		}
+
+		@Override
+		public String getCategory() {
+			return "Failing";
+		}
+
+	}
+
+	/**
+	 * Test that validating instances in parallel yields the same messages in
+	 * the same order as validating them on a single thread, including the
+	 * duplicates of values of a unique property.
+	 */
+	@Test
+	public void testSameMessages() {
+		InstanceCollection instances = createInstances(createType());
+		InstanceValidator validator = new InstanceValidator(null);
+
+		InstanceValidationReport expected = validator.validateInstances(instances,
+				new NullProgressMonitor(), 1);
+		assertTrue(expected.isSuccess());
+		assertFalse(getMessages(expected.getWarnings()).isEmpty());
+
+		List<List<Object>> unique = new ArrayList<>();
+		for (List<Object> message : getMessages(expected.getWarnings())) {
+			if (Unique.class.getSimpleName().equals(message.get(3))) {
+				unique.add(message);
+			}
+		}
+		// every value after the first 700 instances occurs multiple times
+		assertEquals(INSTANCES - 700, unique.size());
+
+		for (int threads : new int[] { 2, 4 }) {
+			InstanceValidationReport report = validator.validateInstances(instances,
+					new NullProgressMonitor(), threads);
+			assertTrue(report.isSuccess());
+
+			assertEquals(getMessages(expected.getErrors()), getMessages(report.getErrors()));
+			assertEquals(getMessages(expected.getWarnings()), getMessages(report.getWarnings()));
+			assertEquals(getMessages(expected.getInfos()), getMessages(report.getInfos()));
+			assertEquals(expected.getTotalWarnings(), report.getTotalWarnings());
+		}
+	}
+
+	/**
+	 * Test that an exception thrown while validating an instance on a worker
+	 * thread is propagated like when validating on a single thread.
+	 */
+	@Test
+	public void testException() {
+		InstanceCollection instances = createInstances(createType());
+		InstanceValidator validator = new InstanceValidator(
+				Collections.<InstanceModelValidator> singletonList(new FailingValidator("id550")));
+
+		for (int threads : new int[] { 1, 4 }) {
+			try {
+				validator.validateInstances(instances, new NullProgressMonitor(), threads);
+				fail("Expected exception to be thrown");
+			} catch (IllegalStateException e) {
+				assertEquals("Failed validating id550", e.getMessage());
+			}
+		}
+
+		assertWorkersStopped();
+	}
+
+	/**
+	 * Test canceling a parallel validation.
+	 */
+	@Test
+	public void testCancel() {
+		InstanceCollection instances = createInstances(createType());
+		InstanceValidator validator = new InstanceValidator(null);
+
+		AtomicInteger checks = new AtomicInteger();
+		NullProgressMonitor monitor = new NullProgressMonitor() {
+
+			@Override
+			public boolean isCanceled() {
+				// cancel after some of the instances were added
+				return checks.incrementAndGet() > 450;
+			}
+
+		};
+
+		InstanceValidationReport report = validator.validateInstances(instances, monitor, 4);
+		assertFalse(report.isSuccess());
+		assertEquals(451, checks.get());
+
+		assertWorkersStopped();
+	}
+
+	/**
+	 * Wait for the worker threads of parallel validations to terminate.
+	 */
+	private static void assertWorkersStopped() {
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().startsWith("instance-validator-")) {
+				try {
+					thread.join(10000);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				assertFalse("Worker thread " + thread.getName() + " was not stopped",
+						thread.isAlive());
+			}
+		}
+	}
+
+	/**
+	 * Get the messages in a form that can be compared.
+	 * 
+	 * @param messages the validation messages
+	 * @return the instance reference, type, path, category and message of
+	 *         each validation message
+	 */
+	private static List<List<Object>> getMessages(
+			Collection<? extends InstanceValidationMessage> messages) {
+		List<List<Object>> result = new ArrayList<>();
+		for (InstanceValidationMessage message : messages) {
+			assertNotNull(message.getMessage());
+			result.add(Arrays.<Object> asList(message.getInstanceReference(), message.getType(),
+					message.getPath(), message.getCategory(), message.getMessage()));
+		}
+		return result;
+	}
+
+	/**
+	 * Create a type with a unique identifier property and a mandatory name
+	 * property.
+	 * 
+	 * @return the type definition
+	 */
+	private static TypeDefinition createType() {
+		DefaultTypeDefinition stringType = new DefaultTypeDefinition(new QName(NS, "string"));
+		stringType.setConstraint(HasValueFlag.ENABLED);
+		stringType.setConstraint(Binding.get(String.class));
+
+		DefaultTypeDefinition type = new DefaultTypeDefinition(new QName(NS, "Item"));
+
+		DefaultPropertyDefinition id = new DefaultPropertyDefinition(ID, type, stringType);
+		id.setConstraint(Cardinality.CC_EXACTLY_ONCE);
+		id.setConstraint(new Unique("id"));
+
+		DefaultPropertyDefinition name = new DefaultPropertyDefinition(NAME, type, stringType);
+		name.setConstraint(Cardinality.CC_EXACTLY_ONCE);
+
+		return type;
+	}
+
+	/**
+	 * Create instances where the identifiers repeat after 700 instances and
+	 * every third instance has no name.
+	 * 
+	 * @param type the instance type
+	 * @return the instances
+	 */
+	private static InstanceCollection createInstances(TypeDefinition type) {
+		List<Instance> instances = new ArrayList<>(INSTANCES);
+		for (int i = 0; i < INSTANCES; i++) {
+			DefaultInstance instance = new DefaultInstance(type, null);
+			instance.addProperty(ID, "id" + (i % 700));
+			if (i % 3 != 0) {
+				instance.addProperty(NAME, "Item " + i);
+			}
+			instances.add(instance);
+		}
+		return new DefaultInstanceCollection(instances);
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instancevalidator;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.xml.namespace.QName;
+
+import eu.esdihumboldt.hale.common.instance.extension.validation.DeferredValidationException;
+import eu.esdihumboldt.hale.common.instance.extension.validation.report.impl.DefaultInstanceValidationMessage;
+import eu.esdihumboldt.hale.common.instance.model.InstanceReference;
+
+/**
+ * Placeholder for the result of a deferred check in the report of a chunk
+ * validated by {@link ParallelInstanceValidation}. The check is performed when
+ * the chunk report is merged.
+ * 
+ * @see DeferredValidationException
+ */
+class DeferredValidationMessage extends DefaultInstanceValidationMessage {
+
+	private final Supplier<String> check;
+
+	/**
+	 * Create a placeholder for the result of a deferred check.
+	 * 
+	 * @param instanceReference the instance reference, may be null
+	 * @param type the type's name
+	 * @param path the path within the type
+	 * @param category the message's category
+	 * @param check the deferred check
+	 */
+	public DeferredValidationMessage(InstanceReference instanceReference, QName type,
+			List<QName> path, String category, Supplier<String> check) {
+		super(instanceReference, type, path, category, "Validation check was deferred");
+		this.check = check;
+	}
+
+	/**
+	 * Perform the deferred check.
+	 * 
+	 * @return the validation message if the check failed, <code>null</code>
+	 *         otherwise
+	 */
+	public DefaultInstanceValidationMessage check() {
+		String message = check.get();
+		if (message == null) {
+			return null;
+		}
+		return new DefaultInstanceValidationMessage(getInstanceReference(), getType(), getPath(),
+				getCategory(), message);
+	}
+
+}
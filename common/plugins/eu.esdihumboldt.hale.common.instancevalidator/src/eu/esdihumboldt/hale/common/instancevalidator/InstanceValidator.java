@@ -35,6 +35,7 @@ import eu.esdihumboldt.hale.common.align.model.impl.TypeEntityDefinition;
 import eu.esdihumboldt.hale.common.core.service.ServiceProvider;
 import eu.esdihumboldt.hale.common.instance.extension.validation.ConstraintValidator;
 import eu.esdihumboldt.hale.common.instance.extension.validation.ConstraintValidatorExtension;
+import eu.esdihumboldt.hale.common.instance.extension.validation.DeferredValidationException;
 import eu.esdihumboldt.hale.common.instance.extension.validation.GroupPropertyConstraintValidator;
 import eu.esdihumboldt.hale.common.instance.extension.validation.InstanceValidationContext;
 import eu.esdihumboldt.hale.common.instance.extension.validation.PropertyConstraintValidator;
@@ -131,6 +132,8 @@ public class InstanceValidator {
 
 	/**
 	 * Validates the given instances using all constraints that are validatable.
+	 * Instances are validated in parallel if configured (see
+	 * {@link #getValidationThreads()}).
 	 * 
 	 * @param instances the instances to validate
 	 * @param monitor the progress monitor
@@ -138,6 +141,22 @@ public class InstanceValidator {
 	 */
 	public InstanceValidationReport validateInstances(InstanceCollection instances,
 			IProgressMonitor monitor) {
+		return validateInstances(instances, monitor, getValidationThreads());
+	}
+
+	/**
+	 * Validates the given instances using all constraints that are validatable.
+	 * 
+	 * @param instances the instances to validate
+	 * @param monitor the progress monitor
+	 * @param threads the number of threads to validate instances on, if
+	 *            greater than one the instances are validated in chunks on a
+	 *            pool of worker threads (see
+	 *            {@link ParallelInstanceValidation})
+	 * @return a report of the validation
+	 */
+	public InstanceValidationReport validateInstances(InstanceCollection instances,
+			IProgressMonitor monitor, int threads) {
 		monitor.beginTask("Instance validation",
 				instances.hasSize() ? instances.size() : IProgressMonitor.UNKNOWN);
 
@@ -145,18 +164,39 @@ public class InstanceValidator {
 		reporter.setSuccess(false);
 		ATransaction trans = log.begin("Instance validation");
 		InstanceValidationContext context = new InstanceValidationContext();
+		ParallelInstanceValidation parallel = (threads > 1)
+				? (new ParallelInstanceValidation(this, context, threads,
+						ParallelInstanceValidation.DEFAULT_CHUNK_SIZE))
+				: (null);
 		ResourceIterator<Instance> iterator = instances.iterator();
 		try {
 			while (iterator.hasNext()) {
-				if (monitor.isCanceled())
+				if (monitor.isCanceled()) {
+					if (parallel != null) {
+						parallel.cancel();
+					}
 					return reporter;
+				}
 				Instance instance = iterator.next();
-				validateInstance(instance, reporter, instance.getDefinition().getName(),
-						new ArrayList<QName>(), false, instances.getReference(instance), context,
-						null, null);
-				monitor.worked(1);
+				if (parallel != null) {
+					monitor.worked(parallel.validateInstance(instance,
+							instances.getReference(instance), reporter));
+				}
+				else {
+					validateInstance(instance, reporter, instance.getDefinition().getName(),
+							new ArrayList<QName>(), false, instances.getReference(instance),
+							context, null, null);
+					monitor.worked(1);
+				}
+			}
+			if (parallel != null) {
+				monitor.worked(parallel.complete(reporter));
 			}
 		} finally {
+			if (parallel != null) {
+				// stops the worker threads if not completed
+				parallel.cancel();
+			}
 			iterator.close();
 			trans.end();
 		}
@@ -165,6 +205,36 @@ public class InstanceValidator {
 		return reporter;
 	}
 
+	/**
+	 * Get the number of threads to use for validating instances, configured
+	 * via the system property <code>hale.validation.threads</code> or the
+	 * environment variable <code>HALE_VALIDATION_THREADS</code>. The value
+	 * <code>max</code> stands for the number of available processors.
+	 * 
+	 * @return the number of threads to use for instance validation, defaults
+	 *         to one
+	 */
+	public static int getValidationThreads() {
+		String setting = System.getProperty("hale.validation.threads");
+
+		if (setting == null) {
+			setting = System.getenv("HALE_VALIDATION_THREADS");
+		}
+
+		if (setting != null) {
+			try {
+				if ("max".equals(setting)) {
+					return Runtime.getRuntime().availableProcessors();
+				}
+				return Integer.valueOf(setting);
+			} catch (Throwable e) {
+				log.error("Error applying custom validation threads setting: " + setting, e);
+			}
+		}
+
+		return 1;
+	}
+
 	/**
 	 * Validate the information collected in the instance validation context.
 	 * Should be performed after all instances haven been validated.
@@ -302,9 +372,8 @@ public class InstanceValidator {
 				entry.getValue().validateTypeConstraint(instance,
 						typeDef.getConstraint(entry.getKey()), context);
 			} catch (ValidationException vE) {
-				reporter.warn(new DefaultInstanceValidationMessage(reference, type,
-						new ArrayList<QName>(path), entry.getKey().getSimpleName(),
-						vE.getMessage()));
+				reporter.warn(createMessage(reference, type, path,
+						entry.getKey().getSimpleName(), vE));
 			}
 		}
 
@@ -313,8 +382,7 @@ public class InstanceValidator {
 			try {
 				validator.validateInstance(instance, entity, context);
 			} catch (ValidationException vE) {
-				reporter.warn(new DefaultInstanceValidationMessage(reference, type,
-						new ArrayList<QName>(path), validator.getCategory(), vE.getMessage()));
+				reporter.warn(createMessage(reference, type, path, validator.getCategory(), vE));
 			}
 		}
 
@@ -322,6 +390,28 @@ public class InstanceValidator {
 				context, presentIn, entity);
 	}
 
+	/**
+	 * Create the validation message for a failed validation. If the check was
+	 * deferred, a placeholder is created that is resolved when the results of
+	 * a parallel validation are merged (see {@link ParallelInstanceValidation}).
+	 * 
+	 * @param reference the instance reference
+	 * @param type the top level type
+	 * @param path the current property path, is copied
+	 * @param category the message category
+	 * @param e the validation exception
+	 * @return the validation message
+	 */
+	private static DefaultInstanceValidationMessage createMessage(InstanceReference reference,
+			QName type, List<QName> path, String category, ValidationException e) {
+		if (e instanceof DeferredValidationException) {
+			return new DeferredValidationMessage(reference, type, new ArrayList<QName>(path),
+					category, ((DeferredValidationException) e).getCheck());
+		}
+		return new DefaultInstanceValidationMessage(reference, type, new ArrayList<QName>(path),
+				category, e.getMessage());
+	}
+
 	/**
 	 * Determines if validation should be skipped for a certain property type
 	 * and value.
@@ -471,8 +561,8 @@ public class InstanceValidator {
 										.getConstraintType(entry.getKey())),
 						propertyDef, context, loc);
 			} catch (ValidationException vE) {
-				reporter.warn(new DefaultInstanceValidationMessage(loc,
-						entry.getKey().getSimpleName(), vE.getMessage()));
+				reporter.warn(createMessage(loc.getReference(), loc.getType(), loc.getPath(),
+						entry.getKey().getSimpleName(), vE));
 			}
 		}
 
@@ -485,18 +575,16 @@ public class InstanceValidator {
 						try {
 							validator.validateInstance((Instance) value, entity, context);
 						} catch (ValidationException vE) {
-							reporter.warn(new DefaultInstanceValidationMessage(reference, type,
-									new ArrayList<QName>(path), validator.getCategory(),
-									vE.getMessage()));
+							reporter.warn(createMessage(reference, type, path,
+									validator.getCategory(), vE));
 						}
 					}
 					else {
 						try {
 							validator.validateProperty(value, propertyDef, entity, context);
 						} catch (ValidationException vE) {
-							reporter.warn(new DefaultInstanceValidationMessage(reference, type,
-									new ArrayList<QName>(path), validator.getCategory(),
-									vE.getMessage()));
+							reporter.warn(createMessage(reference, type, path,
+									validator.getCategory(), vE));
 						}
 					}
 				}
@@ -534,9 +622,8 @@ public class InstanceValidator {
 				entry.getValue().validateGroupPropertyConstraint(properties,
 						groupDef.getConstraint(entry.getKey()), groupDef, context);
 			} catch (ValidationException vE) {
-				reporter.warn(new DefaultInstanceValidationMessage(reference, type,
-						new ArrayList<QName>(path), entry.getKey().getSimpleName(),
-						vE.getMessage()));
+				reporter.warn(createMessage(reference, type, path,
+						entry.getKey().getSimpleName(), vE));
 			}
 		}
 
@@ -549,9 +636,8 @@ public class InstanceValidator {
 						try {
 							validator.validateGroup((Group) value, groupDef, groupEntity, context);
 						} catch (ValidationException vE) {
-							reporter.warn(new DefaultInstanceValidationMessage(reference, type,
-									new ArrayList<QName>(path), validator.getCategory(),
-									vE.getMessage()));
+							reporter.warn(createMessage(reference, type, path,
+									validator.getCategory(), vE));
 						}
 					}
 					else {
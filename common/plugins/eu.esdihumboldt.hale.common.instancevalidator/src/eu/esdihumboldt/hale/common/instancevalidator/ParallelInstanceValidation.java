@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instancevalidator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+import javax.xml.namespace.QName;
+
+import eu.esdihumboldt.hale.common.core.report.impl.AllInMemoryReporter;
+import eu.esdihumboldt.hale.common.instance.extension.validation.ConstraintValidatorExtension;
+import eu.esdihumboldt.hale.common.instance.extension.validation.InstanceValidationContext;
+import eu.esdihumboldt.hale.common.instance.extension.validation.report.InstanceValidationMessage;
+import eu.esdihumboldt.hale.common.instance.extension.validation.report.InstanceValidationReport;
+import eu.esdihumboldt.hale.common.instance.extension.validation.report.InstanceValidationReporter;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.model.InstanceReference;
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstance;
+
+/**
+ * Validates instances in chunks on a pool of worker threads. Each chunk is
+ * validated with its own reporter, the messages of the chunk reports are
+ * added to the target reporter in the order the instances were added. All
+ * chunks share the same {@link InstanceValidationContext}, so the validators
+ * that collect information in the context must support concurrent access.
+ * Checks depending on the order of the instances (see
+ * {@link InstanceValidationContext#checkInOrder(java.util.function.Supplier)})
+ * are deferred and performed while merging the chunk reports, so the
+ * validation results are the same as if the instances were validated
+ * sequentially.<br>
+ * <br>
+ * Instances that are not {@link DefaultInstance}s are copied before they are
+ * handed to a worker thread, as they may be bound to the thread they were read
+ * on (e.g. instances from a database). Instances may be added from different
+ * threads, e.g. if they are published by a transformation running on multiple
+ * threads.
+ */
+public class ParallelInstanceValidation {
+
+	/**
+	 * The default number of instances validated in a chunk.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 100;
+
+	/**
+	 * Reporter for the validation of a chunk. Keeps all messages, in contrast
+	 * to the target reporter that may limit the number of messages kept.
+	 */
+	private static class ChunkReporter extends AllInMemoryReporter<InstanceValidationMessage>
+			implements InstanceValidationReporter {
+
+		public ChunkReporter() {
+			super("Instance validation", InstanceValidationReport.TASK_TYPE,
+					InstanceValidationMessage.class, false);
+		}
+
+	}
+
+	/**
+	 * A chunk of instances validated on a worker thread.
+	 */
+	private static class Chunk {
+
+		private final List<Instance> instances;
+
+		private final List<InstanceReference> references;
+
+		private Future<ChunkReporter> report;
+
+		public Chunk(int chunkSize) {
+			instances = new ArrayList<>(chunkSize);
+			references = new ArrayList<>(chunkSize);
+		}
+
+	}
+
+	private final InstanceValidator validator;
+
+	private final InstanceValidationContext context;
+
+	private final int chunkSize;
+
+	private final int maxPending;
+
+	private final ExecutorService executor;
+
+	private final Deque<Chunk> pending = new ArrayDeque<>();
+
+	private Chunk current;
+
+	/**
+	 * Create a parallel instance validation.
+	 * 
+	 * @param validator the validator to use
+	 * @param context the validation context shared by all chunks
+	 * @param threads the number of worker threads
+	 * @param chunkSize the number of instances to validate in a chunk
+	 */
+	public ParallelInstanceValidation(InstanceValidator validator,
+			InstanceValidationContext context, int threads, int chunkSize) {
+		super();
+		this.validator = validator;
+		this.context = context;
+		this.chunkSize = Math.max(1, chunkSize);
+		// limit the number of chunks held in memory
+		this.maxPending = Math.max(1, threads) * 2;
+
+		// perform checks depending on the order of the instances when merging
+		context.setDeferOrderedChecks(true);
+
+		// make sure the validators are loaded before the workers access them
+		ConstraintValidatorExtension.getInstance();
+
+		AtomicInteger threadCount = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+			Thread thread = new Thread(r,
+					"instance-validator-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Add an instance to validate. Reports of chunks that have been completed
+	 * are merged into the given reporter. Blocks if too many chunks are
+	 * waiting to be validated.
+	 * 
+	 * @param instance the instance to validate
+	 * @param reference the instance reference, may be <code>null</code>
+	 * @param reporter the reporter to merge completed chunk reports into
+	 * @return the number of instances whose validation results were merged
+	 *         into the reporter during this call
+	 */
+	public synchronized int validateInstance(Instance instance,
+			@Nullable InstanceReference reference, InstanceValidationReporter reporter) {
+		if (current == null) {
+			current = new Chunk(chunkSize);
+		}
+		current.instances.add((instance instanceof DefaultInstance) ? (instance)
+				: (new DefaultInstance(instance)));
+		current.references.add(reference);
+
+		int merged = 0;
+		if (current.instances.size() >= chunkSize) {
+			submit(current);
+			current = null;
+
+			// merge completed chunks, wait if there are too many pending
+			while (!pending.isEmpty()
+					&& (pending.size() > maxPending || pending.peekFirst().report.isDone())) {
+				merged += merge(pending.pollFirst(), reporter);
+			}
+		}
+		return merged;
+	}
+
+	/**
+	 * Wait for the validation of all added instances to complete and merge the
+	 * remaining chunk reports into the given reporter. Stops the worker
+	 * threads.<br>
+	 * <br>
+	 * The validation context is not validated, this has to be done separately
+	 * (see {@link InstanceValidator#validateContext(InstanceValidationContext, InstanceValidationReporter)}).
+	 * 
+	 * @param reporter the reporter to merge the chunk reports into
+	 * @return the number of instances whose validation results were merged
+	 *         into the reporter during this call
+	 */
+	public synchronized int complete(InstanceValidationReporter reporter) {
+		try {
+			if (current != null) {
+				submit(current);
+				current = null;
+			}
+
+			int merged = 0;
+			while (!pending.isEmpty()) {
+				merged += merge(pending.pollFirst(), reporter);
+			}
+			return merged;
+		} finally {
+			context.setDeferOrderedChecks(false);
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Cancel the validation of all chunks that are not complete yet and stop
+	 * the worker threads.
+	 */
+	public synchronized void cancel() {
+		for (Chunk chunk : pending) {
+			chunk.report.cancel(false);
+		}
+		pending.clear();
+		current = null;
+		context.setDeferOrderedChecks(false);
+		executor.shutdownNow();
+	}
+
+	private void submit(Chunk chunk) {
+		chunk.report = executor.submit(() -> {
+			ChunkReporter chunkReporter = new ChunkReporter();
+			for (int i = 0; i < chunk.instances.size(); i++) {
+				Instance instance = chunk.instances.get(i);
+				validator.validateInstance(instance, chunkReporter,
+						instance.getDefinition().getName(), new ArrayList<QName>(), false,
+						chunk.references.get(i), context, null, null);
+			}
+			return chunkReporter;
+		});
+		pending.addLast(chunk);
+	}
+
+	private int merge(Chunk chunk, InstanceValidationReporter reporter) {
+		try {
+			ChunkReporter chunkReporter = chunk.report.get();
+			for (InstanceValidationMessage message : chunkReporter.getErrors()) {
+				reporter.error(message);
+			}
+			for (InstanceValidationMessage message : chunkReporter.getWarnings()) {
+				if (message instanceof DeferredValidationMessage) {
+					// perform the deferred check in the order of the instances
+					message = ((DeferredValidationMessage) message).check();
+				}
+				if (message != null) {
+					reporter.warn(message);
+				}
+			}
+			for (InstanceValidationMessage message : chunkReporter.getInfos()) {
+				reporter.info(message);
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("Error validating instances", cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while validating instances", e);
+		}
+		return chunk.instances.size();
+	}
+
+}
@@ -16,10 +16,9 @@
 
 package eu.esdihumboldt.hale.common.instancevalidator.validators;
 
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import eu.esdihumboldt.hale.common.instance.extension.validation.InstanceValidationContext;
 import eu.esdihumboldt.hale.common.instance.extension.validation.PropertyConstraintValidator;
@@ -42,29 +41,23 @@ public class UniqueValidator implements PropertyConstraintValidator {
 			ValidationLocation location) throws ValidationException {
 		Unique unique = (Unique) constraint;
 		if (unique.isEnabled() && values != null) {
-			for (Object value : values) {
-				// only check it if it isn't null
-				if (value != null) {
-					@SuppressWarnings("unchecked")
-					Map<String, Set<Object>> map = (Map<String, Set<Object>>) context
-							.getContext(UniqueValidator.class);
-					if (map == null) {
-						map = new HashMap<String, Set<Object>>();
-						context.putContext(UniqueValidator.class, map);
-					}
-					Set<Object> valueSet = map.get(unique.getIdentifier());
-					if (valueSet == null) {
-						valueSet = new HashSet<Object>();
-						map.put(unique.getIdentifier(), valueSet);
-					}
-					if (valueSet.contains(value))
-						throw new ValidationException("The property " + property.getDisplayName()
+			Map<String, Set<Object>> map = context.getOrCreateContext(UniqueValidator.class,
+					ConcurrentHashMap<String, Set<Object>>::new);
+			Set<Object> valueSet = map.computeIfAbsent(unique.getIdentifier(),
+					id -> ConcurrentHashMap.newKeySet());
+			// which occurrence of a value is the duplicate depends on the order
+			context.checkInOrder(() -> {
+				for (Object value : values) {
+					// only check it if it isn't null
+					// add fails if the value is already present
+					if (value != null && !valueSet.add(value)) {
+						return "The property " + property.getDisplayName()
 								+ " is marked as unique but the value (" + value
-								+ ") occurs multiple times.");
-					else
-						valueSet.add(value);
+								+ ") occurs multiple times.";
+					}
 				}
-			}
+				return null;
+			});
 		}
 	}
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.referencing.transform
+
+import static org.junit.Assert.*
+
+import org.geotools.geometry.jts.JTS
+import org.geotools.referencing.CRS
+import org.junit.Test
+import org.locationtech.jts.geom.Coordinate
+import org.locationtech.jts.geom.Geometry
+import org.locationtech.jts.geom.GeometryFactory
+import org.opengis.referencing.crs.CoordinateReferenceSystem
+import org.opengis.referencing.operation.MathTransform
+
+import groovy.transform.CompileStatic
+
+/**
+ * Tests for {@link ReprojectionService}.
+ */
+@CompileStatic
+class ReprojectionServiceTest {
+
+	/**
+	 * Test that math transforms are cached per CRS pair.
+	 */
+	@Test
+	void testTransformCached() {
+		ReprojectionService service = new ReprojectionService(10)
+
+		CoordinateReferenceSystem source = CRS.decode('EPSG:25832')
+		CoordinateReferenceSystem target = CRS.decode('EPSG:4258', true)
+
+		MathTransform transform = service.getTransform(source, target)
+		assertNotNull(transform)
+		assertSame(transform, service.getTransform(source, target))
+
+		// cached independently of the last lookup
+		assertNotNull(service.getTransform(target, source))
+		assertSame(transform, service.getTransform(source, target))
+	}
+
+	/**
+	 * Test that geometries are transformed the same way as with
+	 * {@link JTS#transform(Geometry, MathTransform)}.
+	 */
+	@Test
+	void testTransformGeometry() {
+		ReprojectionService service = new ReprojectionService(10)
+
+		CoordinateReferenceSystem source = CRS.decode('EPSG:25832')
+		CoordinateReferenceSystem target = CRS.decode('EPSG:4258', true)
+
+		GeometryFactory factory = new GeometryFactory()
+		Geometry polygon = factory.createPolygon([
+			new Coordinate(500000, 5500000),
+			new Coordinate(510000, 5500000),
+			new Coordinate(510000, 5510000),
+			new Coordinate(500000, 5500000)] as Coordinate[])
+		Geometry line = factory.createLineString([
+			new Coordinate(500000, 5500000, 100),
+			new Coordinate(520000, 5530000, 120)] as Coordinate[])
+
+		MathTransform transform = CRS.findMathTransform(source, target)
+		[polygon, line].each { Geometry geom ->
+			Geometry expected = JTS.transform(geom, transform)
+			Geometry actual = service.transform(geom, source, target)
+
+			assertEquals(geom.geometryType, actual.geometryType)
+			assertTrue(expected.equalsExact(actual, 1e-9))
+		}
+	}
+
+}
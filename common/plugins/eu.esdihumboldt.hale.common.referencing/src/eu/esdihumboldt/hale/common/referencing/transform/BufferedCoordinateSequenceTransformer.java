@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.referencing.transform;
+
+import org.geotools.geometry.jts.CoordinateSequenceTransformer;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+/**
+ * Coordinate sequence transformer that transforms all coordinates of a
+ * sequence with a single call to the math transform. The ordinate buffer is
+ * reused for subsequent sequences, so an instance of this class must not be
+ * used by multiple threads concurrently.<br>
+ * <br>
+ * The transformed sequence is a copy of the original sequence, so it has the
+ * same dimension and measures. If the sequence has a Z ordinate and the
+ * transform is three-dimensional, the Z ordinate is transformed as well,
+ * otherwise it is retained.
+ */
+public class BufferedCoordinateSequenceTransformer implements CoordinateSequenceTransformer {
+
+	private double[] buffer = new double[256];
+
+	@Override
+	public CoordinateSequence transform(CoordinateSequence sequence, MathTransform transform)
+			throws TransformException {
+		int size = sequence.size();
+		CoordinateSequence result = sequence.copy();
+		if (size == 0) {
+			return result;
+		}
+
+		int sourceDim = transform.getSourceDimensions();
+		int targetDim = transform.getTargetDimensions();
+		boolean hasZ = sequence.hasZ();
+
+		int stride = Math.max(sourceDim, targetDim);
+		int length = size * stride;
+		if (buffer.length < length) {
+			buffer = new double[Math.max(length, buffer.length * 2)];
+		}
+
+		// collect the ordinates
+		for (int i = 0, offset = 0; i < size; i++, offset += sourceDim) {
+			buffer[offset] = sequence.getX(i);
+			buffer[offset + 1] = sequence.getY(i);
+			if (sourceDim > 2) {
+				double z = (hasZ) ? (sequence.getZ(i)) : (Double.NaN);
+				buffer[offset + 2] = (Double.isNaN(z)) ? (0) : (z);
+				for (int d = 3; d < sourceDim; d++) {
+					buffer[offset + d] = 0;
+				}
+			}
+		}
+
+		// transform all coordinates at once (in place)
+		transform.transform(buffer, 0, buffer, 0, size);
+
+		// write back the transformed ordinates
+		for (int i = 0, offset = 0; i < size; i++, offset += targetDim) {
+			result.setOrdinate(i, CoordinateSequence.X, buffer[offset]);
+			result.setOrdinate(i, CoordinateSequence.Y, buffer[offset + 1]);
+			if (hasZ && sourceDim > 2 && targetDim > 2) {
+				result.setOrdinate(i, CoordinateSequence.Z, buffer[offset + 2]);
+			}
+		}
+
+		return result;
+	}
+
+}
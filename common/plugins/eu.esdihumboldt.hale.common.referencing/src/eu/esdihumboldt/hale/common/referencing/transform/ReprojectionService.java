@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.referencing.transform;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.geotools.geometry.jts.GeometryCoordinateSequenceTransformer;
+import org.geotools.referencing.CRS;
+import org.locationtech.jts.geom.Geometry;
+import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+/**
+ * Process wide service for reprojecting geometries. Math transforms are
+ * cached per pair of source and target CRS, so the referencing factories are
+ * only consulted once per pair. Geometries are transformed with one math
+ * transform call per coordinate sequence, reusing the ordinate buffers of the
+ * calling thread.<br>
+ * <br>
+ * The service is safe to use from multiple threads.
+ */
+public class ReprojectionService {
+
+	/**
+	 * Maximum number of cached math transforms.
+	 */
+	private static final int MAX_CACHED_TRANSFORMS = 256;
+
+	private static final ReprojectionService INSTANCE = new ReprojectionService(
+			MAX_CACHED_TRANSFORMS);
+
+	/**
+	 * Key identifying a math transform. CRS with the same identity are
+	 * compared first, as comparing CRS may be expensive.
+	 */
+	private static class TransformKey {
+
+		private final CoordinateReferenceSystem source;
+
+		private final CoordinateReferenceSystem target;
+
+		private final boolean lenient;
+
+		private final int hashCode;
+
+		private TransformKey(CoordinateReferenceSystem source, CoordinateReferenceSystem target,
+				boolean lenient) {
+			this.source = source;
+			this.target = target;
+			this.lenient = lenient;
+
+			hashCode = 31 * (31 * source.hashCode() + target.hashCode()) + (lenient ? 1 : 0);
+		}
+
+		private boolean matches(CoordinateReferenceSystem source,
+				CoordinateReferenceSystem target, boolean lenient) {
+			return this.source == source && this.target == target && this.lenient == lenient;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof TransformKey)) {
+				return false;
+			}
+			TransformKey other = (TransformKey) obj;
+			return lenient == other.lenient && hashCode == other.hashCode
+					&& (source == other.source || CRS.equalsIgnoreMetadata(source, other.source))
+					&& (target == other.target || CRS.equalsIgnoreMetadata(target, other.target));
+		}
+
+	}
+
+	/**
+	 * A cached math transform.
+	 */
+	private static class CachedTransform {
+
+		private final TransformKey key;
+
+		private final MathTransform transform;
+
+		private CachedTransform(TransformKey key, MathTransform transform) {
+			this.key = key;
+			this.transform = transform;
+		}
+
+	}
+
+	private final int maxSize;
+
+	private final ConcurrentMap<TransformKey, MathTransform> transforms = new ConcurrentHashMap<>();
+
+	/**
+	 * CRS pairs no math transform could be created for, so this is not tried
+	 * again for every geometry.
+	 */
+	private final ConcurrentMap<TransformKey, FactoryException> failed = new ConcurrentHashMap<>();
+
+	/**
+	 * The transform looked up last, usually all geometries are transformed
+	 * between the same CRS.
+	 */
+	private volatile CachedTransform last;
+
+	private final ThreadLocal<GeometryCoordinateSequenceTransformer> transformers = ThreadLocal
+			.withInitial(() -> new GeometryCoordinateSequenceTransformer(
+					new BufferedCoordinateSequenceTransformer()));
+
+	/**
+	 * Create a reprojection service.
+	 * 
+	 * @param maxSize the maximum number of math transforms to cache
+	 */
+	public ReprojectionService(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @return the process wide reprojection service
+	 */
+	public static ReprojectionService getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Get the math transform between two CRS, not allowing lenient datum
+	 * shifts.
+	 * 
+	 * @param source the source CRS
+	 * @param target the target CRS
+	 * @return the math transform
+	 * @throws FactoryException if no math transform can be created
+	 * @see CRS#findMathTransform(CoordinateReferenceSystem,
+	 *      CoordinateReferenceSystem)
+	 */
+	public MathTransform getTransform(CoordinateReferenceSystem source,
+			CoordinateReferenceSystem target) throws FactoryException {
+		return getTransform(source, target, false);
+	}
+
+	/**
+	 * Get the math transform between two CRS.
+	 * 
+	 * @param source the source CRS
+	 * @param target the target CRS
+	 * @param lenient if a math transform should be created even if no datum
+	 *            shift method is available
+	 * @return the math transform
+	 * @throws FactoryException if no math transform can be created
+	 * @see CRS#findMathTransform(CoordinateReferenceSystem,
+	 *      CoordinateReferenceSystem, boolean)
+	 */
+	public MathTransform getTransform(CoordinateReferenceSystem source,
+			CoordinateReferenceSystem target, boolean lenient) throws FactoryException {
+		CachedTransform cached = last;
+		if (cached != null && cached.key.matches(source, target, lenient)) {
+			return cached.transform;
+		}
+
+		TransformKey key = new TransformKey(source, target, lenient);
+		MathTransform transform = transforms.get(key);
+		if (transform == null) {
+			FactoryException failure = failed.get(key);
+			if (failure != null) {
+				throw failure;
+			}
+
+			try {
+				transform = CRS.findMathTransform(source, target, lenient);
+			} catch (FactoryException e) {
+				if (failed.size() < maxSize) {
+					failed.put(key, e);
+				}
+				throw e;
+			}
+
+			if (transforms.size() >= maxSize) {
+				// make room for the new transform
+				Iterator<TransformKey> it = transforms.keySet().iterator();
+				if (it.hasNext()) {
+					it.next();
+					it.remove();
+				}
+			}
+			MathTransform previous = transforms.putIfAbsent(key, transform);
+			if (previous != null) {
+				transform = previous;
+			}
+		}
+
+		last = new CachedTransform(key, transform);
+		return transform;
+	}
+
+	/**
+	 * Reproject a geometry.
+	 * 
+	 * @param geometry the geometry to reproject
+	 * @param source the CRS of the geometry
+	 * @param target the target CRS
+	 * @return the reprojected geometry
+	 * @throws FactoryException if no math transform can be created
+	 * @throws TransformException if transforming the coordinates fails
+	 */
+	public Geometry transform(Geometry geometry, CoordinateReferenceSystem source,
+			CoordinateReferenceSystem target) throws FactoryException, TransformException {
+		return transform(geometry, getTransform(source, target));
+	}
+
+	/**
+	 * Transform a geometry.
+	 * 
+	 * @param geometry the geometry to transform
+	 * @param transform the math transform to apply
+	 * @return the transformed geometry
+	 * @throws TransformException if transforming the coordinates fails
+	 */
+	public Geometry transform(Geometry geometry, MathTransform transform)
+			throws TransformException {
+		GeometryCoordinateSequenceTransformer transformer = transformers.get();
+		transformer.setMathTransform(transform);
+		return transformer.transform(geometry);
+	}
+
+	/**
+	 * Remove all cached math transforms and failures.
+	 */
+	public void clear() {
+		last = null;
+		transforms.clear();
+		failed.clear();
+	}
+
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.schema.persist.test
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.zip.GZIPInputStream
+
+import javax.xml.namespace.QName
+import javax.xml.parsers.DocumentBuilderFactory
+
+import org.w3c.dom.Element
+
+import eu.esdihumboldt.hale.common.core.io.IOProviderConfigurationException
+import eu.esdihumboldt.hale.common.core.io.ProgressIndicator
+import eu.esdihumboldt.hale.common.core.io.impl.ElementValue
+import eu.esdihumboldt.hale.common.core.io.report.IOReport
+import eu.esdihumboldt.hale.common.core.io.report.IOReporter
+import eu.esdihumboldt.hale.common.core.io.supplier.FileIOSupplier
+import eu.esdihumboldt.hale.common.schema.groovy.SchemaBuilder
+import eu.esdihumboldt.hale.common.schema.model.Schema
+import eu.esdihumboldt.hale.common.schema.model.TypeDefinition
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultTypeDefinition
+import eu.esdihumboldt.hale.common.schema.persist.AbstractCachedSchemaReader
+import eu.esdihumboldt.hale.common.schema.persist.SchemaSnapshots
+import eu.esdihumboldt.hale.common.schema.persist.hsd.SchemaToXml
+import eu.esdihumboldt.hale.common.test.TestUtil
+
+/**
+ * Tests for schema snapshots created by {@link AbstractCachedSchemaReader}.
+ */
+class SchemaSnapshotsTest extends GroovyTestCase {
+
+	/**
+	 * Schema reader creating a type for each line of the source.
+	 */
+	static class LineSchemaReader extends AbstractCachedSchemaReader {
+
+		File snapshotDir
+
+		File dependency
+
+		URI remoteDependency
+
+		int sourceLoads = 0
+
+		@Override
+		protected Schema loadFromSource(ProgressIndicator progress, IOReporter reporter)
+		throws IOProviderConfigurationException, IOException {
+			sourceLoads++
+			List<String> names = getSource().input.withStream { it.readLines('UTF-8') }
+			Schema schema = new SchemaBuilder().schema {
+				for (String name in names) {
+					"$name" {
+						id(Integer)
+						label()
+					}
+				}
+			}
+			reporter.success = true
+			schema
+		}
+
+		@Override
+		protected File getSnapshotDirectory() {
+			snapshotDir
+		}
+
+		@Override
+		protected Collection<URI> getSnapshotDependencies() {
+			List<URI> dependencies = []
+			if (dependency) {
+				dependencies << dependency.toURI()
+			}
+			if (remoteDependency) {
+				dependencies << remoteDependency
+			}
+			dependencies
+		}
+
+		@Override
+		protected String getDefaultTypeName() {
+			'Lines'
+		}
+	}
+
+	private Path snapshotDir
+
+	private Path source
+
+	@Override
+	protected void setUp() {
+		// conversion service needed for value conversion
+		TestUtil.startConversionService()
+
+		snapshotDir = Files.createTempDirectory('snapshots')
+		source = Files.createTempFile('schema', '.txt')
+	}
+
+	@Override
+	protected void tearDown() {
+		snapshotDir.toFile().deleteDir()
+		Files.deleteIfExists(source)
+	}
+
+	void testLoadFromSnapshot() {
+		source.toFile().write('Person\nAddress', 'UTF-8')
+
+		LineSchemaReader first = read()
+		assertEquals 1, first.sourceLoads
+		assertEquals 1, snapshotDir.toFile().listFiles().length
+
+		// same content -> snapshot is used
+		LineSchemaReader second = read()
+		assertEquals 0, second.sourceLoads
+		assertEquals 2, second.schema.types.size()
+		TypeDefinition person = second.schema.getType(new QName('Person'))
+		assertNotNull person
+		assertNotNull person.getChild(new QName('id'))
+		assertNotNull person.getChild(new QName('label'))
+	}
+
+	void testContentChanged() {
+		source.toFile().write('Person', 'UTF-8')
+		read()
+
+		// different content -> source is loaded
+		source.toFile().write('Person\nAddress', 'UTF-8')
+		LineSchemaReader reader = read()
+		assertEquals 1, reader.sourceLoads
+		assertEquals 2, reader.schema.types.size()
+		assertEquals 2, snapshotDir.toFile().listFiles().length
+	}
+
+	void testDependencyChanged() {
+		source.toFile().write('Person', 'UTF-8')
+		Path dependency = Files.createTempFile('dependency', '.txt')
+		try {
+			dependency.toFile().write('first', 'UTF-8')
+			assertEquals 1, read(dependency).sourceLoads
+			assertEquals 0, read(dependency).sourceLoads
+
+			// changed dependency -> source is loaded
+			dependency.toFile().write('second', 'UTF-8')
+			assertEquals 1, read(dependency).sourceLoads
+			assertEquals 0, read(dependency).sourceLoads
+
+			// missing dependency -> source is loaded
+			Files.delete(dependency)
+			assertEquals 1, read(dependency).sourceLoads
+		} finally {
+			Files.deleteIfExists(dependency)
+		}
+	}
+
+	void testRemoteDependency() {
+		source.toFile().write('Person', 'UTF-8')
+		URI remote = URI.create('http://localhost:1/schemas/remote/1.0/remote.xsd')
+		assertEquals 1, read(null, remote).sourceLoads
+		assertEquals 0, read(null, remote).sourceLoads
+
+		// remote dependency is identified by its URL only and not read
+		File snapshot = snapshotDir.toFile().listFiles()[0]
+		Element root = snapshot.withInputStream { InputStream stream ->
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance()
+			factory.namespaceAware = true
+			factory.newDocumentBuilder().parse(new GZIPInputStream(stream)).documentElement
+		}
+		Element dependency = (Element) root.getElementsByTagName('dependency').item(0)
+		assertEquals remote.toString(), dependency.getAttribute('location')
+		assertEquals 'true', dependency.getAttribute('remote')
+		assertFalse dependency.hasAttribute('hash')
+	}
+
+	void testLazyChildren() {
+		source.toFile().write('Person\nAddress', 'UTF-8')
+		read()
+
+		LineSchemaReader reader = read()
+		assertEquals 0, reader.sourceLoads
+		DefaultTypeDefinition person = (DefaultTypeDefinition) reader.schema.getType(
+				new QName('Person'))
+		DefaultTypeDefinition address = (DefaultTypeDefinition) reader.schema.getType(
+				new QName('Address'))
+
+		// children are only loaded when accessed
+		assertNotNull person.@childrenLoader
+		assertEquals(['id', 'label'], person.children*.name*.localPart)
+		assertNull person.@childrenLoader
+		assertNotNull address.@childrenLoader
+		assertNotNull address.getChild(new QName('label'))
+		assertNull address.@childrenLoader
+	}
+
+	void testInvalidSnapshot() {
+		source.toFile().write('Person', 'UTF-8')
+		LineSchemaReader reader = new LineSchemaReader(snapshotDir: snapshotDir.toFile())
+		reader.source = new FileIOSupplier(source.toFile())
+
+		// snapshot with a schema that can't be loaded
+		Element schema = SchemaToXml.createBuilder().call('hsd:schema', [:])
+		assertTrue SchemaSnapshots.store(snapshotDir.toFile(), SchemaSnapshots.computeKey(reader),
+				new ElementValue(schema, null), [])
+
+		// errors loading the snapshot are not reported, the source is loaded
+		reader = read()
+		assertEquals 1, reader.sourceLoads
+		assertNotNull reader.schema.getType(new QName('Person'))
+	}
+
+	void testSnapshotKey() {
+		source.toFile().write('Person', 'UTF-8')
+		LineSchemaReader reader = new LineSchemaReader()
+		reader.source = new FileIOSupplier(source.toFile())
+
+		String key = SchemaSnapshots.computeKey(reader)
+		assertNotNull key
+		assertEquals key, SchemaSnapshots.computeKey(reader)
+
+		// resource identifiers differ per load and are not part of the key
+		reader.execute(null, 'resource')
+		assertEquals key, SchemaSnapshots.computeKey(reader)
+
+		source.toFile().write('Address', 'UTF-8')
+		assertFalse key == SchemaSnapshots.computeKey(reader)
+	}
+
+	private LineSchemaReader read(Path dependency = null, URI remoteDependency = null) {
+		LineSchemaReader reader = new LineSchemaReader(snapshotDir: snapshotDir.toFile(),
+		dependency: dependency?.toFile(), remoteDependency: remoteDependency)
+		reader.source = new FileIOSupplier(source.toFile())
+		IOReport report = reader.execute(null)
+
+		assertTrue 'Reader not successful', report.isSuccess()
+		assertTrue 'Errors reported by the reader', report.errors.isEmpty()
+		reader
+	}
+
+}
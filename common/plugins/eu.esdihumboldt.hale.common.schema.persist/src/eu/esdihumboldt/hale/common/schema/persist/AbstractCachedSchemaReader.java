@@ -61,11 +61,26 @@ public abstract class AbstractCachedSchemaReader extends AbstractCachedSchemaRea
 
 	@Override
 	protected Schema loadFromCache(Value cache, ProgressIndicator progress, IOReporter reporter) {
+		return loadSchemaDefinition(cache, false, progress, reporter);
+	}
+
+	/**
+	 * Loads the schema from the snapshot lazily, i.e. the properties of a type
+	 * are only loaded when they are first accessed.
+	 */
+	@Override
+	protected Schema loadFromSnapshot(Value snapshot, ProgressIndicator progress,
+			IOReporter reporter) {
+		return loadSchemaDefinition(snapshot, true, progress, reporter);
+	}
+
+	private Schema loadSchemaDefinition(Value cache, boolean lazy, ProgressIndicator progress,
+			IOReporter reporter) {
 		Schema schema = null;
 		progress.begin("Load schema from cached schema definition", ProgressIndicator.UNKNOWN);
 		try {
 			schema = XmlToSchema.parseSchema(cache.getDOMRepresentation(), new OsgiClassResolver(),
-					reporter);
+					reporter, lazy);
 
 			reporter.setSuccess(true);
 		} catch (Exception e) {
@@ -15,9 +15,12 @@
 
 package eu.esdihumboldt.hale.common.schema.persist;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
 
 import eu.esdihumboldt.hale.common.core.io.CachingImportProvider;
 import eu.esdihumboldt.hale.common.core.io.HaleIO;
@@ -55,6 +58,14 @@ public abstract class AbstractCachedSchemaReaderBase extends AbstractSchemaReade
 			schema = loadFromCache(cache, progress, reporter);
 		}
 		else {
+			File snapshotDir = getSnapshotDirectory();
+			String snapshotKey = (snapshotDir != null) ? (SchemaSnapshots.computeKey(this))
+					: (null);
+			if (snapshotKey != null
+					&& tryLoadSnapshot(snapshotDir, snapshotKey, progress, reporter)) {
+				return reporter;
+			}
+
 			try {
 				schema = loadFromSource(progress, reporter);
 			} catch (Exception e) {
@@ -75,6 +86,18 @@ public abstract class AbstractCachedSchemaReaderBase extends AbstractSchemaReade
 				}
 				cacheUpdate = true;
 			}
+			if (snapshotKey != null && schema != null && reporter.isSuccess()) {
+				try {
+					Value snapshot = (provideCache) ? (cache) : (storeInCache(schema));
+					if (SchemaSnapshots.store(snapshotDir, snapshotKey, snapshot,
+							getSnapshotDependencies())) {
+						reporter.info(new IOMessageImpl("Created schema snapshot", null));
+					}
+				} catch (Exception e) {
+					// snapshots are optional
+					reporter.warn(new IOMessageImpl("Failed to create schema snapshot", e));
+				}
+			}
 			if (!reporter.isSuccess() && validCache(cache) && useCacheAsFallback()) {
 				schema = loadFromCache(cache, progress, reporter);
 			}
@@ -82,6 +105,100 @@ public abstract class AbstractCachedSchemaReaderBase extends AbstractSchemaReade
 		return reporter;
 	}
 
+	/**
+	 * Try loading the schema from a snapshot matching the current source and
+	 * configuration.
+	 * 
+	 * @param snapshotDir the snapshot directory
+	 * @param snapshotKey the snapshot key
+	 * @param progress the progress indicator
+	 * @param reporter the reporter
+	 * @return if the schema was loaded from the snapshot
+	 */
+	private boolean tryLoadSnapshot(File snapshotDir, String snapshotKey,
+			ProgressIndicator progress, IOReporter reporter) {
+		Value snapshot = SchemaSnapshots.load(snapshotDir, snapshotKey);
+		if (!validCache(snapshot)) {
+			return false;
+		}
+
+		// use a separate reporter, so a failed attempt does not affect the
+		// report when loading the schema from the source instead
+		IOReporter snapshotReporter = createReporter();
+		Schema loaded = null;
+		try {
+			loaded = loadFromSnapshot(snapshot, progress, snapshotReporter);
+		} catch (Exception e) {
+			snapshotReporter.error(new IOMessageImpl("Failed to load schema snapshot", e));
+			snapshotReporter.setSuccess(false);
+		}
+		if (loaded == null || !snapshotReporter.isSuccess()) {
+			// load from source instead
+			reporter.warn(new IOMessageImpl(
+					"Schema snapshot could not be loaded, loading schema from source", null));
+			return false;
+		}
+
+		reporter.info(new IOMessageImpl("Loaded schema from snapshot", null));
+		reporter.importMessages(snapshotReporter);
+		reporter.setSuccess(true);
+		schema = loaded;
+
+		if (provideCache) {
+			// the snapshot matches the current source
+			cache = snapshot;
+			cacheUpdate = true;
+		}
+		return true;
+	}
+
+	/**
+	 * Load the schema from a snapshot. On success the reporter must be updated
+	 * accordingly.<br>
+	 * <br>
+	 * The default implementation loads the snapshot like a cached value using
+	 * {@link #loadFromCache(Value, ProgressIndicator, IOReporter)}.
+	 * 
+	 * @param snapshot the snapshot, a valid cache value
+	 * @param progress the progress indicator
+	 * @param reporter the reporter
+	 * @return the schema loaded from the snapshot
+	 */
+	protected Schema loadFromSnapshot(Value snapshot, ProgressIndicator progress,
+			IOReporter reporter) {
+		return loadFromCache(snapshot, progress, reporter);
+	}
+
+	/**
+	 * Get the locations of resources other than the source that the loaded
+	 * schema depends on. Their content is recorded in a snapshot of the schema
+	 * and the snapshot is only used as long as it does not change. Called
+	 * after the schema was loaded from the source.<br>
+	 * <br>
+	 * The default implementation returns an empty collection.
+	 * 
+	 * @return the locations of the resources the schema depends on
+	 */
+	protected Collection<URI> getSnapshotDependencies() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Get the directory to store schema snapshots in. Snapshots of a schema
+	 * are identified by the content of the source and the reader
+	 * configuration, if a matching snapshot exists the schema is loaded from
+	 * it instead of from the source.<br>
+	 * <br>
+	 * The default implementation returns the directory configured via
+	 * {@link SchemaSnapshots#getDefaultDirectory()}.
+	 * 
+	 * @return the snapshot directory or <code>null</code> if no snapshots
+	 *         should be used
+	 */
+	protected File getSnapshotDirectory() {
+		return SchemaSnapshots.getDefaultDirectory();
+	}
+
 	/**
 	 * @return if the cache should be used as fall-back if loading the source
 	 *         fails
@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.schema.persist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.eclipse.core.runtime.content.IContentType;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import de.fhg.igd.slf4jplus.ALogger;
+import de.fhg.igd.slf4jplus.ALoggerFactory;
+import eu.esdihumboldt.hale.common.core.io.IOProvider;
+import eu.esdihumboldt.hale.common.core.io.ImportProvider;
+import eu.esdihumboldt.hale.common.core.io.Value;
+import eu.esdihumboldt.hale.common.core.io.impl.ElementValue;
+import eu.esdihumboldt.hale.common.core.io.supplier.DefaultInputSupplier;
+import eu.esdihumboldt.util.io.InputSupplier;
+import eu.esdihumboldt.util.resource.Resources;
+
+/**
+ * Snapshots of loaded schemas stored in a local directory. A snapshot holds
+ * the cache representation of a schema (see
+ * {@link AbstractCachedSchemaReaderBase}) and is identified by a hash of the
+ * schema source content and the reader configuration, so a snapshot is only
+ * used as long as neither changed. Resources other than the source the schema
+ * was loaded from, e.g. imported schemas, are recorded in the snapshot with a
+ * hash of their content and a snapshot is only used as long as none of them
+ * changed either.<br>
+ * <br>
+ * Remote resources (HTTP or HTTPS) that are not available as local resource
+ * (see {@link Resources}) are only identified by their URL, as checking them
+ * would mean downloading them every time the snapshot is loaded. This relies on
+ * published schemas being versioned by their URL, like the INSPIRE schemas,
+ * changes of a remote resource at the same URL are not detected.<br>
+ * <br>
+ * Snapshots are only stored if a directory is configured with the system
+ * property <code>hale.schema.snapshot_dir</code> or the environment variable
+ * <code>HALE_SCHEMA_SNAPSHOT_DIR</code>.
+ */
+public final class SchemaSnapshots {
+
+	private static final ALogger log = ALoggerFactory.getLogger(SchemaSnapshots.class);
+
+	/**
+	 * Version of the snapshot format, included in the snapshot key.
+	 */
+	private static final String FORMAT_VERSION = "3";
+
+	private static final String FILE_EXTENSION = ".snapshot.gz";
+
+	private static final String ELEMENT_SNAPSHOT = "snapshot";
+
+	private static final String ELEMENT_DEPENDENCY = "dependency";
+
+	private static final String ATTRIBUTE_LOCATION = "location";
+
+	private static final String ATTRIBUTE_HASH = "hash";
+
+	private static final String ATTRIBUTE_REMOTE = "remote";
+
+	private SchemaSnapshots() {
+		// static helper
+	}
+
+	/**
+	 * @return the configured snapshot directory or <code>null</code> if
+	 *         schema snapshots are disabled
+	 */
+	public static File getDefaultDirectory() {
+		String setting = System.getProperty("hale.schema.snapshot_dir");
+
+		if (setting == null) {
+			setting = System.getenv("HALE_SCHEMA_SNAPSHOT_DIR");
+		}
+
+		if (setting != null && !setting.trim().isEmpty()) {
+			File dir = new File(setting.trim());
+			if (dir.isDirectory() || dir.mkdirs()) {
+				return dir;
+			}
+			log.error("Schema snapshot directory cannot be created: " + dir);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Compute the key identifying the snapshot of the schema loaded by the
+	 * given reader. The key is a hash of the reader type, its configuration
+	 * and the content of its source.
+	 * 
+	 * @param reader the schema reader
+	 * @return the snapshot key or <code>null</code> if no key can be
+	 *         determined, e.g. because the source cannot be read as stream
+	 */
+	public static String computeKey(ImportProvider reader) {
+		MessageDigest digest = createDigest();
+		if (digest == null) {
+			return null;
+		}
+
+		update(digest, FORMAT_VERSION);
+		update(digest, reader.getClass().getName());
+		IContentType contentType = reader.getContentType();
+		update(digest, (contentType != null) ? (contentType.getId()) : (null));
+		update(digest, (reader.getCharset() != null) ? (reader.getCharset().name()) : (null));
+
+		// configuration in a stable order
+		for (String name : new TreeSet<>(reader.getSupportedParameters())) {
+			if (ImportProvider.PARAM_SOURCE.equals(name)
+					|| ImportProvider.PARAM_RESOURCE_ID.equals(name)
+					|| IOProvider.PARAM_CONTENT_TYPE.equals(name)) {
+				// the source is represented by its content, the resource
+				// identifier does not affect the schema
+				continue;
+			}
+			Value value = reader.getParameter(name);
+			if (value != null && !value.isEmpty()) {
+				update(digest, name);
+				try {
+					update(digest, (value.isRepresentedAsDOM())
+							? (serialize(value.getDOMRepresentation()))
+							: (value.getStringRepresentation()));
+				} catch (Exception e) {
+					log.warn("Parameter {0} cannot be included in the schema snapshot key", name);
+					return null;
+				}
+			}
+		}
+
+		// source content
+		try (InputStream in = reader.getSource().getInput()) {
+			update(digest, in);
+		} catch (Exception e) {
+			// source not available as stream, e.g. a database
+			return null;
+		}
+
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Load a snapshot. The snapshot is only loaded if the content of the
+	 * resources it depends on did not change.
+	 * 
+	 * @param dir the snapshot directory
+	 * @param key the snapshot key
+	 * @return the cache representation of the schema stored in the snapshot or
+	 *         <code>null</code> if there is no such snapshot, it cannot be read
+	 *         or it is outdated
+	 */
+	public static Value load(File dir, String key) {
+		File file = new File(dir, key + FILE_EXTENSION);
+		if (!file.isFile()) {
+			return null;
+		}
+
+		Element root;
+		try (InputStream in = new GZIPInputStream(
+				new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			factory.setNamespaceAware(true);
+			Document doc = factory.newDocumentBuilder().parse(in);
+			root = doc.getDocumentElement();
+		} catch (Exception e) {
+			log.warn("Failed to read schema snapshot " + file, e);
+			return null;
+		}
+
+		if (!ELEMENT_SNAPSHOT.equals(root.getLocalName())) {
+			log.warn("Invalid schema snapshot " + file);
+			return null;
+		}
+
+		Element content = null;
+		for (Node node = root.getFirstChild(); node != null; node = node.getNextSibling()) {
+			if (!(node instanceof Element)) {
+				continue;
+			}
+
+			Element element = (Element) node;
+			if (ELEMENT_DEPENDENCY.equals(element.getLocalName())
+					&& element.getNamespaceURI() == null) {
+				if (Boolean.parseBoolean(element.getAttribute(ATTRIBUTE_REMOTE))) {
+					// identified by the URL only
+					continue;
+				}
+				URI location = URI.create(element.getAttribute(ATTRIBUTE_LOCATION));
+				String hash = (element.hasAttribute(ATTRIBUTE_HASH))
+						? (element.getAttribute(ATTRIBUTE_HASH))
+						: (null);
+				if (!Objects.equals(hash, computeHash(location))) {
+					log.info("Schema snapshot {0} is outdated, {1} changed", key, location);
+					return null;
+				}
+			}
+			else {
+				content = element;
+			}
+		}
+
+		if (content == null) {
+			log.warn("Invalid schema snapshot " + file);
+			return null;
+		}
+		return new ElementValue(content, null);
+	}
+
+	/**
+	 * Store a snapshot. Only cache representations that are represented as DOM
+	 * are supported.
+	 * 
+	 * @param dir the snapshot directory
+	 * @param key the snapshot key
+	 * @param cache the cache representation of the schema
+	 * @param dependencies the locations of resources other than the schema
+	 *            source the schema was loaded from, their content is recorded
+	 *            in the snapshot except for remote resources, locations that
+	 *            cannot be read are recorded as missing
+	 * @return if the snapshot was stored
+	 * @throws Exception if writing the snapshot fails
+	 */
+	public static boolean store(File dir, String key, Value cache,
+			Collection<URI> dependencies) throws Exception {
+		if (cache == null || !cache.isRepresentedAsDOM()
+				|| cache.getDOMRepresentation() == null) {
+			return false;
+		}
+
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		Document doc = factory.newDocumentBuilder().newDocument();
+		Element root = doc.createElementNS(null, ELEMENT_SNAPSHOT);
+		doc.appendChild(root);
+		for (URI location : dependencies) {
+			Element dependency = doc.createElementNS(null, ELEMENT_DEPENDENCY);
+			dependency.setAttribute(ATTRIBUTE_LOCATION, location.toString());
+			if (isRemote(location)) {
+				dependency.setAttribute(ATTRIBUTE_REMOTE, "true");
+			}
+			else {
+				String hash = computeHash(location);
+				if (hash != null) {
+					dependency.setAttribute(ATTRIBUTE_HASH, hash);
+				}
+			}
+			root.appendChild(dependency);
+		}
+		root.appendChild(doc.importNode(cache.getDOMRepresentation(), true));
+
+		// write to a temporary file first, to not expose incomplete snapshots
+		// to concurrent processes
+		Path temp = Files.createTempFile(dir.toPath(), key, ".tmp");
+		try {
+			try (OutputStream out = new GZIPOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				createTransformer().transform(new DOMSource(doc), new StreamResult(out));
+			}
+			Files.move(temp, new File(dir, key + FILE_EXTENSION).toPath(),
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+		return true;
+	}
+
+	/**
+	 * Determine if a resource is only available remotely.
+	 * 
+	 * @param location the resource location
+	 * @return if the location is a HTTP or HTTPS URL that is not available as
+	 *         local resource
+	 */
+	private static boolean isRemote(URI location) {
+		String scheme = location.getScheme();
+		return ("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))
+				&& Resources.tryResolve(location, null) == null;
+	}
+
+	/**
+	 * Compute the hash of the content of a resource.
+	 * 
+	 * @param location the resource location
+	 * @return the hash or <code>null</code> if the resource cannot be read
+	 */
+	private static String computeHash(URI location) {
+		MessageDigest digest = createDigest();
+		if (digest == null) {
+			return null;
+		}
+
+		try (InputStream in = open(location)) {
+			update(digest, in);
+		} catch (Exception e) {
+			return null;
+		}
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Open a resource, preferring local copies of remote resources like
+	 * schema readers do.
+	 * 
+	 * @param location the resource location
+	 * @return the input stream
+	 * @throws IOException if the resource cannot be opened
+	 */
+	private static InputStream open(URI location) throws IOException {
+		InputSupplier<? extends InputStream> local = Resources.tryResolve(location, null);
+		if (local != null) {
+			try {
+				return local.getInput();
+			} catch (IOException e) {
+				// try the location itself
+			}
+		}
+		return new DefaultInputSupplier(location).getInput();
+	}
+
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			log.error("Hash algorithm for schema snapshots not available", e);
+			return null;
+		}
+	}
+
+	private static void update(MessageDigest digest, InputStream in) throws IOException {
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = in.read(buffer)) >= 0) {
+			digest.update(buffer, 0, read);
+		}
+	}
+
+	private static String toHex(byte[] hash) {
+		StringBuilder result = new StringBuilder();
+		for (byte b : hash) {
+			result.append(String.format("%02x", b));
+		}
+		return result.toString();
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		if (value != null) {
+			digest.update(value.getBytes(StandardCharsets.UTF_8));
+		}
+		// separator
+		digest.update((byte) 0);
+	}
+
+	private static String serialize(Element element) throws Exception {
+		StringWriter writer = new StringWriter();
+		createTransformer().transform(new DOMSource(element), new StreamResult(writer));
+		return writer.toString();
+	}
+
+	private static Transformer createTransformer() throws Exception {
+		Transformer transformer = TransformerFactory.newInstance().newTransformer();
+		transformer.setOutputProperty(OutputKeys.METHOD, "xml"); //$NON-NLS-1$
+		transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8"); //$NON-NLS-1$
+		return transformer;
+	}
+
+}
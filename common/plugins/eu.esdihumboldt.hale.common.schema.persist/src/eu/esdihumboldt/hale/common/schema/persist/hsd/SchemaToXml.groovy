@@ -44,6 +44,18 @@ import groovy.transform.CompileStatic
 @CompileStatic
 class SchemaToXml extends SchemaEncoderBase implements HaleSchemaConstants {
 
+	/**
+	 * If the locations of the definitions should be included.
+	 */
+	boolean includeLocations = false
+
+	/**
+	 * Location that included definition locations are stored relative to, if
+	 * they are located in the same directory or below. May be
+	 * <code>null</code>.
+	 */
+	URI locationBase
+
 	/**
 	 * Create a default DOM builder to use with the *toXml methods for creating
 	 * XML from the HALE schema model.
@@ -134,6 +146,7 @@ class SchemaToXml extends SchemaEncoderBase implements HaleSchemaConstants {
 			// assuming a string as type reference
 			attributes.index = ref.get().as(String)
 		}
+		addLocation(attributes, type)
 
 		b 'hsd:type', attributes, {
 			// definition content (QName, description, constraints)
@@ -166,7 +179,10 @@ class SchemaToXml extends SchemaEncoderBase implements HaleSchemaConstants {
 	 * @return the builder return value for the property element
 	 */
 	def propertyToXml(NSDOMBuilder b, PropertyDefinition property, TypeReferenceBuilder typeIndex) {
-		b 'hsd:property', {
+		def attributes = [:]
+		addLocation(attributes, property)
+
+		b 'hsd:property', attributes, {
 			// definition content (QName, description, constraints)
 			defToXml(b, property, typeIndex)
 
@@ -197,7 +213,10 @@ class SchemaToXml extends SchemaEncoderBase implements HaleSchemaConstants {
 	 * @return the builder return value for the group element
 	 */
 	def groupToXml(NSDOMBuilder b, GroupPropertyDefinition group, TypeReferenceBuilder typeIndex) {
-		b 'hsd:group', {
+		def attributes = [:]
+		addLocation(attributes, group)
+
+		b 'hsd:group', attributes, {
 			// definition content (QName, description, constraints)
 			defToXml(b, group, typeIndex)
 
@@ -262,6 +281,23 @@ class SchemaToXml extends SchemaEncoderBase implements HaleSchemaConstants {
 		}
 	}
 
+	/**
+	 * Add the location of a definition to the attributes of its XML
+	 * representation, if locations should be included.
+	 *
+	 * @param attributes the attributes
+	 * @param d the definition
+	 */
+	private void addLocation(Map attributes, Definition<?> d) {
+		if (includeLocations && d.location != null) {
+			URI location = d.location
+			if (locationBase != null) {
+				location = locationBase.resolve('.').relativize(location)
+			}
+			attributes.location = location.toString()
+		}
+	}
+
 	/**
 	 * Create an XML representation of a qualified name.
 	 * 
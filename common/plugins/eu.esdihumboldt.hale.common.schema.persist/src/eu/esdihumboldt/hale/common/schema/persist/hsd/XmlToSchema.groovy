@@ -15,6 +15,8 @@
 
 package eu.esdihumboldt.hale.common.schema.persist.hsd;
 
+import java.util.function.Function
+
 import javax.xml.namespace.QName
 
 import org.w3c.dom.Element
@@ -90,12 +92,38 @@ public class XmlToSchema implements HaleSchemaConstants {
 	 * Parse a schema from a HSD schema element.
 	 * 
 	 * @param schema the schema element
+	 * @param lazy if the declared children of the types should only be parsed
+	 *   when they are first accessed, the schema element must not be changed
+	 *   as long as the schema is in use
 	 * @return the created schema
 	 */
-	public static Schema parseSchema(Element schema, ClassResolver resolver, IOReporter reporter = null) {
+	public static Schema parseSchema(Element schema, ClassResolver resolver, IOReporter reporter = null,
+			boolean lazy = false) {
 		use (NSDOMCategory) {
 			DefaultSchema result = new DefaultSchema(schema.'@namespace', null)
+			populateSchema(schema, result, { QName name ->
+				new DefaultTypeDefinition(name)
+			} as Function, lazy, resolver, reporter)
+		}
+	}
 
+	/**
+	 * Populate a schema from a HSD schema element.
+	 * 
+	 * @param schema the schema element
+	 * @param result the schema to add the types to
+	 * @param createType creates an empty type definition with the given name
+	 * @param lazy if the declared children of the types should only be parsed
+	 *   when they are first accessed, the schema element must not be changed
+	 *   as long as the schema is in use
+	 * @param locationBase the location relative definition locations are
+	 *   resolved against, may be <code>null</code>
+	 * @return the populated schema
+	 */
+	public static <S extends DefaultSchema> S populateSchema(Element schema, S result,
+			Function<QName, ? extends DefaultTypeDefinition> createType, boolean lazy,
+			ClassResolver resolver, IOReporter reporter, URI locationBase = null) {
+		use (NSDOMCategory) {
 			// maps indices to type definitions
 			Map<Value, DefaultTypeDefinition> types = [:]
 			Element typeIndex = schema.firstChild(NS, 'type-index')
@@ -107,9 +135,12 @@ public class XmlToSchema implements HaleSchemaConstants {
 
 				// create an 'empty' type definition for each type
 				QName typeName = parseName(entry.firstChild(NS, 'name'))
-				types[Value.simple(entry.'@index')] =  new DefaultTypeDefinition(typeName)
+				types[Value.simple(entry.'@index')] = createType.apply(typeName)
 			}
 
+			// DOM implementations are not thread safe, even if only reading
+			Object lock = schema.getOwnerDocument()
+
 			Element typesElem = schema.firstChild(NS, 'types')
 			typesElem?.children(NS, 'type').eachWithIndex { Element typeElem, int index ->
 
@@ -123,7 +154,15 @@ public class XmlToSchema implements HaleSchemaConstants {
 				DefaultTypeDefinition typeDef = types[Value.simple(lookup)]
 
 				// populate type
-				parseType(typeElem, typeDef, new MapTypeResolver(types), resolver, reporter)
+				TypeResolver resolveType = new MapTypeResolver(types)
+				if (lazy) {
+					parseTypeLazily(typeElem, typeDef, resolveType, createType, lock, resolver,
+						reporter, locationBase)
+				}
+				else {
+					parseType(typeElem, typeDef, resolveType, createType, resolver, reporter,
+						locationBase)
+				}
 
 				result.addType(typeDef)
 			}
@@ -132,6 +171,95 @@ public class XmlToSchema implements HaleSchemaConstants {
 		}
 	}
 
+	/**
+	 * Populates the declared children of a type when they are first accessed.
+	 */
+	private static class ChildrenLoader implements Runnable {
+
+		private final Element typeElem
+
+		private final DefaultTypeDefinition typeDef
+
+		private final TypeResolver typeIndex
+
+		private final Function<QName, ? extends DefaultTypeDefinition> createType
+
+		private final Object lock
+
+		private final ClassResolver resolver
+
+		private final IOReporter reporter
+
+		private final URI locationBase
+
+		private boolean loaded = false
+
+		ChildrenLoader(Element typeElem, DefaultTypeDefinition typeDef, TypeResolver typeIndex,
+		Function<QName, ? extends DefaultTypeDefinition> createType, Object lock,
+		ClassResolver resolver, IOReporter reporter, URI locationBase) {
+			this.typeElem = typeElem
+			this.typeDef = typeDef
+			this.typeIndex = typeIndex
+			this.createType = createType
+			this.lock = lock
+			this.resolver = resolver
+			this.reporter = reporter
+			this.locationBase = locationBase
+		}
+
+		@Override
+		public void run() {
+			synchronized (lock) {
+				if (!loaded) {
+					// set before populating, so access to the children while
+					// populating them does not trigger loading them again
+					loaded = true
+					try {
+						use (NSDOMCategory) {
+							XmlToSchema.populateGroup(typeElem, typeDef, typeIndex, createType,
+								resolver, reporter, locationBase)
+						}
+					} catch (Exception e) {
+						XmlToSchema.log.error("Failed to load the properties of type ${typeDef.name}",
+							e)
+					} finally {
+						typeDef.setChildrenLoader(null)
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Parse the given type element and populate the given type definition,
+	 * except for the declared children, that are only populated when they
+	 * are first accessed.
+	 * 
+	 * @param typeElem the element defining the type
+	 * @param typeDef the type definition to populate
+	 * @param typeIndex the type index mapping index identifiers to type
+	 *            definitions
+	 * @param createType creates anonymous type definitions
+	 * @param lock the lock to synchronize parsing the children on
+	 * @param locationBase the location relative definition locations are
+	 *            resolved against, may be <code>null</code>
+	 */
+	private static void parseTypeLazily(Element typeElem, DefaultTypeDefinition typeDef,
+			TypeResolver typeIndex, Function<QName, ? extends DefaultTypeDefinition> createType,
+			Object lock, ClassResolver resolver, IOReporter reporter, URI locationBase) {
+		// common definition stuff (description etc.)
+		populateDefinition(typeElem, typeDef, typeIndex, resolver, reporter, locationBase)
+
+		// declared children on demand
+		if (typeElem.firstChild(NS, 'declares') != null) {
+			typeDef.setChildrenLoader(new ChildrenLoader(typeElem, typeDef, typeIndex, createType,
+				lock, resolver, reporter, locationBase))
+		}
+
+		// super type
+		parseSuperType(typeElem, typeDef, typeIndex)
+	}
+
 	/**
 	 * Parse the given type element and populate the given type definition.
 	 * 
@@ -139,16 +267,25 @@ public class XmlToSchema implements HaleSchemaConstants {
 	 * @param typeDef the type definition to populate
 	 * @param typeIndex the type index mapping index identifiers to type
 	 *            definitions
+	 * @param createType creates anonymous type definitions
+	 * @param locationBase the location relative definition locations are
+	 *            resolved against, may be <code>null</code>
 	 */
 	private static void parseType(Element typeElem, DefaultTypeDefinition typeDef,
-			TypeResolver typeIndex, ClassResolver resolver, IOReporter reporter) {
+			TypeResolver typeIndex, Function<QName, ? extends DefaultTypeDefinition> createType,
+			ClassResolver resolver, IOReporter reporter, URI locationBase) {
 		// common definition stuff (description etc.)
-		populateDefinition(typeElem, typeDef, typeIndex, resolver, reporter)
+		populateDefinition(typeElem, typeDef, typeIndex, resolver, reporter, locationBase)
 
 		// declared children
-		populateGroup(typeElem, typeDef, typeIndex, resolver, reporter)
+		populateGroup(typeElem, typeDef, typeIndex, createType, resolver, reporter, locationBase)
 
 		// super type
+		parseSuperType(typeElem, typeDef, typeIndex)
+	}
+
+	private static void parseSuperType(Element typeElem, DefaultTypeDefinition typeDef,
+			TypeResolver typeIndex) {
 		typeElem.firstChild(NS, 'superType')?.with {
 			String superIndex = it.'@index'
 			if (superIndex) {
@@ -159,12 +296,19 @@ public class XmlToSchema implements HaleSchemaConstants {
 
 	private static void populateDefinition(Element defElem,
 			AbstractDefinition definition, TypeResolver typeIndex,
-			ClassResolver resolver, IOReporter reporter) {
+			ClassResolver resolver, IOReporter reporter, URI locationBase) {
 		// description
 		defElem.firstChild(NS, 'description')?.with {
 			definition.description = it.text()
 		}
 
+		// location (optional)
+		String location = defElem.getAttribute('location')
+		if (location) {
+			URI uri = URI.create(location)
+			definition.location = (locationBase != null) ? locationBase.resolve(uri) : uri
+		}
+
 		// constraints
 		defElem.children(NS, 'constraint').each { Element constraintElem ->
 			String id = constraintElem.'@type'
@@ -191,15 +335,18 @@ public class XmlToSchema implements HaleSchemaConstants {
 	}
 
 	private static void populateGroup(Element defElem, DefinitionGroup group,
-			TypeResolver typeIndex, ClassResolver resolver, IOReporter reporter) {
+			TypeResolver typeIndex, Function<QName, ? extends DefaultTypeDefinition> createType,
+			ClassResolver resolver, IOReporter reporter, URI locationBase) {
 		defElem.firstChild(NS, 'declares')?.children()?.each { child ->
 			if (child instanceof Element) {
 				switch (child.localName) {
 					case 'property':
-						parseProperty(child, group, typeIndex, resolver, reporter)
+						parseProperty(child, group, typeIndex, createType, resolver, reporter,
+							locationBase)
 						break;
 					case 'group':
-						parseGroup(child, group, typeIndex, resolver, reporter)
+						parseGroup(child, group, typeIndex, createType, resolver, reporter,
+							locationBase)
 						break;
 				}
 			}
@@ -208,7 +355,8 @@ public class XmlToSchema implements HaleSchemaConstants {
 
 	private static DefaultPropertyDefinition parseProperty(Element propertyElem,
 			DefinitionGroup parent, TypeResolver typeIndex,
-			ClassResolver resolver, IOReporter reporter) {
+			Function<QName, ? extends DefaultTypeDefinition> createType,
+			ClassResolver resolver, IOReporter reporter, URI locationBase) {
 		// name
 		QName name = parseName(propertyElem.firstChild(NS, 'name'))
 
@@ -226,10 +374,11 @@ public class XmlToSchema implements HaleSchemaConstants {
 
 			// determine anonymous type name & create empty type def
 			QName typeName = parseName(typeElem.firstChild(NS, 'name'))
-			DefaultTypeDefinition typeDef = new DefaultTypeDefinition(typeName)
+			DefaultTypeDefinition typeDef = createType.apply(typeName)
 
 			// populate anonymous type
-			parseType(typeElem, typeDef, typeIndex, resolver, reporter)
+			parseType(typeElem, typeDef, typeIndex, createType, resolver, reporter,
+				locationBase)
 
 			propertyType = typeDef
 		}
@@ -238,14 +387,16 @@ public class XmlToSchema implements HaleSchemaConstants {
 				propertyType)
 
 		// common definition stuff (description etc.)
-		populateDefinition(propertyElem, property, typeIndex, resolver, reporter)
+		populateDefinition(propertyElem, property, typeIndex, resolver, reporter,
+			locationBase)
 
 		property
 	}
 
 	private static DefaultGroupPropertyDefinition parseGroup(Element groupElem,
 			DefinitionGroup parent, TypeResolver typeIndex,
-			ClassResolver resolver, IOReporter reporter) {
+			Function<QName, ? extends DefaultTypeDefinition> createType,
+			ClassResolver resolver, IOReporter reporter, URI locationBase) {
 		// name
 		QName name = parseName(groupElem.firstChild(NS, 'name'));
 
@@ -253,10 +404,10 @@ public class XmlToSchema implements HaleSchemaConstants {
 				false)
 
 		// common definition stuff (description etc.)
-		populateDefinition(groupElem, group, typeIndex, resolver, reporter)
+		populateDefinition(groupElem, group, typeIndex, resolver, reporter, locationBase)
 
 		// declared children
-		populateGroup(groupElem, group, typeIndex, resolver, reporter)
+		populateGroup(groupElem, group, typeIndex, createType, resolver, reporter, locationBase)
 
 		group
 	}
@@ -17,8 +17,8 @@
 package eu.esdihumboldt.hale.common.schema.model.impl;
 
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.namespace.QName;
 
@@ -45,9 +45,11 @@ public abstract class AbstractDefinition<C> implements Definition<C> {
 	protected final QName name;
 
 	/**
-	 * The constraints set on the definition
+	 * The constraints set on the definition, also caches inherited and default
+	 * constraints. Constraints are looked up very frequently from multiple
+	 * threads, so lookups must not lock.
 	 */
-	private final Map<Class<? extends C>, C> constraints = new HashMap<Class<? extends C>, C>();
+	private final ConcurrentMap<Class<? extends C>, C> constraints = new ConcurrentHashMap<>();
 
 	/**
 	 * The definition description
@@ -77,24 +79,25 @@ public abstract class AbstractDefinition<C> implements Definition<C> {
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T extends C> T getConstraint(Class<T> constraintType) {
-		synchronized (constraints) {
-			C constraint = constraints.get(constraintType);
-			if (constraint != null) {
-				return (T) constraint;
-			}
+		C constraint = constraints.get(constraintType);
+		if (constraint != null) {
+			return (T) constraint;
+		}
 
-			// support for inherited constraints
-			T inheritedConstraint = getInheritedConstraint(constraintType);
-			if (inheritedConstraint != null) {
-				constraints.put(constraintType, inheritedConstraint);
-				return inheritedConstraint;
-			}
+		// support for inherited constraints
+		T resolved = getInheritedConstraint(constraintType);
+		if (resolved == null) {
+			// get default constraint
+			resolved = ConstraintUtil.getDefaultConstraint(constraintType, this);
+		}
 
-			// get default constraint and remember it
-			T defConstraint = ConstraintUtil.getDefaultConstraint(constraintType, this);
-			constraints.put(constraintType, defConstraint);
-			return defConstraint;
+		// remember the constraint, unless another thread was faster (so the
+		// same constraint instance is used by all threads)
+		C previous = constraints.putIfAbsent(constraintType, resolved);
+		if (previous != null) {
+			return (T) previous;
 		}
+		return resolved;
 	}
 
 	/**
@@ -119,9 +122,7 @@ public abstract class AbstractDefinition<C> implements Definition<C> {
 	 * @return if the constraint is set explicitly
 	 */
 	public boolean hasConstraint(Class<? extends C> constraintType) {
-		synchronized (constraints) {
-			return constraints.get(constraintType) != null;
-		}
+		return constraints.containsKey(constraintType);
 	}
 
 	/**
@@ -131,11 +132,9 @@ public abstract class AbstractDefinition<C> implements Definition<C> {
 	 */
 	@SuppressWarnings("unchecked")
 	public void setConstraint(C constraint) {
-		synchronized (constraints) {
-			// determine constraint type for constraint object
-			Class<?> constraintType = ConstraintUtil.getConstraintType(constraint.getClass());
-			constraints.put((Class<? extends C>) constraintType, constraint);
-		}
+		// determine constraint type for constraint object
+		Class<?> constraintType = ConstraintUtil.getConstraintType(constraint.getClass());
+		constraints.put((Class<? extends C>) constraintType, constraint);
 	}
 
 	/**
@@ -146,10 +145,8 @@ public abstract class AbstractDefinition<C> implements Definition<C> {
 	 */
 	@SuppressWarnings("unchecked")
 	public void setConstraintIfNotSet(C constraint) {
-		if (!hasConstraint((Class<? extends C>) ConstraintUtil.getConstraintType(constraint
-				.getClass()))) {
-			setConstraint(constraint);
-		}
+		Class<?> constraintType = ConstraintUtil.getConstraintType(constraint.getClass());
+		constraints.putIfAbsent((Class<? extends C>) constraintType, constraint);
 	}
 
 	@Override
@@ -73,6 +73,12 @@ public class DefaultTypeDefinition extends AbstractDefinition<TypeConstraint> im
 	 */
 	private Map<QName, ChildDefinition<?>> overriddenChildren;
 
+	/**
+	 * Loads the declared children when they are first accessed,
+	 * <code>null</code> if they are available
+	 */
+	private volatile Runnable childrenLoader;
+
 	private final Function<ChildDefinition<?>, ChildDefinition<?>> overriddenChildrenTransformer = new Function<ChildDefinition<?>, ChildDefinition<?>>() {
 
 		@Override
@@ -122,6 +128,8 @@ public class DefaultTypeDefinition extends AbstractDefinition<TypeConstraint> im
 	 */
 	@Override
 	public Collection<? extends ChildDefinition<?>> getDeclaredChildren() {
+		loadChildren();
+
 		if (overriddenChildren == null || overriddenChildren.isEmpty()) {
 			return declaredChildren.getDeclaredChildren();
 		}
@@ -139,6 +147,32 @@ public class DefaultTypeDefinition extends AbstractDefinition<TypeConstraint> im
 		declaredChildren.addChild(child);
 	}
 
+	/**
+	 * Set a loader that populates the declared children when they are first
+	 * accessed, e.g. to load them from a serialized representation on demand.
+	 * The loader adds the children using {@link #addChild(ChildDefinition)}
+	 * and is responsible for synchronization. It may be run multiple times
+	 * and from different threads until it resets the loader, so it has to
+	 * make sure the children are only added once and may only return once
+	 * they are complete.
+	 * 
+	 * @param childrenLoader the loader, <code>null</code> if the declared
+	 *            children are complete
+	 */
+	public void setChildrenLoader(Runnable childrenLoader) {
+		this.childrenLoader = childrenLoader;
+	}
+
+	/**
+	 * Run the children loader, if any.
+	 */
+	private void loadChildren() {
+		Runnable loader = childrenLoader;
+		if (loader != null) {
+			loader.run();
+		}
+	}
+
 	/**
 	 * Get the unmodifiable map of inherited children.
 	 * 
@@ -325,6 +359,7 @@ public class DefaultTypeDefinition extends AbstractDefinition<TypeConstraint> im
 		}
 
 		if (result == null) {
+			loadChildren();
 			result = declaredChildren.getChild(name);
 		}
 
@@ -18,7 +18,6 @@ package eu.esdihumboldt.cst.functions.core.join;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -98,9 +97,10 @@ public class IndexJoinHandler
 		JoinDefinition joinDefinition = JoinUtil.getJoinDefinition(joinParameter);
 
 		// remember instances of first type to start join afterwards
-		Collection<ResolvableInstanceReference> startInstances = new LinkedList<ResolvableInstanceReference>();
+		// (only a reference per start instance is retained, joined instances
+		// are retrieved from the index while iterating)
+		Collection<ResolvableInstanceReference> startInstances = new ArrayList<ResolvableInstanceReference>();
 
-		List<Object> inputInstanceIds = new ArrayList<>();
 		try (ResourceIterator<Instance> it = instances.iterator()) {
 			while (it.hasNext()) {
 				Instance i = InstanceDecorator.getRoot(it.next());
@@ -118,7 +118,6 @@ public class IndexJoinHandler
 					return fallbackHandler.partitionInstances(instances, transformationIdentifier,
 							engine, transformationParameters, executionParameters, log);
 				}
-				inputInstanceIds.add(Identifiable.getId(i));
 			}
 		}
 
@@ -16,7 +16,6 @@
 package eu.esdihumboldt.cst.functions.core.merge;
 
 import java.text.MessageFormat;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -27,6 +26,7 @@ import java.util.stream.Collectors;
 
 import javax.xml.namespace.QName;
 
+import com.google.common.collect.Iterators;
 import com.google.common.collect.ListMultimap;
 
 import eu.esdihumboldt.hale.common.align.model.ParameterValue;
@@ -149,7 +149,10 @@ public class IndexMergeHandler
 		// We must, therefore, be able to uniquely identify every instance in
 		// the index, so that we can retain from the index query only the
 		// relevant instances.
-		List<Object> inputInstanceIds = new ArrayList<>();
+		// Only the IDs are retained in a hash set (one entry per input
+		// instance), so memory use does not depend on the instance size and
+		// lookups are done in constant time.
+		Set<Object> inputInstanceIds = new HashSet<>();
 		try (ResourceIterator<Instance> it = instances.iterator()) {
 			while (it.hasNext()) {
 				Instance i = InstanceDecorator.getRoot(it.next());
@@ -164,15 +167,12 @@ public class IndexMergeHandler
 			}
 		}
 
-		Collection<Collection<ResolvableInstanceReference>> partitionedIndex = indexService
-				.groupBy(typeName, mergeConfig.keyProperties);
-
-		// Remove instance groups from the partitioned index where none of the
-		// instances in the group are in the processed instances.
-		partitionedIndex.removeIf(part -> !part.stream().map(ref -> ref.getId())
-				.anyMatch(id -> inputInstanceIds.contains(id)));
-
-		Iterator<Collection<ResolvableInstanceReference>> it = partitionedIndex.iterator();
+		// Skip instance groups from the partitioned index where none of the
+		// instances in the group are in the processed instances. Groups are
+		// retrieved and resolved lazily, one at a time.
+		Iterator<Collection<ResolvableInstanceReference>> it = Iterators.filter(
+				indexService.iterateGroups(typeName, mergeConfig.keyProperties),
+				part -> part.stream().anyMatch(ref -> inputInstanceIds.contains(ref.getId())));
 		return new ResourceIterator<FamilyInstance>() {
 
 			@Override
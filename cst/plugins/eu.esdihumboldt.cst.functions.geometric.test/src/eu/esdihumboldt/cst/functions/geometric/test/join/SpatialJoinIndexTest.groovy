@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.cst.functions.geometric.test.join
+
+import javax.xml.namespace.QName
+
+import org.locationtech.jts.geom.Geometry
+import org.locationtech.jts.io.WKTReader
+
+import eu.esdihumboldt.cst.functions.geometric.join.SpatialJoinIndex
+import eu.esdihumboldt.cst.functions.geometric.join.SpatialRelationEvaluator.StandardRelation
+import eu.esdihumboldt.hale.common.align.model.AlignmentUtil
+import eu.esdihumboldt.hale.common.align.model.impl.PropertyEntityDefinition
+import eu.esdihumboldt.hale.common.align.model.impl.TypeEntityDefinition
+import eu.esdihumboldt.hale.common.instance.geometry.DefaultGeometryProperty
+import eu.esdihumboldt.hale.common.instance.model.InstanceReference
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstance
+import eu.esdihumboldt.hale.common.instance.model.impl.PseudoInstanceReference
+import eu.esdihumboldt.hale.common.schema.SchemaSpaceID
+import eu.esdihumboldt.hale.common.schema.groovy.SchemaBuilder
+import eu.esdihumboldt.hale.common.schema.model.Schema
+import eu.esdihumboldt.hale.common.schema.model.TypeDefinition
+
+/**
+ * Tests for {@link SpatialJoinIndex}
+ */
+class SpatialJoinIndexTest extends GroovyTestCase {
+
+	private final WKTReader wkt = new WKTReader()
+
+	void testFindMatches() {
+		Schema schema = new SchemaBuilder().schema {
+			JoinType {
+				id(Long)
+				geom(Geometry)
+			}
+			OtherType {
+				id(Long)
+				geom(Geometry)
+			}
+		}
+
+		TypeDefinition joinType = schema.getType(new QName("JoinType"))
+		TypeEntityDefinition joinTypeEntity = new TypeEntityDefinition(joinType, SchemaSpaceID.SOURCE, null)
+		PropertyEntityDefinition joinGeom = AlignmentUtil.getChild(joinTypeEntity, new QName("geom"))
+
+		SpatialJoinIndex index = new SpatialJoinIndex([joinGeom])
+		assertTrue index.isIndexed(joinType)
+		assertFalse index.isIndexed(schema.getType(new QName("OtherType")))
+
+		// a grid of 10x10 unit squares
+		Map<String, InstanceReference> refs = [:]
+		for (int x = 0; x < 10; x++) {
+			for (int y = 0; y < 10; y++) {
+				DefaultInstance instance = new DefaultInstance(joinType, null)
+				instance.addProperty(new QName("geom"), new DefaultGeometryProperty(null,
+						wkt.read("POLYGON (($x $y, ${x + 1} $y, ${x + 1} ${y + 1}, $x ${y + 1}, $x $y))")))
+				InstanceReference ref = new PseudoInstanceReference(instance)
+				refs["$x,$y".toString()] = ref
+				index.add(instance, ref)
+			}
+		}
+		index.build()
+
+		// point inside a square
+		Geometry point = wkt.read("POINT (2.5 3.5)")
+		assertEquals([refs["2,3"]] as Set, index.findMatches(joinGeom, point, StandardRelation.CONTAINS.relation()))
+		assertEquals([refs["2,3"]] as Set, index.findMatches(joinGeom, point, StandardRelation.INTERSECTS.relation()))
+		assertTrue index.findMatches(joinGeom, point, StandardRelation.WITHIN.relation()).isEmpty()
+
+		// area covering four squares completely and touching others
+		Geometry area = wkt.read("POLYGON ((4 4, 6 4, 6 6, 4 6, 4 4))")
+		assertEquals(["4,4", "4,5", "5,4", "5,5"].collect { refs[it] } as Set,
+				index.findMatches(joinGeom, area, StandardRelation.WITHIN.relation()))
+		assertEquals(16, index.findMatches(joinGeom, area, StandardRelation.INTERSECTS.relation()).size())
+		assertEquals(12, index.findMatches(joinGeom, area, StandardRelation.TOUCHES.relation()).size())
+
+		// area covering all squares, candidates are verified in parallel
+		Geometry all = wkt.read("POLYGON ((-1 -1, 11 -1, 11 11, -1 11, -1 -1))")
+		assertEquals(refs.values() as Set, index.findMatches(joinGeom, all, StandardRelation.COVERED_BY.relation()))
+		assertTrue index.findMatches(joinGeom, all, StandardRelation.COVERS.relation()).isEmpty()
+	}
+
+}
@@ -1,9 +1,9 @@
 package eu.esdihumboldt.cst.functions.geometric;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.List;
 import java.util.Map;
 
-import org.geotools.geometry.jts.JTS;
 import org.geotools.referencing.CRS;
 import org.opengis.geometry.MismatchedDimensionException;
 import org.opengis.referencing.FactoryException;
@@ -27,6 +27,7 @@ import eu.esdihumboldt.hale.common.instance.geometry.GeometryFinder;
 import eu.esdihumboldt.hale.common.instance.geometry.impl.CodeDefinition;
 import eu.esdihumboldt.hale.common.instance.helper.DepthFirstInstanceTraverser;
 import eu.esdihumboldt.hale.common.instance.helper.InstanceTraverser;
+import eu.esdihumboldt.hale.common.referencing.transform.ReprojectionService;
 import eu.esdihumboldt.hale.common.schema.geometry.CRSDefinition;
 import eu.esdihumboldt.hale.common.schema.geometry.GeometryProperty;
 import net.jcip.annotations.Immutable;
@@ -77,14 +78,13 @@ public class ReprojectGeometry
 						"Error determining destination Cordinate Reference System.", e);
 			}
 
-			// Retrieve transformation from cell context, or create a new
-			// instance
 			Map<Object, Object> cellContext = getExecutionContext().getCellContext();
 			MathTransform transform = getOrCreateMathTransform(sourceCRS, targetCRS, cellContext);
 
 			// Apply transformation
 			try {
-				resultGeometry = JTS.transform(sourceGeometry, transform);
+				resultGeometry = ReprojectionService.getInstance().transform(sourceGeometry,
+						transform);
 			} catch (MismatchedDimensionException | TransformException e) {
 				throw new TransformationException(
 						"Problem on execute transformation from: " + sourceCRS + " to " + targetCRS,
@@ -124,10 +124,10 @@ public class ReprojectGeometry
 	 * Attempt to find a math transform between the specified Coordinate
 	 * Reference Systems.
 	 * <p>
-	 * The method first tries to look up a relevant MathTransform instance from
-	 * the provided {@code context} object; then, if none was found, it creates
-	 * a new one and stores it in the context, to allow its reuse by following
-	 * reproject transformations.
+	 * The method first tries to look up the math transform in the shared
+	 * {@link ReprojectionService}. If none can be found there, a fallback math
+	 * transform is created and stored in the provided {@code context} object,
+	 * to allow its reuse by following reproject transformations.
 	 * </p>
 	 * 
 	 * @param sourceCRS The source CRS.
@@ -139,56 +139,51 @@ public class ReprojectGeometry
 	private MathTransform getOrCreateMathTransform(CoordinateReferenceSystem sourceCRS,
 			CoordinateReferenceSystem targetCRS, Map<Object, Object> context)
 			throws TransformationException {
-		MathTransform transform = null;
-		String key = sourceCRS.getName().hashCode() + " --> " + targetCRS.getName().hashCode();
+		try {
+			return ReprojectionService.getInstance().getTransform(sourceCRS, targetCRS, false);
+		} catch (FactoryException e) {
+			// Transformation cannot be found because either the sourceCRS or
+			// the targetCRS is missing bursa-wolf parameters
+		}
 
+		Object key = new SimpleImmutableEntry<>(sourceCRS, targetCRS);
 		synchronized (context) {
-			transform = (MathTransform) context.get(key);
+			MathTransform transform = (MathTransform) context.get(key);
 			if (transform == null) {
-				transform = createMathTransform(sourceCRS, targetCRS);
+				transform = createFallbackMathTransform(sourceCRS, targetCRS);
 
 				context.put(key, transform);
 			}
+			return transform;
 		}
-
-		return transform;
 	}
 
 	/**
 	 * Attempt to find a math transform between the specified Coordinate
-	 * Reference Systems.
+	 * Reference Systems, based on the corresponding EPSG codes.
 	 * 
 	 * @param sourceCRS The source CRS.
 	 * @param targetCRS The target CRS.
 	 * @return The math transform from {@code sourceCRS} to {@code targetCRS}.
 	 * @throws TransformationException if no math transform could be found
 	 */
-	private MathTransform createMathTransform(CoordinateReferenceSystem sourceCRS,
+	private MathTransform createFallbackMathTransform(CoordinateReferenceSystem sourceCRS,
 			CoordinateReferenceSystem targetCRS) throws TransformationException {
-		MathTransform transform = null;
 		try {
-			transform = CRS.findMathTransform(sourceCRS, targetCRS, false);
-			// Transformation cannot be found because either the sourceCRS or
-			// the targetCRS is missing bursa-wolf parameters
-		} catch (FactoryException ex1) {
-			try {
-				Integer sourceEpsgCode = CRS.lookupEpsgCode(sourceCRS, true);
-				Integer targetEpsgCode = CRS.lookupEpsgCode(targetCRS, true);
-				if (sourceEpsgCode != null && targetEpsgCode != null) {
-					transform = CRS.findMathTransform(CRS.decode("EPSG:" + sourceEpsgCode, true),
-							CRS.decode("EPSG:" + targetEpsgCode, true));
-				}
-				else {
-					throw new TransformationException(
-							"Unable to find requested transformation from: " + sourceCRS + " to "
-									+ targetCRS);
-				}
-			} catch (FactoryException ex2) {
-				throw new TransformationException(
-						"Problem on execute transformation from: " + sourceCRS + " to " + targetCRS,
-						ex2);
+			Integer sourceEpsgCode = CRS.lookupEpsgCode(sourceCRS, true);
+			Integer targetEpsgCode = CRS.lookupEpsgCode(targetCRS, true);
+			if (sourceEpsgCode != null && targetEpsgCode != null) {
+				return ReprojectionService.getInstance().getTransform(
+						CRS.decode("EPSG:" + sourceEpsgCode, true),
+						CRS.decode("EPSG:" + targetEpsgCode, true));
 			}
+			else {
+				throw new TransformationException("Unable to find requested transformation from: "
+						+ sourceCRS + " to " + targetCRS);
+			}
+		} catch (FactoryException e) {
+			throw new TransformationException(
+					"Problem on execute transformation from: " + sourceCRS + " to " + targetCRS, e);
 		}
-		return transform;
 	}
 }
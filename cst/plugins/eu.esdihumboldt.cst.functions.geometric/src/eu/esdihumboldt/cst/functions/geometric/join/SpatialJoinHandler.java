@@ -16,6 +16,7 @@
 package eu.esdihumboldt.cst.functions.geometric.join;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -37,6 +38,8 @@ import com.google.common.collect.Multimap;
 
 import de.fhg.igd.geom.BoundingBox;
 import de.fhg.igd.geom.Localizable;
+import de.fhg.igd.slf4jplus.ALogger;
+import de.fhg.igd.slf4jplus.ALoggerFactory;
 import eu.esdihumboldt.cst.functions.geometric.join.SpatialJoinParameter.SpatialJoinCondition;
 import eu.esdihumboldt.cst.functions.geometric.join.SpatialRelationEvaluator.StandardRelation;
 import eu.esdihumboldt.hale.common.align.model.AlignmentUtil;
@@ -69,6 +72,14 @@ import eu.esdihumboldt.hale.common.schema.geometry.GeometryProperty;
 public class SpatialJoinHandler implements InstanceHandler<TransformationEngine>,
 		SpatialJoinFunction, ServiceProviderAware {
 
+	private static final ALogger log = ALoggerFactory.getLogger(SpatialJoinHandler.class);
+
+	/**
+	 * Value of the spatial join index setting to use the spatial index service
+	 * instead of building an index for each join.
+	 */
+	public static final String INDEX_SERVICE = "service";
+
 	private ServiceProvider services;
 
 	/**
@@ -126,6 +137,17 @@ public class SpatialJoinHandler implements InstanceHandler<TransformationEngine>
 			}
 		}
 
+		// build an index of the joined instances, unless the spatial index
+		// service should be used
+		SpatialJoinIndex joinIndex = null;
+		if (!INDEX_SERVICE.equals(getIndexSetting())) {
+			List<PropertyEntityDefinition> joinProperties = new ArrayList<>();
+			for (SpatialJoinCondition condition : joinParameter.conditions) {
+				joinProperties.add(condition.joinProperty);
+			}
+			joinIndex = new SpatialJoinIndex(joinProperties);
+		}
+
 		// remember instances of first type to start join afterwards
 		Collection<InstanceReference> startInstances = new LinkedList<InstanceReference>();
 
@@ -139,11 +161,20 @@ public class SpatialJoinHandler implements InstanceHandler<TransformationEngine>
 				if (next.getDefinition().equals(types.get(0).getDefinition())) {
 					startInstances.add(instances.getReference(next));
 				}
+
+				// index instances of joined types
+				if (joinIndex != null && joinIndex.isIndexed(next.getDefinition())) {
+					joinIndex.add(next, instances.getReference(next));
+				}
 			}
 		} finally {
 			iterator.close();
 		}
 
+		if (joinIndex != null) {
+			joinIndex.build();
+		}
+
 		boolean innerJoin = false; // default to false if not specified
 		List<ParameterValue> innerJoinValues = transformationParameters
 				.get(JoinFunction.PARAMETER_INNER_JOIN);
@@ -152,7 +183,25 @@ public class SpatialJoinHandler implements InstanceHandler<TransformationEngine>
 		}
 
 		return new SpatialJoinIterator(instances, startInstances, directParent, services, joinTable,
-				innerJoin);
+				innerJoin, joinIndex);
+	}
+
+	/**
+	 * @return the configured spatial join index setting, <code>null</code> if
+	 *         not set
+	 */
+	private static String getIndexSetting() {
+		String setting = System.getProperty("hale.spatial_join.index");
+
+		if (setting == null) {
+			setting = System.getenv("HALE_SPATIAL_JOIN_INDEX");
+		}
+
+		if (setting != null && !INDEX_SERVICE.equals(setting)) {
+			log.warn("Unknown spatial join index setting: " + setting);
+		}
+
+		return setting;
 	}
 
 	private class SpatialJoinIterator
@@ -167,17 +216,21 @@ public class SpatialJoinHandler implements InstanceHandler<TransformationEngine>
 
 		private final boolean innerJoin;
 
+		// index of the joined instances, null if the index service is used
+		private final SpatialJoinIndex joinIndex;
+
 		protected SpatialJoinIterator(InstanceCollection instances,
 				Collection<InstanceReference> startInstances, int[] parent,
 				ServiceProvider provider,
 				Map<Integer, Multimap<Integer, SpatialJoinCondition>> joinTable,
-				boolean innerJoin) {
+				boolean innerJoin, SpatialJoinIndex joinIndex) {
 			super(startInstances.iterator());
 			this.instances = instances;
 			this.parent = parent;
 			this.provider = provider;
 			this.joinTable = joinTable;
 			this.innerJoin = innerJoin;
+			this.joinIndex = joinIndex;
 		}
 
 		/**
@@ -203,9 +256,13 @@ public class SpatialJoinHandler implements InstanceHandler<TransformationEngine>
 		 * @return if the instance should be skipped
 		 */
 		private boolean join(FamilyInstance[] currentInstances, int currentType) {
-			@SuppressWarnings("unchecked")
-			SpatialIndexService<Localizable, Localizable> index = provider
-					.getService(SpatialIndexService.class);
+			SpatialIndexService<Localizable, Localizable> index = null;
+			if (joinIndex == null) {
+				@SuppressWarnings("unchecked")
+				SpatialIndexService<Localizable, Localizable> service = provider
+						.getService(SpatialIndexService.class);
+				index = service;
+			}
 
 			// Join all types that are direct children of the last type.
 			for (int i = currentType + 1; i < parent.length; i++) {
@@ -254,6 +311,11 @@ public class SpatialJoinHandler implements InstanceHandler<TransformationEngine>
 								continue;
 							}
 
+							if (joinIndex != null) {
+								matches.addAll(joinIndex.findMatches(joinProperty, geom, relation));
+								continue;
+							}
+
 							BoundingBox box = BoundingBox.compute(geom);
 							Collection<Localizable> possibleMatches = index.retrieve(box,
 									Arrays.asList(joinProperty.getDefinition().getParentType()));
@@ -341,7 +403,13 @@ public class SpatialJoinHandler implements InstanceHandler<TransformationEngine>
 		return false;
 	}
 
-	private static Geometry getGeometry(Object value) {
+	/**
+	 * Get the geometry from a property value.
+	 * 
+	 * @param value the property value
+	 * @return the geometry or <code>null</code>
+	 */
+	static Geometry getGeometry(Object value) {
 		if (value instanceof GeometryProperty<?>) {
 			Object geomObj = ((GeometryProperty<?>) value).getGeometry();
 			if (geomObj instanceof Geometry) {
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.cst.functions.geometric.join;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.xml.namespace.QName;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+
+import eu.esdihumboldt.hale.common.align.model.impl.PropertyEntityDefinition;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.model.InstanceReference;
+import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
+
+/**
+ * Spatial index for the instances joined in a spatial join. For each join
+ * property a packed R-tree (Sort-Tile-Recursive) is bulk loaded with the
+ * geometries of the instances of the join property's type, restricted to the
+ * instances that are part of the join.<br>
+ * <br>
+ * Instances are added with {@link #add(Instance, InstanceReference)}, after
+ * calling {@link #build()} the index is read only and may be queried
+ * concurrently.
+ */
+public class SpatialJoinIndex {
+
+	/**
+	 * Minimum number of candidates for a query geometry to verify the
+	 * candidates in parallel.
+	 */
+	private static final int PARALLEL_THRESHOLD = 64;
+
+	/**
+	 * Indexed geometry of an instance.
+	 */
+	private static class IndexedGeometry {
+
+		private final InstanceReference reference;
+
+		private final Geometry geometry;
+
+		public IndexedGeometry(InstanceReference reference, Geometry geometry) {
+			super();
+			this.reference = reference;
+			this.geometry = geometry;
+		}
+
+	}
+
+	private final Map<PropertyEntityDefinition, STRtree> trees = new HashMap<>();
+
+	private final Map<TypeDefinition, List<PropertyEntityDefinition>> typeProperties;
+
+	/**
+	 * Create a spatial join index for the given join properties.
+	 * 
+	 * @param joinProperties the geometry properties of the joined types that
+	 *            are used in join conditions
+	 */
+	public SpatialJoinIndex(Collection<PropertyEntityDefinition> joinProperties) {
+		super();
+
+		typeProperties = new HashMap<>();
+		for (PropertyEntityDefinition joinProperty : joinProperties) {
+			if (!trees.containsKey(joinProperty)) {
+				trees.put(joinProperty, new STRtree());
+				typeProperties.computeIfAbsent(joinProperty.getDefinition().getParentType(),
+						type -> new ArrayList<>()).add(joinProperty);
+			}
+		}
+	}
+
+	/**
+	 * Determines if instances of the given type are indexed.
+	 * 
+	 * @param type the instance type
+	 * @return if instances of the type are indexed
+	 */
+	public boolean isIndexed(TypeDefinition type) {
+		return typeProperties.containsKey(type);
+	}
+
+	/**
+	 * Add the geometries of the join properties of an instance to the index.
+	 * Must not be called after {@link #build()}.
+	 * 
+	 * @param instance the instance
+	 * @param reference the reference to the instance
+	 */
+	public void add(Instance instance, InstanceReference reference) {
+		List<PropertyEntityDefinition> properties = typeProperties.get(instance.getDefinition());
+		if (properties == null) {
+			return;
+		}
+
+		for (PropertyEntityDefinition joinProperty : properties) {
+			QName propertyName = joinProperty.getDefinition().getName();
+			Object[] values = instance.getProperty(propertyName);
+			if (values == null) {
+				continue;
+			}
+
+			STRtree tree = trees.get(joinProperty);
+			for (Object value : values) {
+				Geometry geometry = SpatialJoinHandler.getGeometry(value);
+				if (geometry != null && !geometry.isEmpty()) {
+					tree.insert(geometry.getEnvelopeInternal(),
+							new IndexedGeometry(reference, geometry));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Build the index structures. No instances may be added afterwards.
+	 */
+	public void build() {
+		for (STRtree tree : trees.values()) {
+			tree.build();
+		}
+	}
+
+	/**
+	 * Find the instances whose join property geometry is in the given spatial
+	 * relation to a geometry.
+	 * 
+	 * @param joinProperty the join property
+	 * @param geometry the geometry of the base instance
+	 * @param relation the spatial relation, evaluated with the join property
+	 *            geometry as first and the base geometry as second geometry
+	 * @return the references of the matching instances
+	 */
+	public Set<InstanceReference> findMatches(PropertyEntityDefinition joinProperty,
+			Geometry geometry, SpatialRelationEvaluator relation) {
+		STRtree tree = trees.get(joinProperty);
+		if (tree == null || geometry == null || geometry.isEmpty()) {
+			return Collections.emptySet();
+		}
+
+		@SuppressWarnings("unchecked")
+		List<IndexedGeometry> candidates = tree.query(geometry.getEnvelopeInternal());
+		if (candidates.isEmpty()) {
+			return Collections.emptySet();
+		}
+
+		// prepared geometries are thread safe
+		PreparedGeometry prepared = PreparedGeometryFactory.prepare(geometry);
+
+		Stream<IndexedGeometry> stream = (candidates.size() >= PARALLEL_THRESHOLD)
+				? (candidates.parallelStream()) : (candidates.stream());
+		return stream.filter(candidate -> relation.evaluate(candidate.geometry, prepared))
+				.map(candidate -> candidate.reference)
+				.collect(Collectors.toCollection(HashSet::new));
+	}
+
+}
@@ -18,6 +18,7 @@ package eu.esdihumboldt.cst.functions.geometric.join;
 import java.util.function.BiFunction;
 
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
 
 /**
  * Interface for functions evaluating a spatial relation between two geometries.
@@ -38,6 +39,8 @@ public interface SpatialRelationEvaluator {
 		 */
 		CONTAINS(build("contains", (f, s) -> {
 			return f.contains(s);
+		}, (f, p) -> {
+			return p.within(f);
 		})),
 
 		/**
@@ -45,6 +48,8 @@ public interface SpatialRelationEvaluator {
 		 */
 		COVERED_BY(build("covered by", (f, s) -> {
 			return f.coveredBy(s);
+		}, (f, p) -> {
+			return p.covers(f);
 		})),
 
 		/**
@@ -52,6 +57,8 @@ public interface SpatialRelationEvaluator {
 		 */
 		COVERS(build("covers", (f, s) -> {
 			return f.covers(s);
+		}, (f, p) -> {
+			return p.coveredBy(f);
 		})),
 
 		/**
@@ -59,6 +66,8 @@ public interface SpatialRelationEvaluator {
 		 */
 		CROSSES(build("crosses", (f, s) -> {
 			return f.crosses(s);
+		}, (f, p) -> {
+			return p.crosses(f);
 		})),
 
 		/**
@@ -66,6 +75,8 @@ public interface SpatialRelationEvaluator {
 		 */
 		EQUALS(build("equals", (f, s) -> {
 			return f.equals(s);
+		}, (f, p) -> {
+			return f.equals(p.getGeometry());
 		})),
 
 		/**
@@ -73,6 +84,8 @@ public interface SpatialRelationEvaluator {
 		 */
 		INTERSECTS(build("intersects", (f, s) -> {
 			return f.intersects(s);
+		}, (f, p) -> {
+			return p.intersects(f);
 		})),
 
 		/**
@@ -80,6 +93,8 @@ public interface SpatialRelationEvaluator {
 		 */
 		OVERLAPS(build("overlaps", (f, s) -> {
 			return f.overlaps(s);
+		}, (f, p) -> {
+			return p.overlaps(f);
 		})),
 
 		/**
@@ -87,6 +102,8 @@ public interface SpatialRelationEvaluator {
 		 */
 		TOUCHES(build("touches", (f, s) -> {
 			return f.touches(s);
+		}, (f, p) -> {
+			return p.touches(f);
 		})),
 
 		/**
@@ -94,6 +111,8 @@ public interface SpatialRelationEvaluator {
 		 */
 		WITHIN(build("within", (f, s) -> {
 			return f.within(s);
+		}, (f, p) -> {
+			return p.contains(f);
 		}));
 
 		private final SpatialRelationEvaluator evaluator;
@@ -134,6 +153,18 @@ public interface SpatialRelationEvaluator {
 	 */
 	boolean evaluate(Geometry first, Geometry second);
 
+	/**
+	 * Evaluate the spatial relation for the given geometries, where the second
+	 * geometry was prepared to be evaluated against many geometries.
+	 * 
+	 * @param first The first geometry
+	 * @param second The prepared second geometry
+	 * @return true if the spatial relation exists between the given geometries
+	 */
+	default boolean evaluate(Geometry first, PreparedGeometry second) {
+		return evaluate(first, second.getGeometry());
+	}
+
 	/**
 	 * @return the displayable name of the spatial relation that is evaluated
 	 */
@@ -150,6 +181,23 @@ public interface SpatialRelationEvaluator {
 	 */
 	static SpatialRelationEvaluator build(final String description,
 			BiFunction<Geometry, Geometry, Boolean> evaluatorFunc) {
+		return build(description, evaluatorFunc, null);
+	}
+
+	/**
+	 * Builds a {@link SpatialRelationEvaluator} for a specific evaluation
+	 * function and an evaluation function for a prepared second geometry.
+	 * 
+	 * @param description Description of the spatial relation evaluation, e.g.
+	 *            "covers"
+	 * @param evaluatorFunc Evaluation function
+	 * @param preparedFunc Evaluation function for a prepared second geometry,
+	 *            may be <code>null</code>
+	 * @return the built <code>SpatialRelationEvaluator</code>
+	 */
+	static SpatialRelationEvaluator build(final String description,
+			BiFunction<Geometry, Geometry, Boolean> evaluatorFunc,
+			BiFunction<Geometry, PreparedGeometry, Boolean> preparedFunc) {
 		return new SpatialRelationEvaluator() {
 
 			@Override
@@ -161,6 +209,14 @@ public interface SpatialRelationEvaluator {
 			public boolean evaluate(Geometry first, Geometry second) {
 				return evaluatorFunc.apply(first, second);
 			}
+
+			@Override
+			public boolean evaluate(Geometry first, PreparedGeometry second) {
+				if (preparedFunc == null) {
+					return evaluatorFunc.apply(first, second.getGeometry());
+				}
+				return preparedFunc.apply(first, second);
+			}
 		};
 	}
 }
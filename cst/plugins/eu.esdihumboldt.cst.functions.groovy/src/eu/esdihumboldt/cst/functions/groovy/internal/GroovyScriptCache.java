@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.cst.functions.groovy.internal;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+import org.codehaus.groovy.runtime.InvokerHelper;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import de.fhg.igd.slf4jplus.ALogger;
+import de.fhg.igd.slf4jplus.ALoggerFactory;
+import eu.esdihumboldt.util.groovy.sandbox.GroovyService;
+import eu.esdihumboldt.util.metrics.CollectorRegistryService;
+import groovy.lang.Binding;
+import groovy.lang.Script;
+
+/**
+ * Process wide cache of compiled Groovy script classes, shared by all threads.
+ * Scripts are compiled only once per script text and sandbox setting, for
+ * each evaluation a new instance of the compiled script class is created.
+ * The least recently used script classes are evicted if the maximum size of
+ * the cache is exceeded.<br>
+ * <br>
+ * The maximum size can be configured with the system property
+ * <code>hale.groovy.script_cache_size</code> or the environment variable
+ * <code>HALE_GROOVY_SCRIPT_CACHE_SIZE</code>.<br>
+ * <br>
+ * Hits, misses and evictions of the process wide cache are exposed as
+ * Prometheus metrics if metric collection is enabled, see
+ * {@link CollectorRegistryService}.
+ */
+public class GroovyScriptCache {
+
+	private static final ALogger log = ALoggerFactory.getLogger(GroovyScriptCache.class);
+
+	/**
+	 * Default maximum number of cached script classes.
+	 */
+	private static final int DEFAULT_MAX_SIZE = 1000;
+
+	private static final GroovyScriptCache INSTANCE = new GroovyScriptCache(getMaxSize());
+
+	static {
+		CollectorRegistryService.DEFAULT.register(() -> new GroovyScriptCacheMetrics(INSTANCE));
+	}
+
+	/**
+	 * Key identifying a compiled script.
+	 */
+	private static class ScriptKey {
+
+		private final String script;
+
+		private final boolean restricted;
+
+		private ScriptKey(String script, boolean restricted) {
+			this.script = script;
+			this.restricted = restricted;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * script.hashCode() + (restricted ? 1 : 0);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ScriptKey)) {
+				return false;
+			}
+			ScriptKey other = (ScriptKey) obj;
+			return restricted == other.restricted && Objects.equals(script, other.script);
+		}
+
+	}
+
+	private final Cache<ScriptKey, Class<? extends Script>> scriptClasses;
+
+	/**
+	 * Create a script cache.
+	 * 
+	 * @param maxSize the maximum number of script classes to keep
+	 */
+	public GroovyScriptCache(int maxSize) {
+		scriptClasses = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+	}
+
+	/**
+	 * @return the process wide script cache
+	 */
+	public static GroovyScriptCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Get a new instance of the script, compiling it if it is not yet in the
+	 * cache.
+	 * 
+	 * @param script the script text
+	 * @param binding the binding to set on the script, may be
+	 *            <code>null</code>
+	 * @param service the Groovy service to compile the script with
+	 * @return the script instance
+	 */
+	public Script getScript(String script, Binding binding, GroovyService service) {
+		ScriptKey key = new ScriptKey(script, service.isRestrictionActive());
+
+		Class<? extends Script> scriptClass;
+		try {
+			scriptClass = scriptClasses.get(key,
+					() -> service.parseScript(script, null).getClass());
+		} catch (ExecutionException | UncheckedExecutionException e) {
+			// propagate compilation errors as is
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException("Failed to compile Groovy script", e.getCause());
+		}
+
+		Script instance = InvokerHelper.createScript(scriptClass,
+				(binding != null) ? (binding) : (new Binding()));
+		return instance;
+	}
+
+	/**
+	 * @return the number of cached script classes
+	 */
+	public long size() {
+		return scriptClasses.size();
+	}
+
+	/**
+	 * Get the statistics of the cache, i.e. the number of hits, misses and
+	 * evictions and the time spent compiling scripts.
+	 * 
+	 * @return a snapshot of the cache statistics
+	 */
+	public CacheStats getStats() {
+		return scriptClasses.stats();
+	}
+
+	/**
+	 * Remove all cached script classes.
+	 */
+	public void clear() {
+		scriptClasses.invalidateAll();
+	}
+
+	private static int getMaxSize() {
+		String setting = System.getProperty("hale.groovy.script_cache_size");
+
+		if (setting == null) {
+			setting = System.getenv("HALE_GROOVY_SCRIPT_CACHE_SIZE");
+		}
+
+		if (setting != null) {
+			try {
+				return Integer.valueOf(setting);
+			} catch (Throwable e) {
+				log.error("Error applying custom Groovy script cache size setting: " + setting, e);
+			}
+		}
+
+		return DEFAULT_MAX_SIZE;
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.cst.functions.groovy.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.cache.CacheStats;
+
+import eu.esdihumboldt.util.metrics.MetricsProvider;
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.CounterMetricFamily;
+import io.prometheus.client.GaugeMetricFamily;
+
+/**
+ * Metrics collector for a {@link GroovyScriptCache}, the values are read from
+ * the cache statistics when the metrics are collected.
+ */
+class GroovyScriptCacheMetrics extends Collector implements MetricsProvider {
+
+	private final GroovyScriptCache cache;
+
+	/**
+	 * Create a metrics collector for the given script cache.
+	 * 
+	 * @param cache the Groovy script cache
+	 */
+	public GroovyScriptCacheMetrics(GroovyScriptCache cache) {
+		super();
+		this.cache = cache;
+	}
+
+	@Override
+	public List<MetricFamilySamples> collect() {
+		CacheStats stats = cache.getStats();
+
+		List<MetricFamilySamples> result = new ArrayList<>();
+
+		result.add(new CounterMetricFamily("hale_groovy_script_cache_hits",
+				"The number of Groovy script evaluations that used a cached script class.",
+				stats.hitCount()));
+		result.add(new CounterMetricFamily("hale_groovy_script_cache_misses",
+				"The number of Groovy script evaluations that required compiling the script.",
+				stats.missCount()));
+		result.add(new CounterMetricFamily("hale_groovy_script_cache_evictions",
+				"The number of compiled Groovy script classes evicted from the cache.",
+				stats.evictionCount()));
+		result.add(new CounterMetricFamily("hale_groovy_script_cache_compile_seconds",
+				"Time spent compiling Groovy scripts for the cache.",
+				stats.totalLoadTime() / NANOSECONDS_PER_SECOND));
+		result.add(new GaugeMetricFamily("hale_groovy_script_cache_size",
+				"The number of compiled Groovy script classes in the cache.", cache.size()));
+
+		return result;
+	}
+
+	@Override
+	public void bindTo(CollectorRegistry registry) {
+		register(registry);
+	}
+
+}
@@ -15,14 +15,10 @@
 
 package eu.esdihumboldt.cst.functions.groovy.internal;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 
 import eu.esdihumboldt.cst.MultiValue;
 import eu.esdihumboldt.cst.functions.groovy.GroovyConstants;
@@ -55,7 +51,6 @@ import groovy.lang.Binding;
 import groovy.lang.Closure;
 import groovy.lang.Script;
 import groovy.transform.CompileStatic;
-import jakarta.xml.bind.DatatypeConverter;
 
 /**
  * Groovy function utilities.
@@ -65,24 +60,6 @@ import jakarta.xml.bind.DatatypeConverter;
 @CompileStatic
 public class GroovyUtil implements GroovyConstants {
 
-	/*
-	 * Digest to hash Groovy scripts
-	 */
-	private static final MessageDigest SHA_512;
-	static {
-		try {
-			SHA_512 = MessageDigest.getInstance("SHA-512");
-		} catch (NoSuchAlgorithmException e) {
-			throw new IllegalStateException("Message digest SHA-512 not available");
-		}
-	}
-
-	/*
-	 * Simple thread-local cache that associates the hash of the script String
-	 * with the compiled script.
-	 */
-	private static final ThreadLocal<Map<String, Script>> PARSED_SCRIPTS = new ThreadLocal<>();
-
 	/**
 	 * Get the script string.
 	 * 
@@ -134,29 +111,16 @@ public class GroovyUtil implements GroovyConstants {
 	 * @throws TransformationException if getting the script parameter from the
 	 *             function fails
 	 */
-	@SuppressWarnings("unchecked")
 	public static Script getScript(AbstractTransformationFunction<?> function, Binding binding,
 			GroovyService service, boolean functionCached) throws TransformationException {
 		/*
-		 * The compiled script is stored in a ThreadLocal cache, so it needs to
-		 * be compiled only once per transformation thread.
+		 * The compiled script class is stored in a cache shared by all
+		 * threads, so it needs to be compiled only once, each call yields a
+		 * new script instance.
 		 */
-
 		String script = getScriptString(function);
-		String hash = DatatypeConverter.printHexBinary(SHA_512.digest(script.getBytes()));
-
-		if (PARSED_SCRIPTS.get() == null) {
-			PARSED_SCRIPTS.set(new HashMap<>());
-		}
-
-		Script groovyScript = PARSED_SCRIPTS.get().get(hash);
-		if (groovyScript == null) {
-			groovyScript = service.parseScript(script, null);
-			PARSED_SCRIPTS.get().put(hash, groovyScript);
-		}
 
-		groovyScript.setBinding(binding);
-		return groovyScript;
+		return GroovyScriptCache.getInstance().getScript(script, binding, service);
 	}
 
 	/**
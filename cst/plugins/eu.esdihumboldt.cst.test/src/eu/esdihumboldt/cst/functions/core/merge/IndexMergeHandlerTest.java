@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.cst.functions.core.merge;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+
+import eu.esdihumboldt.hale.common.align.model.ParameterValue;
+import eu.esdihumboldt.hale.common.align.model.functions.MergeFunction;
+import eu.esdihumboldt.hale.common.align.model.functions.merge.MergeUtil;
+import eu.esdihumboldt.hale.common.align.model.impl.PropertyEntityDefinition;
+import eu.esdihumboldt.hale.common.align.transformation.function.TransformationException;
+import eu.esdihumboldt.hale.common.align.transformation.report.impl.CellLog;
+import eu.esdihumboldt.hale.common.align.transformation.report.impl.DefaultTransformationReporter;
+import eu.esdihumboldt.hale.common.core.io.Value;
+import eu.esdihumboldt.hale.common.core.service.ServiceProvider;
+import eu.esdihumboldt.hale.common.instance.index.InstanceIndexService;
+import eu.esdihumboldt.hale.common.instance.index.InstanceIndexServiceImpl;
+import eu.esdihumboldt.hale.common.instance.model.DataSet;
+import eu.esdihumboldt.hale.common.instance.model.FamilyInstance;
+import eu.esdihumboldt.hale.common.instance.model.Identifiable;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.model.InstanceCollection;
+import eu.esdihumboldt.hale.common.instance.model.InstanceFactory;
+import eu.esdihumboldt.hale.common.instance.model.InstanceMetadata;
+import eu.esdihumboldt.hale.common.instance.model.ResourceIterator;
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstance;
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstanceCollection;
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstanceFactory;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.Binding;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.HasValueFlag;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultPropertyDefinition;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultTypeDefinition;
+
+/**
+ * Tests for {@link IndexMergeHandler}.
+ */
+public class IndexMergeHandlerTest {
+
+	private static final String NS = "http://www.esdi-humboldt.eu/hale/test/merge";
+
+	private static final QName KEY = new QName(NS, "key");
+
+	private static final QName NAME = new QName(NS, "name");
+
+	/**
+	 * Instance with an identifier, like the instances read from a source.
+	 */
+	private static class IdentifiableInstance extends DefaultInstance implements Identifiable {
+
+		private final String id;
+
+		public IdentifiableInstance(DefaultTypeDefinition type, String id) {
+			super(type, DataSet.SOURCE);
+			this.id = id;
+			setMetaData(InstanceMetadata.METADATA_ID, id);
+		}
+
+		@Override
+		public Object getId() {
+			return id;
+		}
+
+	}
+
+	private DefaultTypeDefinition type;
+
+	private InstanceIndexServiceImpl indexService;
+
+	private IndexMergeHandler handler;
+
+	/**
+	 * Create the test type and the merge handler with an instance index
+	 * service.
+	 */
+	@Before
+	public void setUp() {
+		DefaultTypeDefinition stringType = new DefaultTypeDefinition(new QName(NS, "string"));
+		stringType.setConstraint(HasValueFlag.ENABLED);
+		stringType.setConstraint(Binding.get(String.class));
+
+		type = new DefaultTypeDefinition(new QName(NS, "Item"));
+		new DefaultPropertyDefinition(KEY, type, stringType);
+		new DefaultPropertyDefinition(NAME, type, stringType);
+
+		PropertyEntityDefinition key = (PropertyEntityDefinition) MergeUtil
+				.resolvePropertyPath(Value.of(KEY.toString()), type);
+		indexService = new InstanceIndexServiceImpl();
+		indexService.addPropertyMapping(Collections.singletonList(key));
+
+		Map<Class<?>, Object> services = new HashMap<>();
+		services.put(InstanceIndexService.class, indexService);
+
+		handler = new IndexMergeHandler() {
+
+			@Override
+			protected InstanceFactory getInstanceFactory() {
+				return new DefaultInstanceFactory();
+			}
+
+		};
+		handler.setServiceProvider(new ServiceProvider() {
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public <T> T getService(Class<T> serviceInterface) {
+				return (T) services.get(serviceInterface);
+			}
+		});
+	}
+
+	/**
+	 * Test that only the groups that contain instances that are to be
+	 * partitioned are merged, i.e. that groups whose instances were already
+	 * merged (e.g. as part of a different set of input instances) are skipped.
+	 * 
+	 * @throws TransformationException if partitioning the instances fails
+	 */
+	@Test
+	public void testSkipMergedGroups() throws TransformationException {
+		List<Instance> all = new ArrayList<>();
+		all.add(createInstance("i0", "a", "first"));
+		all.add(createInstance("i1", "a", "second"));
+		all.add(createInstance("i2", "b", "third"));
+		all.add(createInstance("i3", "c", "fourth"));
+		all.add(createInstance("i4", "c", "fifth"));
+
+		InstanceCollection allInstances = new DefaultInstanceCollection(all);
+		for (Instance instance : all) {
+			indexService.add(instance, allInstances);
+		}
+
+		// the group with key a is not part of the input
+		InstanceCollection input = new DefaultInstanceCollection(
+				Arrays.asList(all.get(2), all.get(3)));
+
+		Map<String, Instance> merged = partition(input);
+
+		assertEquals(new HashSet<>(Arrays.asList("b", "c")), merged.keySet());
+
+		// a single instance in a group is passed on as is
+		assertEquals("i2", ((Identifiable) merged.get("b")).getId());
+
+		// all instances of a group are merged, including those that are not
+		// part of the input
+		Instance c = merged.get("c");
+		assertEquals(new HashSet<>(Arrays.asList("fourth", "fifth")),
+				new HashSet<>(Arrays.asList(c.getProperty(NAME))));
+		assertEquals(new HashSet<>(Arrays.asList("i3", "i4")),
+				new HashSet<>(c.getMetaData(InstanceMetadata.METADATA_ID)));
+
+		// none of the groups contains instances of the input
+		assertTrue(partition(new DefaultInstanceCollection(
+				Collections.singletonList(createInstance("i5", "d", "sixth")))).isEmpty());
+	}
+
+	private Map<String, Instance> partition(InstanceCollection input)
+			throws TransformationException {
+		ListMultimap<String, ParameterValue> parameters = ArrayListMultimap.create();
+		parameters.put(MergeFunction.PARAMETER_PROPERTY,
+				MergeUtil.toPropertyParameter(Collections.singletonList(KEY)));
+
+		Map<String, Instance> result = new HashMap<>();
+		try (ResourceIterator<FamilyInstance> it = handler.partitionInstances(input,
+				MergeFunction.ID, null, parameters, Collections.emptyMap(),
+				new CellLog(new DefaultTransformationReporter("Merge test", false), null))) {
+			while (it.hasNext()) {
+				FamilyInstance family = it.next();
+				Object[] keys = family.getProperty(KEY);
+				assertArrayEquals(new Object[] { keys[0] }, keys);
+				assertNull("Key merged more than once", result.put((String) keys[0], family));
+			}
+		}
+		return result;
+	}
+
+	private IdentifiableInstance createInstance(String id, String key, String name) {
+		IdentifiableInstance instance = new IdentifiableInstance(type, id);
+		instance.addProperty(KEY, key);
+		instance.addProperty(NAME, name);
+		return instance;
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.cst.functions.groovy.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.common.cache.CacheStats;
+
+import eu.esdihumboldt.util.groovy.sandbox.DefaultGroovyService;
+import groovy.lang.Binding;
+import groovy.lang.Script;
+
+/**
+ * Tests for {@link GroovyScriptCache}.
+ */
+public class GroovyScriptCacheTest {
+
+	/**
+	 * Groovy service counting the compiled scripts.
+	 */
+	private static class CountingGroovyService extends DefaultGroovyService {
+
+		private final AtomicInteger compiled = new AtomicInteger();
+
+		@Override
+		public Script parseScript(String script, Binding binding) {
+			compiled.incrementAndGet();
+			return super.parseScript(script, binding);
+		}
+
+	}
+
+	/**
+	 * Test that a script is compiled once and the script class is reused for
+	 * further evaluations, with a new script instance for each evaluation.
+	 */
+	@Test
+	public void testReuse() {
+		GroovyScriptCache cache = new GroovyScriptCache(10);
+		CountingGroovyService service = new CountingGroovyService();
+		service.setRestrictionActive(false);
+
+		Binding binding = new Binding();
+		binding.setVariable("a", 1);
+		Script first = cache.getScript("a + 1", binding, service);
+		Script second = cache.getScript("a + 1", null, service);
+
+		assertEquals(1, service.compiled.get());
+		assertSame(first.getClass(), second.getClass());
+		assertNotSame(first, second);
+		assertSame(binding, first.getBinding());
+		assertEquals(2, first.run());
+
+		CacheStats stats = cache.getStats();
+		assertEquals(1, stats.missCount());
+		assertEquals(1, stats.hitCount());
+		assertEquals(0, stats.evictionCount());
+		assertEquals(1, cache.size());
+	}
+
+	/**
+	 * Test that scripts are cached separately depending on whether the sandbox
+	 * restriction is active.
+	 */
+	@Test
+	public void testKeyedByRestriction() {
+		GroovyScriptCache cache = new GroovyScriptCache(10);
+		CountingGroovyService service = new CountingGroovyService();
+
+		service.setRestrictionActive(true);
+		Script restricted = cache.getScript("1 + 1", null, service);
+		service.setRestrictionActive(false);
+		Script unrestricted = cache.getScript("1 + 1", null, service);
+		Script unrestrictedAgain = cache.getScript("1 + 1", null, service);
+		service.setRestrictionActive(true);
+		Script restrictedAgain = cache.getScript("1 + 1", null, service);
+
+		assertEquals(2, service.compiled.get());
+		assertNotSame(restricted.getClass(), unrestricted.getClass());
+		assertSame(unrestricted.getClass(), unrestrictedAgain.getClass());
+		assertSame(restricted.getClass(), restrictedAgain.getClass());
+
+		CacheStats stats = cache.getStats();
+		assertEquals(2, stats.missCount());
+		assertEquals(2, stats.hitCount());
+		assertEquals(2, cache.size());
+	}
+
+	/**
+	 * Test that script classes are evicted once the maximum size is exceeded
+	 * and are compiled again afterwards.
+	 */
+	@Test
+	public void testEviction() {
+		GroovyScriptCache cache = new GroovyScriptCache(1);
+		CountingGroovyService service = new CountingGroovyService();
+		service.setRestrictionActive(false);
+
+		cache.getScript("1", null, service);
+		cache.getScript("2", null, service);
+		cache.getScript("1", null, service);
+
+		assertEquals(3, service.compiled.get());
+
+		CacheStats stats = cache.getStats();
+		assertEquals(3, stats.missCount());
+		assertEquals(0, stats.hitCount());
+		assertEquals(2, stats.evictionCount());
+		assertEquals(1, cache.size());
+	}
+
+}
@@ -31,6 +31,7 @@ import eu.esdihumboldt.hale.common.align.service.FunctionService;
 import eu.esdihumboldt.hale.common.align.service.TransformationFunctionService;
 import eu.esdihumboldt.hale.common.align.service.impl.AlignmentFunctionService;
 import eu.esdihumboldt.hale.common.align.service.impl.AlignmentTransformationFunctionService;
+import eu.esdihumboldt.hale.common.align.transformation.service.TransformationOptions;
 import eu.esdihumboldt.hale.common.align.transformation.service.impl.DefaultInstanceSink;
 import eu.esdihumboldt.hale.common.align.transformation.service.impl.ThreadSafeInstanceSink;
 import eu.esdihumboldt.hale.common.core.io.impl.NullProgressIndicator;
@@ -432,9 +433,16 @@ public class ConceptualSchemaTransformerTest extends DefaultTransformationTest {
 		}
 
 		transformer.transform(example.getAlignment(), source, sink, serviceProvider,
-				new NullProgressIndicator());
+				new NullProgressIndicator(), getTransformationOptions());
 
 		return sink.getDecoratee().getInstances();
 	}
 
+	/**
+	 * @return the options to use for the transformation
+	 */
+	protected TransformationOptions getTransformationOptions() {
+		return TransformationOptions.DEFAULT;
+	}
+
 }
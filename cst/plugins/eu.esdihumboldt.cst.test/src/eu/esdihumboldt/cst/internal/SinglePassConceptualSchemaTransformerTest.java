@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.cst.internal;
+
+import eu.esdihumboldt.hale.common.align.transformation.service.TransformationOptions;
+
+/**
+ * Runs the tests of {@link ConceptualSchemaTransformerTest} reading the source
+ * instances in a single pass for all type cells that don't partition the
+ * source instances.
+ */
+public class SinglePassConceptualSchemaTransformerTest extends ConceptualSchemaTransformerTest {
+
+	@Override
+	protected TransformationOptions getTransformationOptions() {
+		return new TransformationOptions(1, false, true);
+	}
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.cst.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.xml.namespace.QName;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+
+import eu.esdihumboldt.hale.common.align.model.Cell;
+import eu.esdihumboldt.hale.common.align.model.TransformationMode;
+import eu.esdihumboldt.hale.common.align.model.functions.RetypeFunction;
+import eu.esdihumboldt.hale.common.align.model.impl.DefaultAlignment;
+import eu.esdihumboldt.hale.common.align.model.impl.DefaultCell;
+import eu.esdihumboldt.hale.common.align.model.impl.DefaultType;
+import eu.esdihumboldt.hale.common.align.model.impl.TypeEntityDefinition;
+import eu.esdihumboldt.hale.common.align.model.transformation.tree.TransformationTree;
+import eu.esdihumboldt.hale.common.align.model.transformation.tree.context.ContextMatcher;
+import eu.esdihumboldt.hale.common.schema.SchemaSpaceID;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultTypeDefinition;
+
+/**
+ * Tests for {@link TransformationTreePool}.
+ */
+public class TransformationTreePoolTest {
+
+	private static final String NS = "http://www.esdi-humboldt.eu/hale/test/treepool";
+
+	/**
+	 * Time spent by the test matcher per created tree in milliseconds.
+	 */
+	private static final long MATCH_TIME = 5;
+
+	/**
+	 * Context matcher counting the trees it is applied to and taking a fixed
+	 * time to do so.
+	 */
+	private static class CountingMatcher implements ContextMatcher {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public void findMatches(TransformationTree tree) {
+			count.incrementAndGet();
+			try {
+				Thread.sleep(MATCH_TIME);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+	}
+
+	private DefaultAlignment alignment;
+
+	private Cell first;
+
+	private Cell second;
+
+	private Cell disabled;
+
+	private CountingMatcher matcher;
+
+	/**
+	 * Create an alignment with two active and one disabled retype cell.
+	 */
+	@Before
+	public void setUp() {
+		alignment = new DefaultAlignment();
+		first = addTypeCell("First", TransformationMode.active);
+		second = addTypeCell("Second", TransformationMode.active);
+		disabled = addTypeCell("Disabled", TransformationMode.disabled);
+
+		matcher = new CountingMatcher();
+	}
+
+	/**
+	 * Test that a tree released on a thread is reused when a tree for the same
+	 * type cell is requested again on that thread, and that a new tree is
+	 * created if no tree is available.
+	 */
+	@Test
+	public void testReuse() {
+		TransformationTreePool pool = new TransformationTreePool(alignment, matcher, 4);
+
+		TransformationTree tree = pool.getTree(first);
+		assertSame(first, tree.getTypeCell());
+		assertEquals(0, pool.getHits());
+		assertEquals(1, pool.getMisses());
+
+		pool.releaseTree(tree);
+		assertSame(tree, pool.getTree(first));
+		assertEquals(1, pool.getHits());
+		assertEquals(1, pool.getMisses());
+
+		// the pool is empty while the tree is in use
+		TransformationTree other = pool.getTree(first);
+		assertNotSame(tree, other);
+		assertSame(first, other.getTypeCell());
+		assertEquals(1, pool.getHits());
+		assertEquals(2, pool.getMisses());
+
+		// trees are not shared between type cells
+		pool.releaseTree(tree);
+		TransformationTree secondTree = pool.getTree(second);
+		assertNotSame(tree, secondTree);
+		assertSame(second, secondTree.getTypeCell());
+		assertEquals(1, pool.getHits());
+		assertEquals(3, pool.getMisses());
+
+		// the context matcher was applied to every created tree
+		assertEquals(3, matcher.count.get());
+		assertTrue(pool.getConstructionTimeMillis() >= 3 * MATCH_TIME);
+	}
+
+	/**
+	 * Test that a tree released on a different thread is taken from the pool
+	 * if no tree was released on the requesting thread.
+	 * 
+	 * @throws InterruptedException if interrupted while waiting for the thread
+	 */
+	@Test
+	public void testReuseOtherThread() throws InterruptedException {
+		TransformationTreePool pool = new TransformationTreePool(alignment, matcher, 4);
+
+		AtomicReference<TransformationTree> released = new AtomicReference<>();
+		Thread thread = new Thread(() -> {
+			TransformationTree tree = pool.getTree(first);
+			released.set(tree);
+			pool.releaseTree(tree);
+		});
+		thread.start();
+		thread.join();
+
+		assertSame(released.get(), pool.getTree(first));
+		assertEquals(1, pool.getHits());
+		assertEquals(1, pool.getMisses());
+	}
+
+	/**
+	 * Test that prewarming the pool for the active type cells of the
+	 * alignment creates the trees in advance, so requesting that number of
+	 * trees does not result in any misses.
+	 */
+	@Test
+	public void testPrewarm() {
+		TransformationTreePool pool = new TransformationTreePool(alignment, matcher, 4);
+
+		int count = 3;
+		for (Cell typeCell : alignment.getActiveTypeCells()) {
+			pool.prewarm(typeCell, count);
+		}
+		assertEquals(2 * count, matcher.count.get());
+		assertTrue(pool.getConstructionTimeMillis() >= 2 * count * MATCH_TIME);
+		assertEquals(0, pool.getHits());
+		assertEquals(0, pool.getMisses());
+
+		for (Cell typeCell : alignment.getActiveTypeCells()) {
+			Set<TransformationTree> trees = new HashSet<>();
+			for (int i = 0; i < count; i++) {
+				TransformationTree tree = pool.getTree(typeCell);
+				assertSame(typeCell, tree.getTypeCell());
+				trees.add(tree);
+			}
+			assertEquals(count, trees.size());
+		}
+		assertEquals(2 * count, pool.getHits());
+		assertEquals(0, pool.getMisses());
+
+		// no trees were created for the disabled cell
+		assertSame(disabled, pool.getTree(disabled).getTypeCell());
+		assertEquals(1, pool.getMisses());
+
+		// all prewarmed trees are in use
+		pool.getTree(first);
+		assertEquals(2 * count, pool.getHits());
+		assertEquals(2, pool.getMisses());
+		assertEquals(2 * count + 2, matcher.count.get());
+	}
+
+	private Cell addTypeCell(String name, TransformationMode mode) {
+		DefaultTypeDefinition sourceType = new DefaultTypeDefinition(
+				new QName(NS, "Source" + name));
+		DefaultTypeDefinition targetType = new DefaultTypeDefinition(
+				new QName(NS, "Target" + name));
+
+		ListMultimap<String, DefaultType> source = ArrayListMultimap.create();
+		source.put(null,
+				new DefaultType(new TypeEntityDefinition(sourceType, SchemaSpaceID.SOURCE, null)));
+		ListMultimap<String, DefaultType> target = ArrayListMultimap.create();
+		target.put(null,
+				new DefaultType(new TypeEntityDefinition(targetType, SchemaSpaceID.TARGET, null)));
+
+		DefaultCell cell = new DefaultCell();
+		cell.setTransformationIdentifier(RetypeFunction.ID);
+		cell.setSource(source);
+		cell.setTarget(target);
+		cell.setTransformationMode(mode);
+		alignment.addCell(cell);
+		return cell;
+	}
+
+}
@@ -32,6 +32,7 @@ import com.google.common.collect.Multimaps;
 
 import eu.esdihumboldt.cst.internal.EngineManager;
 import eu.esdihumboldt.cst.internal.TransformationContext;
+import eu.esdihumboldt.cst.internal.TransformationMetrics;
 import eu.esdihumboldt.cst.internal.TreePropertyTransformer;
 import eu.esdihumboldt.cst.internal.util.CountingInstanceSink;
 import eu.esdihumboldt.hale.common.align.extension.transformation.TypeTransformationFactory;
@@ -55,6 +56,7 @@ import eu.esdihumboldt.hale.common.align.transformation.report.impl.DefaultTrans
 import eu.esdihumboldt.hale.common.align.transformation.report.impl.TransformationMessageImpl;
 import eu.esdihumboldt.hale.common.align.transformation.service.InstanceSink;
 import eu.esdihumboldt.hale.common.align.transformation.service.PropertyTransformer;
+import eu.esdihumboldt.hale.common.align.transformation.service.TransformationOptions;
 import eu.esdihumboldt.hale.common.align.transformation.service.TransformationService;
 import eu.esdihumboldt.hale.common.core.io.ProgressIndicator;
 import eu.esdihumboldt.hale.common.core.io.impl.SubtaskProgressIndicator;
@@ -67,6 +69,7 @@ import eu.esdihumboldt.hale.common.instance.model.InstanceCollection;
 import eu.esdihumboldt.hale.common.instance.model.ResourceIterator;
 import eu.esdihumboldt.hale.common.instance.model.impl.GenericResourceIteratorAdapter;
 import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
+import io.prometheus.client.Histogram;
 import net.jcip.annotations.Immutable;
 
 /**
@@ -87,6 +90,19 @@ public class ConceptualSchemaTransformer implements TransformationService {
 	public TransformationReport transform(Alignment alignment, InstanceCollection source,
 			InstanceSink target, ServiceProvider serviceProvider,
 			ProgressIndicator progressIndicator) {
+		return transform(alignment, source, target, serviceProvider, progressIndicator,
+				TransformationOptions.DEFAULT);
+	}
+
+	/**
+	 * @see TransformationService#transform(Alignment, InstanceCollection,
+	 *      InstanceSink, ServiceProvider, ProgressIndicator,
+	 *      TransformationOptions)
+	 */
+	@Override
+	public TransformationReport transform(Alignment alignment, InstanceCollection source,
+			InstanceSink target, ServiceProvider serviceProvider,
+			ProgressIndicator progressIndicator, TransformationOptions options) {
 		TransformationReporter reporter = new DefaultTransformationReporter(
 				"Instance transformation", true);
 		TransformationContext context = new TransformationContext(serviceProvider, alignment);
@@ -125,35 +141,29 @@ public class ConceptualSchemaTransformer implements TransformationService {
 			EngineManager engines = new EngineManager();
 
 			PropertyTransformer transformer = new TreePropertyTransformer(alignment, reporter,
-					target, engines, context);
+					target, engines, context, options);
 
 			Collection<? extends Cell> typeCells = alignment.getActiveTypeCells();
 
 			// sort type cell by priority
 			typeCells = sortTypeCells(typeCells);
 
-			for (Cell typeCell : typeCells) {
-				if (progressIndicator.isCanceled()) {
-					break;
-				}
-
-				List<TypeTransformationFactory> transformations = functions
-						.getTypeTransformations(typeCell.getTransformationIdentifier());
-
-				if (transformations == null || transformations.isEmpty()) {
-					reporter.error(new TransformationMessageImpl(typeCell,
-							MessageFormat.format(
-									"No transformation for function {0} found. Skipped type transformation.",
-									typeCell.getTransformationIdentifier()),
-							null));
-				}
-				else {
-					// TODO select based on e.g. preferred transformation
-					// engine?
-					TypeTransformationFactory transformation = transformations.iterator().next();
+			if (options.isSinglePassScan()) {
+				doSinglePassTransformation(typeCells, functions, source, alignment, engines,
+						transformer, context, reporter, progressIndicator);
+			}
+			else {
+				for (Cell typeCell : typeCells) {
+					if (progressIndicator.isCanceled()) {
+						break;
+					}
 
-					doTypeTransformation(transformation, typeCell, source, target, alignment,
-							engines, transformer, context, reporter, progressIndicator);
+					TypeTransformationFactory transformation = getTypeTransformation(typeCell,
+							functions, reporter);
+					if (transformation != null) {
+						doTypeTransformation(transformation, typeCell, source, target, alignment,
+								engines, transformer, context, reporter, progressIndicator);
+					}
 				}
 			}
 
@@ -173,6 +183,111 @@ public class ConceptualSchemaTransformer implements TransformationService {
 		}
 	}
 
+	/**
+	 * Determine the transformation to use for a type cell.
+	 * 
+	 * @param typeCell the type cell
+	 * @param functions the transformation function service
+	 * @param reporter the reporter
+	 * @return the transformation or <code>null</code> if there is none
+	 */
+	private TypeTransformationFactory getTypeTransformation(Cell typeCell,
+			TransformationFunctionService functions, TransformationReporter reporter) {
+		List<TypeTransformationFactory> transformations = functions
+				.getTypeTransformations(typeCell.getTransformationIdentifier());
+
+		if (transformations == null || transformations.isEmpty()) {
+			reporter.error(new TransformationMessageImpl(typeCell,
+					MessageFormat.format(
+							"No transformation for function {0} found. Skipped type transformation.",
+							typeCell.getTransformationIdentifier()),
+					null));
+			return null;
+		}
+
+		// TODO select based on e.g. preferred transformation
+		// engine?
+		return transformations.iterator().next();
+	}
+
+	/**
+	 * Execute the type transformations reading the source instances only once
+	 * for all type cells that handle each source instance on its own (e.g.
+	 * Retype). Instances are dispatched to all of these cells they are
+	 * relevant for. Type cells that partition the source instances using an
+	 * {@link InstanceHandler} (e.g. Merge or Join) or that don't have a source
+	 * are executed separately afterwards, in the order of their priority.
+	 * 
+	 * @param typeCells the type cells sorted by priority
+	 * @param functions the transformation function service
+	 * @param source the source instances
+	 * @param alignment the alignment
+	 * @param engines the engine manager
+	 * @param transformer the property transformer
+	 * @param context the transformation execution context
+	 * @param reporter the reporter
+	 * @param progressIndicator the progress indicator
+	 */
+	protected void doSinglePassTransformation(Collection<? extends Cell> typeCells,
+			TransformationFunctionService functions, InstanceCollection source,
+			Alignment alignment, EngineManager engines, PropertyTransformer transformer,
+			TransformationContext context, TransformationReporter reporter,
+			ProgressIndicator progressIndicator) {
+		// type cell executions by source type
+		ListMultimap<TypeDefinition, TypeCellExecution> streamed = ArrayListMultimap.create();
+		List<TypeCellExecution> separate = new ArrayList<>();
+
+		for (Cell typeCell : typeCells) {
+			TypeTransformationFactory transformation = getTypeTransformation(typeCell, functions,
+					reporter);
+			if (transformation != null) {
+				TypeCellExecution execution = prepareTypeTransformation(transformation, typeCell,
+						engines, context, reporter);
+				if (execution != null) {
+					if (execution.filter != null
+							&& execution.function.getInstanceHandler() == null) {
+						for (TypeDefinition type : execution.filter.lookup.keySet()) {
+							streamed.put(type, execution);
+						}
+					}
+					else {
+						separate.add(execution);
+					}
+				}
+			}
+		}
+
+		if (!streamed.isEmpty() && !progressIndicator.isCanceled()) {
+			progressIndicator.setCurrentTask("Execute type transformations");
+
+			try (ResourceIterator<Instance> it = source.iterator()) {
+				while (it.hasNext()) {
+					// break on cancel
+					if (progressIndicator.isCanceled()) {
+						return;
+					}
+
+					Instance instance = it.next();
+					for (TypeCellExecution execution : streamed.get(instance.getDefinition())) {
+						if (execution.filter.match(instance)) {
+							execution.execute(new FamilyInstanceImpl(instance), transformer,
+									context);
+						}
+					}
+				}
+			}
+		}
+
+		for (TypeCellExecution execution : separate) {
+			if (progressIndicator.isCanceled()) {
+				break;
+			}
+
+			executeTypeTransformation(execution, source, transformer, context,
+					progressIndicator);
+		}
+	}
+
 	/**
 	 * Sort type cells to define order of execution.
 	 * 
@@ -218,11 +333,32 @@ public class ConceptualSchemaTransformer implements TransformationService {
 	 * @param reporter the reporter
 	 * @param progressIndicator the progress indicator
 	 */
-	@SuppressWarnings({ "rawtypes", "unchecked" })
 	protected void doTypeTransformation(TypeTransformationFactory transformation, Cell typeCell,
 			InstanceCollection source, InstanceSink target, Alignment alignment,
 			EngineManager engines, PropertyTransformer transformer, TransformationContext context,
 			TransformationReporter reporter, ProgressIndicator progressIndicator) {
+		TypeCellExecution execution = prepareTypeTransformation(transformation, typeCell, engines,
+				context, reporter);
+		if (execution != null) {
+			executeTypeTransformation(execution, source, transformer, context, progressIndicator);
+		}
+	}
+
+	/**
+	 * Prepare the execution of a type transformation based on a single type
+	 * cell.
+	 * 
+	 * @param transformation the transformation to use
+	 * @param typeCell the type cell
+	 * @param engines the engine manager
+	 * @param context the transformation execution context
+	 * @param reporter the reporter
+	 * @return the prepared execution or <code>null</code> if the type
+	 *         transformation cannot be executed
+	 */
+	private TypeCellExecution prepareTypeTransformation(TypeTransformationFactory transformation,
+			Cell typeCell, EngineManager engines, TransformationContext context,
+			TransformationReporter reporter) {
 		TransformationLog cellLog = new CellLog(reporter, typeCell);
 
 		TypeTransformation<?> function;
@@ -231,7 +367,7 @@ public class ConceptualSchemaTransformer implements TransformationService {
 		} catch (Exception e) {
 			reporter.error(new TransformationMessageImpl(typeCell,
 					"Error creating transformation function.", e));
-			return;
+			return null;
 		}
 
 		TransformationEngine engine = engines.get(transformation.getEngineId(), cellLog);
@@ -240,7 +376,7 @@ public class ConceptualSchemaTransformer implements TransformationService {
 			// TODO instead try another transformation
 			cellLog.error(cellLog.createMessage(
 					"Skipping type transformation: No matching transformation engine found", null));
-			return;
+			return null;
 		}
 
 		// prepare transformation configuration
@@ -252,7 +388,32 @@ public class ConceptualSchemaTransformer implements TransformationService {
 		if (parameters != null) {
 			parameters = Multimaps.unmodifiableListMultimap(parameters);
 		}
-		Map<String, String> executionParameters = transformation.getExecutionParameters();
+
+		TypeCellFilter filter = null;
+		if (typeCell.getSource() != null && !typeCell.getSource().isEmpty()) {
+			filter = new TypeCellFilter(typeCell);
+			function.setExecutionContext(context.getCellContext(typeCell));
+		}
+
+		return new TypeCellExecution(transformation, typeCell, function, engine, targetTypes,
+				parameters, cellLog, filter);
+	}
+
+	/**
+	 * Execute a prepared type transformation for all relevant source
+	 * instances.
+	 * 
+	 * @param execution the prepared type transformation
+	 * @param source the source instances
+	 * @param transformer the property transformer
+	 * @param context the transformation execution context
+	 * @param progressIndicator the progress indicator
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private void executeTypeTransformation(TypeCellExecution execution,
+			InstanceCollection source, PropertyTransformer transformer,
+			TransformationContext context, ProgressIndicator progressIndicator) {
+		TransformationLog cellLog = execution.cellLog;
 
 		// break on cancel
 		if (progressIndicator.isCanceled()) {
@@ -260,7 +421,7 @@ public class ConceptualSchemaTransformer implements TransformationService {
 		}
 
 		ResourceIterator<FamilyInstance> iterator;
-		if (typeCell.getSource() == null || typeCell.getSource().isEmpty()) {
+		if (execution.filter == null) {
 			// type cell w/o source
 			// -> execute exactly once w/ null source
 			source = null;
@@ -276,19 +437,18 @@ public class ConceptualSchemaTransformer implements TransformationService {
 		else {
 			// Step 1: selection
 			// Select only instances that are relevant for the transformation.
-			source = source.select(new TypeCellFilter(typeCell));
+			source = source.select(execution.filter);
 
 			// Step 2: partition
 			// use InstanceHandler if available - for example merge or join
-			function.setExecutionContext(context.getCellContext(typeCell));
-			InstanceHandler instanceHandler = function.getInstanceHandler();
+			InstanceHandler instanceHandler = execution.function.getInstanceHandler();
 			if (instanceHandler != null) {
 				injectTransformationContext(instanceHandler, context);
 				progressIndicator.setCurrentTask("Perform instance partitioning");
 				try {
 					iterator = instanceHandler.partitionInstances(source,
-							transformation.getFunctionId(), engine, parameters, executionParameters,
-							cellLog);
+							execution.transformation.getFunctionId(), execution.engine,
+							execution.parameters, execution.executionParameters, cellLog);
 				} catch (TransformationException e) {
 					cellLog.error(
 							cellLog.createMessage("Type transformation: partitioning failed", e));
@@ -317,19 +477,7 @@ public class ConceptualSchemaTransformer implements TransformationService {
 					return;
 				}
 
-				function.setSource(iterator.next());
-				function.setPropertyTransformer(transformer);
-				function.setParameters(parameters);
-				function.setTarget(targetTypes);
-				function.setExecutionContext(context.getCellContext(typeCell));
-
-				try {
-					((TypeTransformation) function).execute(transformation.getFunctionId(), engine,
-							executionParameters, cellLog, typeCell);
-				} catch (TransformationException e) {
-					cellLog.error(cellLog
-							.createMessage("Type transformation failed, skipping instance.", e));
-				}
+				execution.execute(iterator.next(), transformer, context);
 			}
 		} finally {
 			iterator.close();
@@ -345,6 +493,84 @@ public class ConceptualSchemaTransformer implements TransformationService {
 		}
 	}
 
+	/**
+	 * Type transformation prepared for execution for a single type cell.
+	 */
+	private static class TypeCellExecution {
+
+		private final TypeTransformationFactory transformation;
+
+		private final Cell typeCell;
+
+		private final TypeTransformation<?> function;
+
+		private final TransformationEngine engine;
+
+		private final ListMultimap<String, Type> targetTypes;
+
+		private final ListMultimap<String, ParameterValue> parameters;
+
+		private final Map<String, String> executionParameters;
+
+		private final TransformationLog cellLog;
+
+		/**
+		 * The filter for relevant source instances, <code>null</code> if the
+		 * type cell has no source
+		 */
+		private final TypeCellFilter filter;
+
+		private TypeCellExecution(TypeTransformationFactory transformation, Cell typeCell,
+				TypeTransformation<?> function, TransformationEngine engine,
+				ListMultimap<String, Type> targetTypes,
+				ListMultimap<String, ParameterValue> parameters, TransformationLog cellLog,
+				TypeCellFilter filter) {
+			this.transformation = transformation;
+			this.typeCell = typeCell;
+			this.function = function;
+			this.engine = engine;
+			this.targetTypes = targetTypes;
+			this.parameters = parameters;
+			this.executionParameters = transformation.getExecutionParameters();
+			this.cellLog = cellLog;
+			this.filter = filter;
+		}
+
+		/**
+		 * Execute the type transformation for a source.
+		 * 
+		 * @param source the source instance family, may be <code>null</code>
+		 *            for type cells w/o source
+		 * @param transformer the property transformer
+		 * @param context the transformation execution context
+		 */
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		public void execute(FamilyInstance source, PropertyTransformer transformer,
+				TransformationContext context) {
+			function.setSource(source);
+			function.setPropertyTransformer(transformer);
+			function.setParameters(parameters);
+			function.setTarget(targetTypes);
+			function.setExecutionContext(context.getCellContext(typeCell));
+
+			TransformationMetrics metrics = TransformationMetrics.get();
+			Histogram.Timer timer = (metrics != null)
+					? (metrics.startTypeTransformation(typeCell)) : (null);
+			try {
+				((TypeTransformation) function).execute(transformation.getFunctionId(), engine,
+						executionParameters, cellLog, typeCell);
+			} catch (TransformationException e) {
+				cellLog.error(
+						cellLog.createMessage("Type transformation failed, skipping instance.", e));
+			} finally {
+				if (timer != null) {
+					timer.observeDuration();
+				}
+			}
+		}
+
+	}
+
 	private static final Object NO_FILTER = new Object();
 
 	/**
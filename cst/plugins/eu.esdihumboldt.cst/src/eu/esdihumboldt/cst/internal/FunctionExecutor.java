@@ -58,6 +58,7 @@ import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
 import eu.esdihumboldt.hale.common.schema.model.constraint.type.Binding;
 import eu.esdihumboldt.hale.common.schema.model.constraint.type.ElementType;
 import eu.esdihumboldt.util.Pair;
+import io.prometheus.client.Histogram;
 
 /**
  * Function executor on a transformation tree.
@@ -220,6 +221,9 @@ public class FunctionExecutor extends CellNodeValidator {
 		function.setTypeCell(typeCell.get());
 
 		// execute function
+		TransformationMetrics metrics = TransformationMetrics.get();
+		Histogram.Timer timer = (metrics != null) ? (metrics.startPropertyTransformation(cell))
+				: (null);
 		try {
 			((PropertyTransformation) function).execute(transformation.getIdentifier(), engine,
 					transformation.getExecutionParameters(), cellLog, cell);
@@ -229,6 +233,10 @@ public class FunctionExecutor extends CellNodeValidator {
 					"Skipping property transformation: Executing property transformation failed.",
 					e));
 			return;
+		} finally {
+			if (timer != null) {
+				timer.observeDuration();
+			}
 		}
 
 		// apply function results
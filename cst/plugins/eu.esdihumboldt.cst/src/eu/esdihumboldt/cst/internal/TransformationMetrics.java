@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.cst.internal;
+
+import eu.esdihumboldt.hale.common.align.model.Cell;
+import eu.esdihumboldt.util.metrics.CollectorRegistryService;
+import eu.esdihumboldt.util.metrics.MetricsProvider;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
+
+/**
+ * Prometheus metrics of the transformation engine. Metrics are only
+ * collected if metric collection is enabled, see
+ * {@link CollectorRegistryService}.<br>
+ * <br>
+ * Execution times of type and property transformations are labeled with the
+ * function identifier. As the cell identifiers differ per alignment, they
+ * would create new time series for every alignment executed by a
+ * long-running process. Thus labeling the execution times with the cell
+ * identifier as well has to be enabled explicitly by setting
+ * <code>HALE_METRICS_CELL_LABELS</code> to <code>true</code>.
+ */
+public class TransformationMetrics implements MetricsProvider {
+
+	private static final String LABEL_FUNCTION = "function";
+	private static final String LABEL_CELL = "cell";
+
+	/**
+	 * Label value used for the cell if cell labels are disabled.
+	 */
+	private static final String CELL_ANY = "";
+
+	private static final TransformationMetrics INSTANCE = CollectorRegistryService.DEFAULT
+			.registerIfEnabled(() -> new TransformationMetrics(isCellLabelsEnabled()));
+
+	/**
+	 * Get the transformation metrics.
+	 * 
+	 * @return the transformation metrics or <code>null</code> if metric
+	 *         collection is disabled
+	 */
+	public static TransformationMetrics get() {
+		return INSTANCE;
+	}
+
+	private final boolean cellLabels;
+
+	private final Histogram typeTransformationSeconds = Histogram.build()
+			.name("hale_transformation_type_function_seconds")
+			.help("Execution time of type transformations for a source instance or family.")
+			.labelNames(LABEL_FUNCTION, LABEL_CELL).create();
+
+	private final Histogram propertyTransformationSeconds = Histogram.build()
+			.name("hale_transformation_property_function_seconds")
+			.help("Execution time of property transformation functions.")
+			.labelNames(LABEL_FUNCTION, LABEL_CELL)
+			.buckets(0.00001, 0.00005, 0.0001, 0.0005, 0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1)
+			.create();
+
+	private final Histogram instanceSeconds = Histogram.build()
+			.name("hale_transformation_instance_seconds")
+			.help("Time spent executing the property transformations for a target instance.")
+			.create();
+
+	private final Counter targetInstances = Counter.build()
+			.name("hale_transformation_target_instances_total")
+			.help("The number of target instances created.").create();
+
+	private final Gauge queuedJobs = Gauge.build().name("hale_transformation_queued_jobs")
+			.help("The number of target instances waiting for their property transformations "
+					+ "to be executed in a worker thread.")
+			.create();
+
+	private TransformationMetrics(boolean cellLabels) {
+		super();
+		this.cellLabels = cellLabels;
+	}
+
+	/**
+	 * Start measuring the execution time of a type transformation.
+	 * 
+	 * @param typeCell the type cell
+	 * @return the timer to stop when the execution is complete
+	 */
+	public Histogram.Timer startTypeTransformation(Cell typeCell) {
+		return typeTransformationSeconds
+				.labels(typeCell.getTransformationIdentifier(), cellLabel(typeCell)).startTimer();
+	}
+
+	/**
+	 * Start measuring the execution time of a property transformation.
+	 * 
+	 * @param cell the property cell
+	 * @return the timer to stop when the execution is complete
+	 */
+	public Histogram.Timer startPropertyTransformation(Cell cell) {
+		return propertyTransformationSeconds
+				.labels(cell.getTransformationIdentifier(), cellLabel(cell)).startTimer();
+	}
+
+	/**
+	 * Start measuring the time spent on the property transformations of a
+	 * target instance.
+	 * 
+	 * @return the timer to stop when the instance is complete
+	 */
+	public Histogram.Timer startInstance() {
+		return instanceSeconds.startTimer();
+	}
+
+	/**
+	 * Count a created target instance.
+	 */
+	public void targetInstanceCreated() {
+		targetInstances.inc();
+	}
+
+	/**
+	 * Called when a job executing property transformations is added to the
+	 * queue of the worker threads.
+	 */
+	public void jobQueued() {
+		queuedJobs.inc();
+	}
+
+	/**
+	 * Called when a worker thread starts executing a queued job.
+	 */
+	public void jobStarted() {
+		queuedJobs.dec();
+	}
+
+	private String cellLabel(Cell cell) {
+		return (cellLabels) ? (cell.getId()) : (CELL_ANY);
+	}
+
+	@Override
+	public void bindTo(CollectorRegistry registry) {
+		typeTransformationSeconds.register(registry);
+		propertyTransformationSeconds.register(registry);
+		instanceSeconds.register(registry);
+		targetInstances.register(registry);
+		queuedJobs.register(registry);
+	}
+
+	/**
+	 * @return if execution times should be labeled with the cell identifier
+	 */
+	private static boolean isCellLabelsEnabled() {
+		String setting = System.getProperty("hale.metrics.cell_labels");
+
+		if (setting == null) {
+			setting = System.getenv("HALE_METRICS_CELL_LABELS");
+		}
+
+		if (setting != null) {
+			return Boolean.parseBoolean(setting.trim());
+		}
+
+		return false;
+	}
+
+}
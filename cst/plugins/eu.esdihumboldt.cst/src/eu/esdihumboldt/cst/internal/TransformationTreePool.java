@@ -16,10 +16,11 @@
 
 package eu.esdihumboldt.cst.internal;
 
-import java.util.List;
-
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.ListMultimap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import eu.esdihumboldt.hale.common.align.model.Alignment;
 import eu.esdihumboldt.hale.common.align.model.Cell;
@@ -29,7 +30,12 @@ import eu.esdihumboldt.hale.common.align.model.transformation.tree.impl.Transfor
 import eu.esdihumboldt.hale.common.align.model.transformation.tree.visitor.ResetVisitor;
 
 /**
- * Pool for transformation trees.
+ * Pool for transformation trees.<br>
+ * <br>
+ * The pool is safe to use from multiple threads without locking. Released
+ * trees are kept in free lists per type cell that are striped by thread, so
+ * threads usually take back the trees they released before and only fall back
+ * to the trees of other stripes if their own stripe is empty.
  * 
  * @author Simon Templer
  */
@@ -37,12 +43,20 @@ public class TransformationTreePool {
 
 	private final Alignment alignment;
 
-	private final ListMultimap<Cell, TransformationTree> trees;
+	private final ConcurrentMap<Cell, Queue<TransformationTree>[]> trees;
 
 	private final ResetVisitor resetVisitor = new ResetVisitor();
 
 	private final ContextMatcher matcher;
 
+	private final int stripeMask;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder constructionNanos = new LongAdder();
+
 	/**
 	 * Create a transformation tree pool.
 	 * 
@@ -50,10 +64,26 @@ public class TransformationTreePool {
 	 * @param matcher the context matcher to apply to a created tree
 	 */
 	public TransformationTreePool(Alignment alignment, ContextMatcher matcher) {
+		this(alignment, matcher, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create a transformation tree pool.
+	 * 
+	 * @param alignment the associated alignment
+	 * @param matcher the context matcher to apply to a created tree
+	 * @param concurrency the expected number of threads using the pool
+	 *            concurrently, determines the number of free list stripes
+	 */
+	public TransformationTreePool(Alignment alignment, ContextMatcher matcher, int concurrency) {
 		this.alignment = alignment;
 		this.matcher = matcher;
 
-		trees = ArrayListMultimap.create();
+		trees = new ConcurrentHashMap<>();
+
+		// number of stripes is the next power of two
+		int stripes = (concurrency <= 1) ? (1) : (Integer.highestOneBit(concurrency - 1) << 1);
+		stripeMask = stripes - 1;
 	}
 
 	/**
@@ -63,20 +93,19 @@ public class TransformationTreePool {
 	 * @return the transformation tree
 	 */
 	public TransformationTree getTree(Cell typeCell) {
-		synchronized (trees) {
-			List<TransformationTree> treeList = trees.get(typeCell);
-			if (treeList.isEmpty()) {
-				TransformationTree tree = new TransformationTreeImpl(alignment, typeCell);
-				if (matcher != null) {
-					matcher.findMatches(tree);
-				}
-				return tree;
-			}
-			else {
-				TransformationTree tree = treeList.remove(0);
+		Queue<TransformationTree>[] stripes = getStripes(typeCell);
+
+		int own = stripeIndex();
+		for (int i = 0; i < stripes.length; i++) {
+			TransformationTree tree = stripes[(own + i) & stripeMask].poll();
+			if (tree != null) {
+				hits.increment();
 				return tree;
 			}
 		}
+
+		misses.increment();
+		return createTree(typeCell);
 	}
 
 	/**
@@ -86,9 +115,69 @@ public class TransformationTreePool {
 	 */
 	public void releaseTree(TransformationTree tree) {
 		tree.accept(resetVisitor); // remove all annotations
-		synchronized (trees) {
-			trees.put(tree.getTypeCell(), tree);
+		getStripes(tree.getTypeCell())[stripeIndex()].offer(tree);
+	}
+
+	/**
+	 * Create transformation trees for a type cell in advance, so they don't
+	 * have to be created when they are needed for the first time.
+	 * 
+	 * @param typeCell the type cell
+	 * @param count the number of trees that should be available in the pool
+	 */
+	public void prewarm(Cell typeCell, int count) {
+		Queue<TransformationTree>[] stripes = getStripes(typeCell);
+		for (int i = 0; i < count; i++) {
+			stripes[i & stripeMask].offer(createTree(typeCell));
 		}
 	}
 
+	/**
+	 * @return the number of trees that were taken from the pool
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of trees that had to be created because there was no
+	 *         tree available in the pool
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the overall time spent on creating transformation trees in
+	 *         milliseconds, including trees created in advance
+	 */
+	public long getConstructionTimeMillis() {
+		return constructionNanos.sum() / 1000000;
+	}
+
+	private TransformationTree createTree(Cell typeCell) {
+		long start = System.nanoTime();
+		TransformationTree tree = new TransformationTreeImpl(alignment, typeCell);
+		if (matcher != null) {
+			matcher.findMatches(tree);
+		}
+		constructionNanos.add(System.nanoTime() - start);
+		return tree;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Queue<TransformationTree>[] getStripes(Cell typeCell) {
+		return trees.computeIfAbsent(typeCell, cell -> {
+			Queue<TransformationTree>[] stripes = new Queue[stripeMask + 1];
+			for (int i = 0; i < stripes.length; i++) {
+				stripes[i] = new ConcurrentLinkedQueue<>();
+			}
+			return stripes;
+		});
+	}
+
+	private int stripeIndex() {
+		return (int) Thread.currentThread().getId() & stripeMask;
+	}
+
 }
@@ -24,12 +24,16 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import eu.esdihumboldt.cst.extension.hooks.HooksUtil;
 import eu.esdihumboldt.cst.extension.hooks.TransformationTreeHook.TreeState;
 import eu.esdihumboldt.cst.extension.hooks.TransformationTreeHooks;
+import eu.esdihumboldt.cst.internal.util.OrderedInstanceSink;
 import eu.esdihumboldt.hale.common.align.model.Alignment;
 import eu.esdihumboldt.hale.common.align.model.Cell;
 import eu.esdihumboldt.hale.common.align.model.Priority;
@@ -43,6 +47,8 @@ import eu.esdihumboldt.hale.common.align.transformation.report.TransformationRep
 import eu.esdihumboldt.hale.common.align.transformation.report.impl.TransformationMessageImpl;
 import eu.esdihumboldt.hale.common.align.transformation.service.InstanceSink;
 import eu.esdihumboldt.hale.common.align.transformation.service.PropertyTransformer;
+import eu.esdihumboldt.hale.common.align.transformation.service.TransformationOptions;
+import eu.esdihumboldt.hale.common.align.transformation.service.impl.ThreadSafeInstanceSink;
 import eu.esdihumboldt.hale.common.core.HalePlatform;
 import eu.esdihumboldt.hale.common.core.report.SimpleLogContext;
 import eu.esdihumboldt.hale.common.instance.extension.metadata.MetadataWorker;
@@ -53,6 +59,7 @@ import eu.esdihumboldt.hale.common.instance.model.InstanceUtil;
 import eu.esdihumboldt.hale.common.instance.model.MutableInstance;
 import gnu.trove.TObjectIntHashMap;
 import gnu.trove.TObjectIntProcedure;
+import io.prometheus.client.Histogram;
 
 /**
  * Property transformer based on a {@link TransformationTree}.
@@ -74,9 +81,16 @@ public class TreePropertyTransformer implements PropertyTransformer {
 	private final ExecutorService executorService;
 
 	/**
-	 * Controls if multiple threads are used for transformation.
+	 * Maximum number of property transformation jobs waiting to be executed,
+	 * only applicable for forked transformation.
 	 */
-	private final boolean forkedTransformation = false;
+	private static final int MAX_QUEUED_JOBS = 1000;
+
+	/**
+	 * Sink preserving the order of published instances, only set if forked
+	 * transformation is used and order should be preserved.
+	 */
+	private final OrderedInstanceSink orderedSink;
 
 	// make metadataworker threadsave
 	private final ThreadLocal<MetadataWorker> metaworkerthread = new ThreadLocal<MetadataWorker>() {
@@ -105,12 +119,41 @@ public class TreePropertyTransformer implements PropertyTransformer {
 	 */
 	public TreePropertyTransformer(Alignment alignment, TransformationReporter reporter,
 			InstanceSink sink, EngineManager engines, TransformationContext context) {
+		this(alignment, reporter, sink, engines, context, TransformationOptions.DEFAULT);
+	}
+
+	/**
+	 * Create a property transformer that executes property transformations
+	 * in worker threads if configured in the given options.
+	 * 
+	 * @param alignment the alignment
+	 * @param reporter the transformation log to report any transformation
+	 *            messages to
+	 * @param sink the target instance sink
+	 * @param engines the transformation engine manager
+	 * @param context the transformation execution context
+	 * @param options the transformation options
+	 */
+	public TreePropertyTransformer(Alignment alignment, TransformationReporter reporter,
+			InstanceSink sink, EngineManager engines, TransformationContext context,
+			TransformationOptions options) {
 		this.reporter = reporter;
+
+		boolean forkedTransformation = options.isParallel();
+		if (forkedTransformation) {
+			// hand off instances to the sink one thread at a time
+			sink = new ThreadSafeInstanceSink<InstanceSink>(sink);
+			orderedSink = (options.isPreserveOrder()) ? (new OrderedInstanceSink(sink)) : (null);
+		}
+		else {
+			orderedSink = null;
+		}
 		this.sink = sink;
 
 		// XXX how to determine matcher?
 		ContextMatcher matcher = new AsDeepAsPossible(context.getServiceProvider());
-		treePool = new TransformationTreePool(alignment, matcher);
+		treePool = new TransformationTreePool(alignment, matcher,
+				options.getPropertyTransformationThreads());
 
 		/*
 		 * create executors in order of priority, highest first.
@@ -126,12 +169,12 @@ public class TreePropertyTransformer implements PropertyTransformer {
 		treeHooks = HalePlatform.getService(TransformationTreeHooks.class);
 
 		if (forkedTransformation) {
-			executorService = new ThreadPoolExecutor(4, 4, // 4 threads
+			int threads = options.getPropertyTransformationThreads();
+			executorService = new ThreadPoolExecutor(threads, threads, //
 					0L, TimeUnit.MILLISECONDS,
-					// maximum queue size 1000 (keep 1000 instances/workers in
-					// memory
-					// simultaneously at max)
-					new LinkedBlockingQueue<Runnable>(1000) {
+					// limit queue size (keep only a limited number of
+					// instances/workers in memory simultaneously)
+					new LinkedBlockingQueue<Runnable>(MAX_QUEUED_JOBS) {
 
 						private static final long serialVersionUID = 1L;
 
@@ -153,11 +196,30 @@ public class TreePropertyTransformer implements PropertyTransformer {
 							 */
 						}
 
+					}, new ThreadFactory() {
+
+						private final AtomicInteger count = new AtomicInteger();
+
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread thread = new Thread(r,
+									"property-transformation-" + count.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						}
 					});
 		}
 		else {
 			executorService = null;
 		}
+
+		if (forkedTransformation) {
+			// create transformation trees for the active type cells in the
+			// worker threads while the first source instances are read
+			for (Cell typeCell : alignment.getActiveTypeCells()) {
+				executorService.execute(() -> treePool.prewarm(typeCell, 1));
+			}
+		}
 	}
 
 	/**
@@ -173,10 +235,25 @@ public class TreePropertyTransformer implements PropertyTransformer {
 		reporter.stats().at("createdPerType").at(target.getDefinition().getName().toString())
 				.next();
 
+		// reserve position of the instance if order should be preserved
+		final long sequence = (orderedSink != null) ? (orderedSink.nextSequence()) : (-1);
+
+		final TransformationMetrics metrics = TransformationMetrics.get();
+		final boolean queued = metrics != null && executorService != null;
+
 		Runnable job = new Runnable() {
 
 			@Override
 			public void run() {
+				Histogram.Timer timer = null;
+				if (metrics != null) {
+					if (queued) {
+						metrics.jobStarted();
+					}
+					timer = metrics.startInstance();
+				}
+
+				final AtomicBoolean published = new AtomicBoolean();
 				try {
 					SimpleLogContext.withLog(typeLog, () -> {
 
@@ -233,15 +310,16 @@ public class TreePropertyTransformer implements PropertyTransformer {
 						// generate the rest of the metadatas
 						metaworkerthread.get().generate(target);
 
-						// XXX ok to add to sink in any thread?!
-						// XXX addInstance and close were made synchronized in
-						// OrientInstanceSink
-						// XXX instead collect instances and write them in only
-						// one
-						// thread?
 						// after property transformations, publish target
-						// instance
-						sink.addInstance(target);
+						// instance (the sink is thread safe in case of forked
+						// transformation)
+						if (orderedSink != null) {
+							orderedSink.complete(sequence, target);
+						}
+						else {
+							sink.addInstance(target);
+						}
+						published.set(true);
 
 						// and release the tree for further use
 						treePool.releaseTree(tree);
@@ -253,11 +331,26 @@ public class TreePropertyTransformer implements PropertyTransformer {
 					 */
 					typeLog.error(
 							typeLog.createMessage("Error performing property transformations", e));
+				} finally {
+					if (!published.get() && orderedSink != null) {
+						// release the position of the instance
+						orderedSink.complete(sequence, null);
+					}
+					if (timer != null) {
+						timer.observeDuration();
+					}
 				}
 			}
 		};
 
+		if (metrics != null) {
+			metrics.targetInstanceCreated();
+		}
+
 		if (executorService != null) {
+			if (queued) {
+				metrics.jobQueued();
+			}
 			executorService.execute(job);
 		}
 		else {
@@ -303,6 +396,12 @@ public class TreePropertyTransformer implements PropertyTransformer {
 				return true;
 			}
 		});
+
+		// report transformation tree pool usage
+		reporter.stats().at("treePool").at("hits").set(treePool.getHits());
+		reporter.stats().at("treePool").at("misses").set(treePool.getMisses());
+		reporter.stats().at("treePool").at("constructionTimeMs")
+				.set(treePool.getConstructionTimeMillis());
 	}
 
 }
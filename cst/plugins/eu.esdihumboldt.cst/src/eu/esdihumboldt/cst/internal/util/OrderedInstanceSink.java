@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.cst.internal.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import eu.esdihumboldt.hale.common.align.transformation.service.InstanceSink;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+
+/**
+ * Hands off instances completed by multiple threads to an instance sink in the
+ * order of their sequence numbers. Instances that complete early are held back
+ * until all instances with lower sequence numbers have been completed.
+ * Instances are added to the decorated sink from one thread at a time.
+ */
+public class OrderedInstanceSink {
+
+	private final InstanceSink decoratee;
+
+	private final Map<Long, Instance> pending = new HashMap<>();
+
+	/**
+	 * Marker for sequence numbers that were completed w/o an instance.
+	 */
+	private static final Instance SKIPPED = null;
+
+	private long nextSequence = 0;
+
+	private long nextToWrite = 0;
+
+	/**
+	 * Create an ordered instance sink.
+	 * 
+	 * @param decoratee the instance sink to add the instances to
+	 */
+	public OrderedInstanceSink(InstanceSink decoratee) {
+		super();
+		this.decoratee = decoratee;
+	}
+
+	/**
+	 * Reserve the sequence number for the next instance. Must be called in the
+	 * order the instances should be published.
+	 * 
+	 * @return the sequence number
+	 */
+	public synchronized long nextSequence() {
+		return nextSequence++;
+	}
+
+	/**
+	 * Complete the instance with the given sequence number.
+	 * 
+	 * @param sequence the sequence number retrieved with
+	 *            {@link #nextSequence()}
+	 * @param instance the instance, may be <code>null</code> if no instance is
+	 *            to be added for the sequence number, e.g. because of an error
+	 */
+	public synchronized void complete(long sequence, Instance instance) {
+		if (sequence != nextToWrite) {
+			pending.put(sequence, instance);
+			return;
+		}
+
+		publish(instance);
+		nextToWrite++;
+
+		// publish subsequent instances that completed early
+		while (pending.containsKey(nextToWrite)) {
+			publish(pending.remove(nextToWrite));
+			nextToWrite++;
+		}
+	}
+
+	/**
+	 * @return the number of instances completed but held back
+	 */
+	public synchronized int getPendingCount() {
+		return pending.size();
+	}
+
+	private void publish(Instance instance) {
+		if (instance != SKIPPED) {
+			decoratee.addInstance(instance);
+		}
+	}
+
+}
@@ -23,6 +23,11 @@ import org.junit.Test;
 
 import eu.esdihumboldt.hale.common.align.model.ChildContext;
 import eu.esdihumboldt.hale.common.align.model.impl.PropertyEntityDefinition;
+import eu.esdihumboldt.hale.common.instance.model.DataSet
+import eu.esdihumboldt.hale.common.instance.model.IdentifiableInstanceReference
+import eu.esdihumboldt.hale.common.instance.model.ResolvableInstanceReference
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstance
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstanceCollection
 import eu.esdihumboldt.hale.common.schema.SchemaSpaceID;
 import eu.esdihumboldt.hale.common.schema.model.impl.DefaultPropertyDefinition;
 import eu.esdihumboldt.hale.common.schema.model.impl.DefaultTypeDefinition;
@@ -80,4 +85,112 @@ class MultimapInstanceIndexTest {
 		assertEquals(1, idx.getMappings().size())
 		assertTrue([mapping3].containsAll(idx.getMappings()))
 	}
+
+	/**
+	 * Test that iterating over the groups yields the same groups as grouping
+	 * the instances, and only the groups for the given key properties.
+	 */
+	@Test
+	public void testIterateGroups() {
+		def index = createIndex()
+		MultimapInstanceIndex idx = index.idx
+
+		def byKey = [[index.keyName]]
+		def groups = idx.groupBy(byKey)
+		assertEquals(3, groups.size())
+		assertEquals(toIds(groups), toIds(idx.iterateGroups(byKey).toList()))
+		assertEquals([
+			['i0', 'i1'].toSet(),
+			['i2'].toSet(),
+			['i3', 'i4'].toSet()
+		].toSet(), toIds(groups))
+
+		def byName = [[index.nameName]]
+		assertEquals(toIds(idx.groupBy(byName)), toIds(idx.iterateGroups(byName).toList()))
+		assertEquals(2, idx.groupBy(byName).size())
+
+		// no groups for properties that are not indexed
+		assertFalse(idx.iterateGroups([[new QName('other')]]).hasNext())
+	}
+
+	/**
+	 * Test that the ID lookup is cleaned up when the indexed values of
+	 * instances are removed together with a mapping.
+	 */
+	@Test
+	public void testRemoveMappingIdIndex() {
+		def index = createIndex()
+		MultimapInstanceIndex idx = index.idx
+
+		assertEquals(5, idx.@idIndex.size())
+		assertEquals(2, idx.getInstancePropertyValuesById('i0').size())
+
+		// instances still have values indexed for the remaining mapping
+		idx.removeMapping(index.keyMapping)
+		assertEquals(1, idx.getMappings().size())
+		assertTrue(idx.groupBy([[index.keyName]]).isEmpty())
+		assertEquals(5, idx.getReferences().size())
+		assertEquals(5, idx.@idIndex.size())
+		def values = idx.getInstancePropertyValuesById('i0')
+		assertEquals(1, values.size())
+		assertEquals([index.nameName], values.first()*.propertyPath.flatten())
+
+		// no values left for any instance
+		idx.removeMapping(index.nameMapping)
+		assertTrue(idx.getMappings().isEmpty())
+		assertTrue(idx.getReferences().isEmpty())
+		assertTrue(idx.@idIndex.isEmpty())
+		assertTrue(idx.getInstancePropertyValuesById('i0').isEmpty())
+	}
+
+	/**
+	 * Create an index with mappings on the key and on the name property of a
+	 * type and add five instances with IDs i0 to i4. The instances are grouped
+	 * by key as [i0, i1], [i2], [i3, i4] and by name as [i0, i2, i4], [i1, i3].
+	 */
+	private Map createIndex() {
+		MultimapInstanceIndex idx = new MultimapInstanceIndex()
+
+		def type = new DefaultTypeDefinition(new QName('Item'))
+		def keyName = new QName('key')
+		def nameName = new QName('name')
+		def keyProp = new DefaultPropertyDefinition(keyName, type, type)
+		def nameProp = new DefaultPropertyDefinition(nameName, type, type)
+
+		def keyMapping = new PropertyEntityDefinitionMapping([
+			new PropertyEntityDefinition(type, [new ChildContext(keyProp)], SchemaSpaceID.SOURCE,
+			null)
+		].toSet())
+		def nameMapping = new PropertyEntityDefinitionMapping([
+			new PropertyEntityDefinition(type, [new ChildContext(nameProp)], SchemaSpaceID.SOURCE,
+			null)
+		].toSet())
+		idx.addMapping(keyMapping)
+		idx.addMapping(nameMapping)
+
+		def keys = ['a', 'a', 'b', 'c', 'c']
+		def instances = keys.withIndex().collect { key, i ->
+			def instance = new DefaultInstance(type, DataSet.SOURCE)
+			instance.addProperty(keyName, key)
+			instance.addProperty(nameName, i % 2 == 0 ? 'even' : 'odd')
+			instance
+		}
+		def collection = new DefaultInstanceCollection(instances)
+		instances.eachWithIndex { instance, i ->
+			def ref = new ResolvableInstanceReference(new IdentifiableInstanceReference(
+					collection.getReference(instance), "i$i" as String), collection)
+			idx.add(ref, instance)
+		}
+
+		[idx: idx, keyName: keyName, nameName: nameName, keyMapping: keyMapping,
+			nameMapping: nameMapping]
+	}
+
+	/**
+	 * Convert groups of references to sets of instance IDs.
+	 */
+	private static Set<Set<Object>> toIds(
+			Collection<Collection<ResolvableInstanceReference>> groups) {
+		groups.collect { group -> group*.id.toSet() }.toSet()
+	}
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.common.instance.index;
+
+import static org.junit.Assert.*;
+
+import javax.xml.namespace.QName;
+
+import org.junit.Test;
+
+import eu.esdihumboldt.hale.common.align.model.ChildContext;
+import eu.esdihumboldt.hale.common.align.model.impl.PropertyEntityDefinition;
+import eu.esdihumboldt.hale.common.instance.index.storage.HeapBudget;
+import eu.esdihumboldt.hale.common.instance.model.IdentifiableInstanceReference;
+import eu.esdihumboldt.hale.common.instance.model.ResolvableInstanceReference;
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstance;
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstanceCollection;
+import eu.esdihumboldt.hale.common.schema.SchemaSpaceID;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultPropertyDefinition;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultTypeDefinition;
+
+/**
+ * Tests for {@link SpillingInstanceIndex}
+ */
+class SpillingInstanceIndexTest {
+
+	/**
+	 * Test grouping and lookups with an index that does not have any heap
+	 * budget and thus stores all data in a temporary file.
+	 */
+	@Test
+	public void testSpilledIndex() {
+		SpillingInstanceIndex idx = new SpillingInstanceIndex(new HeapBudget(0), null)
+
+		def typeName = new QName("TestType")
+		def type = new DefaultTypeDefinition(typeName)
+		def keyName = new QName("key")
+		def keyProp = new DefaultPropertyDefinition(keyName, type, type)
+		def ped = new PropertyEntityDefinition(type, [new ChildContext(keyProp)],
+				SchemaSpaceID.SOURCE, null)
+		idx.addMapping(new PropertyEntityDefinitionMapping([ped].toSet()))
+
+		def instances = new DefaultInstanceCollection()
+		def refs = [:]
+		10000.times { i ->
+			def instance = new DefaultInstance(type, null)
+			instance.setProperty(keyName, "key${i % 100}" as String)
+			instances.add(instance)
+
+			def ref = new ResolvableInstanceReference(
+					new IdentifiableInstanceReference(instances.getReference(instance), i),
+					instances)
+			refs[i] = ref
+			idx.add(ref, instance)
+			// adding the same reference again must not have any effect
+			idx.add(ref, instance)
+		}
+
+		assertTrue(idx.isSpilled())
+		assertEquals(10000, idx.getReferences().size())
+
+		def groups = idx.groupBy([[keyName]])
+		assertEquals(100, groups.size())
+		groups.each { group -> assertEquals(100, group.size()) }
+
+		def values = idx.getInstancePropertyValuesById(42)
+		assertEquals(1, values.size())
+		def ipvs = values.iterator().next()
+		assertEquals([keyName], ipvs[0].propertyPath)
+		assertEquals(['key42'], ipvs[0].values)
+
+		def matches = idx.getInstancesByValue(ipvs)
+		assertEquals(100, matches.size())
+		assertTrue(matches.contains(refs[42]))
+		assertTrue(matches.contains(refs[142]))
+		assertFalse(matches.contains(refs[43]))
+
+		assertEquals(200, idx.getInstancesByValue([keyName], ['key1', 'key2']).size())
+		assertEquals(100, idx.getInstancesByValue([keyName], ['key1', 'unknown']).size())
+		assertTrue(idx.getInstancesByValue([keyName], ['unknown']).isEmpty())
+		assertTrue(idx.getInstancesByValue([new QName("other")], ['key1']).isEmpty())
+		assertTrue(idx.getInstancesByValue([new IndexedPropertyValue([keyName], ['unknown'])]).isEmpty())
+
+		idx.clearIndexes()
+		assertTrue(idx.getReferences().isEmpty())
+		assertFalse(idx.isSpilled())
+	}
+
+	/**
+	 * Test that removing a mapping removes the values indexed for the mapping
+	 * and the instances that have no other indexed values.
+	 */
+	@Test
+	public void testRemoveMapping() {
+		SpillingInstanceIndex idx = new SpillingInstanceIndex(new HeapBudget(0), null)
+
+		def type = new DefaultTypeDefinition(new QName("TestType"))
+		def keyName = new QName("key")
+		def nameName = new QName("name")
+		def keyMapping = new PropertyEntityDefinitionMapping([
+			new PropertyEntityDefinition(type,
+			[new ChildContext(new DefaultPropertyDefinition(keyName, type, type))],
+			SchemaSpaceID.SOURCE, null)
+		].toSet())
+		def nameMapping = new PropertyEntityDefinitionMapping([
+			new PropertyEntityDefinition(type,
+			[new ChildContext(new DefaultPropertyDefinition(nameName, type, type))],
+			SchemaSpaceID.SOURCE, null)
+		].toSet())
+		idx.addMapping(keyMapping)
+		idx.addMapping(nameMapping)
+
+		def instances = new DefaultInstanceCollection()
+		10.times { i ->
+			def instance = new DefaultInstance(type, null)
+			instance.setProperty(keyName, "key${i % 2}" as String)
+			instance.setProperty(nameName, "name${i % 5}" as String)
+			instances.add(instance)
+
+			idx.add(new ResolvableInstanceReference(
+					new IdentifiableInstanceReference(instances.getReference(instance), i),
+					instances), instance)
+		}
+
+		assertEquals(2, idx.groupBy([[keyName]]).size())
+		assertEquals(5, idx.groupBy([[nameName]]).size())
+
+		idx.removeMapping(keyMapping)
+		assertEquals(1, idx.getMappings().size())
+		assertTrue(idx.groupBy([[keyName]]).isEmpty())
+		assertEquals(5, idx.groupBy([[nameName]]).size())
+		assertEquals(10, idx.getReferences().size())
+		assertEquals(1, idx.getInstancePropertyValuesById(3).size())
+
+		idx.removeMapping(nameMapping)
+		assertTrue(idx.getMappings().isEmpty())
+		assertTrue(idx.getReferences().isEmpty())
+		assertTrue(idx.getInstancePropertyValuesById(3).isEmpty())
+	}
+}
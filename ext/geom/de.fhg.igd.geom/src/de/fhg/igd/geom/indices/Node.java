@@ -137,7 +137,7 @@ public class Node<T extends Localizable> implements Localizable {
 	 * @return true if the first bounding box has any relation to the other one,
 	 *         false otherwise
 	 */
-	private static boolean relate(BoundingBox b1, BoundingBox b2, boolean useExtent) {
+	static boolean relate(BoundingBox b1, BoundingBox b2, boolean useExtent) {
 		if (useExtent) {
 			return b1.toExtent().any(b2.toExtent());
 		}
@@ -293,6 +293,20 @@ public class Node<T extends Localizable> implements Localizable {
 		}
 	}
 
+	/**
+	 * Adds a child while bulk loading the tree. Does not split the node or
+	 * propagate changes upward, the caller is responsible for adding at most
+	 * as many children as the page size allows.
+	 * 
+	 * @param loc the child to add, either a Localizable or a Node
+	 */
+	void bulkAdd(Localizable loc) {
+		if (loc instanceof Node<?>) {
+			_isLeaf = false;
+		}
+		plainAdd(loc);
+	}
+
 	/**
 	 * Splits this node into two nodes and adds them to the parent node.
 	 * (Quadratic Split)
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package de.fhg.igd.geom.indices;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.base.Preconditions;
+
+import de.fhg.igd.geom.BoundingBox;
+import de.fhg.igd.geom.Localizable;
+import de.fhg.igd.geom.Verifier;
+
+/**
+ * Read only R-Tree that is bulk loaded with the Sort-Tile-Recursive algorithm.
+ * The bounding boxes of the nodes are stored in primitive arrays, one per
+ * level of the tree, and the children of a node are stored consecutively in
+ * the level below. The tree cannot be modified after it has been created, so
+ * it may be queried concurrently without any locking.
+ * 
+ * @param <T> the type of the objects stored in the tree
+ * @see RTree#pack()
+ */
+public class PackedRTree<T extends Localizable> {
+
+	/**
+	 * Number of values stored per bounding box
+	 */
+	private static final int BOX_SIZE = 6;
+
+	/**
+	 * Node used while building the tree
+	 */
+	private static class PackedNode implements Localizable {
+
+		private final BoundingBox boundingBox = new BoundingBox();
+
+		private final int start;
+
+		private final int end;
+
+		public PackedNode(int start, int end, List<? extends Localizable> children) {
+			this.start = start;
+			this.end = end;
+			for (Localizable child : children) {
+				boundingBox.add(child.getBoundingBox());
+			}
+		}
+
+		@Override
+		public BoundingBox getBoundingBox() {
+			return boundingBox;
+		}
+
+	}
+
+	/**
+	 * The indexed objects in the order of the leaf level
+	 */
+	private final Object[] items;
+
+	/**
+	 * The bounding boxes per level, level 0 holds the bounding boxes of the
+	 * indexed objects, the last level the bounding box of the root
+	 */
+	private final double[][] bounds;
+
+	/**
+	 * Index of the first child in the level below, per level (not set for
+	 * level 0)
+	 */
+	private final int[][] childStart;
+
+	/**
+	 * Index after the last child in the level below, per level (not set for
+	 * level 0)
+	 */
+	private final int[][] childEnd;
+
+	/**
+	 * Bulk load a packed R-Tree.
+	 * 
+	 * @param locs the objects to index
+	 * @param pageSize the maximum number of children of a node, must be
+	 *            greater than or equal to 2
+	 */
+	public PackedRTree(Collection<? extends T> locs, int pageSize) {
+		Preconditions.checkArgument(pageSize >= 2);
+
+		List<Localizable> entries = new ArrayList<Localizable>(locs);
+		if (entries.isEmpty()) {
+			items = new Object[0];
+			bounds = new double[0][];
+			childStart = new int[0][];
+			childEnd = new int[0][];
+			return;
+		}
+
+		List<double[]> levelBounds = new ArrayList<double[]>();
+		List<int[]> levelStart = new ArrayList<int[]>();
+		List<int[]> levelEnd = new ArrayList<int[]>();
+		Object[] leafItems = null;
+
+		do {
+			List<List<Localizable>> groups = SortTileRecursive.pack(entries, pageSize);
+
+			List<Localizable> ordered = new ArrayList<Localizable>(entries.size());
+			List<Localizable> parents = new ArrayList<Localizable>(groups.size());
+			for (List<Localizable> group : groups) {
+				int start = ordered.size();
+				ordered.addAll(group);
+				parents.add(new PackedNode(start, ordered.size(), group));
+			}
+
+			if (leafItems == null) {
+				leafItems = ordered.toArray();
+			}
+			addLevel(ordered, levelBounds, levelStart, levelEnd);
+
+			entries = parents;
+		} while (entries.size() > 1);
+
+		// root level
+		addLevel(entries, levelBounds, levelStart, levelEnd);
+
+		items = leafItems;
+		bounds = levelBounds.toArray(new double[levelBounds.size()][]);
+		childStart = levelStart.toArray(new int[levelStart.size()][]);
+		childEnd = levelEnd.toArray(new int[levelEnd.size()][]);
+	}
+
+	private static void addLevel(List<Localizable> entries, List<double[]> levelBounds,
+			List<int[]> levelStart, List<int[]> levelEnd) {
+		double[] boxes = new double[entries.size() * BOX_SIZE];
+		int[] starts = null;
+		int[] ends = null;
+		if (levelBounds.size() > 0) {
+			starts = new int[entries.size()];
+			ends = new int[entries.size()];
+		}
+
+		for (int i = 0; i < entries.size(); i++) {
+			Localizable entry = entries.get(i);
+			BoundingBox box = entry.getBoundingBox();
+			int offset = i * BOX_SIZE;
+			boxes[offset] = box.getMinX();
+			boxes[offset + 1] = box.getMinY();
+			boxes[offset + 2] = box.getMinZ();
+			boxes[offset + 3] = box.getMaxX();
+			boxes[offset + 4] = box.getMaxY();
+			boxes[offset + 5] = box.getMaxZ();
+
+			if (starts != null) {
+				PackedNode node = (PackedNode) entry;
+				starts[i] = node.start;
+				ends[i] = node.end;
+			}
+		}
+
+		levelBounds.add(boxes);
+		levelStart.add(starts);
+		levelEnd.add(ends);
+	}
+
+	/**
+	 * @return the number of objects indexed in this tree
+	 */
+	public int size() {
+		return items.length;
+	}
+
+	/**
+	 * @return the bounding box of all objects in the tree, an empty bounding
+	 *         box if the tree is empty
+	 */
+	public BoundingBox getBoundingBox() {
+		if (bounds.length == 0) {
+			return new BoundingBox();
+		}
+
+		double[] root = bounds[bounds.length - 1];
+		return new BoundingBox(root[0], root[1], root[2], root[3], root[4], root[5]);
+	}
+
+	/**
+	 * Performs a spatial query
+	 * 
+	 * @param <L> the type of the localizable to compare to
+	 * @param loc the localizable to compare to
+	 * @param verifier the verifier used to check if the candidates found have a
+	 *            certain spatial relation to the given localizable
+	 * @return a set of candidates matching the given localizable
+	 * @see SpatialIndex#query(Localizable, Verifier)
+	 */
+	public <L extends Localizable> Set<T> query(L loc, Verifier<? super T, L> verifier) {
+		return processQuery(loc, verifier, find(loc, false));
+	}
+
+	/**
+	 * Performs a spatial query. Ignores the z ordinate during candidate search.
+	 * 
+	 * @param <L> the type of the localizable to compare to
+	 * @param loc the localizable to compare to
+	 * @param verifier the verifier used to check if the candidates found have a
+	 *            certain spatial relation to the given localizable
+	 * @return a set of candidates matching the given localizable
+	 * @see SpatialIndex#query2D(Localizable, Verifier)
+	 */
+	public <L extends Localizable> Set<T> query2D(L loc, Verifier<? super T, L> verifier) {
+		return processQuery(loc, verifier, find(loc, true));
+	}
+
+	/**
+	 * Returns a list of all indexed objects that have any relation to the
+	 * given Localizable.
+	 * 
+	 * @param loc the Localizable to match
+	 * @param ignoreZ true if the z coordinate should be ignored during
+	 *            candidate search
+	 * @return the list of candidates
+	 */
+	public List<T> find(Localizable loc, boolean ignoreZ) {
+		List<T> result = new ArrayList<T>();
+
+		int root = bounds.length - 1;
+		BoundingBox box = loc.getBoundingBox();
+		if (root >= 0 && intersects(bounds[root], 0, box, ignoreZ)) {
+			find(root, 0, box, ignoreZ, result);
+		}
+
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void find(int level, int index, BoundingBox box, boolean ignoreZ, List<T> result) {
+		double[] children = bounds[level - 1];
+		int end = childEnd[level][index];
+		for (int child = childStart[level][index]; child < end; child++) {
+			if (intersects(children, child, box, ignoreZ)) {
+				if (level == 1) {
+					// same relation as the RTree for the indexed objects
+					T item = (T) items[child];
+					if (Node.relate(item.getBoundingBox(), box, ignoreZ)) {
+						result.add(item);
+					}
+				}
+				else {
+					find(level - 1, child, box, ignoreZ, result);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks if a stored bounding box intersects the given bounding box,
+	 * including touching boundaries.
+	 */
+	private static boolean intersects(double[] boxes, int index, BoundingBox box,
+			boolean ignoreZ) {
+		int offset = index * BOX_SIZE;
+		return boxes[offset] <= box.getMaxX() && boxes[offset + 3] >= box.getMinX()
+				&& boxes[offset + 1] <= box.getMaxY() && boxes[offset + 4] >= box.getMinY()
+				&& (ignoreZ || (boxes[offset + 2] <= box.getMaxZ()
+						&& boxes[offset + 5] >= box.getMinZ()));
+	}
+
+	private <L extends Localizable> Set<T> processQuery(L loc, Verifier<? super T, L> verifier,
+			List<T> candidates) {
+		if (candidates.size() > 0) {
+			Set<T> verified = new HashSet<T>();
+
+			for (T cand : candidates) {
+				if (verifier.verify(cand, loc)) {
+					verified.add(cand);
+				}
+			}
+
+			return verified;
+		}
+
+		return Collections.emptySet();
+	}
+
+}
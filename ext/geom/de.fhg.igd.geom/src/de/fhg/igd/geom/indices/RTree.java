@@ -15,6 +15,8 @@
 
 package de.fhg.igd.geom.indices;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -89,6 +91,24 @@ public class RTree<T extends Localizable> implements SpatialIndex<T> {
 		flush();
 	}
 
+	/**
+	 * Creates an R-Tree that is bulk loaded with the given Localizables using
+	 * the Sort-Tile-Recursive algorithm. This is considerably faster than
+	 * inserting the Localizables one by one and results in a tree with less
+	 * overlap between the nodes.
+	 * 
+	 * @param pageSize the page size (number of children that can be attached to
+	 *            this node before it gets splitted). Must be even and greater
+	 *            than or equal to 4.
+	 * @param locs the Localizables to insert
+	 * @throws IllegalArgumentException if one of the Localizables has an
+	 *             invalid bounding box
+	 */
+	public RTree(int pageSize, Collection<? extends T> locs) {
+		this(pageSize);
+		insertAll(locs);
+	}
+
 	/**
 	 * @return the root node
 	 */
@@ -137,13 +157,85 @@ public class RTree<T extends Localizable> implements SpatialIndex<T> {
 		++_size;
 	}
 
+	/**
+	 * Inserts all the given Localizables. If the tree is empty, it is bulk
+	 * loaded using the Sort-Tile-Recursive algorithm, otherwise the
+	 * Localizables are inserted one by one.
+	 * 
+	 * @param locs the Localizables to insert
+	 * @throws IllegalArgumentException if one of the Localizables has an
+	 *             invalid bounding box
+	 */
+	public void insertAll(Collection<? extends T> locs) {
+		if (_size > 0) {
+			for (T loc : locs) {
+				insert(loc);
+			}
+			return;
+		}
+
+		for (T loc : locs) {
+			if (!loc.getBoundingBox().checkIntegrity()) {
+				throw new IllegalArgumentException(
+						"You may not insert a " + "Localizable object with a invalid BoundingBox");
+			}
+		}
+
+		List<Localizable> entries = new ArrayList<Localizable>(locs);
+		while (entries.size() > _pageSize) {
+			List<Localizable> nodes = new ArrayList<Localizable>();
+			for (List<Localizable> group : SortTileRecursive.pack(entries, _pageSize)) {
+				Node<T> node = new Node<T>(_pageSize, null, this);
+				for (Localizable child : group) {
+					node.bulkAdd(child);
+				}
+				nodes.add(node);
+			}
+			entries = nodes;
+		}
+
+		Node<T> root = new Node<T>(_pageSize, null, this);
+		for (Localizable child : entries) {
+			root.bulkAdd(child);
+		}
+		_root = root;
+		_size = locs.size();
+	}
+
+	/**
+	 * Creates a read only copy of this tree that is packed with the
+	 * Sort-Tile-Recursive algorithm and may be queried concurrently without
+	 * locking. Later changes to this tree are not reflected in the copy.
+	 * 
+	 * @return the packed tree
+	 */
+	public PackedRTree<T> pack() {
+		List<T> items = new ArrayList<T>(_size);
+		collectItems(_root, items);
+		return new PackedRTree<T>(items, _pageSize);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void collectItems(Node<T> node, List<T> items) {
+		for (Localizable child : node.getChildren()) {
+			if (node.isLeaf()) {
+				items.add((T) child);
+			}
+			else {
+				collectItems((Node<T>) child, items);
+			}
+		}
+	}
+
 	/**
 	 * @see SpatialIndex#delete(Localizable)
 	 */
 	@Override
 	public boolean delete(T loc) {
+		// deleting may re-insert orphaned entries, which increments the size
+		int size = _size;
 		if (_root.delete(loc)) {
-			--_size;
+			_size = size - 1;
 			return true;
 		}
 		return false;
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package de.fhg.igd.geom.indices;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import de.fhg.igd.geom.BoundingBox;
+import de.fhg.igd.geom.Localizable;
+
+/**
+ * Groups {@link Localizable}s into the nodes of one level of an R-Tree using
+ * the Sort-Tile-Recursive algorithm described in Leutenegger et al. - STR: A
+ * Simple and Efficient Algorithm for R-Tree Packing. The entries are sorted by
+ * the x ordinate of their center and split into vertical slices, each slice
+ * is sorted by the y ordinate of the center and split into nodes.
+ */
+public final class SortTileRecursive {
+
+	private static final Comparator<Localizable> CENTER_X = Comparator
+			.comparingDouble(loc -> centerX(loc.getBoundingBox()));
+
+	private static final Comparator<Localizable> CENTER_Y = Comparator
+			.comparingDouble(loc -> centerY(loc.getBoundingBox()));
+
+	private SortTileRecursive() {
+		// static helper
+	}
+
+	/**
+	 * Group the given entries into nodes.
+	 * 
+	 * @param <E> the entry type
+	 * @param entries the entries to group, the list is not modified
+	 * @param pageSize the maximum number of entries in a node
+	 * @return the entries grouped into nodes, each list representing the
+	 *         children of a node
+	 */
+	public static <E extends Localizable> List<List<E>> pack(List<E> entries, int pageSize) {
+		int n = entries.size();
+		int nodeCount = (n + pageSize - 1) / pageSize;
+		int sliceCount = (int) Math.ceil(Math.sqrt(nodeCount));
+		int sliceSize = sliceCount * pageSize;
+
+		List<E> sorted = new ArrayList<E>(entries);
+		sorted.sort(CENTER_X);
+
+		List<List<E>> groups = new ArrayList<List<E>>(nodeCount);
+		for (int sliceStart = 0; sliceStart < n; sliceStart += sliceSize) {
+			List<E> slice = sorted.subList(sliceStart, Math.min(sliceStart + sliceSize, n));
+			slice.sort(CENTER_Y);
+
+			for (int start = 0; start < slice.size(); start += pageSize) {
+				groups.add(slice.subList(start, Math.min(start + pageSize, slice.size())));
+			}
+		}
+
+		return groups;
+	}
+
+	private static double centerX(BoundingBox box) {
+		return (box.getMinX() + box.getMaxX()) / 2;
+	}
+
+	private static double centerY(BoundingBox box) {
+		return (box.getMinY() + box.getMaxY()) / 2;
+	}
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package de.fhg.igd.geom.indices;
+
+import java.util.Collection;
+import java.util.Set;
+
+import com.google.common.base.Preconditions;
+
+import de.fhg.igd.geom.BoundingBox;
+import de.fhg.igd.geom.Localizable;
+import de.fhg.igd.geom.Verifier;
+
+/**
+ * Thread safe {@link RTree}. Changes and queries are synchronized on the
+ * tree. If the tree is queried a number of times without being changed in
+ * between, a {@link PackedRTree} copy is created and subsequent queries are
+ * answered from the copy without locking, until the tree is changed again.
+ * Thus packing the tree is only worth its cost if the tree is mostly read,
+ * while a tree that is changed frequently is queried directly.
+ * 
+ * @param <T> the type of the objects stored in the tree
+ */
+public class SynchronizedRTree<T extends Localizable> {
+
+	/**
+	 * The default number of queries without a change in between after which
+	 * the tree is packed
+	 */
+	public static final int DEFAULT_PACK_THRESHOLD = 16;
+
+	private final RTree<T> tree;
+
+	private final int packThreshold;
+
+	/**
+	 * The number of queries since the last change, guarded by the tree
+	 */
+	private int unchangedQueries = 0;
+
+	/**
+	 * Read only copy of the tree, <code>null</code> if it was not created yet
+	 * or the tree was changed since
+	 */
+	private volatile PackedRTree<T> packed;
+
+	/**
+	 * Create a thread safe R-Tree with the default pack threshold.
+	 * 
+	 * @param pageSize the page size of the tree, see {@link RTree#RTree(int)}
+	 */
+	public SynchronizedRTree(int pageSize) {
+		this(pageSize, DEFAULT_PACK_THRESHOLD);
+	}
+
+	/**
+	 * Create a thread safe R-Tree.
+	 * 
+	 * @param pageSize the page size of the tree, see {@link RTree#RTree(int)}
+	 * @param packThreshold the number of queries without a change in between
+	 *            after which the tree is packed, <code>0</code> to pack the
+	 *            tree on the first query after a change
+	 */
+	public SynchronizedRTree(int pageSize, int packThreshold) {
+		Preconditions.checkArgument(packThreshold >= 0);
+		this.tree = new RTree<T>(pageSize);
+		this.packThreshold = packThreshold;
+	}
+
+	/**
+	 * @param loc the Localizable to insert
+	 * @see RTree#insert(Localizable)
+	 */
+	public void insert(T loc) {
+		synchronized (tree) {
+			tree.insert(loc);
+			changed();
+		}
+	}
+
+	/**
+	 * @param locs the Localizables to insert
+	 * @see RTree#insertAll(Collection)
+	 */
+	public void insertAll(Collection<? extends T> locs) {
+		synchronized (tree) {
+			tree.insertAll(locs);
+			changed();
+		}
+	}
+
+	/**
+	 * @param loc the Localizable to delete
+	 * @return true if the Localizable was deleted
+	 * @see RTree#delete(Localizable)
+	 */
+	public boolean delete(T loc) {
+		synchronized (tree) {
+			boolean deleted = tree.delete(loc);
+			if (deleted) {
+				changed();
+			}
+			return deleted;
+		}
+	}
+
+	/**
+	 * @see RTree#flush()
+	 */
+	public void flush() {
+		synchronized (tree) {
+			tree.flush();
+			changed();
+		}
+	}
+
+	/**
+	 * @return the number of Localizables in the tree
+	 * @see RTree#size()
+	 */
+	public int size() {
+		synchronized (tree) {
+			return tree.size();
+		}
+	}
+
+	/**
+	 * @return the bounding box of all Localizables in the tree
+	 */
+	public BoundingBox getBoundingBox() {
+		synchronized (tree) {
+			return new BoundingBox(tree.getRoot().getBoundingBox());
+		}
+	}
+
+	/**
+	 * @param <L> the type of the Localizable to query for
+	 * @param loc the Localizable to query for
+	 * @param verifier the verifier checking the relation of the candidates
+	 * @return the Localizables matching the query
+	 * @see RTree#query(Localizable, Verifier)
+	 */
+	public <L extends Localizable> Set<T> query(L loc, Verifier<? super T, L> verifier) {
+		PackedRTree<T> copy = packed;
+		if (copy == null) {
+			synchronized (tree) {
+				copy = packed;
+				if (copy == null) {
+					if (unchangedQueries < packThreshold) {
+						unchangedQueries++;
+						return tree.query(loc, verifier);
+					}
+
+					copy = tree.pack();
+					packed = copy;
+				}
+			}
+		}
+		return copy.query(loc, verifier);
+	}
+
+	/**
+	 * @return if queries are currently answered from a packed copy of the
+	 *         tree
+	 */
+	public boolean isPacked() {
+		return packed != null;
+	}
+
+	private void changed() {
+		packed = null;
+		unchangedQueries = 0;
+	}
+
+}
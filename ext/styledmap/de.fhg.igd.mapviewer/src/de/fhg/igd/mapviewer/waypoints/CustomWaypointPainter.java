@@ -22,6 +22,7 @@ import java.awt.Rectangle;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
@@ -39,7 +40,7 @@ import org.jdesktop.swingx.mapviewer.TileProviderUtils;
 
 import de.fhg.igd.geom.BoundingBox;
 import de.fhg.igd.geom.Verifier;
-import de.fhg.igd.geom.indices.RTree;
+import de.fhg.igd.geom.indices.SynchronizedRTree;
 import de.fhg.igd.mapviewer.AbstractTileOverlayPainter;
 import de.fhg.igd.mapviewer.MapKitTileOverlayPainter;
 import de.fhg.igd.mapviewer.Refresher;
@@ -63,7 +64,7 @@ public abstract class CustomWaypointPainter<W extends SelectableWaypoint<W>>
 
 	private static final int PAGE_SIZE = 32;
 
-	private final RTree<W> waypoints = new RTree<W>(PAGE_SIZE);
+	private final SynchronizedRTree<W> waypoints = new SynchronizedRTree<W>(PAGE_SIZE);
 
 	private final Verifier<? super W, BoundingBox> matchTileVerifier = new Verifier<SelectableWaypoint<W>, BoundingBox>() {
 
@@ -158,9 +159,7 @@ public abstract class CustomWaypointPainter<W extends SelectableWaypoint<W>>
 		BoundingBox bb = wp.getBoundingBox();
 
 		if (bb != null) {
-			synchronized (waypoints) {
-				waypoints.insert(wp);
-			}
+			waypoints.insert(wp);
 
 			if (refresh != null) {
 				wp.addToRefresher(refresh);
@@ -168,6 +167,30 @@ public abstract class CustomWaypointPainter<W extends SelectableWaypoint<W>>
 		}
 	}
 
+	/**
+	 * Add way-points. If there are no way-points yet, the index is bulk loaded
+	 * with the way-points, which is much faster than adding them one by one.
+	 * 
+	 * @param wps the way-points
+	 * @param refresh the refresher
+	 */
+	public void addWaypoints(Collection<W> wps, Refresher refresh) {
+		List<W> valid = new ArrayList<W>(wps.size());
+		for (W wp : wps) {
+			if (wp.getBoundingBox() != null) {
+				valid.add(wp);
+			}
+		}
+
+		waypoints.insertAll(valid);
+
+		if (refresh != null) {
+			for (W wp : valid) {
+				wp.addToRefresher(refresh);
+			}
+		}
+	}
+
 	/**
 	 * Remove a way-point
 	 * 
@@ -175,9 +198,7 @@ public abstract class CustomWaypointPainter<W extends SelectableWaypoint<W>>
 	 * @param refresh the refresher
 	 */
 	public void removeWaypoint(W wp, Refresher refresh) {
-		synchronized (waypoints) {
-			waypoints.delete(wp);
-		}
+		waypoints.delete(wp);
 
 		if (refresh != null) {
 			wp.addToRefresher(refresh);
@@ -213,48 +234,46 @@ public abstract class CustomWaypointPainter<W extends SelectableWaypoint<W>>
 		try {
 			BoundingBox tileBounds = createSearchBB(topLeft, bottomRight);
 
-			synchronized (waypoints) {
-				Set<W> candidates = waypoints.query(tileBounds, matchTileVerifier);
+			Set<W> candidates = waypoints.query(tileBounds, matchTileVerifier);
 
-				if (candidates != null) {
-					// sort way-points
-					List<W> sorted = new ArrayList<W>(candidates);
-					Collections.sort(sorted, paintFirstComparator);
+			if (candidates != null) {
+				// sort way-points
+				List<W> sorted = new ArrayList<W>(candidates);
+				Collections.sort(sorted, paintFirstComparator);
 
-					BufferedImage image = createImage(width, height);
-					Graphics2D gfx = image.createGraphics();
-					configureGraphics(gfx);
+				BufferedImage image = createImage(width, height);
+				Graphics2D gfx = image.createGraphics();
+				configureGraphics(gfx);
 
-					try {
-						// for each way-point within these bounds
-						for (W w : sorted) {
-							processWaypoint(w, posX, posY, width, height, converter, zoom, gfx);
-						}
-
-						/*
-						 * DEBUG String test = getClass().getSimpleName() +
-						 * " - x=" + posX + ", y=" + posY + ": " +
-						 * candidates.size() + " WPs"; gfx.setColor(Color.BLUE);
-						 * gfx.drawString(test, 4, height - 4);
-						 * 
-						 * gfx.drawString("minX: " + tileBounds.getMinX(), 4,
-						 * height - 84); gfx.drawString("maxX: " +
-						 * tileBounds.getMaxX(), 4, height - 64);
-						 * gfx.drawString("minY: " + tileBounds.getMinY(), 4,
-						 * height - 44); gfx.drawString("maxY: " +
-						 * tileBounds.getMaxY(), 4, height - 24);
-						 * 
-						 * gfx.drawRect(0, 0, width - 1, height - 1);
-						 */
-					} finally {
-						gfx.dispose();
+				try {
+					// for each way-point within these bounds
+					for (W w : sorted) {
+						processWaypoint(w, posX, posY, width, height, converter, zoom, gfx);
 					}
 
-					return image;
-				}
-				else {
-					return null;
+					/*
+					 * DEBUG String test = getClass().getSimpleName() +
+					 * " - x=" + posX + ", y=" + posY + ": " +
+					 * candidates.size() + " WPs"; gfx.setColor(Color.BLUE);
+					 * gfx.drawString(test, 4, height - 4);
+					 * 
+					 * gfx.drawString("minX: " + tileBounds.getMinX(), 4,
+					 * height - 84); gfx.drawString("maxX: " +
+					 * tileBounds.getMaxX(), 4, height - 64);
+					 * gfx.drawString("minY: " + tileBounds.getMinY(), 4,
+					 * height - 44); gfx.drawString("maxY: " +
+					 * tileBounds.getMaxY(), 4, height - 24);
+					 * 
+					 * gfx.drawRect(0, 0, width - 1, height - 1);
+					 */
+				} finally {
+					gfx.dispose();
 				}
+
+				return image;
+			}
+			else {
+				return null;
 			}
 		} catch (IllegalGeoPositionException e) {
 			log.warn("Error painting waypoint tile: " + e.getMessage()); //$NON-NLS-1$
@@ -573,9 +592,7 @@ public abstract class CustomWaypointPainter<W extends SelectableWaypoint<W>>
 	 * Clear the way-points
 	 */
 	public void clearWaypoints() {
-		synchronized (waypoints) {
-			waypoints.flush();
-		}
+		waypoints.flush();
 
 		refreshAll();
 	}
@@ -596,7 +613,7 @@ public abstract class CustomWaypointPainter<W extends SelectableWaypoint<W>>
 	 * @return the bounding box
 	 */
 	public BoundingBox getBoundingBox() {
-		return waypoints.getRoot().getBoundingBox();
+		return waypoints.getBoundingBox();
 	}
 
 }
@@ -14,7 +14,9 @@
  */
 package de.fhg.igd.mapviewer.waypoints;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import de.fhg.igd.mapviewer.Refresher;
@@ -68,6 +70,29 @@ public abstract class GenericWaypointPainter<T, W extends GenericWaypoint<T, W>>
 		super.addWaypoint(wp, refresh);
 	}
 
+	/**
+	 * @see CustomWaypointPainter#addWaypoints(Collection, Refresher)
+	 */
+	@Override
+	public void addWaypoints(Collection<W> wps, Refresher refresh) {
+		// only the last way-point associated with an object is added
+		Map<T, W> added = new LinkedHashMap<T, W>();
+		for (W wp : wps) {
+			added.put(wp.getValue(), wp);
+		}
+
+		for (W wp : added.values()) {
+			W previous = waypointMap.put(wp.getValue(), wp);
+			if (previous != null) {
+				// remove way-point previously associated with the object
+				// (because the RTree doesn't know if there are duplicates)
+				removeWaypoint(previous, refresh);
+			}
+		}
+
+		super.addWaypoints(added.values(), refresh);
+	}
+
 	/**
 	 * @see CustomWaypointPainter#clearWaypoints()
 	 */
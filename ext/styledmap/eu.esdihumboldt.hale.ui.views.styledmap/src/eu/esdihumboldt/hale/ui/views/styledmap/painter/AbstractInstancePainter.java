@@ -260,6 +260,7 @@ public abstract class AbstractInstancePainter
 				InstanceCollection instances = instanceService.getInstances(dataSet);
 				ResourceIterator<Instance> it = instances.iterator();
 				try {
+					List<InstanceWaypoint> waypoints = new ArrayList<InstanceWaypoint>();
 					while (it.hasNext()) {
 						Instance instance = it.next();
 
@@ -270,12 +271,16 @@ public abstract class AbstractInstancePainter
 								wp.setSelected(true, null); // refresh can be
 															// ignored because
 															// it's done for
-															// addWaypoint
+															// addWaypoints
 							}
-							addWaypoint(wp, null); // no refresher, as
-													// refreshAll is executed
+							waypoints.add(wp);
 						}
 					}
+
+					// add all way-points at once, so the index can be bulk
+					// loaded
+					addWaypoints(waypoints, null); // no refresher, as
+													// refreshAll is executed
 				} finally {
 					it.close();
 					monitor.done();
@@ -32,7 +32,6 @@ import java.util.stream.Collectors;
 
 import javax.xml.namespace.QName;
 
-import org.geotools.geometry.jts.JTS;
 import org.geotools.referencing.CRS;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.LineString;
@@ -43,7 +42,6 @@ import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
 import org.locationtech.jts.io.WKBWriter;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
-import org.opengis.referencing.operation.MathTransform;
 import org.springframework.core.convert.ConversionException;
 
 import eu.esdihumboldt.hale.common.convert.ConversionUtil;
@@ -61,6 +59,7 @@ import eu.esdihumboldt.hale.common.instance.io.impl.AbstractGeoInstanceWriter;
 import eu.esdihumboldt.hale.common.instance.model.Instance;
 import eu.esdihumboldt.hale.common.instance.model.InstanceCollection;
 import eu.esdihumboldt.hale.common.instance.model.ResourceIterator;
+import eu.esdihumboldt.hale.common.referencing.transform.ReprojectionService;
 import eu.esdihumboldt.hale.common.schema.geometry.CRSDefinition;
 import eu.esdihumboldt.hale.common.schema.geometry.GeometryProperty;
 import eu.esdihumboldt.hale.common.schema.model.DefinitionUtil;
@@ -345,9 +344,8 @@ public class GeopackageInstanceWriter extends AbstractGeoInstanceWriter {
 			Geometry targetGeometry = geom;
 			try {
 				if (sourceCrs != null && targetCrs != null) {
-					MathTransform transform = CRS.findMathTransform(sourceCrs.getCRS(),
-							targetCrs.getCRS());
-					targetGeometry = JTS.transform(geom, transform);
+					targetGeometry = ReprojectionService.getInstance().transform(geom,
+							sourceCrs.getCRS(), targetCrs.getCRS());
 				}
 			} catch (Exception e) {
 				log.error("Failed to convert geometry to target SRS " + targetSrs.getSrsName());
@@ -23,7 +23,9 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import javax.xml.namespace.QName;
 
@@ -36,6 +38,7 @@ import eu.esdihumboldt.hale.common.core.io.supplier.DefaultInputSupplier;
 import eu.esdihumboldt.hale.common.instance.model.Group;
 import eu.esdihumboldt.hale.common.instance.model.Instance;
 import eu.esdihumboldt.hale.common.instance.model.InstanceCollection;
+import eu.esdihumboldt.hale.common.instance.model.InstanceReference;
 import eu.esdihumboldt.hale.common.instance.model.ResourceIterator;
 import eu.esdihumboldt.hale.common.schema.io.SchemaReader;
 import eu.esdihumboldt.hale.common.schema.model.Schema;
@@ -506,6 +509,39 @@ public class GmlInstanceCollectionTest {
 		}
 	}
 
+	/**
+	 * Test resolving references to instances in a GML file in an order
+	 * different from the document order, which is done based on the offset
+	 * index populated while iterating the instances.
+	 * 
+	 * @throws Exception if an error occurs
+	 */
+	@Test
+	public void testResolveReferences() throws Exception {
+		GmlInstanceCollection instances = loadInstances(
+				getClass().getResource("/data/hydro/hydroEx.xsd").toURI(),
+				getClass().getResource("/data/hydro/hydro.gml").toURI(), true);
+
+		QName identifierName = new QName("eu:esdihumboldt:hale:example", "identifier");
+
+		List<InstanceReference> references = new ArrayList<>();
+		List<Object> identifiers = new ArrayList<>();
+		try (ResourceIterator<Instance> it = instances.iterator()) {
+			while (it.hasNext()) {
+				Instance instance = it.next();
+				references.add(instances.getReference(instance));
+				identifiers.add(instance.getProperty(identifierName)[0]);
+			}
+		}
+		assertEquals(13, references.size());
+
+		for (int i = references.size() - 1; i >= 0; i--) {
+			Instance instance = instances.getInstance(references.get(i));
+			assertNotNull(instance);
+			assertEquals(identifiers.get(i), instance.getProperty(identifierName)[0]);
+		}
+	}
+
 	private GmlInstanceCollection loadInstances(URI schemaLocation, URI xmlLocation,
 			boolean restrictToFeatures) throws IOException, IOProviderConfigurationException {
 		return loadInstances(schemaLocation, xmlLocation, restrictToFeatures, true, true);
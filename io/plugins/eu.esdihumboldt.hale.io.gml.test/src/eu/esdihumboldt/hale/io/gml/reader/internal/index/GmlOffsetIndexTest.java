@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.gml.reader.internal.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+
+import org.junit.Test;
+
+import eu.esdihumboldt.hale.common.core.io.supplier.DefaultInputSupplier;
+
+/**
+ * Tests for {@link GmlOffsetIndex}.
+ */
+public class GmlOffsetIndexTest {
+
+	private static final String DOCUMENT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+			+ "<!DOCTYPE root [ <!ELEMENT root ANY> <!-- <a> --> ]>\n" //
+			+ "<root xmlns=\"urn:test\">\n" //
+			+ "  <!-- <item> in a comment -->\n" //
+			+ "  <item id=\"a&gt;\" note='1 > 0'>text</item>\n" //
+			+ "  <?pi <item>?>\n" //
+			+ "  <other><![CDATA[ <item> ]]></other>\n" //
+			+ "  <item id=\"\u00e4\u00f6\u00fc\">more text<sub/></item>\n" //
+			+ "  <item/>\n" //
+			+ "</root>\n";
+
+	private static final Pattern ITEM_START_TAG = Pattern.compile("<item[ /]");
+
+	/**
+	 * Test if the start tags of the indexed elements are located exactly,
+	 * regardless of the order they are requested in.
+	 * 
+	 * @throws Exception if an error occurs
+	 */
+	@Test
+	public void testLocate() throws Exception {
+		File file = File.createTempFile("offsets", ".xml");
+		file.deleteOnExit();
+		Files.write(file.toPath(), DOCUMENT.getBytes(StandardCharsets.UTF_8));
+		DefaultInputSupplier source = new DefaultInputSupplier(file.toURI());
+
+		// index the item elements with their start element ordinals
+		GmlOffsetIndex index = new GmlOffsetIndex("UTF-8");
+		List<Long> expected = new ArrayList<>();
+		int from = 0;
+		StartElementCountingReader reader = new StartElementCountingReader(
+				XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(DOCUMENT)));
+		try {
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT
+						&& reader.getLocalName().equals("item")) {
+					int size = index.size();
+					index.add(size, reader.getStartElementCount() - 1, reader.getName(),
+							new QName("urn:test", "ItemType"),
+							Collections.<String, String> emptyMap());
+
+					// skips the item tags in comments, CDATA and instructions
+					Matcher matcher = ITEM_START_TAG.matcher(DOCUMENT);
+					assertTrue(matcher.find(from));
+					expected.add((long) matcher.start());
+					from = matcher.end();
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		assertEquals(3, index.size());
+
+		// locate the last element first
+		assertEquals(expected.get(2).longValue(), index.locate(source, 2));
+		for (int i = 0; i < expected.size(); i++) {
+			long offset = index.locate(source, i);
+			assertEquals(expected.get(i).longValue(), offset);
+
+			try (Reader fragment = index.openReader(source, offset)) {
+				char[] start = new char[5];
+				assertEquals(5, fragment.read(start));
+				assertEquals("<item", new String(start));
+			}
+		}
+	}
+
+	/**
+	 * Test if locating an element fails if the ordinals do not match the
+	 * document.
+	 * 
+	 * @throws Exception if an error occurs
+	 */
+	@Test
+	public void testLocateMismatch() throws Exception {
+		File file = File.createTempFile("offsets", ".xml");
+		file.deleteOnExit();
+		Files.write(file.toPath(), DOCUMENT.getBytes(StandardCharsets.UTF_8));
+		DefaultInputSupplier source = new DefaultInputSupplier(file.toURI());
+
+		GmlOffsetIndex index = new GmlOffsetIndex("UTF-8");
+		index.add(0, 100, new QName("urn:test", "item"), new QName("urn:test", "ItemType"),
+				Collections.<String, String> emptyMap());
+
+		boolean failed = false;
+		try {
+			index.locate(source, 0);
+		} catch (IOException e) {
+			failed = true;
+		}
+		assertTrue(failed);
+	}
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.gml.writer.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.junit.Test;
+
+import eu.esdihumboldt.hale.common.schema.model.constraint.property.Cardinality;
+import eu.esdihumboldt.hale.common.schema.model.constraint.property.ChoiceFlag;
+import eu.esdihumboldt.hale.common.schema.model.constraint.property.NillableFlag;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.Binding;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.ElementType;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultGroupPropertyDefinition;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultPropertyDefinition;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultTypeDefinition;
+import eu.esdihumboldt.hale.io.xsd.constraint.XmlAttributeFlag;
+
+/**
+ * Tests for {@link GroupWritePlan} and {@link PropertyWritePlan}.
+ */
+@SuppressWarnings({ "javadoc", "restriction" })
+public class GroupWritePlanTest {
+
+	private static final String GML_NS = "http://www.opengis.net/gml/3.2";
+
+	private static final String NS = "http://www.example.com";
+
+	@Test
+	public void testChildren() {
+		DefaultTypeDefinition stringType = new DefaultTypeDefinition(new QName("string"));
+		stringType.setConstraint(Binding.get(String.class));
+
+		DefaultTypeDefinition type = new DefaultTypeDefinition(new QName(NS, "ExampleType"));
+		DefaultPropertyDefinition a = new DefaultPropertyDefinition(new QName(NS, "a"), type,
+				stringType);
+		a.setConstraint(Cardinality.CC_EXACTLY_ONCE);
+		a.setConstraint(NillableFlag.ENABLED);
+		DefaultPropertyDefinition nilReason = new DefaultPropertyDefinition(
+				new QName("nilReason"), type, stringType);
+		nilReason.setConstraint(XmlAttributeFlag.ENABLED);
+		nilReason.setConstraint(Cardinality.CC_OPTIONAL);
+		DefaultGroupPropertyDefinition choice = new DefaultGroupPropertyDefinition(
+				new QName(NS, "choice"), type, false);
+		choice.setConstraint(ChoiceFlag.ENABLED);
+		new DefaultPropertyDefinition(new QName(NS, "b"), choice, stringType);
+		DefaultPropertyDefinition c = new DefaultPropertyDefinition(new QName("c"), choice,
+				stringType);
+		c.setConstraint(XmlAttributeFlag.ENABLED);
+
+		GroupWritePlan plan = new GroupWritePlan(type, GML_NS);
+		assertFalse(plan.isChoice());
+		assertFalse(plan.isInspireType());
+		assertNull(plan.getRequiredId());
+
+		// attributes and groups, in definition order
+		List<GroupWritePlan.Child> attributes = plan.getChildren(true);
+		assertEquals(2, attributes.size());
+		assertSame(nilReason, attributes.get(0).getDefinition());
+		PropertyWritePlan nilReasonPlan = attributes.get(0).getProperty();
+		assertNotNull(nilReasonPlan);
+		assertTrue(nilReasonPlan.isAttribute());
+		assertTrue(nilReasonPlan.isNilReason());
+		assertEquals(0, nilReasonPlan.getMinOccurs());
+		assertSame(choice, attributes.get(1).getDefinition());
+		assertNull(attributes.get(1).getProperty());
+
+		// elements and groups, in definition order
+		List<GroupWritePlan.Child> elements = plan.getChildren(false);
+		assertEquals(2, elements.size());
+		PropertyWritePlan aPlan = elements.get(0).getProperty();
+		assertNotNull(aPlan);
+		assertFalse(aPlan.isAttribute());
+		assertFalse(aPlan.isNilReason());
+		assertTrue(aPlan.isNillable());
+		assertEquals(1, aPlan.getMinOccurs());
+		assertFalse(aPlan.isList());
+
+		// the group plan is shared by attributes and elements
+		GroupWritePlan choicePlan = elements.get(1).getGroup();
+		assertNotNull(choicePlan);
+		assertSame(choicePlan, attributes.get(1).getGroup());
+		assertTrue(choicePlan.isChoice());
+		assertEquals(names("c"), names(choicePlan.getChildren(true)));
+		assertEquals(names("b"), names(choicePlan.getChildren(false)));
+	}
+
+	@Test
+	public void testListProperty() {
+		DefaultTypeDefinition doubleType = new DefaultTypeDefinition(new QName("double"));
+		doubleType.setConstraint(Binding.get(Double.class));
+		DefaultTypeDefinition listType = new DefaultTypeDefinition(new QName(NS, "doubleList"));
+		listType.setConstraint(Binding.get(List.class));
+		listType.setConstraint(ElementType.createFromType(doubleType));
+
+		DefaultTypeDefinition type = new DefaultTypeDefinition(new QName(NS, "ExampleType"));
+		DefaultPropertyDefinition values = new DefaultPropertyDefinition(
+				new QName(NS, "values"), type, listType);
+
+		PropertyWritePlan plan = new PropertyWritePlan(values, GML_NS);
+		assertTrue(plan.isList());
+		assertSame(doubleType, plan.getListElementType());
+	}
+
+	@Test
+	public void testGmlIdentifier() {
+		DefaultTypeDefinition codeType = new DefaultTypeDefinition(
+				new QName(GML_NS, "CodeWithAuthorityType"));
+		DefaultTypeDefinition type = new DefaultTypeDefinition(
+				new QName("http://inspire.ec.europa.eu/schemas/ex/4.0", "ExampleType"));
+		DefaultPropertyDefinition identifier = new DefaultPropertyDefinition(
+				new QName(GML_NS, "identifier"), type, codeType);
+
+		GroupWritePlan plan = new GroupWritePlan(type, GML_NS);
+		assertTrue(plan.isInspireType());
+		PropertyWritePlan identifierPlan = plan.getChildren(false).get(0).getProperty();
+		assertSame(identifier, identifierPlan.getProperty());
+		assertTrue(identifierPlan.isGmlIdentifier());
+	}
+
+	private static List<String> names(String... names) {
+		List<String> result = new ArrayList<>();
+		for (String name : names) {
+			result.add(name);
+		}
+		return result;
+	}
+
+	private static List<String> names(List<GroupWritePlan.Child> children) {
+		List<String> result = new ArrayList<>();
+		for (GroupWritePlan.Child child : children) {
+			result.add(child.getDefinition().getName().getLocalPart());
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.gml.writer.internal;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import eu.esdihumboldt.hale.io.xml.validator.Validator;
+import eu.esdihumboldt.hale.io.xml.validator.ValidatorFactory;
+
+/**
+ * Tests that validators created for the same schema locations don't use a
+ * cached compiled schema if one of the schema files was changed.
+ */
+public class SchemaCacheValidationTest {
+
+	private static final String SCHEMA_START = "<xs:schema "
+			+ "xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">";
+
+	private static final String SCHEMA_END = "</xs:schema>";
+
+	private static final String XML = "<item>abc</item>";
+
+	/**
+	 * Temporary folder for the schema files
+	 */
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	/**
+	 * Test that a change to a schema included by the main schema is regarded.
+	 * 
+	 * @throws IOException if writing the schema files fails
+	 */
+	@Test
+	public void testIncludedSchemaChanged() throws IOException {
+		File main = writeMainSchema("<xs:include schemaLocation=\"types.xsd\"/>"
+				+ "<xs:element name=\"item\" type=\"ItemType\"/>");
+		File types = writeTypesSchema("xs:string");
+
+		assertTrue(validate(main));
+		// validated again with the cached schema
+		assertTrue(validate(main));
+
+		writeTypesSchema("xs:int");
+		touch(types);
+
+		assertFalse(validate(main));
+	}
+
+	/**
+	 * Test that a change to the main schema is regarded.
+	 * 
+	 * @throws IOException if writing the schema files fails
+	 */
+	@Test
+	public void testMainSchemaChanged() throws IOException {
+		File main = writeMainSchema("<xs:element name=\"item\" type=\"xs:string\"/>");
+
+		assertTrue(validate(main));
+
+		writeMainSchema("<xs:element name=\"item\" type=\"xs:int\"/>");
+		touch(main);
+
+		assertFalse(validate(main));
+	}
+
+	private boolean validate(File schema) {
+		Validator validator = ValidatorFactory.getInstance().createValidator(schema.toURI());
+		return validator.validate(new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8)))
+				.isValid();
+	}
+
+	private File writeMainSchema(String content) throws IOException {
+		return write("main.xsd", SCHEMA_START + content + SCHEMA_END);
+	}
+
+	private File writeTypesSchema(String base) throws IOException {
+		return write("types.xsd", SCHEMA_START + "<xs:simpleType name=\"ItemType\">"
+				+ "<xs:restriction base=\"" + base + "\"/></xs:simpleType>" + SCHEMA_END);
+	}
+
+	private File write(String name, String content) throws IOException {
+		File file = new File(tmp.getRoot(), name);
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	/**
+	 * Make sure the modification time of a file changes, regardless of the
+	 * resolution of the file system timestamps.
+	 * 
+	 * @param file the file
+	 */
+	private static void touch(File file) {
+		assertTrue(file.setLastModified(file.lastModified() + 10000));
+	}
+
+}
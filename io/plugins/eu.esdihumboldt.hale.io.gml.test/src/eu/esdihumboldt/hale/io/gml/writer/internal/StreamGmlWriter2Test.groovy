@@ -31,6 +31,7 @@ import eu.esdihumboldt.hale.common.core.io.report.IOReport
 import eu.esdihumboldt.hale.common.core.io.supplier.DefaultInputSupplier
 import eu.esdihumboldt.hale.common.core.io.supplier.FileIOSupplier
 import eu.esdihumboldt.hale.common.core.io.supplier.Locatable
+import eu.esdihumboldt.hale.common.core.io.supplier.MultiLocationOutputSupplier
 import eu.esdihumboldt.hale.common.instance.geometry.GeometryUtil
 import eu.esdihumboldt.hale.common.instance.groovy.InstanceBuilder
 import eu.esdihumboldt.hale.common.instance.io.GeoInstanceWriter
@@ -298,6 +299,30 @@ class StreamGmlWriter2Test {
 		compareGeometries(geom, loaded)
 	}
 
+	/**
+	 * Test writing the parts of a partitioned export in parallel.
+	 *
+	 * @throws Exception if an error occurs
+	 */
+	@Test
+	public void testPartitionedParallel() throws Exception {
+		List<String> ids = writePartitioned(StreamGmlWriter.PARTITION_MODE_RELATED, 10, 3)
+		assertEquals((1..10).collect { "id$it".toString() } as Set, ids as Set)
+	}
+
+	/**
+	 * Test writing the parts of a partitioned export with parallel writing
+	 * configured, but a partition mode that requires writing the parts one
+	 * after another.
+	 *
+	 * @throws Exception if an error occurs
+	 */
+	@Test
+	public void testPartitionedParallelCut() throws Exception {
+		List<String> ids = writePartitioned(StreamGmlWriter.PARTITION_MODE_CUT, 10, 3)
+		assertEquals((1..10).collect { "id$it".toString() }, ids)
+	}
+
 	// helpers
 
 	@CompileStatic
@@ -381,4 +406,72 @@ class StreamGmlWriter2Test {
 
 		result
 	}
+
+	/**
+	 * Write instances in parts with two threads and load the instances from
+	 * all parts.
+	 *
+	 * @param mode the partition mode
+	 * @param count the number of instances to write
+	 * @param threshold the maximum number of instances per part
+	 * @return the identifiers of the loaded instances, in the order of the
+	 *   parts
+	 */
+	private List<String> writePartitioned(String mode, int count, int threshold) {
+		Schema schema = loadSchema(getClass().getResource("/data/geom_schema/geom-gml32.xsd").toURI())
+		List<Instance> instances = (1..count).collect { int i ->
+			new InstanceBuilder(types: schema).PrimitiveTestType {
+				id("_$i")
+				identifier("id$i")
+				geometry { Curve( StreamGmlWriterTest.createLineString(i as double) ) }
+			}
+		}
+
+		GmlInstanceWriter writer = new GmlInstanceWriter()
+		writer.setParameter(StreamGmlWriter.PARAM_INSTANCES_THRESHOLD, Value.of(threshold))
+		writer.setParameter(StreamGmlWriter.PARAM_PARTITION_MODE, Value.of(mode))
+		writer.setParameter(StreamGmlWriter.PARAM_PARTITION_THREADS, Value.of(2))
+		writer.setInstances(new DefaultInstanceCollection(instances))
+		DefaultSchemaSpace schemaSpace = new DefaultSchemaSpace()
+		schemaSpace.addSchema(schema)
+		writer.setTargetSchema(schemaSpace)
+		File outFile = File.createTempFile('gml-writer-parts', '.gml')
+		writer.setTarget(new FileIOSupplier(outFile))
+
+		IOReport report = writer.execute(null)
+		assertTrue("Writing the GML output not successful", report.isSuccess())
+		assertTrue(report.errors.isEmpty())
+
+		assertTrue(writer.target instanceof MultiLocationOutputSupplier)
+		List<URI> parts = ((MultiLocationOutputSupplier) writer.target).locations
+		assertEquals((int) Math.ceil(count / (double) threshold), parts.size())
+
+		List<String> ids = []
+		parts.each { URI part ->
+			IOReport valReport = StreamGmlWriterTest.validate(part, writer.getValidationSchemas())
+			assertTrue("Expected GML part to be valid", valReport.isSuccess())
+
+			InstanceCollection loaded = StreamGmlWriterTest.loadGML(part, schema)
+			List<String> partIds = []
+			def iterator = loaded.iterator()
+			try {
+				while (iterator.hasNext()) {
+					partIds << iterator.next().p.identifier.value().toString()
+				}
+			} finally {
+				iterator.close()
+				if (DEL_TEMP_FILES) {
+					new File(part).delete()
+				}
+			}
+
+			assertFalse("Part must not be empty", partIds.isEmpty())
+			assertTrue("Part has too many instances", partIds.size() <= threshold)
+			ids.addAll(partIds)
+		}
+		outFile.delete()
+
+		assertEquals(count, ids.size())
+		ids
+	}
 }
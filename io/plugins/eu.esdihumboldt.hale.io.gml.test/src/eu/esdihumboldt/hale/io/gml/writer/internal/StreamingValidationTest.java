@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.gml.writer.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import eu.esdihumboldt.hale.common.core.io.report.IOMessage;
+import eu.esdihumboldt.hale.common.core.io.report.IOReport;
+import eu.esdihumboldt.hale.common.core.io.supplier.DefaultInputSupplier;
+import eu.esdihumboldt.hale.common.core.io.supplier.FileIOSupplier;
+import eu.esdihumboldt.hale.common.core.report.Report;
+import eu.esdihumboldt.hale.common.headless.transform.ValidationJob;
+import eu.esdihumboldt.hale.common.instance.io.InstanceValidator;
+import eu.esdihumboldt.hale.common.instance.io.InstanceWriter;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.model.ResourceIterator;
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstance;
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstanceCollection;
+import eu.esdihumboldt.hale.common.schema.model.Schema;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultSchemaSpace;
+import eu.esdihumboldt.hale.common.test.TestUtil;
+import eu.esdihumboldt.hale.io.gml.writer.GmlInstanceWriter;
+import eu.esdihumboldt.hale.io.xml.validator.XmlInstanceValidator;
+import eu.esdihumboldt.hale.io.xsd.reader.XmlSchemaReader;
+
+/**
+ * Tests validating the GML written in a headless transformation while it is
+ * written, compared to validating the written file.
+ */
+public class StreamingValidationTest {
+
+	/**
+	 * Number of times the features of the test data are written, so the
+	 * written data exceeds the buffer of the validation pipe.
+	 */
+	private static final int REPEAT = 200;
+
+	/**
+	 * Temporary folder for the written files
+	 */
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	/**
+	 * Prepare the conversion service
+	 */
+	@BeforeClass
+	public static void initAll() {
+		TestUtil.startConversionService();
+	}
+
+	/**
+	 * Test that validating the data while it is written yields the same
+	 * report as validating the written file.
+	 * 
+	 * @throws Exception if reading, writing or validating fails
+	 */
+	@Test
+	public void testSameReport() throws Exception {
+		Schema schema = loadSchema(getClass().getResource("/data/hydro/hydroEx.xsd").toURI());
+		List<Instance> features = new ArrayList<>();
+		ResourceIterator<Instance> it = StreamGmlWriterTest
+				.loadGML(getClass().getResource("/data/hydro/hydro.gml").toURI(), schema)
+				.iterator();
+		try {
+			while (it.hasNext()) {
+				features.add(new DefaultInstance(it.next()));
+			}
+		} finally {
+			it.close();
+		}
+		assertTrue(features.size() > 0);
+
+		List<Instance> instances = new ArrayList<>();
+		for (int i = 0; i < REPEAT; i++) {
+			instances.addAll(features);
+		}
+
+		File outFile = tmp.newFile("hydro.gml");
+		InstanceWriter writer = new GmlInstanceWriter();
+		writer.setInstances(new DefaultInstanceCollection(instances));
+		DefaultSchemaSpace schemaSpace = new DefaultSchemaSpace();
+		schemaSpace.addSchema(schema);
+		writer.setTargetSchema(schemaSpace);
+		writer.setTarget(new FileIOSupplier(outFile));
+
+		// validate while writing
+		List<Report<?>> streamed = new ArrayList<>();
+		ValidationJob streamingJob = new ValidationJob(
+				Collections.<InstanceValidator> singletonList(createValidator(outFile)),
+				streamed::add, writer, null);
+		assertTrue(streamingJob.enableStreamingValidation());
+
+		IOReport writeReport = writer.execute(null);
+		assertTrue("Writing the GML output not successful", writeReport.isSuccess());
+
+		streamingJob.schedule();
+		streamingJob.join();
+
+		// validate the written file
+		List<Report<?>> validated = new ArrayList<>();
+		ValidationJob fileJob = new ValidationJob(
+				Collections.<InstanceValidator> singletonList(createValidator(outFile)),
+				validated::add, writer, null);
+		fileJob.schedule();
+		fileJob.join();
+
+		assertEquals(1, streamed.size());
+		assertEquals(1, validated.size());
+		IOReport expected = (IOReport) validated.get(0);
+		IOReport report = (IOReport) streamed.get(0);
+
+		assertTrue("Validating the written file failed", expected.isSuccess());
+		assertEquals(expected.isSuccess(), report.isSuccess());
+		assertEquals(getMessages(expected.getErrors()), getMessages(report.getErrors()));
+		assertEquals(getMessages(expected.getWarnings()), getMessages(report.getWarnings()));
+	}
+
+	private static InstanceValidator createValidator(File file) {
+		XmlInstanceValidator validator = new XmlInstanceValidator();
+		validator.setSource(new FileIOSupplier(file));
+		return validator;
+	}
+
+	private static List<String> getMessages(Collection<IOMessage> messages) {
+		List<String> result = new ArrayList<>();
+		for (IOMessage message : messages) {
+			result.add(message.getLineNumber() + ":" + message.getColumn() + " "
+					+ message.getMessage());
+		}
+		return result;
+	}
+
+	private static Schema loadSchema(URI schemaLocation) throws Exception {
+		XmlSchemaReader reader = new XmlSchemaReader();
+		reader.setSharedTypes(null);
+		reader.setSource(new DefaultInputSupplier(schemaLocation));
+		IOReport schemaReport = reader.execute(null);
+		assertTrue(schemaReport.isSuccess());
+		return reader.getSchema();
+	}
+
+}
@@ -19,12 +19,16 @@ package eu.esdihumboldt.hale.io.gml.reader.internal;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +42,8 @@ import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
+import org.apache.commons.io.input.SequenceReader;
+
 import de.fhg.igd.slf4jplus.ALogger;
 import de.fhg.igd.slf4jplus.ALoggerFactory;
 import eu.esdihumboldt.hale.common.core.io.IOProvider;
@@ -61,6 +67,8 @@ import eu.esdihumboldt.hale.common.schema.model.PropertyDefinition;
 import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
 import eu.esdihumboldt.hale.common.schema.model.TypeIndex;
 import eu.esdihumboldt.hale.common.schema.model.constraint.type.MappingRelevantFlag;
+import eu.esdihumboldt.hale.io.gml.reader.internal.index.GmlOffsetIndex;
+import eu.esdihumboldt.hale.io.gml.reader.internal.index.StartElementCountingReader;
 import eu.esdihumboldt.hale.io.gml.reader.internal.instance.StreamGmlHelper;
 import eu.esdihumboldt.hale.io.gml.reader.internal.instance.StreamGmlInstance;
 import eu.esdihumboldt.hale.io.xsd.constraint.XmlAttributeFlag;
@@ -82,7 +90,7 @@ public class GmlInstanceCollection implements InstanceCollection, LogAware {
 
 		private final InputStream in;
 
-		private final XMLStreamReader reader;
+		private final StartElementCountingReader reader;
 
 		/**
 		 * Element names associated with type definitions
@@ -110,6 +118,18 @@ public class GmlInstanceCollection implements InstanceCollection, LogAware {
 		 */
 		private final Deque<TypeDefinition> typeStack = new LinkedList<>();
 
+		/**
+		 * Namespace bindings declared on the currently open elements, kept in
+		 * sync with {@link #typeStack}.
+		 */
+		private final Deque<Map<String, String>> namespaceStack = new LinkedList<>();
+
+		/**
+		 * The offset index to populate, <code>null</code> if the offset index
+		 * is disabled.
+		 */
+		private final GmlOffsetIndex index;
+
 		/**
 		 * Default constructor
 		 */
@@ -120,10 +140,14 @@ public class GmlInstanceCollection implements InstanceCollection, LogAware {
 
 			try {
 				in = new BufferedInputStream(source.getInput());
-				reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+				reader = new StartElementCountingReader(
+						XMLInputFactory.newInstance().createXMLStreamReader(in));
 			} catch (Throwable e) {
 				throw new IllegalStateException("Could not open instance input", e);
 			}
+
+			String encoding = reader.getEncoding();
+			index = getOffsetIndex((encoding != null) ? (encoding) : ("UTF-8"));
 		}
 
 		/**
@@ -205,6 +229,7 @@ public class GmlInstanceCollection implements InstanceCollection, LogAware {
 						}
 					}
 					typeStack.push(def);
+					pushNamespaces();
 
 					if (!rootEncountered) {
 						rootEncountered = true;
@@ -220,14 +245,64 @@ public class GmlInstanceCollection implements InstanceCollection, LogAware {
 
 					if (def != null && isAllowedType(def)) {
 						nextType = def;
+
+						if (index != null && index.isNext(elementIndex)) {
+							index.add(elementIndex, reader.getStartElementCount() - 1,
+									elementName, def.getName(), getInheritedNamespaces());
+						}
 					}
 				}
 				else if (event == XMLStreamConstants.END_ELEMENT) {
 					typeStack.pop();
+					namespaceStack.pop();
+				}
+			}
+
+			if (nextType == null && index != null && !index.isComplete()) {
+				// reached the end of the document
+				index.setComplete(elementIndex);
+				if (index.isComplete() && useOffsetIndexFile) {
+					index.save(source);
 				}
 			}
 		}
 
+		/**
+		 * Push the namespace bindings declared on the current start element to
+		 * the namespace stack.
+		 */
+		private void pushNamespaces() {
+			int count = reader.getNamespaceCount();
+			if (count == 0) {
+				namespaceStack.push(Collections.<String, String> emptyMap());
+			}
+			else {
+				Map<String, String> namespaces = new LinkedHashMap<>();
+				for (int i = 0; i < count; i++) {
+					String prefix = reader.getNamespacePrefix(i);
+					String ns = reader.getNamespaceURI(i);
+					namespaces.put((prefix == null) ? ("") : (prefix), (ns == null) ? ("") : (ns));
+				}
+				namespaceStack.push(namespaces);
+			}
+		}
+
+		/**
+		 * Determine the namespace bindings in scope of the current element
+		 * that were declared on its ancestors.
+		 * 
+		 * @return the namespace bindings, prefixes mapped to namespaces
+		 */
+		private Map<String, String> getInheritedNamespaces() {
+			Map<String, String> result = new LinkedHashMap<>();
+			Iterator<Map<String, String>> it = namespaceStack.descendingIterator();
+			for (int i = 0; i < namespaceStack.size() - 1; i++) {
+				// skip the current element (the last one)
+				result.putAll(it.next());
+			}
+			return result;
+		}
+
 		/**
 		 * Determine if the given type is a type allowed to be used for parsing
 		 * instances.
@@ -575,6 +650,7 @@ public class GmlInstanceCollection implements InstanceCollection, LogAware {
 			} finally {
 				nextType = null;
 				typeStack.pop(); // parseInstance consumes END_ELEMENT
+				namespaceStack.pop();
 			}
 		}
 
@@ -596,7 +672,6 @@ public class GmlInstanceCollection implements InstanceCollection, LogAware {
 			if (nextType == null) {
 				try {
 					proceedToNext();
-					elementIndex++;
 				} catch (XMLStreamException e) {
 					throw new IllegalStateException(e);
 				}
@@ -624,6 +699,9 @@ public class GmlInstanceCollection implements InstanceCollection, LogAware {
 				throw new IllegalStateException(e);
 			} finally {
 				nextType = null;
+				elementIndex++;
+				typeStack.pop(); // END_ELEMENT was consumed
+				namespaceStack.pop();
 			}
 		}
 
@@ -673,6 +751,24 @@ public class GmlInstanceCollection implements InstanceCollection, LogAware {
 
 	private SimpleLog log = SimpleLog.fromLogger(logger);
 
+	/**
+	 * If the offset index should be stored in/loaded from a file next to the
+	 * source file.
+	 */
+	private final boolean useOffsetIndexFile;
+
+	/**
+	 * Index of element offsets, used to resolve instance references. Populated
+	 * by iterators.
+	 */
+	private GmlOffsetIndex offsetIndex;
+
+	/**
+	 * States if the offset index was found not to match the document and
+	 * should no longer be used.
+	 */
+	private boolean offsetIndexDisabled = false;
+
 	/**
 	 * Create an XMl/GML instance collection based on the given source.
 	 * 
@@ -710,6 +806,25 @@ public class GmlInstanceCollection implements InstanceCollection, LogAware {
 				.getParameter(StreamGmlReader.PARAM_IGNORE_MAPPING_RELEVANT)
 				.as(Boolean.class, false);
 
+		this.useOffsetIndexFile = provider.getParameter(StreamGmlReader.PARAM_OFFSET_INDEX_FILE)
+				.as(Boolean.class, false);
+		if (useOffsetIndexFile) {
+			offsetIndex = GmlOffsetIndex.load(source);
+		}
+	}
+
+	/**
+	 * Get the offset index, create it if necessary.
+	 * 
+	 * @param encoding the document encoding
+	 * @return the offset index or <code>null</code> if the offset index is
+	 *         disabled
+	 */
+	private synchronized GmlOffsetIndex getOffsetIndex(String encoding) {
+		if (offsetIndex == null && !offsetIndexDisabled) {
+			offsetIndex = new GmlOffsetIndex(encoding);
+		}
+		return offsetIndex;
 	}
 
 	/**
@@ -777,10 +892,6 @@ public class GmlInstanceCollection implements InstanceCollection, LogAware {
 				"Reference can only be determined based on a StreamGmlInstance");
 	}
 
-	/*
-	 * TODO optimize retrieval of multiple references
-	 */
-
 	/**
 	 * @see InstanceResolver#getInstance(InstanceReference)
 	 */
@@ -788,6 +899,12 @@ public class GmlInstanceCollection implements InstanceCollection, LogAware {
 	public Instance getInstance(InstanceReference reference) {
 		IndexInstanceReference ref = (IndexInstanceReference) reference;
 
+		Instance indexed = getIndexedInstance(ref.getIndex());
+		if (indexed != null) {
+			return indexed;
+		}
+
+		// element not indexed yet - the iterator will populate the index
 		GmlInstanceIterator it = iterator();
 		try {
 			for (int i = 0; i < ref.getIndex(); i++) {
@@ -800,6 +917,90 @@ public class GmlInstanceCollection implements InstanceCollection, LogAware {
 		}
 	}
 
+	/**
+	 * Exception signaling that an offset stored in the offset index does not
+	 * point to the indexed element.
+	 */
+	private static class OffsetMismatchException extends IllegalStateException {
+
+		private static final long serialVersionUID = 1L;
+
+		private OffsetMismatchException(String message) {
+			super(message);
+		}
+
+	}
+
+	/**
+	 * Parse the instance with the given index based on the offset index.
+	 * 
+	 * @param elementIndex the element index in the stream
+	 * @return the instance or <code>null</code> if the element is not indexed
+	 *         or could not be parsed based on the index
+	 */
+	private Instance getIndexedInstance(int elementIndex) {
+		GmlOffsetIndex index;
+		synchronized (this) {
+			index = offsetIndex;
+		}
+		if (index == null) {
+			return null;
+		}
+
+		GmlOffsetIndex.Entry entry = index.get(elementIndex);
+		if (entry == null) {
+			return null;
+		}
+		TypeDefinition type = sourceSchema.getType(entry.getTypeName());
+		if (type == null) {
+			return null;
+		}
+
+		try (Reader fragment = new SequenceReader(
+				new StringReader(GmlOffsetIndex.createWrapperStartTag(entry.getNamespaces())),
+				index.openReader(source, index.locate(source, elementIndex)))) {
+			XMLStreamReader reader = XMLInputFactory.newInstance()
+					.createXMLStreamReader(fragment);
+			try {
+				boolean wrapper = true;
+				while (reader.hasNext()) {
+					if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+						if (wrapper) {
+							// skip wrapper element
+							wrapper = false;
+						}
+						else if (entry.getElementName().equals(reader.getName())) {
+							return StreamGmlHelper.parseInstance(reader, type, elementIndex,
+									strict, null, crsProvider, type, null, false,
+									ignoreNamespaces, ioProvider);
+						}
+						else {
+							// the indexed element must be the first element
+							throw new OffsetMismatchException(MessageFormat.format(
+									"Expected element {0} as start element {1}, but found {2}",
+									entry.getElementName(), entry.getOrdinal(),
+									reader.getName()));
+						}
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (OffsetMismatchException e) {
+			logger.error("Offset index does not match the document, falling back to scan", e);
+			// don't use the index for further lookups
+			synchronized (this) {
+				offsetIndex = null;
+				offsetIndexDisabled = true;
+			}
+		} catch (Exception e) {
+			logger.warn("Failed to load instance based on offset index, falling back to scan",
+					e);
+		}
+
+		return null;
+	}
+
 	@Override
 	public void setLog(SimpleLog log) {
 		if (log != null) {
@@ -102,6 +102,14 @@ public class StreamGmlReader extends AbstractInstanceReader {
 	 */
 	public static final String PARAM_SUPPRESS_PARSE_GEOMETRY = "suppressParsingGeometry";
 
+	/**
+	 * The name of the parameter specifying if an index of the instance element
+	 * offsets should be stored in a file next to the source file and reused
+	 * when loading the same file again. Parameter value defaults to
+	 * <code>false</code>.
+	 */
+	public static final String PARAM_OFFSET_INDEX_FILE = "offsetIndexFile";
+
 	private InstanceCollection instances;
 
 	private final boolean restrictToFeatures;
@@ -122,6 +130,7 @@ public class StreamGmlReader extends AbstractInstanceReader {
 		addSupportedParameter(PARAM_PAGINATE_REQUEST);
 		addSupportedParameter(PARAM_FEATURES_PER_WFS_REQUEST);
 		addSupportedParameter(PARAM_TMP_DIR_PATH);
+		addSupportedParameter(PARAM_OFFSET_INDEX_FILE);
 	}
 
 	/**
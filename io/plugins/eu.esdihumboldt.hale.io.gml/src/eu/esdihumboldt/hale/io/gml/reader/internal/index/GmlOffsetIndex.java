@@ -0,0 +1,692 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.gml.reader.internal.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+
+import de.fhg.igd.slf4jplus.ALogger;
+import de.fhg.igd.slf4jplus.ALoggerFactory;
+import eu.esdihumboldt.hale.common.core.io.supplier.LocatableInputSupplier;
+
+/**
+ * Index of the character offsets of the instance elements in an XML/GML
+ * document. The index is populated while the document is streamed and allows
+ * to position a reader right in front of an instance element, without parsing
+ * the preceding part of the document.<br>
+ * <br>
+ * Per indexed element, the ordinal of its start tag in the document and an
+ * identifier of the element name, type name and namespace context combination
+ * are stored while streaming (see {@link StartElementCountingReader}). The
+ * character offset of an element is determined from the ordinal on the first
+ * seek, by scanning the start tags from the closest element with a known
+ * offset (see {@link #locate(LocatableInputSupplier, int)}). The locations
+ * reported by XML stream readers are not used, as they are
+ * implementation-specific, are not exact and are limited to the range of an
+ * integer.<br>
+ * <br>
+ * In addition checkpoints mapping character offsets to byte offsets are
+ * collected on the first seek, so a seek only needs to decode the document
+ * from the closest checkpoint.
+ */
+public class GmlOffsetIndex {
+
+	/**
+	 * Information on an indexed element.
+	 */
+	public static class Entry {
+
+		private final long ordinal;
+		private final QName elementName;
+		private final QName typeName;
+		private final Map<String, String> namespaces;
+
+		private Entry(long ordinal, QName elementName, QName typeName,
+				Map<String, String> namespaces) {
+			super();
+			this.ordinal = ordinal;
+			this.elementName = elementName;
+			this.typeName = typeName;
+			this.namespaces = namespaces;
+		}
+
+		/**
+		 * @return the ordinal of the start tag of the element in the document
+		 */
+		public long getOrdinal() {
+			return ordinal;
+		}
+
+		/**
+		 * @return the name of the element
+		 */
+		public QName getElementName() {
+			return elementName;
+		}
+
+		/**
+		 * @return the name of the type the element was associated to
+		 */
+		public QName getTypeName() {
+			return typeName;
+		}
+
+		/**
+		 * @return the namespace bindings in scope of the element, prefixes
+		 *         mapped to namespaces
+		 */
+		public Map<String, String> getNamespaces() {
+			return namespaces;
+		}
+
+	}
+
+	/**
+	 * Element name, type name and namespace context combination.
+	 */
+	private static class Signature {
+
+		private final QName elementName;
+		private final QName typeName;
+		private final int namespacesId;
+
+		private Signature(QName elementName, QName typeName, int namespacesId) {
+			super();
+			this.elementName = elementName;
+			this.typeName = typeName;
+			this.namespacesId = namespacesId;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * elementName.hashCode() + typeName.hashCode()) + namespacesId;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Signature)) {
+				return false;
+			}
+			Signature other = (Signature) obj;
+			return namespacesId == other.namespacesId && elementName.equals(other.elementName)
+					&& typeName.equals(other.typeName);
+		}
+
+	}
+
+	private static final ALogger log = ALoggerFactory.getLogger(GmlOffsetIndex.class);
+
+	/**
+	 * Format version of the sidecar file.
+	 */
+	private static final int FORMAT_VERSION = 2;
+
+	/**
+	 * File extension appended to the source file name for the sidecar file.
+	 */
+	public static final String SIDECAR_EXTENSION = ".hale-offsets";
+
+	/**
+	 * Interval in characters between checkpoints.
+	 */
+	private static final long CHECKPOINT_INTERVAL = 1 << 20;
+
+	private final String encoding;
+
+	private long[] ordinals = new long[1024];
+
+	/**
+	 * Character offsets of the elements, <code>-1</code> if not yet
+	 * determined.
+	 */
+	private long[] offsets = newOffsets(1024);
+
+	private int[] signatureIds = new int[1024];
+
+	private int size = 0;
+
+	private boolean complete = false;
+
+	private final List<Map<String, String>> namespaceContexts = new ArrayList<>();
+
+	private final Map<Map<String, String>, Integer> namespaceContextIds = new HashMap<>();
+
+	private final List<Signature> signatures = new ArrayList<>();
+
+	private final Map<Signature, Integer> signatureIndex = new HashMap<>();
+
+	/**
+	 * Character offsets of checkpoints, <code>null</code> if not yet
+	 * determined.
+	 */
+	private long[] checkpointChars;
+
+	/**
+	 * Byte offsets of checkpoints, <code>null</code> if not yet determined.
+	 */
+	private long[] checkpointBytes;
+
+	/**
+	 * Create an empty offset index.
+	 * 
+	 * @param encoding the character encoding of the document
+	 */
+	public GmlOffsetIndex(String encoding) {
+		super();
+		this.encoding = encoding;
+	}
+
+	/**
+	 * @return the character encoding of the document
+	 */
+	public String getEncoding() {
+		return encoding;
+	}
+
+	/**
+	 * Add an element to the index. Elements must be added in the order of
+	 * their index in the stream, elements already present are ignored.
+	 * 
+	 * @param index the index of the element in the stream
+	 * @param ordinal the ordinal of the start tag of the element in the
+	 *            document, starting with zero for the root element
+	 * @param elementName the element name
+	 * @param typeName the name of the type associated to the element
+	 * @param namespaces the namespace bindings in scope of the element
+	 */
+	public synchronized void add(int index, long ordinal, QName elementName, QName typeName,
+			Map<String, String> namespaces) {
+		if (index != size || complete) {
+			// already indexed or elements skipped
+			return;
+		}
+
+		Integer nsId = namespaceContextIds.get(namespaces);
+		if (nsId == null) {
+			nsId = namespaceContexts.size();
+			Map<String, String> copy = Collections
+					.unmodifiableMap(new LinkedHashMap<>(namespaces));
+			namespaceContexts.add(copy);
+			namespaceContextIds.put(copy, nsId);
+		}
+
+		Signature signature = new Signature(elementName, typeName, nsId);
+		Integer sigId = signatureIndex.get(signature);
+		if (sigId == null) {
+			sigId = signatures.size();
+			signatures.add(signature);
+			signatureIndex.put(signature, sigId);
+		}
+
+		if (size == ordinals.length) {
+			ordinals = Arrays.copyOf(ordinals, size * 2);
+			long[] grown = newOffsets(size * 2);
+			System.arraycopy(offsets, 0, grown, 0, size);
+			offsets = grown;
+			signatureIds = Arrays.copyOf(signatureIds, size * 2);
+		}
+		ordinals[size] = ordinal;
+		signatureIds[size] = sigId;
+		size++;
+	}
+
+	/**
+	 * Determine if the element with the given index is the next element to be
+	 * added to the index.
+	 * 
+	 * @param index the index of the element in the stream
+	 * @return if the element should be added with
+	 *         {@link #add(int, long, QName, QName, Map)}
+	 */
+	public synchronized boolean isNext(int index) {
+		return !complete && index == size;
+	}
+
+	/**
+	 * Mark the index as complete, i.e. all elements in the document have been
+	 * indexed.
+	 * 
+	 * @param count the number of elements in the document
+	 */
+	public synchronized void setComplete(int count) {
+		if (count == size) {
+			complete = true;
+		}
+	}
+
+	/**
+	 * @return if all elements in the document are indexed
+	 */
+	public synchronized boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * @return the number of indexed elements
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Get the information on the element with the given index.
+	 * 
+	 * @param index the index of the element in the stream
+	 * @return the element information or <code>null</code> if the element is
+	 *         not indexed
+	 */
+	public synchronized Entry get(int index) {
+		if (index < 0 || index >= size) {
+			return null;
+		}
+
+		Signature signature = signatures.get(signatureIds[index]);
+		return new Entry(ordinals[index], signature.elementName, signature.typeName,
+				namespaceContexts.get(signature.namespacesId));
+	}
+
+	/**
+	 * Determine the character offset of the start tag of the element with the
+	 * given index. If the offset is not known yet, the start tags are scanned
+	 * from the closest preceding element with a known offset. The offsets of
+	 * all indexed elements passed are recorded.
+	 * 
+	 * @param source the document input supplier
+	 * @param index the index of the element in the stream
+	 * @return the character offset of the start tag of the element
+	 * @throws IOException if the document cannot be read or the element was
+	 *             not found
+	 */
+	public long locate(LocatableInputSupplier<? extends InputStream> source, int index)
+			throws IOException {
+		int next;
+		long startOffset;
+		long ordinal;
+		synchronized (this) {
+			if (index < 0 || index >= size) {
+				throw new IllegalArgumentException("Element " + index + " is not indexed");
+			}
+			if (offsets[index] >= 0) {
+				return offsets[index];
+			}
+
+			int from = index - 1;
+			while (from >= 0 && offsets[from] < 0) {
+				from--;
+			}
+			if (from >= 0) {
+				// start at the start tag of the element, which is counted again
+				startOffset = offsets[from];
+				ordinal = ordinals[from] - 1;
+			}
+			else {
+				startOffset = 0;
+				ordinal = -1;
+			}
+			next = from + 1;
+		}
+
+		try (Reader reader = openReader(source, startOffset)) {
+			StartTagScanner scanner = new StartTagScanner(reader, startOffset);
+			long offset;
+			while ((offset = scanner.nextStartTag()) >= 0) {
+				ordinal++;
+				synchronized (this) {
+					if (ordinals[next] < ordinal) {
+						throw new IOException(
+								"Start tag of element " + next + " not found in document");
+					}
+					if (ordinals[next] == ordinal) {
+						offsets[next] = offset;
+						if (next == index) {
+							return offset;
+						}
+						next++;
+					}
+				}
+			}
+		}
+
+		throw new IOException("Start tag of element " + index + " not found in document");
+	}
+
+	/**
+	 * Open a reader on the document, positioned at the given character offset.
+	 * 
+	 * @param source the document input supplier
+	 * @param offset the character offset
+	 * @return the reader, the caller is responsible for closing it
+	 * @throws IOException if the document cannot be read
+	 */
+	public Reader openReader(LocatableInputSupplier<? extends InputStream> source, long offset)
+			throws IOException {
+		long[] chars;
+		long[] bytes;
+		synchronized (this) {
+			if (checkpointChars == null) {
+				determineCheckpoints(source);
+			}
+			chars = checkpointChars;
+			bytes = checkpointBytes;
+		}
+
+		// find closest checkpoint
+		int pos = Arrays.binarySearch(chars, offset);
+		if (pos < 0) {
+			pos = -pos - 2;
+		}
+		long charStart = 0;
+		long byteStart = 0;
+		if (pos >= 0) {
+			charStart = chars[pos];
+			byteStart = bytes[pos];
+		}
+
+		InputStream in = new BufferedInputStream(source.getInput());
+		try {
+			skipFully(in, byteStart);
+			Reader reader = new InputStreamReader(in, decoder());
+			skipFully(reader, offset - charStart);
+			return reader;
+		} catch (IOException | RuntimeException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Decode the document once to determine checkpoints mapping character
+	 * offsets to byte offsets.
+	 * 
+	 * @param source the document input supplier
+	 * @throws IOException if the document cannot be read
+	 */
+	private void determineCheckpoints(LocatableInputSupplier<? extends InputStream> source)
+			throws IOException {
+		List<long[]> checkpoints = new ArrayList<>();
+
+		CharsetDecoder decoder = decoder();
+		ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+		CharBuffer out = CharBuffer.allocate(64 * 1024);
+		long byteCount = 0;
+		long charCount = 0;
+		long nextCheckpoint = CHECKPOINT_INTERVAL;
+
+		try (InputStream stream = source.getInput()) {
+			boolean eof = false;
+			while (!eof) {
+				int read = stream.read(in.array(), in.position(), in.remaining());
+				if (read < 0) {
+					eof = true;
+				}
+				else {
+					in.position(in.position() + read);
+				}
+				in.flip();
+				int start = in.position();
+				decoder.decode(in, out, eof);
+				byteCount += in.position() - start;
+				charCount += out.position();
+				out.clear();
+				in.compact();
+
+				if (charCount >= nextCheckpoint) {
+					// bytes remaining in the buffer are not yet decoded
+					checkpoints.add(new long[] { charCount, byteCount });
+					nextCheckpoint = charCount + CHECKPOINT_INTERVAL;
+				}
+			}
+		}
+
+		checkpointChars = new long[checkpoints.size()];
+		checkpointBytes = new long[checkpoints.size()];
+		for (int i = 0; i < checkpoints.size(); i++) {
+			checkpointChars[i] = checkpoints.get(i)[0];
+			checkpointBytes[i] = checkpoints.get(i)[1];
+		}
+	}
+
+	private static long[] newOffsets(int length) {
+		long[] result = new long[length];
+		Arrays.fill(result, -1);
+		return result;
+	}
+
+	private CharsetDecoder decoder() {
+		return Charset.forName(encoding).newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	private static void skipFully(InputStream in, long count) throws IOException {
+		while (count > 0) {
+			long skipped = in.skip(count);
+			if (skipped <= 0) {
+				if (in.read() < 0) {
+					throw new IOException("Unexpected end of stream");
+				}
+				skipped = 1;
+			}
+			count -= skipped;
+		}
+	}
+
+	private static void skipFully(Reader reader, long count) throws IOException {
+		while (count > 0) {
+			long skipped = reader.skip(count);
+			if (skipped <= 0) {
+				throw new IOException("Unexpected end of stream");
+			}
+			count -= skipped;
+		}
+	}
+
+	/**
+	 * Get the location of the sidecar file for a document.
+	 * 
+	 * @param source the document input supplier
+	 * @return the sidecar file or <code>null</code> if the document is not a
+	 *         local file
+	 */
+	public static File getSidecarFile(LocatableInputSupplier<? extends InputStream> source) {
+		if (source.getLocation() == null
+				|| !"file".equalsIgnoreCase(source.getLocation().getScheme())) {
+			return null;
+		}
+
+		try {
+			File file = new File(source.getLocation());
+			return new File(file.getParentFile(), file.getName() + SIDECAR_EXTENSION);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Save the index to the sidecar file of the given document. Only complete
+	 * indexes are saved.
+	 * 
+	 * @param source the document input supplier
+	 */
+	public void save(LocatableInputSupplier<? extends InputStream> source) {
+		File sidecar = getSidecarFile(source);
+		if (sidecar == null) {
+			return;
+		}
+		File document = new File(source.getLocation());
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(sidecar)))) {
+			synchronized (this) {
+				if (!complete) {
+					return;
+				}
+
+				out.writeInt(FORMAT_VERSION);
+				out.writeLong(document.length());
+				out.writeLong(document.lastModified());
+				out.writeUTF(encoding);
+
+				out.writeInt(namespaceContexts.size());
+				for (Map<String, String> namespaces : namespaceContexts) {
+					out.writeInt(namespaces.size());
+					for (Map.Entry<String, String> ns : namespaces.entrySet()) {
+						out.writeUTF(ns.getKey());
+						out.writeUTF(ns.getValue());
+					}
+				}
+
+				out.writeInt(signatures.size());
+				for (Signature signature : signatures) {
+					writeName(out, signature.elementName);
+					writeName(out, signature.typeName);
+					out.writeInt(signature.namespacesId);
+				}
+
+				out.writeInt(size);
+				for (int i = 0; i < size; i++) {
+					out.writeLong(ordinals[i]);
+					out.writeLong(offsets[i]);
+					out.writeInt(signatureIds[i]);
+				}
+			}
+		} catch (IOException e) {
+			log.warn("Could not write offset index for " + document.getName(), e);
+			sidecar.delete();
+		}
+	}
+
+	/**
+	 * Load the index from the sidecar file of the given document, if it is
+	 * present and up-to-date.
+	 * 
+	 * @param source the document input supplier
+	 * @return the loaded index or <code>null</code>
+	 */
+	public static GmlOffsetIndex load(LocatableInputSupplier<? extends InputStream> source) {
+		File sidecar = getSidecarFile(source);
+		if (sidecar == null || !sidecar.exists()) {
+			return null;
+		}
+		File document = new File(source.getLocation());
+
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(sidecar)))) {
+			if (in.readInt() != FORMAT_VERSION || in.readLong() != document.length()
+					|| in.readLong() != document.lastModified()) {
+				// outdated
+				return null;
+			}
+
+			GmlOffsetIndex index = new GmlOffsetIndex(in.readUTF());
+
+			int contextCount = in.readInt();
+			List<Map<String, String>> contexts = new ArrayList<>(contextCount);
+			for (int i = 0; i < contextCount; i++) {
+				int nsCount = in.readInt();
+				Map<String, String> namespaces = new LinkedHashMap<>();
+				for (int j = 0; j < nsCount; j++) {
+					namespaces.put(in.readUTF(), in.readUTF());
+				}
+				contexts.add(namespaces);
+			}
+
+			int signatureCount = in.readInt();
+			QName[] elementNames = new QName[signatureCount];
+			QName[] typeNames = new QName[signatureCount];
+			int[] contextIds = new int[signatureCount];
+			for (int i = 0; i < signatureCount; i++) {
+				elementNames[i] = readName(in);
+				typeNames[i] = readName(in);
+				contextIds[i] = in.readInt();
+			}
+
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				long ordinal = in.readLong();
+				long offset = in.readLong();
+				int sig = in.readInt();
+				index.add(i, ordinal, elementNames[sig], typeNames[sig],
+						contexts.get(contextIds[sig]));
+				index.offsets[i] = offset;
+			}
+			index.setComplete(count);
+
+			return index;
+		} catch (IOException | RuntimeException e) {
+			log.warn("Could not read offset index for " + document.getName(), e);
+			return null;
+		}
+	}
+
+	private static void writeName(DataOutputStream out, QName name) throws IOException {
+		out.writeUTF(name.getNamespaceURI());
+		out.writeUTF(name.getLocalPart());
+	}
+
+	private static QName readName(DataInputStream in) throws IOException {
+		return new QName(in.readUTF(), in.readUTF());
+	}
+
+	/**
+	 * Create the start tag of a wrapper element declaring the given namespace
+	 * bindings.
+	 * 
+	 * @param namespaces the namespace bindings, prefixes mapped to namespaces
+	 * @return the start tag of the wrapper element
+	 */
+	public static String createWrapperStartTag(Map<String, String> namespaces) {
+		StringBuilder tag = new StringBuilder("<hale-offset-index-fragment");
+		for (Map.Entry<String, String> ns : namespaces.entrySet()) {
+			tag.append(' ');
+			if (ns.getKey().isEmpty()) {
+				tag.append("xmlns");
+			}
+			else {
+				tag.append("xmlns:").append(ns.getKey());
+			}
+			tag.append("=\"");
+			tag.append(ns.getValue().replace("&", "&amp;").replace("\"", "&quot;")
+					.replace("<", "&lt;"));
+			tag.append('"');
+		}
+		tag.append('>');
+		return tag.toString();
+	}
+
+}
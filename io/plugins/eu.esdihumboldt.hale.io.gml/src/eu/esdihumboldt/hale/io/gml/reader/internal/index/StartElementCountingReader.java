@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.gml.reader.internal.index;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+/**
+ * XML stream reader counting the start elements encountered. The count
+ * identifies an element in the document independently of the locations
+ * reported by the XML stream reader implementation, which are not reliable.
+ * 
+ * @see GmlOffsetIndex
+ */
+public class StartElementCountingReader extends StreamReaderDelegate {
+
+	private long count = 0;
+
+	/**
+	 * Create a reader counting the start elements of the given reader.
+	 * 
+	 * @param reader the reader to wrap
+	 */
+	public StartElementCountingReader(XMLStreamReader reader) {
+		super(reader);
+	}
+
+	/**
+	 * @return the number of start elements encountered so far, including the
+	 *         current event
+	 */
+	public long getStartElementCount() {
+		return count;
+	}
+
+	@Override
+	public int next() throws XMLStreamException {
+		int event = super.next();
+		if (event == XMLStreamConstants.START_ELEMENT) {
+			count++;
+		}
+		return event;
+	}
+
+	@Override
+	public int nextTag() throws XMLStreamException {
+		int event = super.nextTag();
+		if (event == XMLStreamConstants.START_ELEMENT) {
+			count++;
+		}
+		return event;
+	}
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.gml.reader.internal.index;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Minimal scanner for the start tags in an XML document. Skips comments,
+ * CDATA sections, processing instructions, declarations (e.g. the document
+ * type declaration) and end tags and reports the character offsets of the
+ * start tags. The scanner must be positioned outside of markup, e.g. at the
+ * beginning of the document or in front of a start tag.<br>
+ * <br>
+ * Elements resulting from the expansion of entity references are not
+ * reported.
+ */
+final class StartTagScanner {
+
+	private final Reader reader;
+
+	private final char[] buffer = new char[8192];
+
+	private int bufferPos = 0;
+
+	private int bufferSize = 0;
+
+	/**
+	 * The character offset of the next character to read.
+	 */
+	private long position;
+
+	/**
+	 * Create a start tag scanner.
+	 * 
+	 * @param reader the reader to scan, the caller is responsible for closing
+	 *            it
+	 * @param position the character offset in the document the reader is
+	 *            positioned at
+	 */
+	public StartTagScanner(Reader reader, long position) {
+		this.reader = reader;
+		this.position = position;
+	}
+
+	/**
+	 * Proceed to the next start tag.
+	 * 
+	 * @return the character offset of the next start tag in the document or
+	 *         <code>-1</code> if the end of the document was reached
+	 * @throws IOException if reading the document fails
+	 */
+	public long nextStartTag() throws IOException {
+		int c;
+		while ((c = read()) >= 0) {
+			if (c != '<') {
+				// character data
+				continue;
+			}
+
+			long start = position - 1;
+			c = read();
+			switch (c) {
+			case -1:
+				return -1;
+			case '/':
+				// end tag
+				skipTag();
+				break;
+			case '?':
+				// processing instruction or XML declaration
+				skipUntil("?>");
+				break;
+			case '!':
+				c = read();
+				if (c == '-') {
+					// comment, the second dash was not read yet
+					skipUntil("-->");
+				}
+				else if (c == '[') {
+					// CDATA section
+					skipUntil("]]>");
+				}
+				else if (c != '>') {
+					skipDeclaration();
+				}
+				break;
+			default:
+				skipTag();
+				return start;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Skip the remainder of a start or end tag, respecting quoted attribute
+	 * values.
+	 * 
+	 * @throws IOException if reading the document fails
+	 */
+	private void skipTag() throws IOException {
+		int quote = -1;
+		int c;
+		while ((c = read()) >= 0) {
+			if (quote >= 0) {
+				if (c == quote) {
+					quote = -1;
+				}
+			}
+			else if (c == '"' || c == '\'') {
+				quote = c;
+			}
+			else if (c == '>') {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Skip the remainder of a declaration, respecting quoted literals and an
+	 * internal subset enclosed in brackets.
+	 * 
+	 * @throws IOException if reading the document fails
+	 */
+	private void skipDeclaration() throws IOException {
+		int quote = -1;
+		int depth = 0;
+		int c;
+		while ((c = read()) >= 0) {
+			if (quote >= 0) {
+				if (c == quote) {
+					quote = -1;
+				}
+			}
+			else if (c == '"' || c == '\'') {
+				quote = c;
+			}
+			else if (c == '[') {
+				depth++;
+			}
+			else if (c == ']') {
+				depth--;
+			}
+			else if (c == '>' && depth <= 0) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Skip characters until after the given terminator.
+	 * 
+	 * @param terminator the terminator
+	 * @throws IOException if reading the document fails
+	 */
+	private void skipUntil(String terminator) throws IOException {
+		int length = terminator.length();
+		char last = terminator.charAt(length - 1);
+		char[] recent = new char[length];
+		int count = 0;
+		int c;
+		while ((c = read()) >= 0) {
+			recent[count % length] = (char) c;
+			count++;
+			if (c == last && count >= length) {
+				boolean match = true;
+				for (int i = 0; i < length && match; i++) {
+					match = recent[(count - length + i) % length] == terminator.charAt(i);
+				}
+				if (match) {
+					return;
+				}
+			}
+		}
+	}
+
+	private int read() throws IOException {
+		if (bufferPos >= bufferSize) {
+			bufferSize = reader.read(buffer);
+			bufferPos = 0;
+			if (bufferSize <= 0) {
+				bufferSize = 0;
+				return -1;
+			}
+		}
+		position++;
+		return buffer[bufferPos++];
+	}
+
+}
@@ -23,8 +23,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.text.MessageFormat;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
@@ -45,7 +45,7 @@ import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
-import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ConcurrentHashMultiset;
 import com.google.common.collect.Multiset;
 
 import eu.esdihumboldt.hale.common.core.io.IOProviderConfigurationException;
@@ -108,8 +108,9 @@ public class InspireInstanceWriter extends GmlInstanceWriter {
 	 */
 	public static final String PARAM_SPATIAL_DATA_SET_CREATE_FEED = "inspire.sds.create_feed";
 
-	private final Set<TypeDefinition> types = new HashSet<>();
-	private final Multiset<CRSDefinition> crss = HashMultiset.create();
+	// concurrent, as parts may be written in parallel
+	private final Set<TypeDefinition> types = ConcurrentHashMap.newKeySet();
+	private final Multiset<CRSDefinition> crss = ConcurrentHashMultiset.create();
 
 	/**
 	 * Default constructor.
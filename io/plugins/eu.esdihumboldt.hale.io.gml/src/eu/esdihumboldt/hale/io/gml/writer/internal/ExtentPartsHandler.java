@@ -19,6 +19,7 @@ import java.io.File;
 import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -69,8 +70,11 @@ public class ExtentPartsHandler implements MultipartHandler {
 
 	}
 
-	private final Map<String, URI> keyToTargetMapping;
-	private final Map<String, String> idToKeyMapping;
+	/**
+	 * Mapping of GML IDs to the target files, shared by the writers of all
+	 * parts
+	 */
+	private final Map<String, URI> idToTargetMapping;
 
 	/**
 	 * Create the handler
@@ -81,8 +85,9 @@ public class ExtentPartsHandler implements MultipartHandler {
 	 */
 	public ExtentPartsHandler(Map<String, URI> keyToTargetMapping,
 			Map<String, String> idToKeyMapping) {
-		this.keyToTargetMapping = keyToTargetMapping;
-		this.idToKeyMapping = idToKeyMapping;
+		this.idToTargetMapping = Collections.unmodifiableMap(idToKeyMapping.entrySet().stream()
+				.collect(Collectors.toMap(Map.Entry::getKey,
+						e -> keyToTargetMapping.get(e.getValue()))));
 	}
 
 	@Override
@@ -117,8 +122,6 @@ public class ExtentPartsHandler implements MultipartHandler {
 
 	@Override
 	public PrefixAwareStreamWriter getDecoratedWriter(PrefixAwareStreamWriter writer, URI target) {
-		Map<String, URI> idToTargetMapping = idToKeyMapping.entrySet().stream().collect(
-				Collectors.toMap(Map.Entry::getKey, e -> keyToTargetMapping.get(e.getValue())));
 		LocalReferenceUpdater updater = new LocalReferenceUpdater(idToTargetMapping, target);
 
 		return new ReferenceUpdatingStreamWriter(writer, updater);
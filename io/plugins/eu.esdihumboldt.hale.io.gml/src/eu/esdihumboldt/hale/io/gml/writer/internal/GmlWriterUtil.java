@@ -260,18 +260,50 @@ public abstract class GmlWriterUtil implements GMLConstants {
 	 */
 	public static void writeID(XMLStreamWriter writer, DefinitionGroup type, Group parent,
 			boolean onlyIfNotSet, @Nullable String desiredId) throws XMLStreamException {
-		// find ID attribute
-		PropertyDefinition idProp = null;
+		writeIDAttribute(writer, findIDAttribute(type, desiredId == null), parent,
+				onlyIfNotSet, desiredId);
+	}
+
+	/**
+	 * Find the ID attribute of a type.
+	 * 
+	 * @param type the type definition
+	 * @param onlyRequired if only a required ID attribute should be returned
+	 * @return the ID attribute property or <code>null</code> if there is none
+	 */
+	@Nullable
+	public static PropertyDefinition findIDAttribute(DefinitionGroup type,
+			boolean onlyRequired) {
 		for (PropertyDefinition prop : collectProperties(DefinitionUtil.getAllChildren(type))) {
 			if (prop.getConstraint(XmlAttributeFlag.class).isEnabled()
-					&& (desiredId != null
+					&& (!onlyRequired
 							|| prop.getConstraint(Cardinality.class).getMinOccurs() > 0)
 					&& isID(prop.getPropertyType())) {
-				idProp = prop;
-				break; // we assume there is only one ID attribute
+				return prop; // we assume there is only one ID attribute
 			}
 		}
+		return null;
+	}
 
+	/**
+	 * Write the given ID attribute, generating a random ID if needed. If a
+	 * desired ID is given, it is used if the parent object has no ID value.
+	 * 
+	 * @param writer the XML stream writer
+	 * @param idProp the ID attribute property, may be <code>null</code> if
+	 *            there is no ID attribute
+	 * @param parent the parent object, may be <code>null</code>. If it is set
+	 *            the value for the ID will be tried to be retrieved from the
+	 *            parent object, otherwise a random ID will be generated
+	 * @param onlyIfNotSet if the ID shall only be written if no value is set in
+	 *            the parent object
+	 * @param desiredId a desired identifier or <code>null</code>
+	 * @throws XMLStreamException if an error occurs writing the ID
+	 * @see #findIDAttribute(DefinitionGroup, boolean)
+	 */
+	public static void writeIDAttribute(XMLStreamWriter writer, @Nullable PropertyDefinition idProp,
+			Group parent, boolean onlyIfNotSet, @Nullable String desiredId)
+			throws XMLStreamException {
 		if (idProp == null) {
 			// no ID attribute found
 			return;
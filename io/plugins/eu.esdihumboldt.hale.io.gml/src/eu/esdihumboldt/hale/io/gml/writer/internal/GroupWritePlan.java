@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.gml.writer.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import eu.esdihumboldt.hale.common.schema.model.ChildDefinition;
+import eu.esdihumboldt.hale.common.schema.model.DefinitionGroup;
+import eu.esdihumboldt.hale.common.schema.model.DefinitionUtil;
+import eu.esdihumboldt.hale.common.schema.model.GroupPropertyDefinition;
+import eu.esdihumboldt.hale.common.schema.model.PropertyDefinition;
+import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
+import eu.esdihumboldt.hale.common.schema.model.constraint.property.ChoiceFlag;
+
+/**
+ * Describes how the properties of a type or group are written to XML. The
+ * children are split into those that have to be handled when writing the
+ * attributes and those that have to be handled when writing the elements, in
+ * the order of the definition. Child groups are planned together with their
+ * parent.<br>
+ * <br>
+ * Plans are immutable and may be shared between threads.
+ */
+public class GroupWritePlan {
+
+	/**
+	 * A child of a type or group, either a property or a group.
+	 */
+	public static class Child {
+
+		private final ChildDefinition<?> definition;
+
+		private final PropertyWritePlan property;
+
+		private final GroupWritePlan group;
+
+		private Child(ChildDefinition<?> definition, PropertyWritePlan property,
+				GroupWritePlan group) {
+			super();
+			this.definition = definition;
+			this.property = property;
+			this.group = group;
+		}
+
+		/**
+		 * @return the child definition
+		 */
+		public ChildDefinition<?> getDefinition() {
+			return definition;
+		}
+
+		/**
+		 * @return the write plan if the child is a property, otherwise
+		 *         <code>null</code>
+		 */
+		@Nullable
+		public PropertyWritePlan getProperty() {
+			return property;
+		}
+
+		/**
+		 * @return the write plan if the child is a group, otherwise
+		 *         <code>null</code>
+		 */
+		@Nullable
+		public GroupWritePlan getGroup() {
+			return group;
+		}
+
+	}
+
+	private final DefinitionGroup definition;
+
+	private final boolean choice;
+
+	private final boolean inspireType;
+
+	private final PropertyDefinition requiredId;
+
+	private final List<Child> attributeChildren = new ArrayList<>();
+
+	private final List<Child> elementChildren = new ArrayList<>();
+
+	/**
+	 * Create a write plan for the given type or group.
+	 * 
+	 * @param definition the type or group definition
+	 * @param gmlNs the GML namespace
+	 */
+	public GroupWritePlan(DefinitionGroup definition, String gmlNs) {
+		super();
+		this.definition = definition;
+
+		choice = definition instanceof GroupPropertyDefinition
+				&& ((GroupPropertyDefinition) definition).getConstraint(ChoiceFlag.class)
+						.isEnabled();
+		inspireType = definition instanceof TypeDefinition
+				&& GmlWriterUtil.isInspireType((TypeDefinition) definition);
+		requiredId = GmlWriterUtil.findIDAttribute(definition, true);
+
+		for (ChildDefinition<?> child : DefinitionUtil.getAllChildren(definition)) {
+			if (child.asProperty() != null) {
+				PropertyWritePlan property = new PropertyWritePlan(child.asProperty(), gmlNs);
+				if (property.isAttribute()) {
+					attributeChildren.add(new Child(child, property, null));
+				}
+				else {
+					elementChildren.add(new Child(child, property, null));
+				}
+			}
+			else if (child.asGroup() != null) {
+				Child group = new Child(child, null,
+						new GroupWritePlan(child.asGroup(), gmlNs));
+				// groups may contain both attributes and elements
+				attributeChildren.add(group);
+				elementChildren.add(group);
+			}
+		}
+	}
+
+	/**
+	 * @return the type or group definition
+	 */
+	public DefinitionGroup getDefinition() {
+		return definition;
+	}
+
+	/**
+	 * @return if the definition is a choice
+	 */
+	public boolean isChoice() {
+		return choice;
+	}
+
+	/**
+	 * @return if the definition is an INSPIRE type
+	 */
+	public boolean isInspireType() {
+		return inspireType;
+	}
+
+	/**
+	 * @return the required ID attribute or <code>null</code> if there is none
+	 */
+	@Nullable
+	public PropertyDefinition getRequiredId() {
+		return requiredId;
+	}
+
+	/**
+	 * Get the children to handle when writing attributes or elements.
+	 * 
+	 * @param attributes <code>true</code> for the attribute properties,
+	 *            <code>false</code> for the element properties, child groups
+	 *            are included in both
+	 * @return the children in the order of the definition
+	 */
+	public List<Child> getChildren(boolean attributes) {
+		return (attributes) ? (attributeChildren) : (elementChildren);
+	}
+
+}
@@ -19,6 +19,7 @@ import java.io.File;
 import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -36,8 +37,11 @@ import eu.esdihumboldt.util.Pair;
  */
 public class PerTypePartsHandler implements MultipartHandler {
 
-	private final Map<TypeDefinition, URI> typeToTargetMapping;
-	private final Map<String, TypeDefinition> idToTypeMapping;
+	/**
+	 * Mapping of GML IDs to the target files, shared by the writers of all
+	 * parts
+	 */
+	private final Map<String, URI> idToTargetMapping;
 
 	/**
 	 * Create the handler
@@ -48,8 +52,9 @@ public class PerTypePartsHandler implements MultipartHandler {
 	 */
 	public PerTypePartsHandler(Map<TypeDefinition, URI> typeToTargetMapping,
 			Map<String, TypeDefinition> idToTypeMapping) {
-		this.typeToTargetMapping = typeToTargetMapping;
-		this.idToTypeMapping = idToTypeMapping;
+		this.idToTargetMapping = Collections.unmodifiableMap(idToTypeMapping.entrySet().stream()
+				.collect(Collectors.toMap(Map.Entry::getKey,
+						e -> typeToTargetMapping.get(e.getValue()))));
 	}
 
 	@Override
@@ -83,8 +88,6 @@ public class PerTypePartsHandler implements MultipartHandler {
 
 	@Override
 	public PrefixAwareStreamWriter getDecoratedWriter(PrefixAwareStreamWriter writer, URI target) {
-		Map<String, URI> idToTargetMapping = idToTypeMapping.entrySet().stream().collect(
-				Collectors.toMap(Map.Entry::getKey, e -> typeToTargetMapping.get(e.getValue())));
 		LocalReferenceUpdater updater = new LocalReferenceUpdater(idToTargetMapping, target);
 
 		return new ReferenceUpdatingStreamWriter(writer, updater);
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.gml.writer.internal;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+import javax.xml.namespace.QName;
+
+import eu.esdihumboldt.hale.common.schema.model.PropertyDefinition;
+import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
+import eu.esdihumboldt.hale.common.schema.model.constraint.property.Cardinality;
+import eu.esdihumboldt.hale.common.schema.model.constraint.property.NillableFlag;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.Binding;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.ElementType;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.HasValueFlag;
+import eu.esdihumboldt.hale.io.xsd.constraint.XmlAttributeFlag;
+
+/**
+ * Describes how values of a property are written to XML. Holds the
+ * information determined from the property definition and its constraints,
+ * so it does not have to be determined again for every value.
+ */
+public class PropertyWritePlan {
+
+	private final PropertyDefinition property;
+
+	private final boolean attribute;
+
+	private final long minOccurs;
+
+	private final boolean nillable;
+
+	private final boolean nilReason;
+
+	private final boolean hasValue;
+
+	private final boolean gmlIdentifier;
+
+	private final boolean list;
+
+	private final TypeDefinition listElementType;
+
+	/**
+	 * Create a write plan for the given property.
+	 * 
+	 * @param property the property definition
+	 * @param gmlNs the GML namespace
+	 */
+	public PropertyWritePlan(PropertyDefinition property, String gmlNs) {
+		super();
+		this.property = property;
+
+		QName name = property.getName();
+		attribute = property.getConstraint(XmlAttributeFlag.class).isEnabled();
+		minOccurs = property.getConstraint(Cardinality.class).getMinOccurs();
+		nillable = property.getConstraint(NillableFlag.class).isEnabled();
+		nilReason = "nilReason".equals(name.getLocalPart());
+		gmlIdentifier = GmlWriterUtil.isGmlIdentifier(name, gmlNs);
+
+		TypeDefinition propertyType = property.getPropertyType();
+		hasValue = propertyType.getConstraint(HasValueFlag.class).isEnabled();
+
+		// TODO more robust detection of lists?
+		ElementType elementType = propertyType.getConstraint(ElementType.class);
+		list = List.class.isAssignableFrom(propertyType.getConstraint(Binding.class).getBinding())
+				&& elementType.getBinding() != null;
+		listElementType = (list) ? (elementType.getDefinition()) : (null);
+	}
+
+	/**
+	 * @return the property definition
+	 */
+	public PropertyDefinition getProperty() {
+		return property;
+	}
+
+	/**
+	 * @return the property name
+	 */
+	public QName getName() {
+		return property.getName();
+	}
+
+	/**
+	 * @return the property type
+	 */
+	public TypeDefinition getPropertyType() {
+		return property.getPropertyType();
+	}
+
+	/**
+	 * @return if the property is represented by an XML attribute
+	 */
+	public boolean isAttribute() {
+		return attribute;
+	}
+
+	/**
+	 * @return the minimum number of occurrences of the property
+	 */
+	public long getMinOccurs() {
+		return minOccurs;
+	}
+
+	/**
+	 * @return if the property is nillable
+	 */
+	public boolean isNillable() {
+		return nillable;
+	}
+
+	/**
+	 * @return if the property is a nilReason attribute or element
+	 */
+	public boolean isNilReason() {
+		return nilReason;
+	}
+
+	/**
+	 * @return if the property type has a value
+	 */
+	public boolean hasValue() {
+		return hasValue;
+	}
+
+	/**
+	 * @return if the property is a GML identifier element
+	 */
+	public boolean isGmlIdentifier() {
+		return gmlIdentifier;
+	}
+
+	/**
+	 * @return if the property values are lists, that are written as space
+	 *         delimited list of their elements
+	 */
+	public boolean isList() {
+		return list;
+	}
+
+	/**
+	 * @return the type of the list elements if the property value is written
+	 *         as a list, otherwise <code>null</code>
+	 */
+	@Nullable
+	public TypeDefinition getListElementType() {
+		return listElementType;
+	}
+
+}
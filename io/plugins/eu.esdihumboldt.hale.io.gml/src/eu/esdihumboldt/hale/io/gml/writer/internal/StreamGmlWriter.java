@@ -38,6 +38,12 @@ import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
@@ -47,16 +53,13 @@ import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
-import org.geotools.geometry.jts.JTS;
 import org.geotools.gml3.GML;
-import org.geotools.referencing.CRS;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.Point;
 import org.opengis.geometry.MismatchedDimensionException;
 import org.opengis.referencing.FactoryException;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
-import org.opengis.referencing.operation.MathTransform;
 import org.opengis.referencing.operation.TransformException;
 
 import de.fhg.igd.slf4jplus.ALogger;
@@ -66,14 +69,17 @@ import eu.esdihumboldt.hale.common.core.io.IOProviderConfigurationException;
 import eu.esdihumboldt.hale.common.core.io.ProgressIndicator;
 import eu.esdihumboldt.hale.common.core.io.Value;
 import eu.esdihumboldt.hale.common.core.io.impl.AbstractIOProvider;
+import eu.esdihumboldt.hale.common.core.io.impl.ProgressIndicatorDecorator;
 import eu.esdihumboldt.hale.common.core.io.impl.SubtaskProgressIndicator;
 import eu.esdihumboldt.hale.common.core.io.report.IOReport;
 import eu.esdihumboldt.hale.common.core.io.report.IOReporter;
+import eu.esdihumboldt.hale.common.core.io.report.impl.DefaultIOReporter;
 import eu.esdihumboldt.hale.common.core.io.report.impl.IOMessageImpl;
 import eu.esdihumboldt.hale.common.core.io.supplier.DefaultInputSupplier;
 import eu.esdihumboldt.hale.common.core.io.supplier.FileIOSupplier;
 import eu.esdihumboldt.hale.common.core.io.supplier.Locatable;
 import eu.esdihumboldt.hale.common.core.io.supplier.LocatableOutputSupplier;
+import eu.esdihumboldt.hale.common.core.io.supplier.LocatableURI;
 import eu.esdihumboldt.hale.common.core.io.supplier.MultiLocationOutputSupplier;
 import eu.esdihumboldt.hale.common.core.report.SimpleLog;
 import eu.esdihumboldt.hale.common.instance.geometry.GeometryFinder;
@@ -97,23 +103,18 @@ import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstanceCollection
 import eu.esdihumboldt.hale.common.instance.tools.InstanceCollectionPartitioner;
 import eu.esdihumboldt.hale.common.instance.tools.impl.NoPartitioner;
 import eu.esdihumboldt.hale.common.instance.tools.impl.SimplePartitioner;
+import eu.esdihumboldt.hale.common.referencing.transform.ReprojectionService;
 import eu.esdihumboldt.hale.common.schema.geometry.CRSDefinition;
 import eu.esdihumboldt.hale.common.schema.geometry.GeometryProperty;
 import eu.esdihumboldt.hale.common.schema.model.ChildDefinition;
 import eu.esdihumboldt.hale.common.schema.model.DefinitionGroup;
 import eu.esdihumboldt.hale.common.schema.model.DefinitionUtil;
-import eu.esdihumboldt.hale.common.schema.model.GroupPropertyDefinition;
 import eu.esdihumboldt.hale.common.schema.model.PropertyDefinition;
 import eu.esdihumboldt.hale.common.schema.model.Schema;
 import eu.esdihumboldt.hale.common.schema.model.SchemaSpace;
 import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
 import eu.esdihumboldt.hale.common.schema.model.constraint.property.Cardinality;
-import eu.esdihumboldt.hale.common.schema.model.constraint.property.ChoiceFlag;
-import eu.esdihumboldt.hale.common.schema.model.constraint.property.NillableFlag;
 import eu.esdihumboldt.hale.common.schema.model.constraint.type.AbstractFlag;
-import eu.esdihumboldt.hale.common.schema.model.constraint.type.Binding;
-import eu.esdihumboldt.hale.common.schema.model.constraint.type.ElementType;
-import eu.esdihumboldt.hale.common.schema.model.constraint.type.HasValueFlag;
 import eu.esdihumboldt.hale.io.gml.geometry.GMLConstants;
 import eu.esdihumboldt.hale.io.gml.internal.simpletype.SimpleTypeUtil;
 import eu.esdihumboldt.hale.io.gml.writer.XmlWrapper;
@@ -260,15 +261,33 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 	 */
 	public static final int NO_PARTITIONING = 0;
 
+	/**
+	 * Name of the parameter specifying how many parts of a partitioned output
+	 * are written in parallel. Defaults to 1, a value of 0 means one writer
+	 * per available processor.
+	 */
+	public static final String PARAM_PARTITION_THREADS = "partition.threads";
+
 	/**
 	 * Name of the codeSpace attribute in GML identifiers.
 	 */
 	private static final QName NAME_IDENTIFIER_CODESPACE = new QName("codeSpace");
 
 	/**
-	 * The XML stream writer
+	 * The XML stream writer, per thread as parts may be written in parallel
+	 */
+	private final ThreadLocal<PrefixAwareStreamWriter> writer = new ThreadLocal<>();
+
+	/**
+	 * The settings used while writing, per thread as the formatters are not
+	 * thread safe
+	 */
+	private final ThreadLocal<WriteSettings> settings = new ThreadLocal<>();
+
+	/**
+	 * Write plans for the types written, shared between threads
 	 */
-	private PrefixAwareStreamWriter writer;
+	private final Map<TypeDefinition, GroupWritePlan> writePlans = new ConcurrentHashMap<>();
 
 	/**
 	 * The GML namespace
@@ -288,8 +307,8 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 	/**
 	 * Additional schemas included in the document
 	 */
-	private final Map<String, Locatable> additionalSchemas = new HashMap<>();
-	private final Map<String, String> additionalSchemaPrefixes = new HashMap<>();
+	private final Map<String, Locatable> additionalSchemas = new ConcurrentHashMap<>();
+	private final Map<String, String> additionalSchemaPrefixes = new ConcurrentHashMap<>();
 
 	/**
 	 * States if a feature collection shall be used
@@ -431,9 +450,8 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 								.getCRS();
 						CodeDefinition wgs84 = new CodeDefinition("EPSG:4326");
 						try {
-							MathTransform toWgs84 = CRS.findMathTransform(sourceCrs,
-									wgs84.getCRS());
-							Geometry geomWgs84 = JTS.transform(geom, toWgs84);
+							Geometry geomWgs84 = ReprojectionService.getInstance()
+									.transform(geom, sourceCrs, wgs84.getCRS());
 							centroid = geomWgs84.getCentroid();
 						} catch (FactoryException | MismatchedDimensionException
 								| TransformException e) {
@@ -591,9 +609,16 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 		InstanceCollectionPartitioner partitioner = getPartitioner(this, reporter);
 		int threshold = getParameter(PARAM_INSTANCES_THRESHOLD).as(Integer.class, NO_PARTITIONING);
 
+		int threads = getPartitionThreads();
+		if (threads > 1 && partitioner.requiresImmediateConsumption()) {
+			// parts must be written one after another
+			log.info("Partition mode does not support writing parts in parallel");
+			threads = 1;
+		}
+
 		try (ResourceIterator<InstanceCollection> parts = partition(partitioner, getInstances(),
 				threshold, progress, reporter)) {
-			writeParts(parts, new DefaultMultipartHandler(), progress, reporter);
+			writeParts(parts, new DefaultMultipartHandler(), threads, progress, reporter);
 		} catch (XMLStreamException e) {
 			throw new IOException(e.getMessage(), e);
 		}
@@ -629,7 +654,8 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 	 * configured target as a base file name.<br>
 	 * <br>
 	 * Parts can only be written if the configured target is a URI to a local
-	 * file.
+	 * file. Depending on the {@link #PARAM_PARTITION_THREADS} parameter,
+	 * multiple parts are written in parallel.
 	 * 
 	 * @param instanceCollections the parts to write
 	 * @param handler Handler that provides the parts' file names and an XML
@@ -643,6 +669,25 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 	protected void writeParts(Iterator<InstanceCollection> instanceCollections,
 			MultipartHandler handler, ProgressIndicator progress, IOReporter reporter)
 			throws IOException, XMLStreamException {
+		writeParts(instanceCollections, handler, getPartitionThreads(), progress, reporter);
+	}
+
+	/**
+	 * Write the given {@link InstanceCollection}s to multiple files using the
+	 * configured target as a base file name.
+	 * 
+	 * @param instanceCollections the parts to write
+	 * @param handler Handler that provides the parts' file names and an XML
+	 *            writer
+	 * @param threads the maximum number of parts to write at the same time
+	 * @param progress Progress indicator
+	 * @param reporter the reporter to use for the execution report
+	 * @throws IOException if an I/O operation fails
+	 * @throws XMLStreamException if an XML processing error occurs
+	 */
+	private void writeParts(Iterator<InstanceCollection> instanceCollections,
+			MultipartHandler handler, int threads, ProgressIndicator progress,
+			IOReporter reporter) throws IOException, XMLStreamException {
 		final URI location = getTarget().getLocation();
 
 		if (location == null) {
@@ -665,31 +710,19 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 		}
 
 		List<URI> filesWritten = new ArrayList<>();
-		while (instanceCollections.hasNext()) {
-			InstanceCollection instances = instanceCollections.next();
-			String targetFilename = handler.getTargetFilename(instances, location);
-
-			File targetFile = new File(targetFilename);
-			LocatableOutputSupplier<? extends OutputStream> out = new FileIOSupplier(targetFile);
-			if (getTarget() instanceof GZipOutputSupplier) {
-				out = new GZipOutputSupplier(out);
-			}
+		if (threads > 1) {
+			writePartsParallel(instanceCollections, handler, location, threads, filesWritten,
+					progress, reporter);
+		}
+		else {
+			while (instanceCollections.hasNext()) {
+				InstanceCollection instances = instanceCollections.next();
+				File targetFile = new File(handler.getTargetFilename(instances, location));
 
-			PrefixAwareStreamWriter writer = null;
-			OutputStream os = out.getOutput();
-			try {
-				// The MultipartHandler can provide a specially decorated
-				// writer, e.g. for reference rewriting
-				writer = handler.getDecoratedWriter(createWriter(os, reporter), targetFile.toURI());
-				write(instances, writer, progress, reporter);
-			} finally {
-				os.close();
-				if (writer != null) {
-					writer.close();
-				}
-			}
+				writePart(instances, handler, targetFile, progress, reporter);
 
-			filesWritten.add(targetFile.toURI());
+				filesWritten.add(targetFile.toURI());
+			}
 		}
 
 		if (filesWritten.size() > 1) {
@@ -711,6 +744,198 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 		}
 	}
 
+	/**
+	 * Write the given parts using a bounded pool of worker threads. Each part
+	 * is written to its own file with its own XML stream writer and reporter,
+	 * the messages of the part reporters are merged into the given reporter.
+	 * 
+	 * @param instanceCollections the parts to write
+	 * @param handler Handler that provides the parts' file names and an XML
+	 *            writer
+	 * @param location the configured target location
+	 * @param threads the maximum number of parts to write at the same time
+	 * @param filesWritten the list to add the locations of the written files
+	 *            to, in the order of the parts
+	 * @param progress Progress indicator
+	 * @param reporter the reporter to use for the execution report
+	 * @throws IOException if an I/O operation fails
+	 * @throws XMLStreamException if an XML processing error occurs
+	 */
+	private void writePartsParallel(Iterator<InstanceCollection> instanceCollections,
+			MultipartHandler handler, URI location, int threads, List<URI> filesWritten,
+			ProgressIndicator progress, IOReporter reporter)
+			throws IOException, XMLStreamException {
+		// make sure lazily initialized state is available to all workers
+		getXMLIndex();
+		getGeometryWriter();
+
+		progress.begin(getTaskName(),
+				(getInstances().hasSize()) ? (getInstances().size()) : (ProgressIndicator.UNKNOWN));
+		final ProgressIndicator partProgress = new PartProgressIndicator(progress);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CompletionService<IOReporter> completion = new ExecutorCompletionService<>(executor);
+		int pending = 0;
+		try {
+			while (instanceCollections.hasNext()) {
+				if (pending >= threads) {
+					// wait for a part to complete before loading the next one
+					reporter.importMessages(completion.take().get());
+					pending--;
+				}
+
+				final InstanceCollection instances = instanceCollections.next();
+				final File targetFile = new File(handler.getTargetFilename(instances, location));
+				filesWritten.add(targetFile.toURI());
+
+				completion.submit(() -> {
+					IOReporter partReporter = new DefaultIOReporter(
+							new LocatableURI(targetFile.toURI()), reporter.getTaskName(),
+							reporter.getTaskType(), true);
+					writePart(instances, handler, targetFile, partProgress, partReporter);
+					return partReporter;
+				});
+				pending++;
+			}
+
+			while (pending > 0) {
+				reporter.importMessages(completion.take().get());
+				pending--;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while writing GML parts", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof XMLStreamException) {
+				throw (XMLStreamException) cause;
+			}
+			throw new IOException("Writing a GML part failed: " + cause.getMessage(), cause);
+		} finally {
+			executor.shutdownNow();
+			progress.end();
+		}
+
+		reporter.setSuccess(reporter.getErrors().isEmpty());
+	}
+
+	/**
+	 * Write a single part to the given file.
+	 * 
+	 * @param instances the instances of the part
+	 * @param handler Handler that provides an XML writer
+	 * @param targetFile the file to write the part to
+	 * @param progress Progress indicator
+	 * @param reporter the reporter to use for the execution report
+	 * @throws IOException if an I/O operation fails
+	 * @throws XMLStreamException if an XML processing error occurs
+	 */
+	private void writePart(InstanceCollection instances, MultipartHandler handler,
+			File targetFile, ProgressIndicator progress, IOReporter reporter)
+			throws IOException, XMLStreamException {
+		LocatableOutputSupplier<? extends OutputStream> out = new FileIOSupplier(targetFile);
+		if (getTarget() instanceof GZipOutputSupplier) {
+			out = new GZipOutputSupplier(out);
+		}
+
+		PrefixAwareStreamWriter writer = null;
+		OutputStream os = out.getOutput();
+		try {
+			// The MultipartHandler can provide a specially decorated
+			// writer, e.g. for reference rewriting
+			writer = handler.getDecoratedWriter(createWriter(os, reporter), targetFile.toURI());
+			write(instances, writer, progress, reporter);
+		} finally {
+			os.close();
+			if (writer != null) {
+				writer.close();
+			}
+		}
+	}
+
+	/**
+	 * Determine the number of parts to write in parallel.
+	 * 
+	 * @return the number of worker threads for writing parts
+	 */
+	private int getPartitionThreads() {
+		int threads = getParameter(PARAM_PARTITION_THREADS).as(Integer.class, 1);
+		if (threads == 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		return threads;
+	}
+
+	/**
+	 * Progress indicator for parts written in parallel. Only forwards progress
+	 * and cancellation, as the task is managed by the caller.
+	 */
+	private static class PartProgressIndicator extends ProgressIndicatorDecorator {
+
+		/**
+		 * Create a progress indicator for parts.
+		 * 
+		 * @param decoratee the progress indicator of the whole task
+		 */
+		public PartProgressIndicator(ProgressIndicator decoratee) {
+			super(decoratee);
+		}
+
+		@Override
+		public void begin(String taskName, int totalWork) {
+			// ignore
+		}
+
+		@Override
+		public void setCurrentTask(String taskName) {
+			// ignore
+		}
+
+		@Override
+		public synchronized void advance(int workUnits) {
+			super.advance(workUnits);
+		}
+
+		@Override
+		public void end() {
+			// ignore
+		}
+
+	}
+
+	/**
+	 * Provider parameters used while writing the instance properties,
+	 * determined once per written document.
+	 */
+	private static class WriteSettings {
+
+		private final boolean omitNilReason;
+
+		private final boolean addCodespace;
+
+		private final DecimalFormat decimalFormatter;
+
+		private final DecimalFormat coordinateFormatter;
+
+		/**
+		 * Determine the settings from the writer configuration.
+		 * 
+		 * @param gmlWriter the GML writer
+		 */
+		public WriteSettings(StreamGmlWriter gmlWriter) {
+			super();
+			omitNilReason = gmlWriter.getParameter(PARAM_OMIT_NIL_REASON).as(Boolean.class,
+					true);
+			addCodespace = gmlWriter.getParameter(PARAM_ADD_CODESPACE).as(Boolean.class, true);
+			decimalFormatter = gmlWriter.getDecimalFormatter();
+			coordinateFormatter = gmlWriter.getCoordinateFormatter();
+		}
+
+	}
+
 	/**
 	 * Partition instances in parts that respectively contain all referenced
 	 * instances.
@@ -927,6 +1152,8 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 		// reset additional schemas
 		additionalSchemas.clear();
 		additionalSchemaPrefixes.clear();
+		// reset write plans
+		writePlans.clear();
 
 		// determine GML namespace from target schema
 		String gml = null;
@@ -1087,7 +1314,8 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 	protected void write(InstanceCollection instances, PrefixAwareStreamWriter writer,
 			ProgressIndicator progress, IOReporter reporter) {
 
-		this.writer = writer;
+		this.writer.set(writer);
+		this.settings.set(new WriteSettings(this));
 
 		try {
 			final SubtaskProgressIndicator sub = new SubtaskProgressIndicator(progress) {
@@ -1279,6 +1507,8 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 			reporter.setSuccess(false);
 		} finally {
 			progress.end();
+			this.writer.remove();
+			this.settings.remove();
 		}
 	}
 
@@ -1414,7 +1644,7 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 								});
 
 						// add namespace
-						GmlWriterUtil.addNamespace(writer, wfsSchema.getNamespace(), "wfs"); //$NON-NLS-1$
+						GmlWriterUtil.addNamespace(writer.get(), wfsSchema.getNamespace(), "wfs"); //$NON-NLS-1$
 					}
 				} catch (Exception e) {
 					log.warn("Using WFS schema for the FeatureCollection definition failed", e); //$NON-NLS-1$
@@ -1552,17 +1782,32 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 	 */
 	protected void writeMember(Instance instance, TypeDefinition type, IOReporter report)
 			throws XMLStreamException {
+		GroupWritePlan plan = getWritePlan(type);
 
-		boolean isInspireType = GmlWriterUtil.isInspireType(type);
+		writeProperties(instance, plan, true, false, report, plan.isInspireType(), false);
+	}
 
-		writeProperties(instance, type, true, false, report, isInspireType, false);
+	/**
+	 * Get the write plan for a type or group. Plans for types are created once
+	 * per export and shared by all instances of the type.
+	 * 
+	 * @param definition the type or group definition
+	 * @return the write plan
+	 */
+	private GroupWritePlan getWritePlan(DefinitionGroup definition) {
+		if (definition instanceof TypeDefinition) {
+			return writePlans.computeIfAbsent((TypeDefinition) definition,
+					type -> new GroupWritePlan(type, gmlNs));
+		}
+
+		return new GroupWritePlan(definition, gmlNs);
 	}
 
 	/**
 	 * Write the given feature's properties
 	 * 
 	 * @param group the feature
-	 * @param definition the feature type
+	 * @param plan the write plan of the feature type
 	 * @param allowElements if element properties may be written
 	 * @param parentIsNil if the parent property is nil
 	 * @param report the reporter
@@ -1572,24 +1817,24 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 	 *            identifier element
 	 * @throws XMLStreamException if writing the properties fails
 	 */
-	private void writeProperties(Group group, DefinitionGroup definition, boolean allowElements,
+	private void writeProperties(Group group, GroupWritePlan plan, boolean allowElements,
 			boolean parentIsNil, IOReporter report, boolean withinInspireType,
 			boolean parentIsGmlIdentifier) throws XMLStreamException {
 		// eventually generate mandatory ID that is not set
-		GmlWriterUtil.writeRequiredID(writer, definition, group, true);
+		GmlWriterUtil.writeIDAttribute(writer.get(), plan.getRequiredId(), group, true, null);
 
 		// writing the feature is controlled by the type definition
 		// so retrieving values from instance must happen based on actual
 		// structure! (e.g. including groups)
 
 		// write the attributes, as they must be handled first
-		writeProperties(group, DefinitionUtil.getAllChildren(definition), true, parentIsNil, report,
-				withinInspireType, parentIsGmlIdentifier);
+		writeChildren(group, plan, true, parentIsNil, report, withinInspireType,
+				parentIsGmlIdentifier);
 
 		if (allowElements) {
 			// write the elements
-			writeProperties(group, DefinitionUtil.getAllChildren(definition), false, parentIsNil,
-					report, withinInspireType, parentIsGmlIdentifier);
+			writeChildren(group, plan, false, parentIsNil, report, withinInspireType,
+					parentIsGmlIdentifier);
 		}
 	}
 
@@ -1597,7 +1842,7 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 	 * Write attribute or element properties.
 	 * 
 	 * @param parent the parent group
-	 * @param children the child definitions
+	 * @param plan the write plan of the parent group
 	 * @param attributes <code>true</code> if attribute properties shall be
 	 *            written, <code>false</code> if element properties shall be
 	 *            written
@@ -1609,44 +1854,38 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 	 *            identifier element
 	 * @throws XMLStreamException if writing the attributes/elements fails
 	 */
-	private void writeProperties(Group parent, Collection<? extends ChildDefinition<?>> children,
-			boolean attributes, boolean parentIsNil, IOReporter report, boolean withinInspireType,
+	private void writeChildren(Group parent, GroupWritePlan plan, boolean attributes,
+			boolean parentIsNil, IOReporter report, boolean withinInspireType,
 			boolean parentIsGmlIdentifier) throws XMLStreamException {
 		if (parent == null) {
 			return;
 		}
 
-		boolean parentIsChoice = parent.getDefinition() instanceof GroupPropertyDefinition
-				&& ((GroupPropertyDefinition) parent.getDefinition())
-						.getConstraint(ChoiceFlag.class).isEnabled();
-
-		for (ChildDefinition<?> child : children) {
-			Object[] values = parent.getProperty(child.getName());
+		WriteSettings settings = this.settings.get();
+		boolean parentIsChoice = plan.isChoice();
 
-			if (child.asProperty() != null) {
-				PropertyDefinition propDef = child.asProperty();
+		for (GroupWritePlan.Child child : plan.getChildren(attributes)) {
+			Object[] values = parent.getProperty(child.getDefinition().getName());
 
-				boolean isAttribute = propDef.getConstraint(XmlAttributeFlag.class).isEnabled();
+			PropertyWritePlan property = child.getProperty();
+			if (property != null) {
+				PropertyDefinition propDef = property.getProperty();
 
-				if (attributes && isAttribute) {
+				if (attributes) {
 					if (values != null && values.length > 0) {
 						boolean allowWrite = true;
 
 						// special case handling: omit nilReason
-						if (getParameter(PARAM_OMIT_NIL_REASON).as(Boolean.class, true)) {
-							Cardinality propCard = propDef.getConstraint(Cardinality.class);
-							if ("nilReason".equals(propDef.getName().getLocalPart())
-									&& propCard.getMinOccurs() < 1) {
-								allowWrite = parentIsNil;
-							}
+						if (settings.omitNilReason && property.isNilReason()
+								&& property.getMinOccurs() < 1) {
+							allowWrite = parentIsNil;
 						}
 
 						// write attribute
 						if (allowWrite) {
 							// special case handling: replace incorrect
 							// nilReason "unpopulated"
-							if ("nilReason".equals(propDef.getName().getLocalPart())
-									&& "unpopulated".equals(values[0])) {
+							if (property.isNilReason() && "unpopulated".equals(values[0])) {
 								// TODO more strict check to ensure that this is
 								// a GML nilReason? (check property type and
 								// parent types)
@@ -1668,8 +1907,8 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 						// special case handling: automatically add codespace to
 						// gml:identifier within INSPIRE feature type
 						if (withinInspireType && parentIsGmlIdentifier
-								&& child.getName().equals(NAME_IDENTIFIER_CODESPACE)
-								&& getParameter(PARAM_ADD_CODESPACE).as(Boolean.class, true)) {
+								&& propDef.getName().equals(NAME_IDENTIFIER_CODESPACE)
+								&& settings.addCodespace) {
 
 							// write attribute
 							writeAttribute(INSPIRE_IDENTIFIER_CODESPACE, propDef);
@@ -1677,50 +1916,46 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 					}
 
 				}
-				else if (!attributes && !isAttribute) {
+				else {
 					int numValues = 0;
 					if (values != null) {
 						// write element
 						for (Object value : values) {
-							writeElement(value, propDef, report, withinInspireType);
+							writeElement(value, property, report, withinInspireType);
 						}
 						numValues = values.length;
 					}
 
 					// write additional elements to satisfy minOccurrs
 					// only if parent is not a choice
-					if (!parentIsChoice) {
-						Cardinality cardinality = propDef.getConstraint(Cardinality.class);
-						if (cardinality.getMinOccurs() > numValues) {
-							if (propDef.getConstraint(NillableFlag.class).isEnabled()) {
-								// nillable element
-								for (int i = numValues; i < cardinality.getMinOccurs(); i++) {
-									// write nil element
-									writeElement(null, propDef, report, withinInspireType);
-								}
+					if (!parentIsChoice && property.getMinOccurs() > numValues) {
+						if (property.isNillable()) {
+							// nillable element
+							for (int i = numValues; i < property.getMinOccurs(); i++) {
+								// write nil element
+								writeElement(null, property, report, withinInspireType);
 							}
-							else {
-								// no value for non-nillable element
-
-								for (int i = numValues; i < cardinality.getMinOccurs(); i++) {
-									// write empty element
-									GmlWriterUtil.writeEmptyElement(writer, propDef.getName());
-								}
+						}
+						else {
+							// no value for non-nillable element
 
-								// TODO add warning to report
+							for (int i = numValues; i < property.getMinOccurs(); i++) {
+								// write empty element
+								GmlWriterUtil.writeEmptyElement(writer.get(), propDef.getName());
 							}
+
+							// TODO add warning to report
 						}
 					}
 
 				}
 			}
-			else if (child.asGroup() != null) {
+			else if (child.getGroup() != null) {
 				// handle to child groups
 				if (values != null) {
 					for (Object value : values) {
 						if (value instanceof Group) {
-							writeProperties((Group) value,
-									DefinitionUtil.getAllChildren(child.asGroup()), attributes,
+							writeChildren((Group) value, child.getGroup(), attributes,
 									parentIsNil, report, withinInspireType, false);
 						}
 						else {
@@ -1737,13 +1972,13 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 	 * Write a property element.
 	 * 
 	 * @param value the element value
-	 * @param propDef the property definition
+	 * @param property the write plan of the property
 	 * @param report the reporter
 	 * @param withinInspireType if the element is contained within an INSPIRE
 	 *            feature type
 	 * @throws XMLStreamException if writing the element fails
 	 */
-	private void writeElement(Object value, PropertyDefinition propDef, IOReporter report,
+	private void writeElement(Object value, PropertyWritePlan property, IOReporter report,
 			boolean withinInspireType) throws XMLStreamException {
 		Group group = null;
 		if (value instanceof Group) {
@@ -1759,50 +1994,49 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 
 			if (value == null) {
 				// null value
-				if (propDef.getConstraint(Cardinality.class).getMinOccurs() > 0) {
+				if (property.getMinOccurs() > 0) {
 					// write empty element
-					GmlWriterUtil.writeEmptyElement(writer, propDef.getName());
+					GmlWriterUtil.writeEmptyElement(writer.get(), property.getName());
 
 					// mark as nil
-					writeElementValue(null, propDef);
+					writeElementValue(null, property);
 				}
 				// otherwise just skip it
 			}
 			else {
-				GmlWriterUtil.writeStartElement(writer, propDef.getName());
+				GmlWriterUtil.writeStartElement(writer.get(), property.getName());
 
 				Pair<Geometry, CRSDefinition> pair = extractGeometry(value, true, report);
 				if (pair != null) {
 					String srsName = extractCode(pair.getSecond());
 					// write geometry
-					writeGeometry(pair.getFirst(), propDef, srsName, report);
+					writeGeometry(pair.getFirst(), property.getProperty(), srsName, report);
 				}
 				else {
 					// simple element with value
 					// write value as content
-					writeElementValue(value, propDef);
+					writeElementValue(value, property);
 				}
 
-				writer.writeEndElement();
+				writer.get().writeEndElement();
 			}
 		}
 		else {
 			// children and maybe a value
 
-			GmlWriterUtil.writeStartElement(writer, propDef.getName());
+			GmlWriterUtil.writeStartElement(writer.get(), property.getName());
 
-			boolean hasValue = propDef.getPropertyType().getConstraint(HasValueFlag.class)
-					.isEnabled();
+			boolean hasValue = property.hasValue();
 
 			// checking if this element is a gml:identifier
-			boolean isGmlIdentifier = GmlWriterUtil.isGmlIdentifier(propDef.getName(), gmlNs);
+			boolean isGmlIdentifier = property.isGmlIdentifier();
 
 			Pair<Geometry, CRSDefinition> pair = extractGeometry(value, true, report);
 			// handle about annotated geometries
 			if (!hasValue && pair != null) {
 				String srsName = extractCode(pair.getSecond());
 				// write geometry
-				writeGeometry(pair.getFirst(), propDef, srsName, report);
+				writeGeometry(pair.getFirst(), property.getProperty(), srsName, report);
 			}
 			else {
 				boolean hasOnlyNilReason = hasOnlyNilReason(group);
@@ -1812,12 +2046,12 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 				boolean isNil = !writeElements && (!hasValue || value == null);
 
 				// write all children
-				writeProperties(group, group.getDefinition(), writeElements, isNil, report,
-						withinInspireType, isGmlIdentifier);
+				writeProperties(group, getWritePlan(group.getDefinition()), writeElements, isNil,
+						report, withinInspireType, isGmlIdentifier);
 
 				// write value
 				if (hasValue) {
-					writeElementValue(value, propDef);
+					writeElementValue(value, property);
 				}
 				else if (hasOnlyNilReason) {
 					// complex element with a nil value -> write xsi:nil if
@@ -1828,11 +2062,11 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 					 * are other attributes than nilReason?
 					 */
 
-					writeElementValue(null, propDef);
+					writeElementValue(null, property);
 				}
 			}
 
-			writer.writeEndElement();
+			writer.get().writeEndElement();
 		}
 	}
 
@@ -1879,31 +2113,27 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 	 * Write an element value, either as element content or as <code>nil</code>.
 	 * 
 	 * @param value the element value
-	 * @param propDef the property definition the value is associated to
+	 * @param property the write plan of the property the value is associated
+	 *            to
 	 * @throws XMLStreamException if an error occurs writing the value
 	 */
-	private void writeElementValue(Object value, PropertyDefinition propDef)
+	private void writeElementValue(Object value, PropertyWritePlan property)
 			throws XMLStreamException {
 		if (value == null) {
 			// null value
-			if (!propDef.getConstraint(NillableFlag.class).isEnabled()) {
-				log.warn("Non-nillable element " + propDef.getName() + " is null"); //$NON-NLS-1$ //$NON-NLS-2$
+			if (!property.isNillable()) {
+				log.warn("Non-nillable element " + property.getName() + " is null"); //$NON-NLS-1$ //$NON-NLS-2$
 			}
 			else {
 				// nillable -> we may mark it as nil
-				writer.writeAttribute(SCHEMA_INSTANCE_NS, "nil", "true"); //$NON-NLS-1$ //$NON-NLS-2$
+				writer.get().writeAttribute(SCHEMA_INSTANCE_NS, "nil", "true"); //$NON-NLS-1$ //$NON-NLS-2$
 			}
 		}
 		else {
-			TypeDefinition propType = propDef.getPropertyType();
+			DecimalFormat decimalFormatter = settings.get().decimalFormatter;
 
-			if (value instanceof Iterable
-					&& List.class
-							.isAssignableFrom(propType.getConstraint(Binding.class).getBinding())
-					&& propType.getConstraint(ElementType.class).getBinding() != null) {
+			if (value instanceof Iterable && property.isList()) {
 				// element is a list
-				// TODO more robust detection?
-
 				boolean first = true;
 				for (Object element : ((Iterable<?>) value)) {
 					if (first) {
@@ -1911,26 +2141,26 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 					}
 					else {
 						// space delimits list elements
-						writer.writeCharacters(" ");
+						writer.get().writeCharacters(" ");
 					}
 
 					// write the element
-					writer.writeCharacters(SimpleTypeUtil.convertToXml(element,
-							propType.getConstraint(ElementType.class).getDefinition()));
+					writer.get().writeCharacters(
+							SimpleTypeUtil.convertToXml(element, property.getListElementType()));
 				}
 			}
-			else if (getDecimalFormatter() != null && (value instanceof Double
+			else if (decimalFormatter != null && (value instanceof Double
 					|| value instanceof Float || value instanceof BigDecimal)) {
 				// Apply formatting only to decimal values, not integers
 				String representation = DecimalFormatUtil.applyFormatter((Number) value,
-						getDecimalFormatter());
-				writer.writeCharacters(
-						SimpleTypeUtil.convertToXml(representation, propDef.getPropertyType()));
+						decimalFormatter);
+				writer.get().writeCharacters(
+						SimpleTypeUtil.convertToXml(representation, property.getPropertyType()));
 			}
 			else {
 				// write value as content
-				writer.writeCharacters(
-						SimpleTypeUtil.convertToXml(value, propDef.getPropertyType()));
+				writer.get().writeCharacters(
+						SimpleTypeUtil.convertToXml(value, property.getPropertyType()));
 			}
 		}
 	}
@@ -1948,8 +2178,8 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 			IOReporter report) throws XMLStreamException {
 
 		// write geometries
-		getGeometryWriter().write(writer, geometry, property, srsName, report,
-				getCoordinateFormatter());
+		getGeometryWriter().write(writer.get(), geometry, property, srsName, report,
+				settings.get().coordinateFormatter);
 	}
 
 	/**
@@ -1978,7 +2208,7 @@ public class StreamGmlWriter extends AbstractGeoInstanceWriter
 	 */
 	private void writeAttribute(Object value, PropertyDefinition propDef)
 			throws XMLStreamException {
-		GmlWriterUtil.writeAttribute(writer, value, propDef);
+		GmlWriterUtil.writeAttribute(writer.get(), value, propDef);
 	}
 
 	/**
@@ -25,6 +25,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 import javax.xml.namespace.QName;
@@ -117,7 +118,8 @@ public class StreamGeometryWriter extends AbstractTypeMatcher<Class<? extends Ge
 	 * Types mapped to geometry types mapped to matched definition paths
 	 */
 	// XXX stored paths instead per attribute definition?
-	private final Map<TypeDefinition, Map<Class<? extends Geometry>, List<DefinitionPath>>> storedPaths = new HashMap<TypeDefinition, Map<Class<? extends Geometry>, List<DefinitionPath>>>();
+	// concurrent, as parts of a partitioned export may be written in parallel
+	private final Map<TypeDefinition, Map<Class<? extends Geometry>, List<DefinitionPath>>> storedPaths = new ConcurrentHashMap<>();
 
 	private final boolean simplifyGeometry;
 
@@ -524,12 +526,7 @@ public class StreamGeometryWriter extends AbstractTypeMatcher<Class<? extends Ge
 	 */
 	private void storeCandidate(TypeDefinition type, Class<? extends Geometry> geomType,
 			List<DefinitionPath> path) {
-		Map<Class<? extends Geometry>, List<DefinitionPath>> paths = storedPaths.get(type);
-		if (paths == null) {
-			paths = new HashMap<>();
-			storedPaths.put(type, paths);
-		}
-		paths.put(geomType, path);
+		storedPaths.computeIfAbsent(type, t -> new ConcurrentHashMap<>()).put(geomType, path);
 	}
 
 	/**
@@ -24,7 +24,6 @@ import org.geotools.geometry.jts.JTS;
 import org.geotools.geometry.jts.WKTReader2;
 import org.geotools.referencing.CRS;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
-import org.opengis.referencing.operation.MathTransform;
 
 import com.google.common.io.BaseEncoding;
 import com.microsoft.sqlserver.jdbc.SQLServerConnection;
@@ -37,6 +36,7 @@ import eu.esdihumboldt.hale.common.core.report.SimpleLog;
 import eu.esdihumboldt.hale.common.instance.geometry.DefaultGeometryProperty;
 import eu.esdihumboldt.hale.common.instance.geometry.impl.CodeDefinition;
 import eu.esdihumboldt.hale.common.instance.geometry.impl.WKTDefinition;
+import eu.esdihumboldt.hale.common.referencing.transform.ReprojectionService;
 import eu.esdihumboldt.hale.common.schema.geometry.CRSDefinition;
 import eu.esdihumboldt.hale.common.schema.geometry.GeometryProperty;
 import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
@@ -100,9 +100,8 @@ public class MsSqlGeometries implements GeometryAdvisor<SQLServerConnection> {
 
 			Geometry targetGeometry;
 			if (targetCRS != null) {
-				MathTransform transform = CRS.findMathTransform(geom.getCRSDefinition().getCRS(),
-						targetCRS);
-				targetGeometry = JTS.transform(geom.getGeometry(), transform);
+				targetGeometry = ReprojectionService.getInstance().transform(geom.getGeometry(),
+						geom.getCRSDefinition().getCRS(), targetCRS);
 			}
 			else {
 				targetGeometry = geom.getGeometry();
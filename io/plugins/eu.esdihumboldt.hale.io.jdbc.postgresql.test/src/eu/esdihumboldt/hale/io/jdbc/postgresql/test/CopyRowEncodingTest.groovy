@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.jdbc.postgresql.test
+
+import static org.junit.Assert.*
+
+import javax.xml.namespace.QName
+
+import org.junit.Before
+import org.junit.Test
+
+import eu.esdihumboldt.hale.common.core.io.report.IOReporter
+import eu.esdihumboldt.hale.common.core.io.report.impl.DefaultIOReporter
+import eu.esdihumboldt.hale.common.core.io.supplier.Locatable
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstance
+import eu.esdihumboldt.hale.common.schema.model.PropertyDefinition
+import eu.esdihumboldt.hale.common.schema.model.TypeDefinition
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.Binding
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultPropertyDefinition
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultTypeDefinition
+import eu.esdihumboldt.hale.io.jdbc.constraints.DefaultValue
+import eu.esdihumboldt.hale.io.jdbc.postgresql.PostgreSQLCopyInstanceWriter
+import ru.yandex.qatools.allure.annotations.Features
+import ru.yandex.qatools.allure.annotations.Stories
+
+/**
+ * Tests the encoding of rows in the text format of COPY by
+ * {@link PostgreSQLCopyInstanceWriter}.
+ */
+@Features("Databases")
+@Stories("PostgreSQL")
+class CopyRowEncodingTest {
+
+	private static final String NAMESPACE = "jdbc:postgresql:gis:public"
+
+	private TypeDefinition type
+
+	private PropertyDefinition id
+
+	private PropertyDefinition name
+
+	private PropertyDefinition data
+
+	private IOReporter reporter
+
+	@Before
+	void setup() {
+		DefaultTypeDefinition serial = new DefaultTypeDefinition(new QName("jdbc:postgresql:gis",
+				"serial"))
+		serial.setConstraint(Binding.get(Integer))
+		DefaultTypeDefinition varchar = new DefaultTypeDefinition(new QName("jdbc:postgresql:gis",
+				"varchar"))
+		varchar.setConstraint(Binding.get(String))
+		DefaultTypeDefinition bytea = new DefaultTypeDefinition(new QName("jdbc:postgresql:gis",
+				"bytea"))
+		bytea.setConstraint(Binding.get(byte[].class))
+
+		type = new DefaultTypeDefinition(new QName(NAMESPACE, "table1"))
+		DefaultPropertyDefinition idProperty = new DefaultPropertyDefinition(new QName("id"),
+				type, serial)
+		idProperty.setConstraint(new DefaultValue("nextval('table1_id_seq'::regclass)"))
+		id = idProperty
+		name = new DefaultPropertyDefinition(new QName("name"), type, varchar)
+		data = new DefaultPropertyDefinition(new QName("data"), type, bytea)
+
+		reporter = new DefaultIOReporter({ null } as Locatable, "Test", "Test", false)
+	}
+
+	/**
+	 * Test that special characters are escaped.
+	 */
+	@Test
+	void testEscaping() {
+		def instance = new DefaultInstance(type, null)
+		instance.addProperty(name.name, "a\tb\\c\nd\re")
+
+		assertEquals("a\\tb\\\\c\\nd\\re\n", encode(instance, [name]))
+	}
+
+	/**
+	 * Test that binary values are written in hex format.
+	 */
+	@Test
+	void testBinary() {
+		def instance = new DefaultInstance(type, null)
+		instance.addProperty(data.name, [1, 0xab, 0xff] as byte[])
+
+		assertEquals("\\\\x01abff\n", encode(instance, [data]))
+	}
+
+	/**
+	 * Test that a property that is set to a null value is written as NULL.
+	 */
+	@Test
+	void testNull() {
+		def instance = new DefaultInstance(type, null)
+		instance.addProperty(name.name, null)
+		instance.addProperty(data.name, null)
+
+		assertEquals("\\N\t\\N\n", encode(instance, [name, data]))
+	}
+
+	/**
+	 * Test that columns of properties that are not set are left out, so the
+	 * database applies the column default instead of the default value being
+	 * written as a literal.
+	 */
+	@Test
+	void testDefaults() {
+		def columns = [id, name, data]
+
+		def instance = new DefaultInstance(type, null)
+		instance.addProperty(name.name, "test")
+		def setColumns = PostgreSQLCopyInstanceWriter.getSetColumns(instance, columns)
+		assertEquals([name], setColumns)
+		assertEquals("test\n", encode(instance, setColumns))
+
+		instance.addProperty(id.name, 12)
+		setColumns = PostgreSQLCopyInstanceWriter.getSetColumns(instance, columns)
+		assertEquals([id, name], setColumns)
+		assertEquals("12\ttest\n", encode(instance, setColumns))
+
+		assertTrue(PostgreSQLCopyInstanceWriter.getSetColumns(new DefaultInstance(type, null),
+				columns).isEmpty())
+	}
+
+	private String encode(DefaultInstance instance, List<PropertyDefinition> columns) {
+		StringBuilder row = new StringBuilder()
+		new PostgreSQLCopyInstanceWriter().appendRow(row, instance, columns, null, reporter)
+		row.toString()
+	}
+
+}
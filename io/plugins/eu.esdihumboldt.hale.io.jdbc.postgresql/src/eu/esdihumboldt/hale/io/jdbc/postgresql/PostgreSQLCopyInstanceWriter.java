@@ -0,0 +1,453 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.jdbc.postgresql;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+
+import org.postgis.PGgeometry;
+import org.postgis.binary.BinaryWriter;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import de.fhg.igd.slf4jplus.ALogger;
+import de.fhg.igd.slf4jplus.ALoggerFactory;
+import eu.esdihumboldt.hale.common.core.io.ProgressIndicator;
+import eu.esdihumboldt.hale.common.core.io.report.IOReporter;
+import eu.esdihumboldt.hale.common.core.io.report.impl.IOMessageImpl;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.model.InstanceCollection;
+import eu.esdihumboldt.hale.common.instance.model.ResourceIterator;
+import eu.esdihumboldt.hale.common.schema.geometry.GeometryProperty;
+import eu.esdihumboldt.hale.common.schema.model.ChildDefinition;
+import eu.esdihumboldt.hale.common.schema.model.PropertyDefinition;
+import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
+import eu.esdihumboldt.hale.common.schema.model.constraint.property.AutoGenerated;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.GeometryType;
+import eu.esdihumboldt.hale.io.jdbc.GeometryAdvisor;
+import eu.esdihumboldt.hale.io.jdbc.JDBCInstanceWriter;
+import eu.esdihumboldt.hale.io.jdbc.constraints.DatabaseTable;
+import eu.esdihumboldt.hale.io.jdbc.constraints.SQLArray;
+import eu.esdihumboldt.hale.io.jdbc.constraints.SQLType;
+import eu.esdihumboldt.hale.io.jdbc.constraints.internal.GeometryAdvisorConstraint;
+
+/**
+ * Writes instances to a PostgreSQL/PostGIS database using the COPY protocol
+ * instead of batches of INSERT statements. The instances are always written
+ * ordered by type, so that referenced tables are loaded first, and each table
+ * is loaded with a separate COPY operation. Geometries are transferred as
+ * EWKB. Like the INSERT statements of {@link JDBCInstanceWriter} only the
+ * columns of the properties set on an instance are written, so the database
+ * applies the column defaults for the others.<br>
+ * <br>
+ * Types with auto generated columns or array columns, as well as all types if
+ * the connection is not a PostgreSQL connection, are written with INSERT
+ * statements like in {@link JDBCInstanceWriter}.
+ */
+@SuppressWarnings("restriction")
+public class PostgreSQLCopyInstanceWriter extends JDBCInstanceWriter {
+
+	private static final ALogger log = ALoggerFactory
+			.getLogger(PostgreSQLCopyInstanceWriter.class);
+
+	/**
+	 * Name of the parameter specifying the number of rows that are collected
+	 * before they are sent to the database.
+	 */
+	public static final String PARAM_BATCH_SIZE = "copy.batchSize";
+
+	/**
+	 * Name of the parameter specifying the number of rows after which the
+	 * transaction is committed. If not set or <code>0</code> the transaction
+	 * is committed after all instances of a type were written.
+	 */
+	public static final String PARAM_COMMIT_SIZE = "copy.commitSize";
+
+	private static final int DEFAULT_BATCH_SIZE = 1000;
+
+	private static final String NULL_VALUE = "\\N";
+
+	/**
+	 * Default constructor.
+	 */
+	public PostgreSQLCopyInstanceWriter() {
+		super();
+
+		addSupportedParameter(PARAM_BATCH_SIZE);
+		addSupportedParameter(PARAM_COMMIT_SIZE);
+	}
+
+	/**
+	 * @return the number of rows that are collected before they are sent to
+	 *         the database
+	 */
+	protected int getBatchSize() {
+		int batchSize = getParameter(PARAM_BATCH_SIZE).as(Integer.class, DEFAULT_BATCH_SIZE);
+		return (batchSize > 0) ? (batchSize) : (DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * @return the number of rows after which the transaction is committed,
+	 *         <code>0</code> for committing only after all rows of a type were
+	 *         written
+	 */
+	protected int getCommitSize() {
+		return Math.max(0, getParameter(PARAM_COMMIT_SIZE).as(Integer.class, 0));
+	}
+
+	/**
+	 * Tables are loaded one after another, so the instances are always written
+	 * ordered.
+	 */
+	@Override
+	protected boolean isWriteUnordered() {
+		return false;
+	}
+
+	@Override
+	protected void writeTypeInstances(Connection connection, TypeDefinition type,
+			InstanceCollection instances, ProgressIndicator progress, IOReporter reporter)
+			throws Exception {
+		List<PropertyDefinition> columns = getCopyColumns(type);
+		if (columns == null || !connection.isWrapperFor(PGConnection.class)) {
+			log.info("Writing instances of type {0} with INSERT statements",
+					type.getDisplayName());
+			super.writeTypeInstances(connection, type, instances, progress, reporter);
+			return;
+		}
+
+		connection.setAutoCommit(false);
+
+		boolean trackProgress = instances.hasSize();
+		progress.begin("Write instances to database",
+				(trackProgress) ? (instances.size()) : (ProgressIndicator.UNKNOWN));
+
+		CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+		String tableName = type.getConstraint(DatabaseTable.class).getFullTableName();
+		int batchSize = getBatchSize();
+		int commitSize = getCommitSize();
+
+		StringBuilder batch = new StringBuilder();
+		int batchCount = 0;
+		long count = 0;
+		List<PropertyDefinition> copyColumns = null;
+		String sql = null;
+		CopyIn copy = null;
+		try (ResourceIterator<Instance> it = instances.iterator()) {
+			while (it.hasNext() && !progress.isCanceled()) {
+				Instance instance = it.next();
+
+				List<PropertyDefinition> rowColumns = getSetColumns(instance, columns);
+				if (!rowColumns.equals(copyColumns)) {
+					// a COPY has a fixed column list, start a new one
+					finishCopy(copy, copyManager, sql, batch);
+					copy = null;
+					batchCount = 0;
+					copyColumns = rowColumns;
+					sql = (rowColumns.isEmpty()) ? (null)
+							: (createCopyStatement(tableName, rowColumns));
+				}
+
+				if (sql == null) {
+					// no properties set, all columns have their default value
+					try (Statement statement = connection.createStatement()) {
+						statement.executeUpdate("INSERT INTO " + tableName + " DEFAULT VALUES");
+					}
+				}
+				else {
+					appendRow(batch, instance, rowColumns, connection, reporter);
+					batchCount++;
+				}
+				count++;
+
+				if (batchCount >= batchSize) {
+					if (copy == null) {
+						copy = copyManager.copyIn(sql);
+					}
+					writeBatch(copy, batch);
+					batchCount = 0;
+				}
+
+				if (commitSize > 0 && count % commitSize == 0) {
+					finishCopy(copy, copyManager, sql, batch);
+					copy = null;
+					batchCount = 0;
+					connection.commit();
+				}
+
+				if (trackProgress) {
+					progress.advance(1);
+				}
+			}
+
+			if (progress.isCanceled()) {
+				if (copy != null) {
+					copy.cancelCopy();
+					copy = null;
+				}
+				connection.rollback();
+			}
+			else {
+				finishCopy(copy, copyManager, sql, batch);
+				copy = null;
+				connection.commit();
+			}
+		} catch (Exception e) {
+			if (copy != null && copy.isActive()) {
+				try {
+					copy.cancelCopy();
+				} catch (SQLException e1) {
+					// ignore
+				}
+			}
+			try {
+				connection.rollback();
+			} catch (Exception e1) {
+				// ignore
+			}
+			throw e;
+		}
+
+		log.info("Copied {0} instances of type {1} to the database", count,
+				type.getDisplayName());
+	}
+
+	/**
+	 * Determine the columns to load with COPY.
+	 * 
+	 * @param type the type definition
+	 * @return the list of properties representing the columns or
+	 *         <code>null</code> if the type cannot be loaded with COPY
+	 */
+	private List<PropertyDefinition> getCopyColumns(TypeDefinition type) {
+		List<PropertyDefinition> columns = new ArrayList<>();
+		for (ChildDefinition<?> child : type.getChildren()) {
+			PropertyDefinition property = child.asProperty();
+			if (property == null) {
+				continue;
+			}
+
+			if (property.getConstraint(AutoGenerated.class).isEnabled()) {
+				// generated keys are needed to update references
+				return null;
+			}
+			TypeDefinition propertyType = property.getPropertyType();
+			if (!propertyType.getConstraint(SQLType.class).isSet()
+					|| propertyType.getConstraint(SQLArray.class).isArray()) {
+				return null;
+			}
+
+			columns.add(property);
+		}
+
+		return (columns.isEmpty()) ? (null) : (columns);
+	}
+
+	/**
+	 * Determine the columns of the properties set on an instance. As for the
+	 * INSERT statements of {@link JDBCInstanceWriter}, columns of properties
+	 * that are not set are left out, so the database applies the column
+	 * default.
+	 * 
+	 * @param instance the instance
+	 * @param columns the columns of the instance type
+	 * @return the columns of the properties set on the instance, in the order
+	 *         of the given columns
+	 */
+	public static List<PropertyDefinition> getSetColumns(Instance instance,
+			List<PropertyDefinition> columns) {
+		Set<QName> names = new HashSet<>();
+		for (QName name : instance.getPropertyNames()) {
+			names.add(name);
+		}
+
+		List<PropertyDefinition> result = new ArrayList<>();
+		for (PropertyDefinition column : columns) {
+			if (names.contains(column.getName())) {
+				result.add(column);
+			}
+		}
+		return result;
+	}
+
+	private String createCopyStatement(String tableName, List<PropertyDefinition> columns) {
+		StringBuilder sql = new StringBuilder();
+		sql.append("COPY ");
+		sql.append(tableName);
+		sql.append(" (");
+		boolean first = true;
+		for (PropertyDefinition column : columns) {
+			if (first) {
+				first = false;
+			}
+			else {
+				sql.append(", ");
+			}
+			sql.append('"').append(column.getName().getLocalPart()).append('"');
+		}
+		sql.append(") FROM STDIN");
+		return sql.toString();
+	}
+
+	/**
+	 * Send the pending rows and complete the COPY operation.
+	 * 
+	 * @param copy the active COPY operation, may be <code>null</code>
+	 * @param copyManager the copy manager to start a COPY operation if there
+	 *            is none yet
+	 * @param sql the COPY statement
+	 * @param batch the pending rows
+	 * @throws SQLException if sending the rows fails
+	 */
+	private void finishCopy(CopyIn copy, CopyManager copyManager, String sql,
+			StringBuilder batch) throws SQLException {
+		if (batch.length() > 0) {
+			if (copy == null) {
+				copy = copyManager.copyIn(sql);
+			}
+			writeBatch(copy, batch);
+		}
+		if (copy != null) {
+			copy.endCopy();
+		}
+	}
+
+	private void writeBatch(CopyIn copy, StringBuilder batch) throws SQLException {
+		byte[] data = batch.toString().getBytes(StandardCharsets.UTF_8);
+		copy.writeToCopy(data, 0, data.length);
+		batch.setLength(0);
+	}
+
+	/**
+	 * Append a row in the text format of COPY. Properties without a value are
+	 * written as <code>NULL</code>.
+	 * 
+	 * @param row the builder to append the row to
+	 * @param instance the instance
+	 * @param columns the columns to write
+	 * @param connection the database connection, only needed for converting
+	 *            geometries
+	 * @param reporter the reporter
+	 */
+	public void appendRow(StringBuilder row, Instance instance, List<PropertyDefinition> columns,
+			Connection connection, IOReporter reporter) {
+		boolean first = true;
+		for (PropertyDefinition property : columns) {
+			if (first) {
+				first = false;
+			}
+			else {
+				row.append('\t');
+			}
+
+			Object[] values = instance.getProperty(property.getName());
+			Object value = null;
+			if (values != null && values.length > 0) {
+				if (values.length > 1) {
+					reporter.warn(new IOMessageImpl(
+							"Multiple values for a property. Only exporting first.", null));
+				}
+				value = getReferenceValue(property, values[0]);
+			}
+
+			if (value == null) {
+				row.append(NULL_VALUE);
+			}
+			else {
+				appendValue(row, value, property, connection, reporter);
+			}
+		}
+		row.append('\n');
+	}
+
+	@SuppressWarnings("unchecked")
+	private void appendValue(StringBuilder row, Object value, PropertyDefinition property,
+			Connection connection, IOReporter reporter) {
+		TypeDefinition propertyType = property.getPropertyType();
+		if (propertyType.getConstraint(GeometryType.class).isGeometry()) {
+			@SuppressWarnings("rawtypes")
+			GeometryAdvisor advisor = propertyType.getConstraint(GeometryAdvisorConstraint.class)
+					.getAdvisor();
+			if (advisor != null && value instanceof GeometryProperty<?>) {
+				try {
+					value = advisor.convertGeometry((GeometryProperty<?>) value, propertyType,
+							connection, reporter);
+				} catch (Exception e) {
+					reporter.error(new IOMessageImpl("Something went wrong during conversion", e));
+					row.append(NULL_VALUE);
+					return;
+				}
+			}
+
+			if (value instanceof PGgeometry) {
+				// hex encoded EWKB, no escaping needed
+				row.append(new BinaryWriter().writeHexed(((PGgeometry) value).getGeometry()));
+				return;
+			}
+		}
+
+		if (value instanceof byte[]) {
+			// bytea in hex format, with the backslash escaped
+			row.append("\\\\x");
+			for (byte b : (byte[]) value) {
+				row.append(Character.forDigit((b >> 4) & 0xF, 16));
+				row.append(Character.forDigit(b & 0xF, 16));
+			}
+			return;
+		}
+
+		if (value instanceof Date && !(value instanceof java.sql.Date
+				|| value instanceof java.sql.Time || value instanceof Timestamp)) {
+			value = new Timestamp(((Date) value).getTime());
+		}
+
+		appendEscaped(row, value.toString());
+	}
+
+	private static void appendEscaped(StringBuilder row, String text) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			switch (c) {
+			case '\\':
+				row.append("\\\\");
+				break;
+			case '\n':
+				row.append("\\n");
+				break;
+			case '\r':
+				row.append("\\r");
+				break;
+			case '\t':
+				row.append("\\t");
+				break;
+			default:
+				row.append(c);
+			}
+		}
+	}
+
+}
@@ -8,7 +8,6 @@ import java.util.function.Supplier;
 import org.geotools.geometry.jts.JTS;
 import org.geotools.referencing.CRS;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
-import org.opengis.referencing.operation.MathTransform;
 import org.sqlite.SQLiteConnection;
 
 import org.locationtech.jts.geom.Geometry;
@@ -23,6 +22,7 @@ import eu.esdihumboldt.hale.common.instance.geometry.CRSDefinitionUtil;
 import eu.esdihumboldt.hale.common.instance.geometry.DefaultGeometryProperty;
 import eu.esdihumboldt.hale.common.instance.geometry.impl.CodeDefinition;
 import eu.esdihumboldt.hale.common.instance.geometry.impl.WKTDefinition;
+import eu.esdihumboldt.hale.common.referencing.transform.ReprojectionService;
 import eu.esdihumboldt.hale.common.schema.geometry.CRSDefinition;
 import eu.esdihumboldt.hale.common.schema.geometry.GeometryProperty;
 import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
@@ -121,9 +121,8 @@ public class SpatiaLiteGeometries implements GeometryAdvisor<SQLiteConnection> {
 
 		Geometry targetGeometry;
 		if (targetCRS != null) {
-			MathTransform transform = CRS.findMathTransform(geom.getCRSDefinition().getCRS(),
-					targetCRS);
-			targetGeometry = JTS.transform(geom.getGeometry(), transform);
+			targetGeometry = ReprojectionService.getInstance().transform(geom.getGeometry(),
+					geom.getCRSDefinition().getCRS(), targetCRS);
 
 			// encode JTS Geometry
 			return encodeGeometryValue(targetGeometry, columnTypeMetadata.getSrs(),
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.jdbc.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import eu.esdihumboldt.hale.io.jdbc.JDBCUtil;
+
+/**
+ * Tests for {@link JDBCUtil#createRangeConditions}, used to split database
+ * tables into partitions.
+ */
+public class RangeConditionsTest {
+
+	/**
+	 * Test splitting a range into partitions of the same size.
+	 */
+	@Test
+	public void testSplit() {
+		List<String> conditions = JDBCUtil.createRangeConditions("id", 0, 100, 4,
+				Long::toString);
+		assertEquals(Arrays.asList("id < 26", "id >= 26 AND id < 52", "id >= 52 AND id < 78",
+				"id >= 78"), conditions);
+	}
+
+	/**
+	 * Test the literals created for the partition bounds.
+	 */
+	@Test
+	public void testLiteral() {
+		List<String> conditions = JDBCUtil.createRangeConditions("ctid", 0, 10, 2,
+				page -> "'(" + page + ",0)'::tid");
+		assertEquals(Arrays.asList("ctid < '(6,0)'::tid", "ctid >= '(6,0)'::tid"), conditions);
+	}
+
+	/**
+	 * Test splitting a range into more partitions than there are values.
+	 */
+	@Test
+	public void testCountGreaterThanRange() {
+		List<String> conditions = JDBCUtil.createRangeConditions("id", 0, 3, 10,
+				Long::toString);
+		assertEquals(Arrays.asList("id < 1", "id >= 1 AND id < 2", "id >= 2"), conditions);
+	}
+
+	/**
+	 * Test a range with a single value, i.e. the minimum is equal to the
+	 * maximum.
+	 */
+	@Test
+	public void testMinEqualsMax() {
+		long min = 5;
+		long max = 5;
+		List<String> conditions = JDBCUtil.createRangeConditions("id", min, max + 1, 4,
+				Long::toString);
+		assertTrue(conditions.isEmpty());
+	}
+
+	/**
+	 * Test requesting a single partition.
+	 */
+	@Test
+	public void testSinglePartition() {
+		List<String> conditions = JDBCUtil.createRangeConditions("id", 0, 100, 1,
+				Long::toString);
+		assertTrue(conditions.isEmpty());
+	}
+
+	/**
+	 * Test empty and overflowing ranges.
+	 */
+	@Test
+	public void testInvalidRange() {
+		assertNull(JDBCUtil.createRangeConditions("id", 10, 10, 4, Long::toString));
+		assertNull(JDBCUtil.createRangeConditions("id", Long.MIN_VALUE, Long.MAX_VALUE, 4,
+				Long::toString));
+	}
+
+}
@@ -20,6 +20,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLSyntaxErrorException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import de.fhg.igd.slf4jplus.ALogger;
@@ -45,6 +46,12 @@ import eu.esdihumboldt.hale.io.jdbc.constraints.SQLQuery;
 public class JDBCInstanceReader extends AbstractInstanceReader
 		implements JDBCConstants, JDBCProvider {
 
+	/**
+	 * Name of the parameter specifying into how many partitions each table
+	 * should be split, so that they can be read concurrently.
+	 */
+	public static final String PARAM_PARTITIONS = "partitions";
+
 	private MultiInstanceCollection collection;
 	private static final ALogger log = ALoggerFactory.getLogger(JDBCInstanceReader.class);
 
@@ -56,6 +63,7 @@ public class JDBCInstanceReader extends AbstractInstanceReader
 
 		addSupportedParameter(PARAM_PASSWORD);
 		addSupportedParameter(PARAM_USER);
+		addSupportedParameter(PARAM_PARTITIONS);
 	}
 
 	@Override
@@ -112,6 +120,7 @@ public class JDBCInstanceReader extends AbstractInstanceReader
 
 			String user = getParameter(PARAM_USER).as(String.class);
 			String password = getParameter(PARAM_PASSWORD).as(String.class);
+			int partitions = getParameter(PARAM_PARTITIONS).as(Integer.class, 1);
 
 			Map<TypeDefinition, InstanceCollection> collections = new HashMap<>();
 
@@ -121,8 +130,9 @@ public class JDBCInstanceReader extends AbstractInstanceReader
 
 				// check constraint if a Database table or not
 				if (type.getConstraint(DatabaseTable.class).isTable()) {
-					collections.put(type, new JDBCTableCollection(type, getSource().getLocation(),
-							user, password, getCrsProvider(), getServiceProvider()) {
+					JDBCTableCollection tableCollection = new JDBCTableCollection(type,
+							getSource().getLocation(), user, password, getCrsProvider(),
+							getServiceProvider()) {
 
 						// To provide extensibility for getting customized
 						// database connection for
@@ -132,7 +142,22 @@ public class JDBCInstanceReader extends AbstractInstanceReader
 							return JDBCInstanceReader.this.getConnection();
 						}
 
-					});
+					};
+
+					if (partitions > 1) {
+						// partitions are exposed as separate collections, so
+						// they can be consumed concurrently
+						List<InstanceCollection> tablePartitions = tableCollection
+								.getPartitions(partitions);
+						if (tablePartitions.size() > 1) {
+							log.info("Reading table of type {0} in {1} partitions",
+									type.getDisplayName(), tablePartitions.size());
+							collections.put(type, new MultiInstanceCollection(tablePartitions));
+							continue;
+						}
+					}
+
+					collections.put(type, tableCollection);
 				}
 				// also support SQL query types
 				// FIXME any way to determine if this is the correct target
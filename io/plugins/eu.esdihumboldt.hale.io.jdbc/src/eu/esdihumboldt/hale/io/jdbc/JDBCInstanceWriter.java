@@ -137,8 +137,8 @@ public class JDBCInstanceWriter extends AbstractInstanceWriter
 						getTargetSchema().getMappingRelevantTypes());
 
 				for (TypeDefinition td : sortedSet) {
-					writeInstances(connection, instances.select(new TypeFilter(td)), progress,
-							reporter);
+					writeTypeInstances(connection, td, instances.select(new TypeFilter(td)),
+							progress, reporter);
 				}
 			}
 
@@ -173,6 +173,25 @@ public class JDBCInstanceWriter extends AbstractInstanceWriter
 		return getParameter(PARAM_UNORDERED).as(Boolean.class, false);
 	}
 
+	/**
+	 * Write the instances of a single type to a database connection. Called
+	 * for each type in the order determined by
+	 * {@link #getSortedSchemas(Collection)} if instances are not written
+	 * unordered.
+	 * 
+	 * @param connection the database connection
+	 * @param type the type of the instances
+	 * @param instances the instances to write
+	 * @param progress the progress indicator
+	 * @param reporter the reporter
+	 * @throws Exception if saving the instances fails
+	 */
+	protected void writeTypeInstances(Connection connection, TypeDefinition type,
+			InstanceCollection instances, ProgressIndicator progress, IOReporter reporter)
+			throws Exception {
+		writeInstances(connection, instances, progress, reporter);
+	}
+
 	/**
 	 * Write instances to a database connection Auto incremental keys are
 	 * written to the database with the new generated values, and updated the
@@ -191,7 +210,7 @@ public class JDBCInstanceWriter extends AbstractInstanceWriter
 	 * @param reporter the reporter
 	 * @throws Exception if saving the instances fails
 	 */
-	private void writeInstances(Connection connection, InstanceCollection instances,
+	protected void writeInstances(Connection connection, InstanceCollection instances,
 			ProgressIndicator progress, IOReporter reporter) throws Exception {
 		connection.setAutoCommit(false);
 
@@ -312,6 +331,29 @@ public class JDBCInstanceWriter extends AbstractInstanceWriter
 		autoInc.put(orgId, genId);
 	}
 
+	/**
+	 * Get the value to write for a property that may reference a column with
+	 * auto generated values. If the referenced instance was written with a
+	 * newly generated identifier, that identifier is returned instead of the
+	 * original value.
+	 * 
+	 * @param property the property definition
+	 * @param value the original property value, may be <code>null</code>
+	 * @return the value to write
+	 */
+	protected Object getReferenceValue(PropertyDefinition property, Object value) {
+		Reference ref = property.getConstraint(Reference.class);
+		if (ref.getReferencedTypes() != null) {
+			TypeDefinition td = (TypeDefinition) ref.getReferencedTypes().toArray()[0];
+			Map<Object, Long> marshMallow = typAuto.get(td);
+			if (marshMallow != null && value != null) {
+				// lookup identifier for reference
+				value = marshMallow.get(processLookupId(value));
+			}
+		}
+		return value;
+	}
+
 	private Object processLookupId(Object orgId) {
 		if (orgId instanceof Number) {
 			return ((Number) orgId).longValue();
@@ -571,15 +613,7 @@ public class JDBCInstanceWriter extends AbstractInstanceWriter
 				}
 			}
 
-			Reference ref = property.getConstraint(Reference.class);
-			if (ref.getReferencedTypes() != null) {
-				TypeDefinition td = (TypeDefinition) ref.getReferencedTypes().toArray()[0];
-				Map<Object, Long> marshMallow = typAuto.get(td);
-				if (marshMallow != null && value != null) {
-					// lookup identifier for reference
-					value = marshMallow.get(processLookupId(value));
-				}
-			}
+			value = getReferenceValue(property, value);
 
 			if (values == null || values.length == 0) {
 				// XXX The default value could be a function call.
@@ -17,9 +17,15 @@ package eu.esdihumboldt.hale.io.jdbc;
 
 import java.net.URI;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import de.fhg.igd.slf4jplus.ALogger;
 import de.fhg.igd.slf4jplus.ALoggerFactory;
@@ -35,9 +41,12 @@ import eu.esdihumboldt.hale.common.instance.model.ResourceIterator;
 import eu.esdihumboldt.hale.common.instance.model.ext.InstanceIterator;
 import eu.esdihumboldt.hale.common.instance.model.impl.FilteredInstanceCollection;
 import eu.esdihumboldt.hale.common.instance.model.impl.PseudoInstanceReference;
+import eu.esdihumboldt.hale.common.schema.model.ChildDefinition;
 import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.PrimaryKey;
 import eu.esdihumboldt.hale.io.jdbc.constraints.DatabaseTable;
 import eu.esdihumboldt.hale.io.jdbc.constraints.SQLQuery;
+import eu.esdihumboldt.hale.io.jdbc.constraints.SQLType;
 
 /**
  * Instance collection for instances belonging to a specific database table or a
@@ -77,13 +86,17 @@ public class JDBCTableCollection implements InstanceCollection, LogAware {
 
 		private boolean done = false;
 
+		private final String query;
+
 		/**
 		 * Default constructor.
 		 * 
 		 * @param crsProvider the CRS provider
+		 * @param query the query providing the rows to iterate over
 		 */
-		public JDBCTableIterator(CRSProvider crsProvider) {
+		public JDBCTableIterator(CRSProvider crsProvider, String query) {
 			super();
+			this.query = query;
 			builder = new TableInstanceBuilder(crsProvider, log);
 			try {
 				connection = createConnection();
@@ -140,7 +153,7 @@ public class JDBCTableCollection implements InstanceCollection, LogAware {
 					// retrieve result set
 					connection.setAutoCommit(false);
 					Statement st = JDBCUtil.createReadStatement(connection, 500);
-					currentResults = st.executeQuery(sqlQuery);
+					currentResults = st.executeQuery(query);
 
 					proceedToNext();
 				}
@@ -203,11 +216,76 @@ public class JDBCTableCollection implements InstanceCollection, LogAware {
 
 	}
 
+	/**
+	 * Instance collection for a part of the table, read through a separate
+	 * connection.
+	 */
+	private class TablePartition implements InstanceCollection {
+
+		private final String partitionQuery;
+
+		private final String partitionCountQuery;
+
+		/**
+		 * Create a table partition.
+		 * 
+		 * @param condition the SQL condition selecting the rows of the
+		 *            partition
+		 */
+		public TablePartition(String condition) {
+			super();
+			this.partitionQuery = sqlQuery + " WHERE " + condition;
+			this.partitionCountQuery = countQuery + " WHERE " + condition;
+		}
+
+		@Override
+		public InstanceReference getReference(Instance instance) {
+			return JDBCTableCollection.this.getReference(instance);
+		}
+
+		@Override
+		public Instance getInstance(InstanceReference reference) {
+			return JDBCTableCollection.this.getInstance(reference);
+		}
+
+		@Override
+		public ResourceIterator<Instance> iterator() {
+			return new JDBCTableIterator(crsProvider, partitionQuery);
+		}
+
+		@Override
+		public boolean hasSize() {
+			return true;
+		}
+
+		@Override
+		public int size() {
+			return count(partitionCountQuery, partitionQuery);
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return size() == 0;
+		}
+
+		@Override
+		public InstanceCollection select(Filter filter) {
+			return FilteredInstanceCollection.applyFilter(this, filter);
+		}
+
+	}
+
 	private final URI jdbcURI;
 	private final String user;
 	private final String password;
 	private final TypeDefinition type;
 
+	/**
+	 * The full name of the database table, <code>null</code> for custom
+	 * queries.
+	 */
+	private final String tableName;
+
 	private final String sqlQuery;
 	private final String countQuery;
 	private final CRSProvider crsProvider;
@@ -237,11 +315,13 @@ public class JDBCTableCollection implements InstanceCollection, LogAware {
 			// database table queries
 
 			String fullTableName = type.getConstraint(DatabaseTable.class).getFullTableName();
+			this.tableName = fullTableName;
 			query = "SELECT * FROM " + fullTableName;
 			this.countQuery = "SELECT COUNT(*) FROM " + fullTableName;
 		}
 		else {
 			// custom queries (not a database table)
+			this.tableName = null;
 
 			// support project variables
 			query = JDBCUtil.replaceVariables(query, services);
@@ -269,6 +349,146 @@ public class JDBCTableCollection implements InstanceCollection, LogAware {
 		return JDBCConnection.getConnection(jdbcURI, user, password);
 	}
 
+	/**
+	 * Split the table into partitions that can be read concurrently, each
+	 * through a separate connection. Tables with a primary key consisting of a
+	 * single integer column are split into ranges of the key, PostgreSQL
+	 * tables otherwise into ranges of the physical row location (ctid), if the
+	 * server is able to scan these ranges efficiently (PostgreSQL 14 or
+	 * later). Custom queries are not split.
+	 * 
+	 * @param count the number of partitions to create
+	 * @return the partitions, or a list only containing this collection if
+	 *         the table cannot be partitioned
+	 */
+	public List<InstanceCollection> getPartitions(int count) {
+		if (count > 1 && tableName != null) {
+			try (Connection connection = createConnection()) {
+				List<String> conditions = getKeyRangeConditions(connection, count);
+				if (conditions == null && supportsPageRanges(connection)) {
+					conditions = getPageRangeConditions(connection, count);
+				}
+
+				if (conditions != null && conditions.size() > 1) {
+					List<InstanceCollection> partitions = new ArrayList<>();
+					for (String condition : conditions) {
+						partitions.add(new TablePartition(condition));
+					}
+					return partitions;
+				}
+			} catch (SQLException e) {
+				log.warn("Could not partition table " + tableName + ", reading it as a whole",
+						e);
+			}
+		}
+
+		return Collections.singletonList(this);
+	}
+
+	/**
+	 * Create conditions splitting the table into ranges of the primary key.
+	 * 
+	 * @param connection the database connection
+	 * @param count the number of partitions
+	 * @return the conditions or <code>null</code> if the table has no single
+	 *         integer primary key or is empty
+	 * @throws SQLException if determining the key range fails
+	 */
+	private List<String> getKeyRangeConditions(Connection connection, int count)
+			throws SQLException {
+		PrimaryKey key = type.getConstraint(PrimaryKey.class);
+		if (!key.hasPrimaryKey() || key.getPrimaryKeyPath().size() != 1) {
+			return null;
+		}
+
+		ChildDefinition<?> child = type.getChild(key.getPrimaryKeyPath().get(0));
+		if (child == null || child.asProperty() == null) {
+			return null;
+		}
+		SQLType sqlType = child.asProperty().getPropertyType().getConstraint(SQLType.class);
+		if (!sqlType.isSet()) {
+			return null;
+		}
+		switch (sqlType.getType()) {
+		case Types.TINYINT:
+		case Types.SMALLINT:
+		case Types.INTEGER:
+		case Types.BIGINT:
+			break;
+		default:
+			return null;
+		}
+
+		String column = child.getName().getLocalPart();
+		if (type.getConstraint(DatabaseTable.class).useQuote()) {
+			column = JDBCUtil.quote(column);
+		}
+		long min;
+		long max;
+		try (Statement st = connection.createStatement();
+				ResultSet res = st.executeQuery(
+						"SELECT MIN(" + column + "), MAX(" + column + ") FROM " + tableName)) {
+			if (!res.next()) {
+				return null;
+			}
+			min = res.getLong(1);
+			if (res.wasNull()) {
+				// empty table
+				return null;
+			}
+			max = res.getLong(2);
+		}
+
+		return JDBCUtil.createRangeConditions(column, min, max + 1, count, Long::toString);
+	}
+
+	/**
+	 * Determine if the database supports scanning ranges of the physical row
+	 * location (TID range scans), which were added in PostgreSQL 14. On older
+	 * versions a condition on the ctid results in a sequential scan of the
+	 * whole table for each partition.
+	 * 
+	 * @param connection the database connection
+	 * @return if the table can be split into page ranges
+	 * @throws SQLException if accessing the database meta data fails
+	 */
+	private static boolean supportsPageRanges(Connection connection) throws SQLException {
+		DatabaseMetaData metaData = connection.getMetaData();
+		return "PostgreSQL".equalsIgnoreCase(metaData.getDatabaseProductName())
+				&& metaData.getDatabaseMajorVersion() >= 14;
+	}
+
+	/**
+	 * Create conditions splitting a PostgreSQL table into ranges of pages,
+	 * based on the page count determined when the table was last analyzed.
+	 * 
+	 * @param connection the database connection
+	 * @param count the number of partitions
+	 * @return the conditions or <code>null</code> if the table has less pages
+	 *         than partitions
+	 * @throws SQLException if determining the number of pages fails
+	 */
+	private List<String> getPageRangeConditions(Connection connection, int count)
+			throws SQLException {
+		long pages;
+		try (PreparedStatement st = connection
+				.prepareStatement("SELECT relpages FROM pg_class WHERE oid = ?::regclass")) {
+			st.setString(1, tableName);
+			try (ResultSet res = st.executeQuery()) {
+				if (!res.next()) {
+					return null;
+				}
+				pages = res.getLong(1);
+			}
+		}
+
+		if (pages < count) {
+			return null;
+		}
+
+		return JDBCUtil.createRangeConditions("ctid", 0, pages, count, page -> "'(" + page + ",0)'::tid");
+	}
+
 	@Override
 	public InstanceReference getReference(Instance instance) {
 		// TODO create a database backed reference instead?
@@ -285,7 +505,7 @@ public class JDBCTableCollection implements InstanceCollection, LogAware {
 
 	@Override
 	public ResourceIterator<Instance> iterator() {
-		return new JDBCTableIterator(crsProvider);
+		return new JDBCTableIterator(crsProvider, sqlQuery);
 	}
 
 	@Override
@@ -295,8 +515,19 @@ public class JDBCTableCollection implements InstanceCollection, LogAware {
 
 	@Override
 	public int size() {
+		return count(countQuery, sqlQuery);
+	}
+
+	/**
+	 * Determine the number of rows a query yields.
+	 * 
+	 * @param countQuery the query counting the rows, may be <code>null</code>
+	 * @param sqlQuery the query to count the rows of
+	 * @return the number of rows or {@link #UNKNOWN_SIZE}
+	 */
+	private int count(String countQuery, String sqlQuery) {
 		if (countQuery == null) {
-			return vagueSize();
+			return vagueSize(sqlQuery);
 		}
 
 		try (Connection connection = createConnection()) {
@@ -311,11 +542,11 @@ public class JDBCTableCollection implements InstanceCollection, LogAware {
 			return count;
 		} catch (SQLException e) {
 			log.warn("Could not determine query size by count query\n" + countQuery, e);
-			return vagueSize();
+			return vagueSize(sqlQuery);
 		}
 	}
 
-	private int vagueSize() {
+	private int vagueSize(String sqlQuery) {
 		try (Connection connection = createConnection()) {
 			Statement st = connection.createStatement();
 			st.setMaxRows(1);
@@ -21,6 +21,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
 
 import javax.annotation.Nullable;
 
@@ -184,4 +187,48 @@ public class JDBCUtil {
 		return st;
 	}
 
+	/**
+	 * Create conditions splitting a range of values into partitions of about
+	 * the same size. The first and last partition are open ended, so rows
+	 * outside of the range are included as well.
+	 * 
+	 * @param expression the SQL expression to compare
+	 * @param start the start of the range (inclusive)
+	 * @param end the end of the range (exclusive)
+	 * @param count the number of partitions
+	 * @param literal creates the SQL literal for a value
+	 * @return the conditions, an empty list if the range is not split because
+	 *         it is too small for more than one partition, or
+	 *         <code>null</code> if the range is invalid
+	 */
+	public static List<String> createRangeConditions(String expression, long start, long end,
+			int count, LongFunction<String> literal) {
+		if (end - start <= 0) {
+			// empty range or overflow
+			return null;
+		}
+
+		long step = (end - start) / count + 1;
+		List<String> conditions = new ArrayList<>();
+		long lower = start;
+		while (end - lower > step) {
+			long upper = lower + step;
+
+			StringBuilder condition = new StringBuilder();
+			if (lower > start) {
+				condition.append(expression).append(" >= ").append(literal.apply(lower))
+						.append(" AND ");
+			}
+			condition.append(expression).append(" < ").append(literal.apply(upper));
+			conditions.add(condition.toString());
+
+			lower = upper;
+		}
+		if (lower > start) {
+			// last partition
+			conditions.add(expression + " >= " + literal.apply(lower));
+		}
+		return conditions;
+	}
+
 }
@@ -29,9 +29,7 @@ import java.util.function.Function;
 import javax.xml.namespace.QName;
 
 import org.geotools.geojson.geom.GeometryJSON;
-import org.geotools.geometry.jts.JTS;
 import org.locationtech.jts.geom.Geometry;
-import org.opengis.referencing.operation.MathTransform;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
@@ -46,6 +44,7 @@ import eu.esdihumboldt.hale.common.instance.model.Group;
 import eu.esdihumboldt.hale.common.instance.model.Instance;
 import eu.esdihumboldt.hale.common.instance.model.InstanceCollection;
 import eu.esdihumboldt.hale.common.instance.model.ResourceIterator;
+import eu.esdihumboldt.hale.common.referencing.transform.ReprojectionService;
 import eu.esdihumboldt.hale.common.schema.geometry.CRSDefinition;
 import eu.esdihumboldt.hale.common.schema.geometry.GeometryProperty;
 import eu.esdihumboldt.hale.common.schema.model.ChildDefinition;
@@ -74,8 +73,6 @@ public class InstanceToJson implements InstanceJsonConstants {
 	// https://tools.ietf.org/html/rfc7946)
 	private final CRSDefinition targetCrs = new CodeDefinition("EPSG:4326", true);
 
-	private final TransformCache transformCache = new TransformCache();
-
 	/**
 	 *
 	 * Note: The GeoJson output follows the RFC SPEC but extends it similar to
@@ -632,9 +629,8 @@ public class InstanceToJson implements InstanceJsonConstants {
 		if (targetCrs != null) {
 			if (geomProp.getCRSDefinition() != null) {
 				try {
-					MathTransform transform = transformCache
-							.getTransform(geomProp.getCRSDefinition().getCRS(), targetCrs.getCRS());
-					geom = JTS.transform(geom, transform);
+					geom = ReprojectionService.getInstance().transform(geom,
+							geomProp.getCRSDefinition().getCRS(), targetCrs.getCRS());
 				} catch (Exception e) {
 					invalidGeom = true;
 					log.error("Could not transform geometry to target CRS", e);
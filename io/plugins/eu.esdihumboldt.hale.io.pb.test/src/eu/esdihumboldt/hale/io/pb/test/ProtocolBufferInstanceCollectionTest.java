@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.pb.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+
+import javax.xml.namespace.QName;
+
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import eu.esdihumboldt.hale.common.core.report.SimpleLog;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.model.MutableInstance;
+import eu.esdihumboldt.hale.common.instance.model.ResourceIterator;
+import eu.esdihumboldt.hale.common.instance.model.ext.InstanceIterator;
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstance;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.Binding;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultPropertyDefinition;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultSchema;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultTypeDefinition;
+import eu.esdihumboldt.hale.io.pb.internal.InstanceToStruct;
+import eu.esdihumboldt.hale.io.pb.internal.ProtocolBufferInstanceCollection;
+import eu.esdihumboldt.hale.io.pb.internal.StructToInstance;
+
+/**
+ * Tests writing instances as length-delimited messages and reading them again
+ * with {@link ProtocolBufferInstanceCollection}.
+ */
+@SuppressWarnings("restriction")
+public class ProtocolBufferInstanceCollectionTest {
+
+	private static final String NS = "http://www.example.com/pb";
+
+	private static final SimpleLog log = SimpleLog
+			.fromLogger(LoggerFactory.getLogger(ProtocolBufferInstanceCollectionTest.class));
+
+	/**
+	 * Test writing and reading instances with simple and nested properties.
+	 * 
+	 * @throws Exception if an error occurs
+	 */
+	@Test
+	public void testRoundTrip() throws Exception {
+		DefaultSchema schema = new DefaultSchema(NS, URI.create("http://www.example.com"));
+
+		DefaultTypeDefinition stringType = new DefaultTypeDefinition(new QName(NS, "String"));
+		stringType.setConstraint(Binding.get(String.class));
+		DefaultTypeDefinition doubleType = new DefaultTypeDefinition(new QName(NS, "Double"));
+		doubleType.setConstraint(Binding.get(Double.class));
+
+		DefaultTypeDefinition personType = new DefaultTypeDefinition(new QName(NS, "Person"));
+		new DefaultPropertyDefinition(new QName(NS, "name"), personType, stringType);
+		new DefaultPropertyDefinition(new QName("salary"), personType, doubleType);
+		DefaultTypeDefinition carType = new DefaultTypeDefinition(new QName(NS, "Car"));
+		new DefaultPropertyDefinition(new QName(NS, "name"), carType, stringType);
+		new DefaultPropertyDefinition(new QName(NS, "owner"), carType, personType);
+		schema.addType(personType);
+		schema.addType(carType);
+
+		MutableInstance owner = new DefaultInstance(personType, null);
+		owner.addProperty(new QName(NS, "name"), "Jon Doe");
+		owner.addProperty(new QName("salary"), 600000.0);
+		MutableInstance car = new DefaultInstance(carType, null);
+		car.addProperty(new QName(NS, "name"), "Beetle");
+		car.addProperty(new QName(NS, "name"), "Käfer");
+		car.addProperty(new QName(NS, "owner"), owner);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		InstanceToStruct writer = new InstanceToStruct(log);
+		writer.toStruct(car).writeDelimitedTo(out);
+		writer.toStruct(owner).writeDelimitedTo(out);
+		byte[] data = out.toByteArray();
+
+		ProtocolBufferInstanceCollection instances = new ProtocolBufferInstanceCollection(
+				new StructToInstance(schema, log), () -> new ByteArrayInputStream(data));
+		assertFalse(instances.isEmpty());
+
+		try (ResourceIterator<Instance> it = instances.iterator()) {
+			assertTrue(it.hasNext());
+			Instance readCar = it.next();
+			assertEquals(carType, readCar.getDefinition());
+			assertArrayEquals(new Object[] { "Beetle", "Käfer" },
+					readCar.getProperty(new QName(NS, "name")));
+
+			Object[] owners = readCar.getProperty(new QName(NS, "owner"));
+			assertEquals(1, owners.length);
+			Instance readOwner = (Instance) owners[0];
+			assertEquals(personType, readOwner.getDefinition());
+			assertArrayEquals(new Object[] { "Jon Doe" },
+					readOwner.getProperty(new QName(NS, "name")));
+			assertArrayEquals(new Object[] { 600000.0 },
+					readOwner.getProperty(new QName("salary")));
+
+			assertTrue(it.hasNext());
+			assertEquals(personType, it.next().getDefinition());
+			assertFalse(it.hasNext());
+		}
+
+		// skipping messages without reading them
+		try (InstanceIterator it = instances.iterator()) {
+			it.skip();
+			assertEquals(personType, it.next().getDefinition());
+			assertFalse(it.hasNext());
+		}
+	}
+
+}
@@ -15,20 +15,31 @@
 
 package eu.esdihumboldt.hale.io.pb.test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
-import java.io.ByteArrayOutputStream;
-import java.io.Reader;
-import java.io.StringReader;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.File;
+import java.net.URI;
 
-import org.json.simple.JSONValue;
-import org.junit.Test;
+import javax.xml.namespace.QName;
 
-import com.google.protobuf.Struct;
-import com.google.protobuf.util.JsonFormat;
+import org.junit.Test;
 
+import eu.esdihumboldt.hale.common.core.io.report.IOReport;
+import eu.esdihumboldt.hale.common.core.io.supplier.FileIOSupplier;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.model.MutableInstance;
+import eu.esdihumboldt.hale.common.instance.model.ResourceIterator;
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstance;
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstanceCollection;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.Binding;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultPropertyDefinition;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultSchema;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultSchemaSpace;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultTypeDefinition;
+import eu.esdihumboldt.hale.io.pb.ProtocolBufferInstanceReader;
 import eu.esdihumboldt.hale.io.pb.ProtocolBufferInstanceWriter;
 
 /**
@@ -38,41 +49,76 @@ import eu.esdihumboldt.hale.io.pb.ProtocolBufferInstanceWriter;
  */
 public class ProtocolBufferInstanceWriterTest {
 
-	private String getJsonString() {
-		System.out.println("Creating simple json...");
-		Map<String, Object> obj = new HashMap<>();
-		obj.put("name", "Jon Doe");
-		// obj.put("age", 27);
-		obj.put("salary", 600000.0);
-		String jsonText = JSONValue.toJSONString(obj);
-
-		System.out.println(jsonText);
-
-		return jsonText;
-	}
+	private static final String NS = "http://www.example.com/pb";
 
 	/**
-	 * Test - convert a simple json string into a Protocol Buffer file
+	 * Test writing instances with the writer and reading them again with
+	 * {@link ProtocolBufferInstanceReader}.
 	 * 
 	 * @throws Exception if an error occurs
 	 */
 	@Test
-	public void testConvertJson2PB() throws Exception {
-		String example = getJsonString();
-		Reader jsonReader = new StringReader(example);
-
-		ByteArrayOutputStream result = new ByteArrayOutputStream();
-		ProtocolBufferInstanceWriter.writeJsonToProtocolBuffer(jsonReader, () -> result);
-
-		Struct data = Struct.parseFrom(result.toByteArray());
-		String jsonFromPB = JsonFormat.printer().print(data);
-
-		System.out.println("Json recreated from PB:");
-		System.out.println(jsonFromPB);
-
-		Object parsedJsonSource = JSONValue.parse(example);
-		Object parsedJsonFromPB = JSONValue.parse(jsonFromPB);
-		assertEquals(parsedJsonSource, parsedJsonFromPB);
+	public void testWriteRead() throws Exception {
+		DefaultSchema schema = new DefaultSchema(NS, URI.create("http://www.example.com"));
+
+		DefaultTypeDefinition stringType = new DefaultTypeDefinition(new QName(NS, "String"));
+		stringType.setConstraint(Binding.get(String.class));
+		DefaultTypeDefinition doubleType = new DefaultTypeDefinition(new QName(NS, "Double"));
+		doubleType.setConstraint(Binding.get(Double.class));
+
+		DefaultTypeDefinition personType = new DefaultTypeDefinition(new QName(NS, "Person"));
+		new DefaultPropertyDefinition(new QName(NS, "name"), personType, stringType);
+		new DefaultPropertyDefinition(new QName("salary"), personType, doubleType);
+		schema.addType(personType);
+
+		DefaultInstanceCollection instances = new DefaultInstanceCollection();
+		MutableInstance jon = new DefaultInstance(personType, null);
+		jon.addProperty(new QName(NS, "name"), "Jon Doe");
+		jon.addProperty(new QName("salary"), 600000.0);
+		instances.add(jon);
+		MutableInstance jane = new DefaultInstance(personType, null);
+		jane.addProperty(new QName(NS, "name"), "Jane Doe");
+		instances.add(jane);
+
+		File file = File.createTempFile("instances", ".pb");
+		file.deleteOnExit();
+
+		// write
+		ProtocolBufferInstanceWriter writer = new ProtocolBufferInstanceWriter();
+		DefaultSchemaSpace schemaSpace = new DefaultSchemaSpace();
+		schemaSpace.addSchema(schema);
+		writer.setTargetSchema(schemaSpace);
+		writer.setInstances(instances);
+		writer.setTarget(new FileIOSupplier(file));
+		IOReport writeReport = writer.execute(null);
+		assertTrue(writeReport.isSuccess());
+		assertTrue(writeReport.getErrors().isEmpty());
+
+		// read
+		ProtocolBufferInstanceReader reader = new ProtocolBufferInstanceReader();
+		reader.setSourceSchema(schema);
+		reader.setSource(new FileIOSupplier(file));
+		IOReport readReport = reader.execute(null);
+		assertTrue(readReport.isSuccess());
+
+		try (ResourceIterator<Instance> it = reader.getInstances().iterator()) {
+			assertTrue(it.hasNext());
+			Instance readJon = it.next();
+			assertEquals(personType, readJon.getDefinition());
+			assertArrayEquals(new Object[] { "Jon Doe" },
+					readJon.getProperty(new QName(NS, "name")));
+			assertArrayEquals(new Object[] { 600000.0 },
+					readJon.getProperty(new QName("salary")));
+
+			assertTrue(it.hasNext());
+			Instance readJane = it.next();
+			assertEquals(personType, readJane.getDefinition());
+			assertArrayEquals(new Object[] { "Jane Doe" },
+					readJane.getProperty(new QName(NS, "name")));
+			assertEquals(null, readJane.getProperty(new QName("salary")));
+
+			assertFalse(it.hasNext());
+		}
 	}
 
 }
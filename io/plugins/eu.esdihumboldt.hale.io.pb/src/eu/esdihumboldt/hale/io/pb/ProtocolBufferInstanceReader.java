@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.pb;
+
+import java.io.IOException;
+
+import de.fhg.igd.slf4jplus.ALogger;
+import de.fhg.igd.slf4jplus.ALoggerFactory;
+import eu.esdihumboldt.hale.common.core.io.IOProviderConfigurationException;
+import eu.esdihumboldt.hale.common.core.io.ProgressIndicator;
+import eu.esdihumboldt.hale.common.core.io.report.IOReport;
+import eu.esdihumboldt.hale.common.core.io.report.IOReporter;
+import eu.esdihumboldt.hale.common.core.report.SimpleLog;
+import eu.esdihumboldt.hale.common.instance.io.impl.AbstractInstanceReader;
+import eu.esdihumboldt.hale.common.instance.model.InstanceCollection;
+import eu.esdihumboldt.hale.io.pb.internal.ProtocolBufferInstanceCollection;
+import eu.esdihumboldt.hale.io.pb.internal.StructToInstance;
+
+/**
+ * Reads instances from a stream of length-delimited Protocol Buffer messages
+ * as written by {@link ProtocolBufferInstanceWriter}. The instances are read
+ * on demand when iterating over the instance collection.
+ */
+public class ProtocolBufferInstanceReader extends AbstractInstanceReader {
+
+	private static final ALogger log = ALoggerFactory.getLogger(ProtocolBufferInstanceReader.class);
+
+	private InstanceCollection instances;
+
+	@Override
+	public InstanceCollection getInstances() {
+		return instances;
+	}
+
+	@Override
+	public boolean isCancelable() {
+		return false;
+	}
+
+	@Override
+	protected IOReport execute(ProgressIndicator progress, IOReporter reporter)
+			throws IOProviderConfigurationException, IOException {
+		progress.begin("Creating " + getDefaultTypeName() + " reader",
+				ProgressIndicator.UNKNOWN);
+
+		try {
+			StructToInstance translator = new StructToInstance(getSourceSchema(),
+					SimpleLog.fromLogger(log));
+			instances = new ProtocolBufferInstanceCollection(translator, getSource());
+
+			reporter.setSuccess(true);
+		} catch (Exception e) {
+			reporter.error("Error preparing reading {0}", getDefaultTypeName(), e);
+			reporter.setSuccess(false);
+		} finally {
+			progress.end();
+		}
+		return reporter;
+	}
+
+	@Override
+	protected String getDefaultTypeName() {
+		return "ProtocolBuffer";
+	}
+
+}
@@ -1,15 +1,12 @@
 
 package eu.esdihumboldt.hale.io.pb;
 
-import java.io.File;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.Reader;
-import java.nio.file.Files;
+import java.text.MessageFormat;
 
 import com.google.protobuf.Struct;
-import com.google.protobuf.Struct.Builder;
-import com.google.protobuf.util.JsonFormat;
 
 import eu.esdihumboldt.hale.common.core.io.IOProviderConfigurationException;
 import eu.esdihumboldt.hale.common.core.io.ProgressIndicator;
@@ -17,12 +14,17 @@ import eu.esdihumboldt.hale.common.core.io.report.IOReport;
 import eu.esdihumboldt.hale.common.core.io.report.IOReporter;
 import eu.esdihumboldt.hale.common.instance.io.InstanceWriter;
 import eu.esdihumboldt.hale.common.instance.io.impl.AbstractInstanceWriter;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.model.InstanceCollection;
+import eu.esdihumboldt.hale.common.instance.model.ResourceIterator;
 import eu.esdihumboldt.hale.common.schema.model.SchemaSpace;
-import eu.esdihumboldt.hale.io.json.JsonInstanceWriter;
-import eu.esdihumboldt.util.io.OutputSupplier;
+import eu.esdihumboldt.hale.io.pb.internal.InstanceToStruct;
 
 /**
- * Class to generate instances to Protocol Buffer.
+ * Class to generate instances to Protocol Buffer. The instances are written as
+ * a stream of length-delimited {@link Struct} messages, one per instance, that
+ * can be read again with {@link ProtocolBufferInstanceReader} or with
+ * {@link Struct#parseDelimitedFrom(java.io.InputStream)}.
  * 
  * @author Flaminia Catalli
  */
@@ -33,7 +35,7 @@ public class ProtocolBufferInstanceWriter extends AbstractInstanceWriter {
 
 	@Override
 	public boolean isCancelable() {
-		return false;
+		return true;
 	}
 
 	@Override
@@ -58,51 +60,32 @@ public class ProtocolBufferInstanceWriter extends AbstractInstanceWriter {
 	@Override
 	protected IOReport execute(ProgressIndicator progress, IOReporter reporter)
 			throws IOProviderConfigurationException, IOException {
-
-		progress.begin("Generating " + getDefaultTypeName(), ProgressIndicator.UNKNOWN);
-
-		// IDEA:
-		// 1. write instances into a JSON file
-		// 2. use the structBuilder to convert the content of the JSON file into
-		// PB
-		// https://stackoverflow.com/questions/38406211/how-to-convert-from-json-to-protobuf/38441368#38441368
-
-		File jsonFile = File.createTempFile("intermediate_json_file", ".json");
-		try {
-			JsonInstanceWriter writer = new JsonInstanceWriter(true);
-			writer.writeInstanceCollectionToJsonFile(getInstances(), jsonFile, reporter);
-			try (Reader jsonReader = Files.newBufferedReader(jsonFile.toPath(),
-					writer.getCharset())) {
-				writeJsonToProtocolBuffer(jsonReader, getTarget());
+		InstanceCollection instances = getInstances();
+		progress.begin("Generating " + getDefaultTypeName(),
+				(instances.hasSize()) ? (instances.size()) : (ProgressIndicator.UNKNOWN));
+
+		// each instance is converted and written as a separate message, so
+		// the instances don't have to be held in memory
+		InstanceToStruct translator = new InstanceToStruct(reporter);
+		int count = 0;
+		try (OutputStream out = new BufferedOutputStream(getTarget().getOutput());
+				ResourceIterator<Instance> it = instances.iterator()) {
+			while (it.hasNext() && !progress.isCanceled()) {
+				Struct message = translator.toStruct(it.next());
+				message.writeDelimitedTo(out);
+
+				count++;
+				progress.advance(1);
 			}
-			reporter.setSuccess(true);
+			reporter.setSuccess(!progress.isCanceled());
+			reporter.setSummary(MessageFormat.format("Wrote {0} instances", count));
 		} catch (Exception e) {
 			reporter.error(String.format("Error generating %s file", getDefaultTypeName()), e);
 			reporter.setSuccess(false);
 		} finally {
 			progress.end();
-			jsonFile.delete();
 		}
 		return reporter;
-
-	}
-
-	/**
-	 * Convert JSON to Protocol Buffer.
-	 * 
-	 * @param jsonSource reader of the JSON to convert
-	 * @param target supplier for the target output stream
-	 * @throws IOException if an error occurs reading, converting or writing
-	 *             data
-	 */
-	public static void writeJsonToProtocolBuffer(Reader jsonSource,
-			OutputSupplier<? extends OutputStream> target) throws IOException {
-		Builder structBuilder = Struct.newBuilder();
-		JsonFormat.parser().merge(jsonSource, structBuilder);
-
-		try (OutputStream out = target.getOutput()) {
-			structBuilder.build().writeTo(out);
-		}
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.pb.internal;
+
+/**
+ * Constants for representing instances as Protocol Buffer
+ * {@link com.google.protobuf.Struct} messages.<br>
+ * <br>
+ * Each instance is represented by a <code>Struct</code>. Properties are
+ * stored as lists of values, with the local name of the property as field
+ * name if the property namespace is the namespace of the instance type (or
+ * empty), and with the qualified name in the form
+ * <code>{namespace}localName</code> otherwise. Nested instances and groups
+ * are represented as nested <code>Struct</code>s.
+ */
+public interface InstanceStructConstants {
+
+	/**
+	 * Field holding the qualified name of the instance type. Mandatory for
+	 * root instances, for nested instances only present if the type differs
+	 * from the property type.
+	 */
+	public static final String FIELD_TYPE = "@type";
+
+	/**
+	 * Field holding the instance value.
+	 */
+	public static final String FIELD_VALUE = "@value";
+
+	/**
+	 * Field holding the WKT representation of a geometry.
+	 */
+	public static final String FIELD_GEOMETRY = "@geometry";
+
+	/**
+	 * Field holding the string representation of the CRS definition of a
+	 * geometry.
+	 */
+	public static final String FIELD_CRS = "@crs";
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.pb.internal;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+
+import javax.xml.namespace.QName;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKTWriter;
+
+import com.google.protobuf.ListValue;
+import com.google.protobuf.NullValue;
+import com.google.protobuf.Struct;
+import com.google.protobuf.Value;
+
+import eu.esdihumboldt.hale.common.convert.ConversionUtil;
+import eu.esdihumboldt.hale.common.core.report.SimpleLog;
+import eu.esdihumboldt.hale.common.instance.geometry.CRSDefinitionManager;
+import eu.esdihumboldt.hale.common.instance.model.Group;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.schema.geometry.CRSDefinition;
+import eu.esdihumboldt.hale.common.schema.geometry.GeometryProperty;
+import eu.esdihumboldt.hale.common.schema.model.ChildDefinition;
+import eu.esdihumboldt.hale.common.schema.model.DefinitionGroup;
+import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
+
+/**
+ * Converts instances to Protocol Buffer {@link Struct} messages. The
+ * structure of the messages is described in {@link InstanceStructConstants}.
+ * <br>
+ * <br>
+ * This class is not thread safe.
+ */
+public class InstanceToStruct implements InstanceStructConstants {
+
+	private final SimpleLog log;
+
+	private final WKTWriter wktWriter = new WKTWriter(3);
+
+	/**
+	 * Create a new converter.
+	 * 
+	 * @param log the log to report problems to
+	 */
+	public InstanceToStruct(SimpleLog log) {
+		super();
+		this.log = log;
+	}
+
+	/**
+	 * Convert an instance to a message.
+	 * 
+	 * @param instance the instance to convert
+	 * @return the message representing the instance
+	 */
+	public Struct toStruct(Instance instance) {
+		TypeDefinition type = instance.getDefinition();
+
+		Struct.Builder builder = Struct.newBuilder();
+		builder.putFields(FIELD_TYPE, stringValue(type.getName().toString()));
+		writeInstance(builder, instance, type.getName().getNamespaceURI());
+		return builder.build();
+	}
+
+	private void writeInstance(Struct.Builder builder, Instance instance, String namespace) {
+		Object value = instance.getValue();
+		if (value != null) {
+			builder.putFields(FIELD_VALUE, toValue(value, null, namespace));
+		}
+
+		writeProperties(builder, instance, namespace);
+	}
+
+	private void writeProperties(Struct.Builder builder, Group group, String namespace) {
+		DefinitionGroup definition = group.getDefinition();
+
+		for (QName name : group.getPropertyNames()) {
+			Object[] values = group.getProperty(name);
+			if (values == null || values.length == 0) {
+				continue;
+			}
+
+			ChildDefinition<?> child = (definition != null) ? (definition.getChild(name))
+					: (null);
+
+			ListValue.Builder list = ListValue.newBuilder();
+			for (Object value : values) {
+				list.addValues(toValue(value, child, namespace));
+			}
+			builder.putFields(toFieldName(name, definition, namespace),
+					Value.newBuilder().setListValue(list).build());
+		}
+	}
+
+	/**
+	 * Determine the field name for a property.
+	 * 
+	 * @param name the property name
+	 * @param parent the definition group the property belongs to, may be
+	 *            <code>null</code>
+	 * @param namespace the namespace of the root instance type
+	 * @return the field name
+	 */
+	private String toFieldName(QName name, DefinitionGroup parent, String namespace) {
+		String propertyNamespace = name.getNamespaceURI();
+		if (propertyNamespace.equals(namespace)) {
+			return name.getLocalPart();
+		}
+		if (propertyNamespace.isEmpty() && (parent == null
+				|| parent.getChild(new QName(namespace, name.getLocalPart())) == null)) {
+			// unambiguous, as there is no property with the same local name in
+			// the type namespace
+			return name.getLocalPart();
+		}
+		return "{" + propertyNamespace + "}" + name.getLocalPart();
+	}
+
+	private Value toValue(Object value, ChildDefinition<?> child, String namespace) {
+		if (value == null) {
+			return Value.newBuilder().setNullValue(NullValue.NULL_VALUE).build();
+		}
+		if (value instanceof Instance) {
+			Instance instance = (Instance) value;
+			Struct.Builder builder = Struct.newBuilder();
+			TypeDefinition type = instance.getDefinition();
+			if (type != null && (child == null || child.asProperty() == null
+					|| !type.equals(child.asProperty().getPropertyType()))) {
+				builder.putFields(FIELD_TYPE, stringValue(type.getName().toString()));
+			}
+			writeInstance(builder, instance, namespace);
+			return Value.newBuilder().setStructValue(builder).build();
+		}
+		if (value instanceof Group) {
+			Struct.Builder builder = Struct.newBuilder();
+			writeProperties(builder, (Group) value, namespace);
+			return Value.newBuilder().setStructValue(builder).build();
+		}
+		if (value instanceof GeometryProperty<?>) {
+			GeometryProperty<?> geometry = (GeometryProperty<?>) value;
+			return geometryValue(geometry.getGeometry(), geometry.getCRSDefinition());
+		}
+		if (value instanceof Geometry) {
+			return geometryValue((Geometry) value, null);
+		}
+		if (value instanceof Collection<?>) {
+			ListValue.Builder list = ListValue.newBuilder();
+			for (Object element : (Collection<?>) value) {
+				list.addValues(toValue(element, child, namespace));
+			}
+			return Value.newBuilder().setListValue(list).build();
+		}
+		if (value instanceof String) {
+			return stringValue((String) value);
+		}
+		if (value instanceof Boolean) {
+			return Value.newBuilder().setBoolValue((Boolean) value).build();
+		}
+		if (value instanceof Number && !(value instanceof Long || value instanceof BigInteger
+				|| value instanceof BigDecimal)) {
+			// numbers that can be represented as double without loss
+			return Value.newBuilder().setNumberValue(((Number) value).doubleValue()).build();
+		}
+
+		String text;
+		try {
+			text = ConversionUtil.getAs(value, String.class);
+		} catch (Exception e) {
+			log.warn("Could not convert value of type {0} to string, using toString() instead",
+					value.getClass().getName());
+			text = value.toString();
+		}
+		return stringValue(text);
+	}
+
+	private Value geometryValue(Geometry geometry, CRSDefinition crs) {
+		if (geometry == null) {
+			return Value.newBuilder().setNullValue(NullValue.NULL_VALUE).build();
+		}
+
+		Struct.Builder builder = Struct.newBuilder();
+		builder.putFields(FIELD_GEOMETRY, stringValue(wktWriter.write(geometry)));
+		if (crs != null) {
+			String crsString = CRSDefinitionManager.getInstance().asString(crs);
+			if (crsString != null) {
+				builder.putFields(FIELD_CRS, stringValue(crsString));
+			}
+		}
+		return Value.newBuilder().setStructValue(builder).build();
+	}
+
+	private static Value stringValue(String value) {
+		return Value.newBuilder().setStringValue(value).build();
+	}
+
+}
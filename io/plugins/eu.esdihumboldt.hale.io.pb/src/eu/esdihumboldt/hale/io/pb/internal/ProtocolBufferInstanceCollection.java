@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.pb.internal;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.Struct;
+
+import de.fhg.igd.slf4jplus.ALogger;
+import de.fhg.igd.slf4jplus.ALoggerFactory;
+import eu.esdihumboldt.hale.common.instance.model.Filter;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.model.InstanceCollection;
+import eu.esdihumboldt.hale.common.instance.model.InstanceReference;
+import eu.esdihumboldt.hale.common.instance.model.ResourceIterator;
+import eu.esdihumboldt.hale.common.instance.model.ext.InstanceCollection2;
+import eu.esdihumboldt.hale.common.instance.model.ext.InstanceIterator;
+import eu.esdihumboldt.hale.common.instance.model.impl.FilteredInstanceCollection;
+import eu.esdihumboldt.hale.common.instance.model.impl.PseudoInstanceReference;
+import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
+import eu.esdihumboldt.util.io.InputSupplier;
+
+/**
+ * Instance collection backed by a stream of length-delimited Protocol Buffer
+ * messages, one per instance. Instances are read one at a time when iterating
+ * over the collection.
+ */
+public class ProtocolBufferInstanceCollection implements InstanceCollection2 {
+
+	private static final ALogger log = ALoggerFactory
+			.getLogger(ProtocolBufferInstanceCollection.class);
+
+	private class MessageIterator implements InstanceIterator {
+
+		private boolean closed = false;
+
+		private InputStream in = null;
+
+		/**
+		 * The next message, if it was already read.
+		 */
+		private Struct next = null;
+
+		private boolean open() {
+			if (closed) {
+				return false;
+			}
+
+			if (in == null) {
+				try {
+					in = new BufferedInputStream(input.getInput());
+				} catch (IOException e) {
+					close("Error accessing Protocol Buffer source", e);
+				}
+			}
+			return true;
+		}
+
+		private Struct peek() {
+			if (next == null && open()) {
+				try {
+					next = Struct.parseDelimitedFrom(in);
+				} catch (IOException e) {
+					close("Error reading message from Protocol Buffer source", e);
+				}
+				if (next == null) {
+					// end of stream
+					close();
+				}
+			}
+			return next;
+		}
+
+		private void close(String message, Exception e) {
+			log.error(message, e);
+			close();
+			throw new IllegalStateException(message, e);
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+			next = null;
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+					log.error("Error closing Protocol Buffer source", e);
+				}
+				in = null;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return peek() != null;
+		}
+
+		@Override
+		public Instance next() {
+			Struct message = peek();
+			if (message == null) {
+				throw new NoSuchElementException();
+			}
+			next = null;
+
+			return translator.toInstance(message);
+		}
+
+		@Override
+		public TypeDefinition typePeek() {
+			Struct message = peek();
+			return (message != null) ? (translator.getType(message)) : (null);
+		}
+
+		@Override
+		public boolean supportsTypePeek() {
+			return true;
+		}
+
+		@Override
+		public void skip() {
+			if (next != null) {
+				next = null;
+				return;
+			}
+			if (!open()) {
+				return;
+			}
+
+			// skip the next message without parsing it
+			try {
+				int firstByte = in.read();
+				if (firstByte < 0) {
+					close();
+					return;
+				}
+				long remaining = CodedInputStream.readRawVarint32(firstByte, in);
+				while (remaining > 0) {
+					long skipped = in.skip(remaining);
+					if (skipped <= 0) {
+						throw new IOException("Unexpected end of stream");
+					}
+					remaining -= skipped;
+				}
+			} catch (IOException e) {
+				close("Error skipping message in Protocol Buffer source", e);
+			}
+		}
+
+	}
+
+	private final StructToInstance translator;
+
+	private final InputSupplier<? extends InputStream> input;
+
+	private Boolean empty;
+
+	/**
+	 * Create a new instance collection.
+	 * 
+	 * @param translator translator for creating instances from messages
+	 * @param input the input to load
+	 */
+	public ProtocolBufferInstanceCollection(StructToInstance translator,
+			InputSupplier<? extends InputStream> input) {
+		super();
+		this.translator = translator;
+		this.input = input;
+	}
+
+	@Override
+	public InstanceIterator iterator() {
+		return new MessageIterator();
+	}
+
+	@Override
+	public boolean hasSize() {
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return UNKNOWN_SIZE;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		if (empty != null) {
+			return empty;
+		}
+
+		try (ResourceIterator<Instance> it = iterator()) {
+			empty = !it.hasNext();
+		}
+		return empty;
+	}
+
+	@Override
+	public InstanceCollection select(Filter filter) {
+		return FilteredInstanceCollection.applyFilter(this, filter);
+	}
+
+	@Override
+	public InstanceReference getReference(Instance instance) {
+		return new PseudoInstanceReference(instance);
+	}
+
+	@Override
+	public Instance getInstance(InstanceReference reference) {
+		if (reference instanceof PseudoInstanceReference) {
+			return ((PseudoInstanceReference) reference).getInstance();
+		}
+
+		return null;
+	}
+
+	@Override
+	public boolean supportsFanout() {
+		return false;
+	}
+
+	@Override
+	public Map<TypeDefinition, InstanceCollection> fanout() {
+		return null;
+	}
+
+}
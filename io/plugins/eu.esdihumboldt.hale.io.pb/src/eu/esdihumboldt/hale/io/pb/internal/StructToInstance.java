@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.pb.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import javax.xml.namespace.QName;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+import com.google.protobuf.Struct;
+import com.google.protobuf.Value;
+
+import eu.esdihumboldt.hale.common.convert.ConversionUtil;
+import eu.esdihumboldt.hale.common.core.report.SimpleLog;
+import eu.esdihumboldt.hale.common.instance.geometry.CRSDefinitionManager;
+import eu.esdihumboldt.hale.common.instance.geometry.DefaultGeometryProperty;
+import eu.esdihumboldt.hale.common.instance.model.Instance;
+import eu.esdihumboldt.hale.common.instance.model.MutableGroup;
+import eu.esdihumboldt.hale.common.instance.model.MutableInstance;
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultGroup;
+import eu.esdihumboldt.hale.common.instance.model.impl.DefaultInstance;
+import eu.esdihumboldt.hale.common.schema.geometry.CRSDefinition;
+import eu.esdihumboldt.hale.common.schema.model.ChildDefinition;
+import eu.esdihumboldt.hale.common.schema.model.DefinitionGroup;
+import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
+import eu.esdihumboldt.hale.common.schema.model.TypeIndex;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.Binding;
+
+/**
+ * Converts Protocol Buffer {@link Struct} messages created with
+ * {@link InstanceToStruct} back to instances, based on the type definitions
+ * of a schema.<br>
+ * <br>
+ * This class is not thread safe.
+ */
+public class StructToInstance implements InstanceStructConstants {
+
+	private final TypeIndex types;
+
+	private final SimpleLog log;
+
+	private final WKTReader wktReader = new WKTReader();
+
+	/**
+	 * Create a new converter.
+	 * 
+	 * @param types the types of the instances to read
+	 * @param log the log to report problems to
+	 */
+	public StructToInstance(TypeIndex types, SimpleLog log) {
+		super();
+		this.types = types;
+		this.log = log;
+	}
+
+	/**
+	 * Convert a message to an instance.
+	 * 
+	 * @param struct the message representing the instance
+	 * @return the instance
+	 * @throws IllegalStateException if the type of the instance is unknown
+	 */
+	public Instance toInstance(Struct struct) {
+		TypeDefinition type = getType(struct);
+		if (type == null) {
+			throw new IllegalStateException("Message does not identify a known instance type");
+		}
+
+		MutableInstance instance = new DefaultInstance(type, null);
+		readInstance(instance, struct, type.getName().getNamespaceURI());
+		return instance;
+	}
+
+	/**
+	 * Get the type specified in a message.
+	 * 
+	 * @param struct the message
+	 * @return the type definition or <code>null</code> if the type is not
+	 *         specified or unknown
+	 */
+	public TypeDefinition getType(Struct struct) {
+		Value typeName = struct.getFieldsMap().get(FIELD_TYPE);
+		if (typeName == null) {
+			return null;
+		}
+		return types.getType(QName.valueOf(typeName.getStringValue()));
+	}
+
+	private void readInstance(MutableInstance instance, Struct struct, String namespace) {
+		Value value = struct.getFieldsMap().get(FIELD_VALUE);
+		if (value != null) {
+			instance.setValue(toSimpleValue(value, instance.getDefinition()));
+		}
+
+		readProperties(instance, struct, namespace);
+	}
+
+	private void readProperties(MutableGroup group, Struct struct, String namespace) {
+		DefinitionGroup definition = group.getDefinition();
+
+		for (Entry<String, Value> field : struct.getFieldsMap().entrySet()) {
+			String fieldName = field.getKey();
+			if (fieldName.startsWith("@")) {
+				continue;
+			}
+
+			ChildDefinition<?> child = getChild(definition, fieldName, namespace);
+			if (child == null) {
+				log.warn("Ignoring unknown property {0} of {1}", fieldName,
+						definition.getIdentifier());
+				continue;
+			}
+
+			for (Value value : field.getValue().getListValue().getValuesList()) {
+				group.addProperty(child.getName(), toPropertyValue(value, child, namespace));
+			}
+		}
+	}
+
+	private ChildDefinition<?> getChild(DefinitionGroup definition, String fieldName,
+			String namespace) {
+		if (fieldName.startsWith("{")) {
+			return definition.getChild(QName.valueOf(fieldName));
+		}
+
+		ChildDefinition<?> child = definition.getChild(new QName(namespace, fieldName));
+		if (child == null && !namespace.isEmpty()) {
+			child = definition.getChild(new QName(fieldName));
+		}
+		return child;
+	}
+
+	private Object toPropertyValue(Value value, ChildDefinition<?> child, String namespace) {
+		if (child.asGroup() != null) {
+			MutableGroup group = new DefaultGroup(child.asGroup());
+			readProperties(group, value.getStructValue(), namespace);
+			return group;
+		}
+
+		TypeDefinition propertyType = child.asProperty().getPropertyType();
+		if (value.hasStructValue() && !isGeometry(value.getStructValue())) {
+			Struct struct = value.getStructValue();
+			TypeDefinition type = getType(struct);
+			if (type == null) {
+				type = propertyType;
+			}
+
+			MutableInstance instance = new DefaultInstance(type, null);
+			readInstance(instance, struct, namespace);
+			return instance;
+		}
+
+		return toSimpleValue(value, propertyType);
+	}
+
+	private Object toSimpleValue(Value value, TypeDefinition type) {
+		Object result;
+		switch (value.getKindCase()) {
+		case BOOL_VALUE:
+			result = value.getBoolValue();
+			break;
+		case NUMBER_VALUE:
+			result = value.getNumberValue();
+			break;
+		case STRING_VALUE:
+			result = value.getStringValue();
+			break;
+		case LIST_VALUE:
+			List<Object> list = new ArrayList<>();
+			for (Value element : value.getListValue().getValuesList()) {
+				list.add(toSimpleValue(element, null));
+			}
+			return list;
+		case STRUCT_VALUE:
+			if (isGeometry(value.getStructValue())) {
+				return toGeometry(value.getStructValue());
+			}
+			log.warn("Ignoring unexpected structured value for type {0}",
+					(type != null) ? (type.getName()) : (null));
+			return null;
+		default:
+			return null;
+		}
+
+		if (type != null) {
+			Class<?> binding = type.getConstraint(Binding.class).getBinding();
+			if (!binding.isInstance(result)) {
+				try {
+					return ConversionUtil.getAs(result, binding);
+				} catch (Exception e) {
+					log.warn("Could not convert value {0} to {1}", result, binding.getName());
+				}
+			}
+		}
+		return result;
+	}
+
+	private boolean isGeometry(Struct struct) {
+		return struct.containsFields(FIELD_GEOMETRY);
+	}
+
+	private Object toGeometry(Struct struct) {
+		Geometry geometry;
+		try {
+			geometry = wktReader.read(struct.getFieldsMap().get(FIELD_GEOMETRY).getStringValue());
+		} catch (ParseException e) {
+			log.error("Could not read geometry", e);
+			return null;
+		}
+
+		CRSDefinition crs = null;
+		Value crsValue = struct.getFieldsMap().get(FIELD_CRS);
+		if (crsValue != null) {
+			crs = CRSDefinitionManager.getInstance().parse(crsValue.getStringValue());
+		}
+
+		return new DefaultGeometryProperty<>(crs, geometry);
+	}
+
+}
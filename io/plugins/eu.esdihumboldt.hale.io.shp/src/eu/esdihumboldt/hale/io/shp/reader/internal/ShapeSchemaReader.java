@@ -17,10 +17,15 @@ package eu.esdihumboldt.hale.io.shp.reader.internal;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 
 import javax.xml.namespace.QName;
 
@@ -168,6 +173,30 @@ public class ShapeSchemaReader extends AbstractCachedSchemaReader implements Sha
 		return schema;
 	}
 
+	/**
+	 * The schema also depends on the attribute table, the projection and the
+	 * code page files next to the Shapefile.
+	 */
+	@Override
+	protected Collection<URI> getSnapshotDependencies() {
+		URI location = getSource().getLocation();
+		String path = (location != null) ? (location.toString()) : (null);
+		int dot = (path != null) ? (path.lastIndexOf('.')) : (-1);
+		if (dot < 0 || !path.substring(dot + 1).equalsIgnoreCase("shp")) {
+			return Collections.emptyList();
+		}
+
+		boolean upperCase = path.substring(dot + 1).equals("SHP");
+		List<URI> dependencies = new ArrayList<>();
+		for (String extension : new String[] { "dbf", "prj", "cpg" }) {
+			if (upperCase) {
+				extension = extension.toUpperCase(Locale.ROOT);
+			}
+			dependencies.add(URI.create(path.substring(0, dot + 1) + extension));
+		}
+		return dependencies;
+	}
+
 	@Override
 	protected Charset getDefaultCharset() {
 		// default charset: ISO-8859-1
@@ -126,6 +126,11 @@ public class XmlInstanceValidator extends AbstractInstanceValidator {
 		return false;
 	}
 
+	@Override
+	public boolean isStreamingSupported() {
+		return true;
+	}
+
 	@Override
 	protected String getReportType() {
 		return PROVIDER_ID;
@@ -16,14 +16,27 @@
 
 package eu.esdihumboldt.hale.io.xml.validator.internal;
 
+import java.io.File;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
 import javax.xml.XMLConstants;
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.SchemaFactory;
 
+import org.w3c.dom.ls.LSInput;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import eu.esdihumboldt.hale.common.core.io.supplier.DefaultInputSupplier;
 import eu.esdihumboldt.hale.io.xml.validator.Report;
 import eu.esdihumboldt.hale.io.xml.validator.Validator;
@@ -36,6 +49,44 @@ import eu.esdihumboldt.hale.io.xml.validator.Validator;
  */
 public class XMLApiValidator implements Validator {
 
+	/**
+	 * Compiled schemas per list of schema locations. Schemas are immutable and
+	 * may be shared by validators on different threads.
+	 */
+	private static final Cache<List<URI>, CachedSchema> schemaCache = CacheBuilder.newBuilder()
+			.maximumSize(20).softValues().build();
+
+	/**
+	 * A compiled schema together with the last modification time of the
+	 * schema files it was compiled from, including imported and included
+	 * schema files.
+	 */
+	private static class CachedSchema {
+
+		private final javax.xml.validation.Schema schema;
+
+		private final Map<File, Long> files;
+
+		public CachedSchema(javax.xml.validation.Schema schema, Map<File, Long> files) {
+			this.schema = schema;
+			this.files = files;
+		}
+
+		/**
+		 * @return if none of the schema files was changed since the schema was
+		 *         compiled
+		 */
+		public boolean isUpToDate() {
+			for (Entry<File, Long> file : files.entrySet()) {
+				if (file.getKey().lastModified() != file.getValue()) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
 	private final URI[] schemaLocations;
 
 	/**
@@ -55,23 +106,16 @@ public class XMLApiValidator implements Validator {
 	public Report validate(InputStream xml) {
 		javax.xml.validation.Schema validateSchema;
 		try {
-			URI mainUri = null;
-			Source[] sources = new Source[schemaLocations.length];
-			for (int i = 0; i < this.schemaLocations.length; i++) {
-				URI schemaLocation = this.schemaLocations[i];
-
-				if (mainUri == null) { // use first schema location for main URI
-					mainUri = schemaLocation;
-				}
-
-				// load a WXS schema, represented by a Schema instance
-				DefaultInputSupplier dis = new DefaultInputSupplier(schemaLocation);
-				sources[i] = new StreamSource(dis.getInput());
+			// compiling the schema is expensive, reuse it for the same
+			// schema locations
+			List<URI> key = Arrays.asList(schemaLocations);
+			CachedSchema cached = schemaCache.get(key, this::createSchema);
+			if (!cached.isUpToDate()) {
+				// a schema file was changed since it was compiled
+				cached = createSchema();
+				schemaCache.put(key, cached);
 			}
-			// create a SchemaFactory capable of understanding WXS schemas
-			SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-			factory.setResourceResolver(new SchemaResolver(mainUri));
-			validateSchema = factory.newSchema(sources);
+			validateSchema = cached.schema;
 		} catch (Exception e) {
 			throw new IllegalStateException("Error parsing schema for XML validation", e); //$NON-NLS-1$
 		}
@@ -91,4 +135,52 @@ public class XMLApiValidator implements Validator {
 		}
 	}
 
+	private CachedSchema createSchema() throws Exception {
+		URI mainUri = null;
+		Source[] sources = new Source[schemaLocations.length];
+		for (int i = 0; i < this.schemaLocations.length; i++) {
+			URI schemaLocation = this.schemaLocations[i];
+
+			if (mainUri == null) { // use first schema location for main URI
+				mainUri = schemaLocation;
+			}
+
+			// load a WXS schema, represented by a Schema instance
+			DefaultInputSupplier dis = new DefaultInputSupplier(schemaLocation);
+			sources[i] = new StreamSource(dis.getInput());
+		}
+
+		// collect the locations of imported and included schemas
+		Set<URI> locations = new LinkedHashSet<>(Arrays.asList(schemaLocations));
+		SchemaResolver resolver = new SchemaResolver(mainUri);
+
+		// create a SchemaFactory capable of understanding WXS schemas
+		SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+		factory.setResourceResolver((type, namespaceURI, publicId, systemId, baseURI) -> {
+			LSInput input = resolver.resolveResource(type, namespaceURI, publicId, systemId,
+					baseURI);
+			if (input != null && input.getSystemId() != null) {
+				locations.add(URI.create(input.getSystemId()));
+			}
+			return input;
+		});
+		javax.xml.validation.Schema schema = factory.newSchema(sources);
+
+		// for schema files the last modification time is remembered, so a
+		// changed file is compiled again
+		Map<File, Long> files = new HashMap<>();
+		for (URI location : locations) {
+			if ("file".equalsIgnoreCase(location.getScheme())) {
+				try {
+					File file = new File(location);
+					files.put(file, file.lastModified());
+				} catch (IllegalArgumentException e) {
+					// not a valid file URI, not checked for changes
+				}
+			}
+		}
+
+		return new CachedSchema(schema, files);
+	}
+
 }
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.xsd.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+
+import org.apache.ws.commons.schema.XmlSchemaAppInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import eu.esdihumboldt.hale.common.core.io.report.IOMessage;
+import eu.esdihumboldt.hale.common.core.io.report.IOReport;
+import eu.esdihumboldt.hale.common.core.io.supplier.FileIOSupplier;
+import eu.esdihumboldt.hale.common.schema.model.ChildDefinition;
+import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
+import eu.esdihumboldt.hale.common.schema.model.constraint.type.MappingRelevantFlag;
+import eu.esdihumboldt.hale.common.schema.model.impl.DefaultTypeIndex;
+import eu.esdihumboldt.hale.common.test.TestUtil;
+import eu.esdihumboldt.hale.io.xsd.constraint.XmlAppInfo;
+import eu.esdihumboldt.hale.io.xsd.constraint.XmlElements;
+import eu.esdihumboldt.hale.io.xsd.model.XmlElement;
+import eu.esdihumboldt.hale.io.xsd.model.XmlIndex;
+import eu.esdihumboldt.hale.io.xsd.reader.internal.XmlTypeDefinition;
+
+/**
+ * Tests for loading XML schemas from schema snapshots.
+ */
+public class XmlSchemaSnapshotTest {
+
+	private static final String[] SCHEMAS = { "chapter03env.xsd", "chapter03ord.xsd",
+			"chapter03prod.xsd", "chapter03prod2.xsd" };
+
+	private static final String NS_ORD = "http://example.org/ord";
+
+	private static final String NS_APPINFO = "http://example.org/appinfo";
+
+	private static final String NS_META = "http://example.org/meta";
+
+	/**
+	 * Temporary folder for the schemas and snapshots
+	 */
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private File schemaDir;
+
+	private File snapshotDir;
+
+	/**
+	 * Start the conversion service needed to load the snapshots.
+	 */
+	@BeforeClass
+	public static void init() {
+		TestUtil.startConversionService();
+	}
+
+	/**
+	 * Copy the schemas and enable schema snapshots.
+	 * 
+	 * @throws Exception if copying the schemas fails
+	 */
+	@Before
+	public void setUp() throws Exception {
+		schemaDir = tmp.newFolder("schemas");
+		for (String schema : SCHEMAS) {
+			try (InputStream in = getClass()
+					.getResourceAsStream("/testdata/definitive/" + schema)) {
+				Files.copy(in, new File(schemaDir, schema).toPath(),
+						StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+
+		snapshotDir = tmp.newFolder("snapshots");
+		System.setProperty("hale.schema.snapshot_dir", snapshotDir.getAbsolutePath());
+	}
+
+	/**
+	 * Disable schema snapshots.
+	 */
+	@After
+	public void tearDown() {
+		System.clearProperty("hale.schema.snapshot_dir");
+	}
+
+	/**
+	 * Test that a schema loaded from a snapshot is equivalent to the schema
+	 * loaded from the source.
+	 * 
+	 * @throws Exception if reading the schema fails
+	 */
+	@Test
+	public void testLoadFromSnapshot() throws Exception {
+		XmlSchemaReader first = new XmlSchemaReader();
+		assertFalse(isLoadedFromSnapshot(read(first)));
+		assertEquals(1, snapshotDir.listFiles().length);
+
+		XmlSchemaReader second = new XmlSchemaReader();
+		assertTrue(isLoadedFromSnapshot(read(second)));
+
+		XmlIndex expected = first.getSchema();
+		XmlIndex schema = second.getSchema();
+		assertEquals(expected.getNamespace(), schema.getNamespace());
+		assertEquals(expected.getPrefixes(), schema.getPrefixes());
+		assertEquals(expected.getElements().keySet(), schema.getElements().keySet());
+		assertEquals(getNames(expected.getMappingRelevantTypes()),
+				getNames(schema.getMappingRelevantTypes()));
+		assertEquals(getNames(expected.getTypes()), getNames(schema.getTypes()));
+
+		for (TypeDefinition expectedType : expected.getTypes()) {
+			TypeDefinition type = schema.getType(expectedType.getName());
+			assertTrue(type instanceof XmlTypeDefinition);
+			assertEquals(getStructure(expectedType), getStructure(type));
+		}
+
+		// elements are associated to the restored types
+		XmlElement envelope = schema.getElements().get(new QName(NS_ORD, "envelope"));
+		assertNotNull(envelope);
+		TypeDefinition envType = envelope.getType();
+		assertEquals(schema.getType(envType.getName()), envType);
+		assertTrue(envType.getConstraint(MappingRelevantFlag.class).isEnabled());
+		assertTrue(envType.getConstraint(XmlElements.class).getElements().contains(envelope));
+		assertNotNull(envType.getChild(new QName(NS_ORD, "order")));
+	}
+
+	/**
+	 * Test that a snapshot is not used if an imported schema changed.
+	 * 
+	 * @throws Exception if reading the schema fails
+	 */
+	@Test
+	public void testImportChanged() throws Exception {
+		read(new XmlSchemaReader());
+		assertTrue(isLoadedFromSnapshot(read(new XmlSchemaReader())));
+
+		Files.write(new File(schemaDir, "chapter03prod2.xsd").toPath(),
+				"<!-- changed -->".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		assertFalse(isLoadedFromSnapshot(read(new XmlSchemaReader())));
+		assertTrue(isLoadedFromSnapshot(read(new XmlSchemaReader())));
+	}
+
+	/**
+	 * Test that the locations of the definitions and the app info constraints
+	 * are restored from a snapshot, with the locations relative to the schema
+	 * location if the same schema is loaded from a different location.
+	 * 
+	 * @throws Exception if reading the schema fails
+	 */
+	@Test
+	public void testLocationsAndAppInfo() throws Exception {
+		File first = copyAppInfoSchema("first");
+		File second = copyAppInfoSchema("second");
+
+		XmlSchemaReader firstReader = new XmlSchemaReader();
+		assertFalse(isLoadedFromSnapshot(read(firstReader, first)));
+		XmlSchemaReader secondReader = new XmlSchemaReader();
+		assertTrue(isLoadedFromSnapshot(read(secondReader, second)));
+
+		TypeDefinition expectedType = firstReader.getSchema()
+				.getType(new QName(NS_APPINFO, "ItemType"));
+		TypeDefinition type = secondReader.getSchema().getType(new QName(NS_APPINFO, "ItemType"));
+		assertNotNull(expectedType);
+		assertNotNull(type);
+
+		// locations
+		assertLocation(first, second, expectedType.getLocation(), type.getLocation());
+		ChildDefinition<?> expectedCode = expectedType.getChild(new QName(NS_APPINFO, "code"));
+		ChildDefinition<?> code = type.getChild(new QName(NS_APPINFO, "code"));
+		assertNotNull(code);
+		assertLocation(first, second, expectedCode.getLocation(), code.getLocation());
+
+		// app info of the type
+		List<? extends XmlSchemaAppInfo> appInfos = type.getConstraint(XmlAppInfo.class)
+				.getAppInfos();
+		assertEquals(1, appInfos.size());
+		assertEquals("http://example.org/meta/item", appInfos.get(0).getSource());
+		Element tag = getElement(appInfos.get(0).getMarkup());
+		assertEquals(NS_META, tag.getNamespaceURI());
+		assertEquals("tag", tag.getLocalName());
+		assertEquals("item", tag.getAttribute("name"));
+		assertEquals("Item with mixed content", tag.getTextContent());
+
+		// app info of the property
+		appInfos = code.asProperty().getConstraint(XmlAppInfo.class).getAppInfos();
+		assertEquals(1, appInfos.size());
+		assertNull(appInfos.get(0).getSource());
+		Element codeList = getElement(appInfos.get(0).getMarkup());
+		assertEquals(NS_META, codeList.getNamespaceURI());
+		assertEquals("codeList", codeList.getLocalName());
+		assertEquals("http://example.org/codelist", codeList.getTextContent());
+	}
+
+	private File copyAppInfoSchema(String folder) throws Exception {
+		File file = new File(tmp.newFolder(folder), "appinfo.xsd");
+		try (InputStream in = getClass().getResourceAsStream("/testdata/appinfo/appinfo.xsd")) {
+			Files.copy(in, file.toPath());
+		}
+		return file;
+	}
+
+	/**
+	 * Assert that a definition location restored from a snapshot refers to the
+	 * same position in the schema that was loaded.
+	 * 
+	 * @param first the schema file the snapshot was created from
+	 * @param second the schema file that was loaded from the snapshot
+	 * @param expected the location of the definition loaded from the first
+	 *            schema file
+	 * @param location the location of the definition restored from the
+	 *            snapshot
+	 */
+	private static void assertLocation(File first, File second, URI expected, URI location) {
+		assertNotNull(expected);
+		assertEquals(first.toURI().toString(), expected.toString().split("#")[0]);
+		assertEquals(URI.create(second.toURI().toString() + "#" + expected.getFragment()),
+				location);
+	}
+
+	private static Element getElement(NodeList markup) {
+		for (int i = 0; i < markup.getLength(); i++) {
+			if (markup.item(i) instanceof Element) {
+				return (Element) markup.item(i);
+			}
+		}
+		fail("No element contained in the app info");
+		return null;
+	}
+
+	private IOReport read(XmlSchemaReader reader) throws Exception {
+		return read(reader, new File(schemaDir, SCHEMAS[0]));
+	}
+
+	private IOReport read(XmlSchemaReader reader, File schema) throws Exception {
+		reader.setSharedTypes(new DefaultTypeIndex());
+		reader.setSource(new FileIOSupplier(schema));
+
+		reader.validate();
+		IOReport report = reader.execute(null);
+
+		assertTrue(report.isSuccess());
+		assertTrue("Errors are contained in the report", report.getErrors().isEmpty());
+		return report;
+	}
+
+	private static boolean isLoadedFromSnapshot(IOReport report) {
+		for (IOMessage message : report.getInfos()) {
+			if ("Loaded schema from snapshot".equals(message.getMessage())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Set<QName> getNames(Iterable<? extends TypeDefinition> types) {
+		Set<QName> names = new HashSet<>();
+		for (TypeDefinition type : types) {
+			names.add(type.getName());
+		}
+		return names;
+	}
+
+	/**
+	 * Get the names of the children of a type and the names of the types of
+	 * the properties.
+	 * 
+	 * @param type the type definition
+	 * @return the structure of the type
+	 */
+	private static List<String> getStructure(TypeDefinition type) {
+		List<String> structure = new ArrayList<>();
+		for (ChildDefinition<?> child : type.getChildren()) {
+			if (child.asProperty() != null) {
+				structure.add(child.getName() + ":"
+						+ child.asProperty().getPropertyType().getName());
+			}
+			else {
+				structure.add(child.getName().toString());
+			}
+		}
+		return structure;
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.xsd.constraint.factory;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.apache.ws.commons.schema.XmlSchemaAppInfo;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import eu.esdihumboldt.hale.common.core.io.Value;
+import eu.esdihumboldt.hale.common.core.io.ValueList;
+import eu.esdihumboldt.hale.common.core.io.ValueProperties;
+import eu.esdihumboldt.hale.common.schema.model.Definition;
+import eu.esdihumboldt.hale.common.schema.model.constraint.factory.ClassResolver;
+import eu.esdihumboldt.hale.common.schema.model.constraint.factory.TypeReferenceBuilder;
+import eu.esdihumboldt.hale.common.schema.model.constraint.factory.TypeResolver;
+import eu.esdihumboldt.hale.common.schema.model.constraint.factory.ValueConstraintFactory;
+import eu.esdihumboldt.hale.io.xsd.constraint.XmlAppInfo;
+import eu.esdihumboldt.util.xml.XmlUtil;
+
+/**
+ * Value constraint factory for {@link XmlAppInfo}. The markup of an app info
+ * is stored as XML string, wrapped in a <code>markup</code> element.
+ */
+public class XmlAppInfoFactory implements ValueConstraintFactory<XmlAppInfo> {
+
+	private static final String ELEMENT_MARKUP = "markup";
+
+	@Override
+	public Value store(XmlAppInfo constraint, TypeReferenceBuilder refBuilder) throws Exception {
+		if (constraint.getAppInfos().isEmpty()) {
+			return null;
+		}
+
+		ValueList result = new ValueList();
+
+		for (XmlSchemaAppInfo appInfo : constraint.getAppInfos()) {
+			ValueProperties props = new ValueProperties();
+
+			if (appInfo.getSource() != null) {
+				props.put("source", Value.of(appInfo.getSource()));
+			}
+			if (appInfo.getMarkup() != null) {
+				props.put("markup", Value.of(markupToString(appInfo.getMarkup())));
+			}
+
+			result.add(props.toValue());
+		}
+
+		return result.toValue();
+	}
+
+	@Override
+	public XmlAppInfo restore(Value value, Definition<?> definition, TypeResolver typeResolver,
+			ClassResolver classResolver) throws Exception {
+		List<XmlSchemaAppInfo> appInfos = new ArrayList<>();
+
+		ValueList list = value.as(ValueList.class);
+		if (list != null) {
+			for (Value val : list) {
+				ValueProperties props = val.as(ValueProperties.class);
+				if (props != null) {
+					XmlSchemaAppInfo appInfo = new XmlSchemaAppInfo();
+					appInfo.setSource(props.getSafe("source").as(String.class));
+
+					String markup = props.getSafe("markup").as(String.class);
+					if (markup != null) {
+						appInfo.setMarkup(stringToMarkup(markup));
+					}
+
+					appInfos.add(appInfo);
+				}
+			}
+		}
+
+		return new XmlAppInfo(appInfos);
+	}
+
+	private static String markupToString(NodeList markup) throws Exception {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		Document doc = factory.newDocumentBuilder().newDocument();
+
+		Element wrapper = doc.createElementNS(XMLConstants.NULL_NS_URI, ELEMENT_MARKUP);
+		doc.appendChild(wrapper);
+		for (int i = 0; i < markup.getLength(); i++) {
+			wrapper.appendChild(doc.importNode(markup.item(i), true));
+		}
+
+		return XmlUtil.serialize(wrapper, false);
+	}
+
+	private static NodeList stringToMarkup(String markup) throws Exception {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		Document doc = factory.newDocumentBuilder()
+				.parse(new InputSource(new StringReader(markup)));
+
+		return doc.getDocumentElement().getChildNodes();
+	}
+
+}
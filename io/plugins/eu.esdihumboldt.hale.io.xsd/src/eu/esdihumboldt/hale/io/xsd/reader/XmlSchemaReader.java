@@ -15,11 +15,13 @@
  */
 package eu.esdihumboldt.hale.io.xsd.reader;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -102,6 +104,7 @@ import eu.esdihumboldt.hale.common.schema.model.impl.AbstractDefinition;
 import eu.esdihumboldt.hale.common.schema.model.impl.DefaultGroupPropertyDefinition;
 import eu.esdihumboldt.hale.common.schema.model.impl.DefaultPropertyDefinition;
 import eu.esdihumboldt.hale.common.schema.model.impl.DefaultTypeDefinition;
+import eu.esdihumboldt.hale.common.schema.persist.SchemaSnapshots;
 import eu.esdihumboldt.hale.io.xsd.XMLSchemaIO;
 import eu.esdihumboldt.hale.io.xsd.anytype.CustomTypeContentConfiguration;
 import eu.esdihumboldt.hale.io.xsd.anytype.CustomTypeContentHelper;
@@ -127,6 +130,7 @@ import eu.esdihumboldt.hale.io.xsd.reader.internal.XmlAttributeGroupReferencePro
 import eu.esdihumboldt.hale.io.xsd.reader.internal.XmlAttributeReferenceProperty;
 import eu.esdihumboldt.hale.io.xsd.reader.internal.XmlElementReferenceProperty;
 import eu.esdihumboldt.hale.io.xsd.reader.internal.XmlGroupReferenceProperty;
+import eu.esdihumboldt.hale.io.xsd.reader.internal.XmlIndexSnapshot;
 import eu.esdihumboldt.hale.io.xsd.reader.internal.XmlTypeDefinition;
 import eu.esdihumboldt.hale.io.xsd.reader.internal.XmlTypeUtil;
 import eu.esdihumboldt.hale.io.xsd.reader.internal.constraint.ElementName;
@@ -216,6 +220,11 @@ public class XmlSchemaReader extends AbstractSchemaReader {
 	 */
 	public static final String PARAM_CUSTOM_TYPE_CONTENT = "customTypeContent";
 
+	/**
+	 * Location of the XML Schema schema, which is loaded from the bundle.
+	 */
+	private static final String XML_SCHEMA_LOCATION = "http://www.w3.org/2001/XMLSchema.xsd";
+
 	/**
 	 * The display name constraint for choices
 	 */
@@ -306,6 +315,12 @@ public class XmlSchemaReader extends AbstractSchemaReader {
 		progress.begin(Messages.getString("ApacheSchemaProvider.21"), ProgressIndicator.UNKNOWN); //$NON-NLS-1$
 		this.reporter = reporter;
 
+		File snapshotDir = SchemaSnapshots.getDefaultDirectory();
+		String snapshotKey = (snapshotDir != null) ? (SchemaSnapshots.computeKey(this)) : (null);
+		if (snapshotKey != null && loadFromSnapshot(snapshotDir, snapshotKey, reporter)) {
+			return reporter;
+		}
+
 		XmlSchema xmlSchema = null;
 		XmlSchemaCollection schemaCol = new XmlSchemaCollection();
 		// Check if the file is located on web
@@ -374,7 +389,7 @@ public class XmlSchemaReader extends AbstractSchemaReader {
 							+ "/");
 			XmlSchema xsSchema = schemaCol.read(ss, null);
 			is.close();
-			xsSchema.setSourceURI("http://www.w3.org/2001/XMLSchema.xsd");
+			xsSchema.setSourceURI(XML_SCHEMA_LOCATION);
 			XmlSchemaImport xmlSchemaImport = new XmlSchemaImport();
 			xmlSchemaImport.setSchema(xsSchema);
 
@@ -392,10 +407,69 @@ public class XmlSchemaReader extends AbstractSchemaReader {
 		applyRelevantElements(index);
 		applyCustomTypeContent(index);
 
+		if (snapshotKey != null && reporter.getErrors().isEmpty()) {
+			try {
+				// the schema also depends on all included and imported schemas
+				Collection<URI> dependencies = new ArrayList<>();
+				for (String schemaLocation : imports.keySet()) {
+					// the XML Schema schema is loaded from the bundle
+					if (!schemaLocation.equals(location.toString())
+							&& !schemaLocation.equals(XML_SCHEMA_LOCATION)) {
+						dependencies.add(new URI(schemaLocation));
+					}
+				}
+				if (SchemaSnapshots.store(snapshotDir, snapshotKey,
+						XmlIndexSnapshot.toSnapshot(index), dependencies)) {
+					reporter.info(new IOMessageImpl("Created schema snapshot", null));
+				}
+			} catch (Exception e) {
+				// snapshots are optional
+				reporter.warn(new IOMessageImpl("Failed to create schema snapshot", e));
+			}
+		}
+
 		reporter.setSuccess(true);
 		return reporter;
 	}
 
+	/**
+	 * Try loading the schema from a snapshot matching the current source and
+	 * configuration.
+	 * 
+	 * @param snapshotDir the snapshot directory
+	 * @param snapshotKey the snapshot key
+	 * @param reporter the reporter
+	 * @return if the schema was loaded from the snapshot
+	 */
+	private boolean loadFromSnapshot(File snapshotDir, String snapshotKey, IOReporter reporter) {
+		Value snapshot = SchemaSnapshots.load(snapshotDir, snapshotKey);
+		if (snapshot == null) {
+			return false;
+		}
+
+		// use a separate reporter, so a failed attempt does not affect the
+		// report when loading the schema from the source instead
+		IOReporter snapshotReporter = createReporter();
+		XmlIndex loaded = null;
+		try {
+			loaded = XmlIndexSnapshot.fromSnapshot(snapshot, getSource().getLocation(),
+					snapshotReporter);
+		} catch (Exception e) {
+			snapshotReporter.error(new IOMessageImpl("Failed to load schema snapshot", e));
+		}
+		if (loaded == null || !snapshotReporter.getErrors().isEmpty()) {
+			reporter.warn(new IOMessageImpl(
+					"Schema snapshot could not be loaded, loading schema from source", null));
+			return false;
+		}
+
+		reporter.info(new IOMessageImpl("Loaded schema from snapshot", null));
+		reporter.importMessages(snapshotReporter);
+		reporter.setSuccess(true);
+		index = loaded;
+		return true;
+	}
+
 	/**
 	 * Apply custom type content configuration.
 	 * 
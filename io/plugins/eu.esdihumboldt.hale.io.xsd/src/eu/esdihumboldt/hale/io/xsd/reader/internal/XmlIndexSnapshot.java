@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2024 wetransform GmbH
+ * 
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this distribution. If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * Contributors:
+ *     wetransform GmbH <http://www.wetransform.to>
+ */
+
+package eu.esdihumboldt.hale.io.xsd.reader.internal;
+
+import java.net.URI;
+import java.util.Map.Entry;
+
+import javax.xml.XMLConstants;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import eu.esdihumboldt.hale.common.core.io.Value;
+import eu.esdihumboldt.hale.common.core.io.impl.ElementValue;
+import eu.esdihumboldt.hale.common.core.io.report.IOReporter;
+import eu.esdihumboldt.hale.common.schema.model.TypeDefinition;
+import eu.esdihumboldt.hale.common.schema.model.constraint.factory.OsgiClassResolver;
+import eu.esdihumboldt.hale.common.schema.persist.SchemaSnapshots;
+import eu.esdihumboldt.hale.common.schema.persist.hsd.HaleSchemaConstants;
+import eu.esdihumboldt.hale.common.schema.persist.hsd.SchemaToXml;
+import eu.esdihumboldt.hale.common.schema.persist.hsd.XmlToSchema;
+import eu.esdihumboldt.hale.io.xsd.constraint.XmlElements;
+import eu.esdihumboldt.hale.io.xsd.model.XmlElement;
+import eu.esdihumboldt.hale.io.xsd.model.XmlIndex;
+
+/**
+ * Converts an {@link XmlIndex} to and from the representation stored in a
+ * schema snapshot (see {@link SchemaSnapshots}). The types are stored as HALE
+ * Schema Definition together with the namespace prefixes, the index of XML
+ * elements is restored from the {@link XmlElements} constraints of the types.
+ * The locations of the definitions are stored relative to the location of the
+ * XML schema if they are in the same directory or below, so they are still
+ * correct if the same schema is loaded from a different location.<br>
+ * <br>
+ * Not part of a snapshot are the XML attributes, attribute groups and groups
+ * that are only needed while reading the XML schema. The declared children of
+ * the types are loaded when they are first accessed.
+ */
+public final class XmlIndexSnapshot {
+
+	private static final String ELEMENT_INDEX = "xml-index";
+
+	private static final String ELEMENT_PREFIX = "prefix";
+
+	private static final String ATTRIBUTE_NAMESPACE = "namespace";
+
+	private static final String ATTRIBUTE_PREFIX = "prefix";
+
+	private XmlIndexSnapshot() {
+		// static methods only
+	}
+
+	/**
+	 * Create the snapshot representation of an XML index.
+	 * 
+	 * @param index the XML index
+	 * @return the snapshot representation
+	 * @throws Exception if creating the representation fails
+	 */
+	public static Value toSnapshot(XmlIndex index) throws Exception {
+		SchemaToXml encoder = new SchemaToXml();
+		encoder.setIncludeLocations(true);
+		encoder.setLocationBase(index.getLocation());
+		Element schema = encoder.schemaToXml(SchemaToXml.createBuilder(), index);
+		Document doc = schema.getOwnerDocument();
+
+		Element root = doc.createElementNS(XMLConstants.NULL_NS_URI, ELEMENT_INDEX);
+		for (Entry<String, String> prefix : index.getPrefixes().entrySet()) {
+			Element prefixElement = doc.createElementNS(XMLConstants.NULL_NS_URI,
+					ELEMENT_PREFIX);
+			prefixElement.setAttribute(ATTRIBUTE_NAMESPACE, prefix.getKey());
+			prefixElement.setAttribute(ATTRIBUTE_PREFIX, prefix.getValue());
+			root.appendChild(prefixElement);
+		}
+
+		if (schema.getParentNode() != null) {
+			schema.getParentNode().removeChild(schema);
+		}
+		root.appendChild(schema);
+		if (doc.getDocumentElement() == null) {
+			doc.appendChild(root);
+		}
+		return new ElementValue(root, null);
+	}
+
+	/**
+	 * Restore an XML index from its snapshot representation.
+	 * 
+	 * @param snapshot the snapshot representation
+	 * @param location the location of the XML schema
+	 * @param reporter the reporter
+	 * @return the XML index or <code>null</code> if the snapshot is not the
+	 *         representation of an XML index
+	 */
+	public static XmlIndex fromSnapshot(Value snapshot, URI location, IOReporter reporter) {
+		Element root = snapshot.getDOMRepresentation();
+		if (root == null || !ELEMENT_INDEX.equals(root.getLocalName())) {
+			return null;
+		}
+
+		Element schema = null;
+		for (Node node = root.getFirstChild(); node != null; node = node.getNextSibling()) {
+			if (node instanceof Element) {
+				Element element = (Element) node;
+				if (HaleSchemaConstants.NS.equals(element.getNamespaceURI())
+						&& "schema".equals(element.getLocalName())) {
+					schema = element;
+				}
+			}
+		}
+		if (schema == null) {
+			return null;
+		}
+
+		String namespace = schema.getAttribute(ATTRIBUTE_NAMESPACE);
+		XmlIndex index = XmlToSchema.populateSchema(schema, new XmlIndex(namespace, location),
+				XmlTypeDefinition::new, true, new OsgiClassResolver(), reporter, location);
+
+		for (Node node = root.getFirstChild(); node != null; node = node.getNextSibling()) {
+			if (node instanceof Element && ELEMENT_PREFIX.equals(node.getLocalName())) {
+				Element prefix = (Element) node;
+				index.getPrefixes().put(prefix.getAttribute(ATTRIBUTE_NAMESPACE),
+						prefix.getAttribute(ATTRIBUTE_PREFIX));
+			}
+		}
+
+		for (TypeDefinition type : index.getTypes()) {
+			for (XmlElement element : type.getConstraint(XmlElements.class).getElements()) {
+				index.getElements().put(element.getName(), element);
+			}
+		}
+
+		return index;
+	}
+
+}
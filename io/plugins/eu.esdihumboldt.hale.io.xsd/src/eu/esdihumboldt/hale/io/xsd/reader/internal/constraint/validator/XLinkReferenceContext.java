@@ -17,10 +17,10 @@ package eu.esdihumboldt.hale.io.xsd.reader.internal.constraint.validator;
 
 import java.text.MessageFormat;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import eu.esdihumboldt.hale.common.instance.extension.validation.ValidationLocation;
 import eu.esdihumboldt.hale.common.instance.extension.validation.report.InstanceValidationReporter;
@@ -28,14 +28,15 @@ import eu.esdihumboldt.hale.common.instance.extension.validation.report.impl.Def
 import eu.esdihumboldt.hale.io.xsd.reader.internal.constraint.XLinkReference;
 
 /**
- * Context for {@link XLinkReference} validation.
+ * Context for {@link XLinkReference} validation. Supports identifiers and
+ * references being added concurrently.
  * 
  * @author Simon Templer
  */
 public class XLinkReferenceContext {
 
-	private final Set<String> identifiers = new HashSet<>();
-	private final Map<String, ValidationLocation> localRefs = new HashMap<>();
+	private final Set<String> identifiers = ConcurrentHashMap.newKeySet();
+	private final Map<String, ValidationLocation> localRefs = new ConcurrentHashMap<>();
 
 	/**
 	 * Add an identifier used in an XML ID.
@@ -43,16 +43,8 @@ public class XLinkReferenceValidator implements PropertyConstraintValidator {
 			return;
 		}
 
-		Object contextObj = context.getContext(XLinkReferenceValidator.class);
-
-		XLinkReferenceContext ctx;
-		if (contextObj instanceof XLinkReferenceContext) {
-			ctx = (XLinkReferenceContext) contextObj;
-		}
-		else {
-			ctx = new XLinkReferenceContext();
-			context.putContext(XLinkReferenceValidator.class, ctx);
-		}
+		XLinkReferenceContext ctx = context.getOrCreateContext(XLinkReferenceValidator.class,
+				XLinkReferenceContext::new);
 
 		// collect local references
 		Reference ref = property.getConstraint(Reference.class);
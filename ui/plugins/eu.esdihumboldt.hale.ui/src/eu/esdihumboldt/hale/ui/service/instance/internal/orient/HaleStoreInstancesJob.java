@@ -59,7 +59,7 @@ public abstract class HaleStoreInstancesJob extends StoreInstancesJob {
 	 * @see StoreInstancesJob#updateInstance(MutableInstance)
 	 */
 	@Override
-	protected void updateInstance(MutableInstance instance) {
+	protected synchronized void updateInstance(MutableInstance instance) {
 		super.updateInstance(instance);
 
 		// generate metadata into instance
@@ -70,7 +70,7 @@ public abstract class HaleStoreInstancesJob extends StoreInstancesJob {
 	 * @see StoreInstancesJob#processInstance(Instance)
 	 */
 	@Override
-	protected void processInstance(Instance instance) {
+	protected synchronized void processInstance(Instance instance) {
 		super.processInstance(instance);
 
 		// population count
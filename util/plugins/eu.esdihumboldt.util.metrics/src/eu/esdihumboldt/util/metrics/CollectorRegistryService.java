@@ -15,6 +15,7 @@
 
 package eu.esdihumboldt.util.metrics;
 
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import eu.esdihumboldt.util.metrics.impl.HaleCollectorRegistryService;
@@ -46,4 +47,25 @@ public interface CollectorRegistryService {
 	 */
 	void register(Supplier<MetricsProvider> metricsProvider);
 
+	/**
+	 * Register a metric provider and return it if metric collection is
+	 * enabled. This allows code collecting metrics to skip collection
+	 * altogether if it is disabled.
+	 * 
+	 * @param <T> the metrics provider type
+	 * @param metricsProvider supplier for metrics provider that is called only
+	 *            if metric collection is enabled
+	 * @return the registered metrics provider or <code>null</code> if metric
+	 *         collection is disabled
+	 */
+	default <T extends MetricsProvider> T registerIfEnabled(Supplier<T> metricsProvider) {
+		AtomicReference<T> registered = new AtomicReference<>();
+		register(() -> {
+			T provider = metricsProvider.get();
+			registered.set(provider);
+			return provider;
+		});
+		return registered.get();
+	}
+
 }